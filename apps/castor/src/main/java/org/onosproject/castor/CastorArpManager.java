@@ -15,6 +15,7 @@
  */
 package org.onosproject.castor;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -93,7 +94,10 @@ public class CastorArpManager implements ArpService  {
     @Activate
     public void activate() {
         appId = coreService.getAppId(Castor.CASTOR_APP);
-        packetService.addProcessor(processor, PacketProcessor.director(1));
+        // only hand the processor ARP packets
+        packetService.addProcessor(processor, PacketProcessor.director(1),
+                DefaultTrafficSelector.builder().matchEthType(TYPE_ARP).build(),
+                ImmutableSet.of());
         requestPackets();
     }
 
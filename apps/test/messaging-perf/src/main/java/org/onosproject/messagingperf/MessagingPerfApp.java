@@ -15,11 +15,14 @@
  */
 package org.onosproject.messagingperf;
 
+import java.util.Arrays;
 import java.util.Dictionary;
 import java.util.List;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -123,6 +126,7 @@ public class MessagingPerfApp {
     private AtomicInteger sent = new AtomicInteger(0);
     private AtomicInteger attempted = new AtomicInteger(0);
     private AtomicInteger completed = new AtomicInteger(0);
+    private final Queue<Long> latencies = new ConcurrentLinkedQueue<>();
 
     private static final Serializer SERIALIZER = Serializer
             .using(
@@ -294,6 +298,7 @@ public class MessagingPerfApp {
     private void requestReply() {
         try {
             attempted.incrementAndGet();
+            long start = System.nanoTime();
             CompletableFuture<Data> response =
                     communicationService.<Data, Data>sendAndReceive(
                             data,
@@ -304,6 +309,7 @@ public class MessagingPerfApp {
             response.whenComplete((result, error) -> {
                 if (Objects.equals(data, result)) {
                     completed.incrementAndGet();
+                    latencies.add(System.nanoTime() - start);
                 }
                 messageSendingExecutor.submit(this::requestReply);
             });
@@ -349,7 +355,34 @@ public class MessagingPerfApp {
     }
 
     private void reportPerformance() {
-        log.info("Attempted: {} Completed: {}", attempted.getAndSet(0), completed.getAndSet(0));
+        long[] samples = drainLatencies();
+        log.info("Attempted: {} Completed: {} Latency mean: {}us p99: {}us",
+                 attempted.getAndSet(0), completed.getAndSet(0),
+                 mean(samples) / 1000, percentile(samples, 0.99) / 1000);
+    }
+
+    private long[] drainLatencies() {
+        long[] samples = new long[latencies.size()];
+        int count = 0;
+        Long latency;
+        while (count < samples.length && (latency = latencies.poll()) != null) {
+            samples[count++] = latency;
+        }
+        samples = Arrays.copyOf(samples, count);
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private static long mean(long[] sorted) {
+        return sorted.length == 0 ? 0 : Arrays.stream(sorted).sum() / sorted.length;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
     }
 
     private static class Data {
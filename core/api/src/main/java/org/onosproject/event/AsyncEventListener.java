@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.event;
+
+/**
+ * Entity capable of receiving events asynchronously, off the event dispatch
+ * thread.
+ * <p>
+ * Events relevant to such a listener are queued for it and delivered in order
+ * on a thread of its own, so that a slow listener delays neither the other
+ * listeners nor the dispatch of further events. When the queue is full, the
+ * {@link #overflowPolicy() overflow policy} of the listener applies.
+ * </p>
+ */
+public interface AsyncEventListener<E extends Event> extends EventListener<E> {
+
+    /**
+     * Default maximum number of events queued for a listener.
+     */
+    int DEFAULT_QUEUE_SIZE = 1_000;
+
+    /**
+     * Policy applied to an event arriving when the queue of a listener is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Replaces the queued event with the same subject, if any, by the new
+         * one; otherwise drops the oldest queued event.
+         */
+        COALESCE,
+
+        /**
+         * Drops the oldest queued event to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Makes the event dispatch thread wait for room in the queue, which
+         * stalls the dispatch of all events of the same loop meanwhile; meant
+         * only for listeners which must not miss any event.
+         */
+        BLOCK
+    }
+
+    /**
+     * Returns the maximum number of events queued for this listener.
+     *
+     * @return queue size
+     */
+    default int queueSize() {
+        return DEFAULT_QUEUE_SIZE;
+    }
+
+    /**
+     * Returns the policy applied when the queue of this listener is full;
+     * by default, events about the same subject are coalesced.
+     *
+     * @return overflow policy
+     */
+    default OverflowPolicy overflowPolicy() {
+        return OverflowPolicy.COALESCE;
+    }
+
+}
@@ -42,4 +42,14 @@ public interface Event<T extends Enum, S> {
      */
     S subject();
 
+    /**
+     * Returns the key telling apart the events of the same type which must
+     * not supersede one another when coalesced; by default the subject.
+     *
+     * @return coalescing key
+     */
+    default Object coalesceKey() {
+        return subject();
+    }
+
 }
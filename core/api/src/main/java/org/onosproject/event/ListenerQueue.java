@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.event;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded queue of the events pending delivery to an asynchronous listener,
+ * which delivers them in order using at most one thread at a time.
+ */
+final class ListenerQueue<E extends Event> implements Runnable {
+
+    private final AsyncEventListener<E> listener;
+    private final Executor executor;
+    private final BiConsumer<E, Throwable> problemReporter;
+    private final int capacity;
+
+    private final LinkedList<E> events = new LinkedList<>();
+    private boolean scheduled;
+    private boolean closed;
+    private long dropped;
+
+    /**
+     * Creates a queue for the given listener.
+     *
+     * @param listener        asynchronous listener
+     * @param executor        executor to deliver the events with
+     * @param problemReporter consumer of the errors thrown by the listener
+     */
+    ListenerQueue(AsyncEventListener<E> listener, Executor executor,
+                  BiConsumer<E, Throwable> problemReporter) {
+        this.listener = listener;
+        this.executor = executor;
+        this.problemReporter = problemReporter;
+        this.capacity = Math.max(listener.queueSize(), 1);
+    }
+
+    /**
+     * Queues the given event, already found relevant to the listener, for
+     * delivery, applying the overflow policy of the listener if the queue
+     * is full.
+     *
+     * @param event event to deliver
+     */
+    void offer(E event) {
+        synchronized (this) {
+            if (closed || !enqueue(event) || scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        executor.execute(this);
+    }
+
+    // Adds the event to the queue, unless it was coalesced with a queued one
+    // or the queue was closed while waiting for room.
+    private boolean enqueue(E event) {
+        if (events.size() >= capacity) {
+            switch (listener.overflowPolicy()) {
+                case COALESCE:
+                    if (coalesce(event)) {
+                        return false;
+                    }
+                    events.poll();
+                    dropped++;
+                    break;
+                case BLOCK:
+                    try {
+                        while (events.size() >= capacity && !closed) {
+                            wait();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        dropped++;
+                        return false;
+                    }
+                    if (closed) {
+                        return false;
+                    }
+                    break;
+                case DROP_OLDEST:
+                default:
+                    events.poll();
+                    dropped++;
+                    break;
+            }
+        }
+        events.add(event);
+        return true;
+    }
+
+    // Replaces the queued event of the same type and subject by the given one.
+    private boolean coalesce(E event) {
+        List<Object> key = coalesceKey(event);
+        ListIterator<E> iterator = events.listIterator();
+        while (iterator.hasNext()) {
+            if (key.equals(coalesceKey(iterator.next()))) {
+                iterator.set(event);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Object> coalesceKey(Event event) {
+        return Arrays.asList(event.type(), event.coalesceKey());
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            E event;
+            synchronized (this) {
+                event = events.poll();
+                if (event == null || closed) {
+                    scheduled = false;
+                    return;
+                }
+                notifyAll();
+            }
+            try {
+                listener.event(event);
+            } catch (Exception error) {
+                problemReporter.accept(event, error);
+            }
+        }
+    }
+
+    /**
+     * Discards the queued events and stops delivering further ones.
+     */
+    synchronized void close() {
+        closed = true;
+        events.clear();
+        notifyAll();
+    }
+
+    /**
+     * Returns the number of events waiting for delivery.
+     *
+     * @return queue depth
+     */
+    synchronized int size() {
+        return events.size();
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     *
+     * @return number of dropped events
+     */
+    synchronized long dropped() {
+        return dropped;
+    }
+}
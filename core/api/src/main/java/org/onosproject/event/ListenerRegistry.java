@@ -15,23 +15,43 @@
  */
 package org.onosproject.event;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.slf4j.Logger;
 
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.SharedExecutors.getPoolThreadExecutor;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Base implementation of an event sink and a registry capable of tracking
  * listeners and dispatching events to them as part of event sink processing.
+ * <p>
+ * Events are delivered to {@link AsyncEventListener asynchronous listeners}
+ * through a bounded queue per listener rather than on the processing thread,
+ * using at most one thread of the shared pool per listener at a time.
+ * </p>
  */
 public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         implements ListenerService<E, L>, EventSink<E> {
 
     private static final long LIMIT = 1_800; // ms
 
+    private static final String QUEUED = ".queuedEvents";
+    private static final String DROPPED = ".droppedEvents";
+    private static final String PROCESSING = ".processing";
+
     private final Logger log = getLogger(getClass());
 
     private long lastStart;
@@ -42,9 +62,25 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
      */
     protected final Set<L> listeners = new CopyOnWriteArraySet<>();
 
+    private final Map<L, ListenerQueue<E>> queues = new ConcurrentHashMap<>();
+
+    private volatile MetricsService metricsService;
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+    // Classes of the asynchronous listeners whose queue metrics are exported
+    private final Set<Class<?>> exportedClasses = new HashSet<>();
+    // Time taken by listeners to process events, by listener class
+    private final Map<Class<?>, Timer> listenerTimers = new ConcurrentHashMap<>();
+
     @Override
+    @SuppressWarnings("unchecked")
     public void addListener(L listener) {
         checkNotNull(listener, "Listener cannot be null");
+        if (listener instanceof AsyncEventListener) {
+            queues.computeIfAbsent(listener, l -> new ListenerQueue<>(
+                    (AsyncEventListener<E>) l, getPoolThreadExecutor(), this::reportProblem));
+            exportQueueMetrics(listener.getClass());
+        }
         listeners.add(listener);
     }
 
@@ -54,6 +90,10 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         if (!listeners.remove(listener)) {
             log.warn("Listener {} not registered", listener);
         }
+        ListenerQueue<E> queue = queues.remove(listener);
+        if (queue != null) {
+            queue.close();
+        }
     }
 
     @Override
@@ -63,7 +103,18 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
                 lastListener = listener;
                 lastStart = System.currentTimeMillis();
                 if (listener.isRelevant(event)) {
-                    listener.event(event);
+                    ListenerQueue<E> queue = listener instanceof AsyncEventListener ?
+                            queues.get(listener) : null;
+                    Timer.Context timer = startTimer(listenerTimer(listener));
+                    try {
+                        if (queue != null) {
+                            queue.offer(event);
+                        } else {
+                            listener.event(event);
+                        }
+                    } finally {
+                        stopTimer(timer);
+                    }
                 }
                 lastStart = 0;
             } catch (Exception error) {
@@ -86,6 +137,91 @@ public class ListenerRegistry<E extends Event, L extends EventListener<E>>
         }
     }
 
+    /**
+     * Returns the number of events queued for delivery to the given
+     * asynchronous listener.
+     *
+     * @param listener asynchronous listener
+     * @return number of queued events; 0 if the listener is not registered
+     */
+    public int queuedEvents(L listener) {
+        ListenerQueue<E> queue = queues.get(listener);
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Returns the number of events not delivered to the given asynchronous
+     * listener because its queue was full.
+     *
+     * @param listener asynchronous listener
+     * @return number of dropped events; 0 if the listener is not registered
+     */
+    public long droppedEvents(L listener) {
+        ListenerQueue<E> queue = queues.get(listener);
+        return queue != null ? queue.dropped() : 0;
+    }
+
+    /**
+     * Exports, through the given metrics feature, the time taken by the
+     * listeners to process events and the number of queued and dropped events
+     * of the asynchronous listeners, by listener class.
+     *
+     * @param service   metrics service
+     * @param component metrics component
+     * @param feature   metrics feature
+     */
+    public synchronized void enableMetrics(MetricsService service,
+                                           MetricsComponent component,
+                                           MetricsFeature feature) {
+        checkNotNull(service, "Metrics service cannot be null");
+        disableMetrics();
+        metricsComponent = component;
+        metricsFeature = feature;
+        metricsService = service;
+        queues.keySet().forEach(listener -> exportQueueMetrics(listener.getClass()));
+    }
+
+    /**
+     * Stops exporting the metrics of the listeners.
+     */
+    public synchronized void disableMetrics() {
+        if (metricsService != null) {
+            exportedClasses.forEach(cls -> {
+                metricsService.removeMetric(metricsComponent, metricsFeature, cls.getName() + QUEUED);
+                metricsService.removeMetric(metricsComponent, metricsFeature, cls.getName() + DROPPED);
+            });
+            exportedClasses.clear();
+            listenerTimers.keySet().forEach(cls -> metricsService.removeMetric(
+                    metricsComponent, metricsFeature, cls.getName() + PROCESSING));
+            listenerTimers.clear();
+            metricsService = null;
+        }
+    }
+
+    // Returns the timer of the listeners of the same class, if metrics are exported.
+    private Timer listenerTimer(L listener) {
+        MetricsService service = metricsService;
+        if (service == null) {
+            return null;
+        }
+        return listenerTimers.computeIfAbsent(listener.getClass(), cls -> service.createTimer(
+                metricsComponent, metricsFeature, cls.getName() + PROCESSING));
+    }
+
+    // Registers the gauges of the listeners of the given class, unless done so.
+    private synchronized void exportQueueMetrics(Class<?> listenerClass) {
+        if (metricsService != null && exportedClasses.add(listenerClass)) {
+            metricsService.registerMetric(metricsComponent, metricsFeature, listenerClass.getName() + QUEUED,
+                    (Gauge<Integer>) () -> queues.entrySet().stream()
+                            .filter(e -> e.getKey().getClass() == listenerClass)
+                            .mapToInt(e -> e.getValue().size()).sum());
+            metricsService.registerMetric(metricsComponent, metricsFeature, listenerClass.getName() + DROPPED,
+                    (Gauge<Long>) () -> queues.entrySet().stream()
+                            .filter(e -> e.getKey().getClass() == listenerClass)
+                            .mapToLong(e -> e.getValue().dropped()).sum());
+        }
+    }
+
     /**
      * Reports a problem encountered while processing an event.
      *
@@ -20,6 +20,8 @@ import org.onosproject.event.AbstractEvent;
 import org.onosproject.net.Device;
 import org.onosproject.net.Port;
 
+import java.util.Arrays;
+
 import static com.google.common.base.MoreObjects.toStringHelper;
 
 /**
@@ -126,6 +128,12 @@ public class DeviceEvent extends AbstractEvent<DeviceEvent.Type, Device> {
         return port;
     }
 
+    // Events about different ports of the same device are told apart
+    @Override
+    public Object coalesceKey() {
+        return Arrays.asList(subject(), port);
+    }
+
     @Override
     public String toString() {
         if (port == null) {
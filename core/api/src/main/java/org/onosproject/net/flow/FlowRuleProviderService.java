@@ -51,6 +51,27 @@ public interface FlowRuleProviderService extends ProviderService<FlowRuleProvide
      */
     void pushFlowMetricsWithoutFlowMissing(DeviceId deviceId, Iterable<FlowEntry> flowEntries);
 
+    /**
+     * Pushes a part of the collection of flow entries currently applied on
+     * the given device, such as one reply of a multipart exchange, so that
+     * it gets reconciled as soon as it arrives. The parts answering a request
+     * must be pushed in order; the flow rules missing from the device are
+     * only processed once the last one is pushed. A part answering another
+     * request discards the unfinished previous one.
+     * <p>
+     * By default, each part is pushed without flowMissing process.
+     * </p>
+     *
+     * @param deviceId device identifier
+     * @param requestId identifier of the request the part answers
+     * @param flowEntries flow rules of this part
+     * @param last whether this is the last part answering the request
+     */
+    default void pushFlowMetricsPart(DeviceId deviceId, long requestId,
+                                     Iterable<FlowEntry> flowEntries, boolean last) {
+        pushFlowMetricsWithoutFlowMissing(deviceId, flowEntries);
+    }
+
     /**
      * Pushes the collection of table statistics entries currently extracted
      * from the given device.
@@ -55,4 +55,14 @@ public interface PacketProcessorEntry {
      * @return average time in nanos
      */
     long averageNanos();
+
+    /**
+     * Returns the number of packets not handed to the processor since it
+     * was added, as they were not among its packets of interest.
+     *
+     * @return number of packets skipped
+     */
+    default long skippedPackets() {
+        return 0;
+    }
 }
@@ -21,6 +21,7 @@ import org.onosproject.net.flow.TrafficSelector;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Service for intercepting data plane packets and for emitting synthetic
@@ -42,7 +43,29 @@ public interface PacketService {
      */
     void addProcessor(PacketProcessor processor, int priority);
 
-    // TODO allow processors to register for particular types of packets
+    /**
+     * Adds the specified processor to the list of packet processors, to be
+     * handed only the packets matching the given selector and received by
+     * one of the given devices.
+     * <p>
+     * Packets are selected by the ETH_TYPE, IP_PROTO, TCP_SRC, TCP_DST,
+     * UDP_SRC and UDP_DST criteria of the selector; its other criteria are
+     * not used. Implementations not supporting the selection hand the
+     * processor all packets, as {@link #addProcessor(PacketProcessor, int)}
+     * does, so processors should still check the packets they handle.
+     * </p>
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param selector  selector of the packets of interest
+     * @param devices   devices receiving the packets of interest; empty for all
+     * @throws java.lang.IllegalArgumentException if the selector criteria
+     *                                            contradict each other
+     */
+    default void addProcessor(PacketProcessor processor, int priority,
+                              TrafficSelector selector, Set<DeviceId> devices) {
+        addProcessor(processor, priority);
+    }
 
     /**
      * Removes the specified processor from the processing pipeline.
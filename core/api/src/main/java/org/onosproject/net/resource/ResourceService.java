@@ -17,10 +17,12 @@ package org.onosproject.net.resource;
 
 import com.google.common.annotations.Beta;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.onosproject.event.ListenerService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -81,6 +83,29 @@ public interface ResourceService extends ResourceQueryService, ListenerService<R
         return allocate(consumer, Arrays.asList(resources));
     }
 
+    /**
+     * Allocates the resources of several requests, each to its own consumer.
+     * Every request is allocated transactionally on its own: all of its allocations are made
+     * or none is, regardless of the outcome of the other requests. Allocating many small
+     * requests at once may take fewer transactions than allocating them one by one.
+     *
+     * @param requests resources to be allocated, keyed by the consumer they are allocated to
+     * @return allocation information of the requests which succeeded, keyed by their consumer
+     */
+    default Map<ResourceConsumer, List<ResourceAllocation>> allocate(
+            Map<ResourceConsumer, ? extends List<? extends Resource>> requests) {
+        checkNotNull(requests);
+
+        ImmutableMap.Builder<ResourceConsumer, List<ResourceAllocation>> allocations = ImmutableMap.builder();
+        requests.forEach((consumer, resources) -> {
+            List<ResourceAllocation> allocated = allocate(consumer, resources);
+            if (!allocated.isEmpty()) {
+                allocations.put(consumer, allocated);
+            }
+        });
+        return allocations.build();
+    }
+
     /**
      * Releases the specified resource allocation.
      *
@@ -20,7 +20,11 @@ import org.onosproject.store.Store;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Service for storing resource and consumer information.
@@ -62,6 +66,25 @@ public interface ResourceStore extends Store<ResourceEvent, ResourceStoreDelegat
      */
     boolean allocate(List<? extends Resource> resources, ResourceConsumer consumer);
 
+    /**
+     * Allocates the resources of several requests, each to its own consumer.
+     * Every request is allocated in transactional way on its own; i.e. either all or none
+     * of the resources of a request are allocated to its consumer, regardless of the outcome
+     * of the other requests. Implementations may allocate the requests in fewer transactions
+     * than one per request.
+     *
+     * @param requests resources to be allocated, keyed by the consumer they are allocated to
+     * @return consumers whose requests were allocated
+     */
+    default Set<ResourceConsumer> allocate(Map<ResourceConsumer, ? extends List<? extends Resource>> requests) {
+        checkNotNull(requests);
+
+        return requests.entrySet().stream()
+                .filter(request -> allocate(request.getValue(), request.getKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Releases the specified allocated resources in transactional way.
      * The state after completion of this method is all the resources
@@ -93,7 +93,7 @@ public abstract class AbstractPathService
         // Otherwise get all paths between the source and destination edge
         // devices.
         Topology topology = topologyService.currentTopology();
-        Set<Path> paths = topologyService.getPaths(topology, srcDevice,
+        Set<Path> paths = infrastructurePaths(topology, srcDevice,
                 dstDevice, internalWeigher);
 
         return edgeToEdgePaths(srcEdge, dstEdge, paths, internalWeigher);
@@ -202,6 +202,22 @@ public abstract class AbstractPathService
         return edgeToEdgePathsDisjoint(srcEdge, dstEdge, paths, internalWeigher);
     }
 
+    /**
+     * Returns the shortest paths between the specified infrastructure
+     * devices in the given topology. Subclasses may override this to reuse
+     * previously computed paths.
+     *
+     * @param topology topology
+     * @param src      source device
+     * @param dst      destination device
+     * @param weigher  link weigher
+     * @return set of shortest paths
+     */
+    protected Set<Path> infrastructurePaths(Topology topology, DeviceId src,
+                                            DeviceId dst, LinkWeigher weigher) {
+        return topologyService.getPaths(topology, src, dst, weigher);
+    }
+
     // Finds the host edge link if the element ID is a host id of an existing
     // host. Otherwise, if the host does not exist, it returns null and if
     // the element ID is not a host ID, returns NOT_HOST edge link.
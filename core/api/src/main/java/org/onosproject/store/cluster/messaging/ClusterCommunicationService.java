@@ -15,10 +15,14 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -79,6 +83,26 @@ public interface ClusterCommunicationService {
             Function<M, byte[]> encoder,
             NodeId toNodeId);
 
+    /**
+     * Sends a message to the specified controller node, serializing it
+     * straight into the transport buffer instead of an intermediate array.
+     *
+     * @param message message to send
+     * @param subject message subject
+     * @param writer function for writing message to a stream
+     * @param toNodeId destination node identifier
+     * @param <M> message type
+     * @return future that is completed when the message is sent
+     */
+    default <M> CompletableFuture<Void> unicastBuffered(M message,
+            MessageSubject subject,
+            BiConsumer<M, OutputStream> writer,
+            NodeId toNodeId) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.accept(message, stream);
+        return unicast(stream.toByteArray(), subject, Function.identity(), toNodeId);
+    }
+
     /**
      * Multicasts a message to a set of controller nodes.
      *
@@ -111,6 +135,30 @@ public interface ClusterCommunicationService {
             Function<byte[], R> decoder,
             NodeId toNodeId);
 
+    /**
+     * Sends a message and expects a reply, serializing the request straight
+     * into the transport buffer and decoding the reply from a read-only view.
+     *
+     * @param message message to send
+     * @param subject message subject
+     * @param writer function for writing request to a stream
+     * @param decoder function for decoding response from a read-only buffer
+     * @param toNodeId recipient node identifier
+     * @param <M> request type
+     * @param <R> reply type
+     * @return reply future
+     */
+    default <M, R> CompletableFuture<R> sendAndReceiveBuffered(M message,
+            MessageSubject subject,
+            BiConsumer<M, OutputStream> writer,
+            Function<ByteBuffer, R> decoder,
+            NodeId toNodeId) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        writer.accept(message, stream);
+        return sendAndReceive(stream.toByteArray(), subject, Function.identity(),
+                bytes -> decoder.apply(ByteBuffer.wrap(bytes).asReadOnlyBuffer()), toNodeId);
+    }
+
     /**
      * Adds a new subscriber for the specified message subject.
      *
@@ -157,6 +205,47 @@ public interface ClusterCommunicationService {
             Consumer<M> handler,
             Executor executor);
 
+    /**
+     * Adds a new subscriber for the specified message subject, whose decoder
+     * is handed a read-only view of the received payload instead of a copy.
+     * The view is only valid while the decoder runs.
+     *
+     * @param subject message subject
+     * @param decoder decoder for resurrecting incoming message
+     * @param handler handler function that processes the incoming message and produces a reply
+     * @param encoder encoder for serializing reply
+     * @param executor executor to run this handler on
+     * @param <M> incoming message type
+     * @param <R> reply message type
+     */
+    default <M, R> void addBufferSubscriber(MessageSubject subject,
+            Function<ByteBuffer, M> decoder,
+            Function<M, R> handler,
+            Function<R, byte[]> encoder,
+            Executor executor) {
+        addSubscriber(subject, bytes -> decoder.apply(ByteBuffer.wrap(bytes).asReadOnlyBuffer()),
+                handler, encoder, executor);
+    }
+
+    /**
+     * Adds a new subscriber for the specified message subject, whose decoder
+     * is handed a read-only view of the received payload instead of a copy.
+     * The view is only valid while the decoder runs.
+     *
+     * @param subject message subject
+     * @param decoder decoder to resurrecting incoming message
+     * @param handler handler for handling message
+     * @param executor executor to run this handler on
+     * @param <M> incoming message type
+     */
+    default <M> void addBufferSubscriber(MessageSubject subject,
+            Function<ByteBuffer, M> decoder,
+            Consumer<M> handler,
+            Executor executor) {
+        addSubscriber(subject, bytes -> decoder.apply(ByteBuffer.wrap(bytes).asReadOnlyBuffer()),
+                handler, executor);
+    }
+
     /**
      * Removes a subscriber for the specified message subject.
      *
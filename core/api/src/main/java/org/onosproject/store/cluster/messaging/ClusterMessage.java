@@ -153,6 +153,44 @@ public class ClusterMessage {
                 payloadBytes);
     }
 
+    /**
+     * Encodes the envelope that precedes a payload of the given length, so
+     * that the envelope followed by the payload decodes with
+     * {@link #fromBytes(byte[])}.
+     *
+     * @param sender        message sender
+     * @param subject       message subject
+     * @param payloadLength length of the payload in bytes
+     * @return envelope bytes
+     */
+    public static byte[] encodeEnvelope(NodeId sender, MessageSubject subject, int payloadLength) {
+        byte[] senderBytes = sender.toString().getBytes(Charsets.UTF_8);
+        byte[] subjectBytes = subject.value().getBytes(Charsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(12 + senderBytes.length + subjectBytes.length);
+        buffer.putInt(senderBytes.length);
+        buffer.put(senderBytes);
+        buffer.putInt(subjectBytes.length);
+        buffer.put(subjectBytes);
+        buffer.putInt(payloadLength);
+        return buffer.array();
+    }
+
+    /**
+     * Returns a read-only view of the payload of an encoded cluster message,
+     * without copying it.
+     *
+     * @param buffer encoded cluster message; its position is left unchanged
+     * @return payload view
+     */
+    public static ByteBuffer payloadOf(ByteBuffer buffer) {
+        ByteBuffer view = buffer.asReadOnlyBuffer();
+        view.position(view.position() + view.getInt());
+        view.position(view.position() + view.getInt());
+        int payloadLength = view.getInt();
+        view.limit(view.position() + payloadLength);
+        return view.slice();
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(sender, subject, Arrays.hashCode(payload));
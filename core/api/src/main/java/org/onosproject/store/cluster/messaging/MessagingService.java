@@ -15,10 +15,14 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 /**
  * Interface for low level messaging primitives.
@@ -35,6 +39,21 @@ public interface MessagingService {
      */
     CompletableFuture<Void> sendAsync(Endpoint ep, String type, byte[] payload);
 
+    /**
+     * Sends a message asynchronously to the specified communication end point,
+     * writing the payload straight into the transport buffer.
+     * The writer is invoked before this method returns.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param payloadWriter writes the message payload to the given stream.
+     * @return future that is completed when the message is sent
+     */
+    default CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        payloadWriter.accept(stream);
+        return sendAsync(ep, type, stream.toByteArray());
+    }
+
     /**
      * Sends a message asynchronously and expects a response.
      * @param ep end point to send the message to.
@@ -44,6 +63,21 @@ public interface MessagingService {
      */
     CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload);
 
+    /**
+     * Sends a message asynchronously and expects a response, writing the
+     * payload straight into the transport buffer.
+     * The writer is invoked before this method returns.
+     * @param ep end point to send the message to.
+     * @param type type of message.
+     * @param payloadWriter writes the message payload to the given stream.
+     * @return a response future
+     */
+    default CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        payloadWriter.accept(stream);
+        return sendAndReceive(ep, type, stream.toByteArray());
+    }
+
     /**
      * Sends a message synchronously and expects a response.
      * @param ep end point to send the message to.
@@ -77,6 +111,32 @@ public interface MessagingService {
      */
     void registerHandler(String type, BiFunction<Endpoint, byte[], CompletableFuture<byte[]>> handler);
 
+    /**
+     * Registers a new message handler for message type, which is handed a
+     * read-only view of the received payload instead of a copy.
+     * The view is only valid until the handler returns.
+     * @param type message type.
+     * @param handler message handler
+     * @param executor executor to use for running message handler logic.
+     */
+    default void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        registerHandler(type, (BiConsumer<Endpoint, byte[]>) (ep, payload) ->
+                handler.accept(ep, ByteBuffer.wrap(payload).asReadOnlyBuffer()), executor);
+    }
+
+    /**
+     * Registers a new message handler for message type, which is handed a
+     * read-only view of the received payload instead of a copy.
+     * The view is only valid until the handler returns, not until the
+     * returned future completes.
+     * @param type message type.
+     * @param handler message handler
+     */
+    default void registerBufferHandler(String type,
+                                       BiFunction<Endpoint, ByteBuffer, CompletableFuture<byte[]>> handler) {
+        registerHandler(type, (ep, payload) -> handler.apply(ep, ByteBuffer.wrap(payload).asReadOnlyBuffer()));
+    }
+
     /**
      * Unregister current handler, if one exists for message type.
      * @param type message type
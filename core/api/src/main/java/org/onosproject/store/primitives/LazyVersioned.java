@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives;
+
+import java.util.function.Function;
+
+import org.onosproject.store.service.Versioned;
+
+/**
+ * Versioned value that holds on to its encoded form and decodes it on first
+ * access, so that callers only interested in versions pay no decoding cost.
+ * <p>
+ * The decoded value is retained; decoding failures are thrown from
+ * {@link #value()}. Serializers must read the value through {@link #value()}
+ * too, which decodes it, rather than the fields of {@link Versioned}.
+ * </p>
+ *
+ * @param <V> value type
+ * @param <E> encoded value type
+ */
+public final class LazyVersioned<V, E> extends Versioned<V> {
+
+    private Function<E, V> decoder;
+    private E encoded;
+    private V decoded;
+    private volatile boolean isDecoded;
+
+    private LazyVersioned(E encoded, Function<E, V> decoder, long version, long creationTime) {
+        super(null, version, creationTime);
+        this.encoded = encoded;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Returns a versioned value that lazily decodes the value of the given one.
+     *
+     * @param versioned versioned encoded value; may be null
+     * @param decoder   decoder for the value
+     * @param <V>       value type
+     * @param <E>       encoded value type
+     * @return versioned value, or null if the given one is null
+     */
+    public static <V, E> Versioned<V> of(Versioned<E> versioned, Function<E, V> decoder) {
+        if (versioned == null) {
+            return null;
+        }
+        if (versioned instanceof LazyVersioned) {
+            // compose the decoders of stacked maps rather than decoding eagerly
+            LazyVersioned<E, ?> lazy = (LazyVersioned<E, ?>) versioned;
+            synchronized (lazy) {
+                if (!lazy.isDecoded) {
+                    return lazy.compose(decoder);
+                }
+            }
+        }
+        if (versioned.value() == null) {
+            return new Versioned<>(null, versioned.version(), versioned.creationTime());
+        }
+        return new LazyVersioned<>(versioned.value(), decoder, versioned.version(), versioned.creationTime());
+    }
+
+    private <U> LazyVersioned<U, E> compose(Function<V, U> next) {
+        return new LazyVersioned<>(encoded, decoder.andThen(next), version(), creationTime());
+    }
+
+    @Override
+    public V value() {
+        if (!isDecoded) {
+            synchronized (this) {
+                if (!isDecoded) {
+                    decoded = decoder.apply(encoded);
+                    encoded = null;
+                    decoder = null;
+                    isDecoded = true;
+                }
+            }
+        }
+        return decoded;
+    }
+}
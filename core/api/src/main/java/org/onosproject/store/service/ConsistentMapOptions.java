@@ -19,6 +19,8 @@ import java.util.function.BiFunction;
 
 import org.onosproject.store.primitives.DistributedPrimitiveOptions;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Builder for {@link ConsistentMap} instances.
  *
@@ -30,6 +32,7 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
 
     private boolean nullValues = false;
     private boolean purgeOnUninstall = false;
+    private int cacheSize = 0;
     protected BiFunction<V, org.onosproject.core.Version, V> compatibilityFunction;
 
     public ConsistentMapOptions() {
@@ -56,6 +59,20 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
         return (O) this;
     }
 
+    /**
+     * Sets the maximum number of entries cached locally when relaxed read
+     * consistency is enabled.
+     *
+     * @param cacheSize maximum number of cached entries
+     * @return this builder
+     * @see #withRelaxedReadConsistency()
+     */
+    public O withCacheSize(int cacheSize) {
+        checkArgument(cacheSize > 0, "cacheSize must be positive");
+        this.cacheSize = cacheSize;
+        return (O) this;
+    }
+
     /**
      * Sets a compatibility function on the map.
      *
@@ -86,4 +103,13 @@ public abstract class ConsistentMapOptions<O extends ConsistentMapOptions<O, K,
         return purgeOnUninstall;
     }
 
+    /**
+     * Returns the maximum number of entries cached locally.
+     *
+     * @return maximum number of cached entries, or 0 if the default applies
+     */
+    public int cacheSize() {
+        return cacheSize;
+    }
+
 }
@@ -180,6 +180,21 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withFasterConvergence();
 
+    /**
+     * Configure anti-entropy to first exchange the hashes of ranges of map
+     * entries and only compare the entries of ranges that differ. Suited to
+     * large maps, where advertising a digest of every entry on each
+     * anti-entropy cycle is costly. All instances of the map must use the
+     * same setting, and equal keys and timestamps must serialize identically
+     * on all nodes.
+     * <p>
+     * The default behavior is to advertise a digest of every entry.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withHashTreeAntiEntropy();
+
     /**
      * Configure the map to persist data to disk.
      * <p>
@@ -190,6 +205,18 @@ public interface EventuallyConsistentMapBuilder<K, V> {
      */
     EventuallyConsistentMapBuilder<K, V> withPersistence();
 
+    /**
+     * Configure the map to keep its values serialized in off-heap memory.
+     * Suited to large maps, at the cost of decoding values on each access.
+     * Cannot be combined with persistence.
+     * <p>
+     * The default behavior is to keep values on the heap.
+     * </p>
+     *
+     * @return this EventuallyConsistentMapBuilder
+     */
+    EventuallyConsistentMapBuilder<K, V> withOffHeapStorage();
+
     /**
      * Builds an eventually consistent map based on the configuration options
      * supplied to this builder.
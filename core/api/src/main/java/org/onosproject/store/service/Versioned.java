@@ -59,6 +59,8 @@ public class Versioned<V> {
 
     /**
      * Returns the value.
+     * <p>
+     * Subclasses may produce the value lazily on first access.
      *
      * @return value.
      */
@@ -97,7 +99,8 @@ public class Versioned<V> {
      * @return mapped instance
      */
     public synchronized <U> Versioned<U> map(Function<V, U> transformer) {
-        return new Versioned<>(value != null ? transformer.apply(value) : null, version, creationTime);
+        V current = value();
+        return new Versioned<>(current != null ? transformer.apply(current) : null, version, creationTime);
     }
 
     /**
@@ -124,7 +127,7 @@ public class Versioned<V> {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(value, version, creationTime);
+        return Objects.hashCode(value(), version, creationTime);
     }
 
     @Override
@@ -133,15 +136,16 @@ public class Versioned<V> {
             return false;
         }
         Versioned<V> that = (Versioned) other;
-        return Objects.equal(this.value, that.value) &&
+        return Objects.equal(this.value(), that.value()) &&
                Objects.equal(this.version, that.version) &&
                Objects.equal(this.creationTime, that.creationTime);
     }
 
     @Override
     public String toString() {
+        V current = value();
         return MoreObjects.toStringHelper(this)
-            .add("value", value instanceof byte[] ? new ByteArraySizeHashPrinter((byte[]) value) : value)
+            .add("value", current instanceof byte[] ? new ByteArraySizeHashPrinter((byte[]) current) : current)
             .add("version", version)
             .add("creationTime", Tools.defaultOffsetDataTime(creationTime))
             .toString();
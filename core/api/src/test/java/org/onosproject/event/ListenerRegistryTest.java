@@ -15,9 +15,21 @@
  */
 package org.onosproject.event;
 
+import com.codahale.metrics.MetricFilter;
+import com.google.common.collect.ImmutableList;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.event.AsyncEventListener.OverflowPolicy;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -71,4 +83,145 @@ public class ListenerRegistryTest {
         assertTrue("BAR not processed", secondListener.events.contains(BAR_EVENT));
     }
 
+    @Test
+    public void asyncListener() throws InterruptedException {
+        AsyncListener async = new AsyncListener(OverflowPolicy.BLOCK, 10, 2);
+        manager.addListener(async);
+        manager.addListener(secondListener);
+
+        async.gate.countDown();
+        manager.process(FOO_EVENT);
+        manager.process(BAR_EVENT);
+        assertTrue("FOO not processed", secondListener.events.contains(FOO_EVENT));
+        assertTrue("events not delivered", async.delivered.await(5, SECONDS));
+        assertEquals("wrong events", ImmutableList.of(FOO_EVENT, BAR_EVENT), async.received);
+
+        manager.removeListener(async);
+        assertEquals("queue not removed", 0, manager.queuedEvents(async));
+    }
+
+    @Test
+    public void asyncDropOldest() throws InterruptedException {
+        AsyncListener async = new AsyncListener(OverflowPolicy.DROP_OLDEST, 2, 3);
+        manager.addListener(async);
+
+        // First event holds the listener, the following ones overflow its queue
+        manager.process(new TestEvent(TestEvent.Type.FOO, "a"));
+        async.started.await(5, SECONDS);
+        TestEvent b = new TestEvent(TestEvent.Type.FOO, "b");
+        TestEvent c = new TestEvent(TestEvent.Type.FOO, "c");
+        TestEvent d = new TestEvent(TestEvent.Type.FOO, "d");
+        manager.process(b);
+        manager.process(c);
+        manager.process(d);
+        assertEquals("wrong queue depth", 2, manager.queuedEvents(async));
+        assertEquals("wrong drop count", 1, manager.droppedEvents(async));
+
+        async.gate.countDown();
+        assertTrue("events not delivered", async.delivered.await(5, SECONDS));
+        assertEquals("wrong events", ImmutableList.of(c, d), async.received.subList(1, 3));
+    }
+
+    @Test
+    public void asyncCoalesce() throws InterruptedException {
+        AsyncListener async = new AsyncListener(OverflowPolicy.COALESCE, 3, 4);
+        manager.addListener(async);
+
+        manager.process(new TestEvent(TestEvent.Type.FOO, "a"));
+        async.started.await(5, SECONDS);
+        TestEvent b1 = new TestEvent(TestEvent.Type.FOO, "b");
+        TestEvent b = new TestEvent(TestEvent.Type.BAR, "b");
+        TestEvent c = new TestEvent(TestEvent.Type.FOO, "c");
+        TestEvent b2 = new TestEvent(TestEvent.Type.FOO, "b");
+        manager.process(b1);
+        manager.process(b);
+        manager.process(c);
+        manager.process(b2);
+        assertEquals("wrong queue depth", 3, manager.queuedEvents(async));
+        assertEquals("wrong drop count", 0, manager.droppedEvents(async));
+
+        async.gate.countDown();
+        assertTrue("events not delivered", async.delivered.await(5, SECONDS));
+        assertEquals("wrong events", ImmutableList.of(b2, b, c), async.received.subList(1, 4));
+    }
+
+    @Test
+    public void asyncMetrics() throws InterruptedException {
+        MetricsService metrics = new MetricsManager();
+        MetricsComponent component = metrics.registerComponent("test");
+        manager.enableMetrics(metrics, component, component.registerFeature("TestEvent"));
+        AsyncListener async = new AsyncListener(OverflowPolicy.DROP_OLDEST, 1, 2);
+        manager.addListener(async);
+
+        manager.process(new TestEvent(TestEvent.Type.FOO, "a"));
+        async.started.await(5, SECONDS);
+        manager.process(new TestEvent(TestEvent.Type.FOO, "b"));
+        manager.process(new TestEvent(TestEvent.Type.FOO, "c"));
+        String prefix = "test.TestEvent." + AsyncListener.class.getName();
+        assertEquals("wrong queue depth", 1, metrics.getGauges(MetricFilter.ALL)
+                .get(prefix + ".queuedEvents").getValue());
+        assertEquals("wrong drop count", 1L, metrics.getGauges(MetricFilter.ALL)
+                .get(prefix + ".droppedEvents").getValue());
+
+        manager.disableMetrics();
+        assertTrue("metrics not removed", metrics.getGauges(MetricFilter.ALL).isEmpty());
+        async.gate.countDown();
+    }
+
+    @Test
+    public void listenerMetrics() {
+        MetricsService metrics = new MetricsManager();
+        MetricsComponent component = metrics.registerComponent("test");
+        manager.enableMetrics(metrics, component, component.registerFeature("TestEvent"));
+        manager.addListener(listener);
+        manager.addListener(secondListener);
+
+        manager.process(FOO_EVENT);
+        manager.process(BAR_EVENT);
+        String name = "test.TestEvent." + TestListener.class.getName() + ".processing";
+        assertEquals("wrong timer count", 4, metrics.getTimers(MetricFilter.ALL).get(name).getCount());
+
+        manager.disableMetrics();
+        assertTrue("metrics not removed", metrics.getTimers(MetricFilter.ALL).isEmpty());
+    }
+
+    private static class AsyncListener extends TestListener
+            implements AsyncEventListener<TestEvent> {
+
+        private final OverflowPolicy policy;
+        private final int queueSize;
+        final List<TestEvent> received = Collections.synchronizedList(events);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch delivered;
+
+        AsyncListener(OverflowPolicy policy, int queueSize, int expected) {
+            this.policy = policy;
+            this.queueSize = queueSize;
+            this.delivered = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void event(TestEvent event) {
+            started.countDown();
+            try {
+                gate.await(5, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(event);
+            delivered.countDown();
+        }
+
+        @Override
+        public int queueSize() {
+            return queueSize;
+        }
+
+        @Override
+        public OverflowPolicy overflowPolicy() {
+            return policy;
+        }
+    }
+
 }
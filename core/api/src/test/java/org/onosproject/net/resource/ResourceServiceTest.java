@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.resource;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.intent.IntentId;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the default methods of ResourceService.
+ */
+public class ResourceServiceTest {
+
+    private static final DeviceId D1 = DeviceId.deviceId("of:001");
+    private static final PortNumber P1 = PortNumber.portNumber(1);
+    private static final Resource VLAN1 = Resources.discrete(D1, P1, VlanId.vlanId((short) 100)).resource();
+    private static final Resource VLAN2 = Resources.discrete(D1, P1, VlanId.vlanId((short) 200)).resource();
+    private static final Resource VLAN3 = Resources.discrete(D1, P1, VlanId.vlanId((short) 300)).resource();
+    private static final ResourceConsumer RC1 = IntentId.valueOf(1L);
+    private static final ResourceConsumer RC2 = IntentId.valueOf(2L);
+    private static final ResourceConsumer RC3 = IntentId.valueOf(3L);
+
+    /**
+     * Tests that the requests of a batch are allocated one by one, each
+     * failing on its own.
+     */
+    @Test
+    public void testAllocateRequests() {
+        ResourceService service = new ExclusiveResourceService();
+
+        Map<ResourceConsumer, List<ResourceAllocation>> allocations = service.allocate(ImmutableMap.of(
+                RC1, ImmutableList.of(VLAN1, VLAN2),
+                RC2, ImmutableList.of(VLAN2, VLAN3),
+                RC3, ImmutableList.of(VLAN3)));
+
+        assertThat(allocations.keySet(), contains(RC1, RC3));
+        assertThat(allocations.get(RC1), contains(new ResourceAllocation(VLAN1, RC1),
+                                                  new ResourceAllocation(VLAN2, RC1)));
+        assertThat(allocations.get(RC3), contains(new ResourceAllocation(VLAN3, RC3)));
+        assertThat(service.getResourceAllocations(RC2), is(empty()));
+    }
+
+    // Refuses to allocate the discrete resources already allocated.
+    private static class ExclusiveResourceService extends MockResourceService {
+        @Override
+        public List<ResourceAllocation> allocate(ResourceConsumer consumer, List<? extends Resource> resources) {
+            if (resources.stream().anyMatch(r -> !getResourceAllocations(r.id()).isEmpty())) {
+                return ImmutableList.of();
+            }
+            return super.allocate(consumer, resources);
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.cluster.messaging;
 
+import java.nio.ByteBuffer;
+
 import org.junit.Test;
 import org.onosproject.cluster.NodeId;
 
@@ -79,4 +81,23 @@ public class ClusterMessageTest {
         ClusterMessage message = ClusterMessage.fromBytes(fromBytes);
         assertThat(message, is(message3));
     }
+
+    /**
+     * Tests writing an envelope ahead of a payload and viewing the payload
+     * of an encoded message.
+     */
+    @Test
+    public void testEnvelope() {
+        byte[] envelope = ClusterMessage.encodeEnvelope(nodeId, subject2, payload1.length);
+        ByteBuffer buffer = ByteBuffer.allocate(envelope.length + payload1.length);
+        buffer.put(envelope).put(payload1).flip();
+        assertThat(ClusterMessage.fromBytes(buffer.array()), is(message3));
+
+        ByteBuffer payload = ClusterMessage.payloadOf(buffer);
+        assertThat(payload.isReadOnly(), is(true));
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        assertThat(bytes, is(payload1));
+        assertThat(buffer.position(), is(0));
+    }
 }
@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSetMultimap.Builder;
+import org.onlab.graph.CompactGraph;
 import org.onlab.graph.DefaultEdgeWeigher;
 import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.DisjointPathPair;
@@ -32,8 +33,6 @@ import org.onlab.graph.LazyKShortestPathsSearch;
 import org.onlab.graph.ScalarWeight;
 import org.onlab.graph.SrlgGraphSearch;
 import org.onlab.graph.SuurballeGraphSearch;
-import org.onlab.graph.TarjanGraphSearch;
-import org.onlab.graph.TarjanGraphSearch.SccResult;
 import org.onlab.graph.Weight;
 import org.onosproject.net.AbstractModel;
 import org.onosproject.net.ConnectPoint;
@@ -84,8 +83,6 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
             new DijkstraGraphSearch<>();
-    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
-            new TarjanGraphSearch<>();
     private static final SuurballeGraphSearch<TopologyVertex, TopologyEdge> SUURBALLE =
             new SuurballeGraphSearch<>();
     private static final KShortestPathsSearch<TopologyVertex, TopologyEdge> KSHORTEST =
@@ -101,16 +98,21 @@ public class DefaultTopology extends AbstractModel implements Topology {
     private final long creationTime;
     private final long computeCost;
     private final TopologyGraph graph;
+    private final Supplier<CompactGraph<TopologyVertex, TopologyEdge>> compactGraph;
 
     private final LinkWeigher hopCountWeigher;
 
-    private final Supplier<SccResult<TopologyVertex, TopologyEdge>> clusterResults;
+    private final Supplier<TopologyClusterSearch.Results> clusterResults;
     private final Supplier<ImmutableMap<ClusterId, TopologyCluster>> clusters;
     private final Supplier<ImmutableSet<ConnectPoint>> infrastructurePoints;
     private final Supplier<ImmutableSetMultimap<ClusterId, ConnectPoint>> broadcastSets;
     private final Function<ConnectPoint, Boolean> broadcastFunction;
     private final Supplier<ClusterIndexes> clusterIndexes;
 
+    // Topology whose clusters and broadcast sets may be reused; cleared once
+    // those of this topology have been computed.
+    private volatile DefaultTopology previous;
+
     /**
      * Sets the default link-weight to be used when computing paths. If null is
      * specified, the builtin default link-weight measuring hop-counts will be
@@ -145,8 +147,33 @@ public class DefaultTopology extends AbstractModel implements Topology {
      */
     public DefaultTopology(ProviderId providerId, GraphDescription description,
                            Function<ConnectPoint, Boolean> broadcastFunction) {
+        this(providerId, description, broadcastFunction, null);
+    }
+
+    /**
+     * Creates a topology descriptor attributed to the specified provider,
+     * computing clusters and broadcast sets incrementally from those of a
+     * previous topology.
+     * <p>
+     * Only the clusters affected by the differences between the two
+     * topologies are searched again; the results are the same as those
+     * computed from scratch, except for cluster identifiers and the choice
+     * among equally short broadcast trees.
+     * </p>
+     *
+     * @param providerId        identity of the provider
+     * @param description       data describing the new topology
+     * @param broadcastFunction broadcast point function
+     * @param previous          previous topology; may be null
+     */
+    public DefaultTopology(ProviderId providerId, GraphDescription description,
+                           Function<ConnectPoint, Boolean> broadcastFunction,
+                           DefaultTopology previous) {
         super(providerId);
         this.broadcastFunction = broadcastFunction;
+        // Only base on topologies done with their own base, so that chains
+        // of topologies which never computed clusters are not retained.
+        this.previous = previous != null && previous.previous == null ? previous : null;
         this.time = description.timestamp();
         this.creationTime = description.creationTime();
 
@@ -154,6 +181,9 @@ public class DefaultTopology extends AbstractModel implements Topology {
         this.graph = new DefaultTopologyGraph(description.vertexes(),
                 description.edges());
 
+        // Path searches traverse the compact form, built once on first use
+        this.compactGraph = Suppliers.memoize(() -> CompactGraph.copyOf(graph));
+
         this.clusterResults = Suppliers.memoize(this::searchForClusters);
         this.clusters = Suppliers.memoize(this::buildTopologyClusters);
 
@@ -385,7 +415,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
 
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                graphPathSearch().search(graph, srcV, dstV, weigher, maxPaths);
+                graphPathSearch().search(compactGraph.get(), srcV, dstV, weigher, maxPaths);
         ImmutableSet.Builder<Path> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             builder.add(networkPath(path));
@@ -432,7 +462,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return ImmutableSet.of();
         }
 
-        return KSHORTEST.search(graph, srcV, dstV, weigher, maxPaths)
+        return KSHORTEST.search(compactGraph.get(), srcV, dstV, weigher, maxPaths)
                 .paths().stream()
                     .map(this::networkPath)
                     .collect(ImmutableSet.toImmutableSet());
@@ -471,7 +501,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
             return Stream.empty();
         }
 
-        return LAZY_KSHORTEST.lazyPathSearch(graph, srcV, dstV, weigher)
+        return LAZY_KSHORTEST.lazyPathSearch(compactGraph.get(), srcV, dstV, weigher)
                     .map(this::networkPath);
     }
 
@@ -507,7 +537,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
         }
 
         GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
-                SUURBALLE.search(graph, srcV, dstV, weigher, ALL_PATHS);
+                SUURBALLE.search(compactGraph.get(), srcV, dstV, weigher, ALL_PATHS);
         ImmutableSet.Builder<DisjointPath> builder = ImmutableSet.builder();
         for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
             DisjointPath disjointPath =
@@ -628,16 +658,21 @@ public class DefaultTopology extends AbstractModel implements Topology {
     }
 
     // Searches for SCC clusters in the network topology graph using Tarjan
-    // algorithm.
-    private SccResult<TopologyVertex, TopologyEdge> searchForClusters() {
-        return TARJAN.search(graph, new NoIndirectLinksWeigher());
+    // algorithm, incrementally if there is a previous topology.
+    private TopologyClusterSearch.Results searchForClusters() {
+        DefaultTopology base = previous;
+        if (base == null) {
+            return TopologyClusterSearch.search(graph, new NoIndirectLinksWeigher());
+        }
+        return TopologyClusterSearch.search(graph, new NoIndirectLinksWeigher(),
+                                            base.graph, base.clusterResults.get());
     }
 
     // Builds the topology clusters and returns the id-cluster bindings.
     private ImmutableMap<ClusterId, TopologyCluster> buildTopologyClusters() {
         ImmutableMap.Builder<ClusterId, TopologyCluster> clusterBuilder =
                 ImmutableMap.builder();
-        SccResult<TopologyVertex, TopologyEdge> results = clusterResults.get();
+        TopologyClusterSearch.Results results = clusterResults.get();
 
         // Extract both vertexes and edges from the results; the lists form
         // pairs along the same index.
@@ -675,12 +710,37 @@ public class DefaultTopology extends AbstractModel implements Topology {
     // Processes a map of broadcast sets for each cluster.
     private ImmutableSetMultimap<ClusterId, ConnectPoint> buildBroadcastSets() {
         Builder<ClusterId, ConnectPoint> builder = ImmutableSetMultimap.builder();
+        DefaultTopology base = previous;
         for (TopologyCluster cluster : clusters.get().values()) {
-            addClusterBroadcastSet(cluster, builder);
+            int previousIndex = clusterResults.get().previousCluster(cluster.id().index());
+            if (base != null && previousIndex >= 0 && isIsolated(cluster)) {
+                // The cluster and its links are unchanged, and so is its tree.
+                builder.putAll(cluster.id(),
+                               base.broadcastSets.get().get(ClusterId.clusterId(previousIndex)));
+            } else {
+                addClusterBroadcastSet(cluster, builder);
+            }
         }
+        previous = null;
         return builder.build();
     }
 
+    // Indicates whether shortest paths between vertexes of the cluster cannot
+    // leave it, because no links leave or no links enter the cluster.
+    private boolean isIsolated(TopologyCluster cluster) {
+        Set<TopologyVertex> vertexes = clusterResults.get().clusterVertexes().get(cluster.id().index());
+        boolean egress = false;
+        boolean ingress = false;
+        for (TopologyVertex vertex : vertexes) {
+            egress |= graph.getEdgesFrom(vertex).stream().anyMatch(e -> !vertexes.contains(e.dst()));
+            ingress |= graph.getEdgesTo(vertex).stream().anyMatch(e -> !vertexes.contains(e.src()));
+            if (egress && ingress) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Finds all broadcast points for the cluster. These are those connection
     // points which lie along the shortest paths between the cluster root and
     // all other devices within the cluster.
@@ -688,7 +748,7 @@ public class DefaultTopology extends AbstractModel implements Topology {
                                         Builder<ClusterId, ConnectPoint> builder) {
         // Use the graph root search results to build the broadcast set.
         Result<TopologyVertex, TopologyEdge> result =
-                DIJKSTRA.search(graph, cluster.root(), null, hopCountWeigher, 1);
+                DIJKSTRA.search(compactGraph.get(), cluster.root(), null, hopCountWeigher, 1);
         for (Map.Entry<TopologyVertex, Set<TopologyEdge>> entry :
                 result.parents().entrySet()) {
             TopologyVertex vertex = entry.getKey();
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.common;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.onlab.graph.TarjanGraphSearch;
+import org.onlab.graph.TarjanGraphSearch.SccResult;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyVertex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.onosproject.net.Link.State.INACTIVE;
+
+/**
+ * Search for topology clusters, i.e. SCCs of the topology graph, which can
+ * reuse the clusters of a previous graph.
+ * <p>
+ * When the clusters of the previous graph are joined by no viable edges,
+ * only the clusters touched by added or removed vertexes and edges need to
+ * be searched again; all others carry over unchanged. Otherwise, or if most
+ * of the graph is affected, the whole graph is searched.
+ * </p>
+ */
+final class TopologyClusterSearch {
+
+    private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
+            new TarjanGraphSearch<>();
+
+    // Above this share of the vertexes, searching the whole graph is cheaper
+    private static final double MAX_REGION_RATIO = 0.5;
+
+    private TopologyClusterSearch() {
+    }
+
+    /**
+     * Searches the whole graph for clusters.
+     *
+     * @param graph   topology graph
+     * @param weigher weigher marking edges that do not join clusters as non-viable
+     * @return cluster search results
+     */
+    static Results search(TopologyGraph graph, LinkWeigher weigher) {
+        SccResult<TopologyVertex, TopologyEdge> result = TARJAN.search(graph, weigher);
+        int[] previous = new int[result.clusterCount()];
+        Arrays.fill(previous, -1);
+        return new Results(graph, weigher, result.clusterVertexes(), result.clusterEdges(), previous);
+    }
+
+    /**
+     * Searches the graph for clusters, reusing the clusters of the given
+     * previous graph where they are not affected by changes.
+     *
+     * @param graph         topology graph
+     * @param weigher       weigher marking edges that do not join clusters as non-viable
+     * @param previousGraph previous topology graph
+     * @param previous      cluster search results of the previous graph
+     * @return cluster search results
+     */
+    static Results search(TopologyGraph graph, LinkWeigher weigher,
+                          TopologyGraph previousGraph, Results previous) {
+        if (!previous.isSealed()) {
+            return search(graph, weigher);
+        }
+
+        Set<TopologyVertex> vertexes = graph.getVertexes();
+        Set<TopologyEdge> edges = graph.getEdges();
+        boolean[] touched = new boolean[previous.clusterCount()];
+        Set<TopologyVertex> region = Sets.newHashSet();
+
+        for (TopologyVertex vertex : previousGraph.getVertexes()) {
+            if (!vertexes.contains(vertex)) {
+                touched[previous.clusterOf(vertex)] = true;
+            }
+        }
+        for (TopologyVertex vertex : vertexes) {
+            if (previous.clusterOf(vertex) < 0) {
+                region.add(vertex);
+            }
+        }
+        // Link equality disregards the link state, so links of either state
+        // are treated as changed.
+        for (TopologyEdge edge : previousGraph.getEdges()) {
+            if (edge.link().state() == INACTIVE || !edges.contains(edge)) {
+                touch(edge, previous, touched);
+            }
+        }
+        for (TopologyEdge edge : edges) {
+            if (edge.link().state() == INACTIVE || !previousGraph.getEdges().contains(edge)) {
+                touch(edge, previous, touched);
+            }
+        }
+
+        ImmutableList.Builder<Set<TopologyVertex>> clusterVertexes = ImmutableList.builder();
+        ImmutableList.Builder<Set<TopologyEdge>> clusterEdges = ImmutableList.builder();
+        int[] reused = new int[previous.clusterCount()];
+        int reusedCount = 0;
+        for (int i = 0; i < previous.clusterCount(); i++) {
+            if (touched[i]) {
+                previous.clusterVertexes().get(i).stream()
+                        .filter(vertexes::contains)
+                        .forEach(region::add);
+            } else {
+                clusterVertexes.add(previous.clusterVertexes().get(i));
+                clusterEdges.add(previous.clusterEdges().get(i));
+                reused[reusedCount++] = i;
+            }
+        }
+        if (region.size() > vertexes.size() * MAX_REGION_RATIO) {
+            return search(graph, weigher);
+        }
+
+        SccResult<TopologyVertex, TopologyEdge> result = TARJAN.search(graph, weigher, region);
+        clusterVertexes.addAll(result.clusterVertexes());
+        clusterEdges.addAll(result.clusterEdges());
+        int[] previousClusters = Arrays.copyOf(reused, reusedCount + result.clusterCount());
+        Arrays.fill(previousClusters, reusedCount, previousClusters.length, -1);
+        return new Results(graph, weigher, clusterVertexes.build(), clusterEdges.build(), previousClusters);
+    }
+
+    // Marks the previous clusters of the edge end-points as touched.
+    private static void touch(TopologyEdge edge, Results previous, boolean[] touched) {
+        int src = previous.clusterOf(edge.src());
+        if (src >= 0) {
+            touched[src] = true;
+        }
+        int dst = previous.clusterOf(edge.dst());
+        if (dst >= 0) {
+            touched[dst] = true;
+        }
+    }
+
+    /**
+     * Results of a cluster search.
+     */
+    static final class Results {
+        private final TopologyGraph graph;
+        private final LinkWeigher weigher;
+        private final List<Set<TopologyVertex>> clusterVertexes;
+        private final List<Set<TopologyEdge>> clusterEdges;
+        private final int[] previousClusters;
+        private final Map<TopologyVertex, Integer> clusterIndex;
+        private volatile Boolean sealed;
+
+        private Results(TopologyGraph graph, LinkWeigher weigher,
+                        List<Set<TopologyVertex>> clusterVertexes,
+                        List<Set<TopologyEdge>> clusterEdges,
+                        int[] previousClusters) {
+            this.graph = graph;
+            this.weigher = weigher;
+            this.clusterVertexes = clusterVertexes;
+            this.clusterEdges = clusterEdges;
+            this.previousClusters = previousClusters;
+            this.clusterIndex = Maps.newHashMapWithExpectedSize(graph.getVertexes().size());
+            for (int i = 0; i < clusterVertexes.size(); i++) {
+                for (TopologyVertex vertex : clusterVertexes.get(i)) {
+                    clusterIndex.put(vertex, i);
+                }
+            }
+        }
+
+        /**
+         * Returns the number of clusters.
+         *
+         * @return number of clusters
+         */
+        int clusterCount() {
+            return clusterVertexes.size();
+        }
+
+        /**
+         * Returns the vertexes of each cluster.
+         *
+         * @return list of cluster vertex sets
+         */
+        List<Set<TopologyVertex>> clusterVertexes() {
+            return clusterVertexes;
+        }
+
+        /**
+         * Returns the edges within each cluster.
+         *
+         * @return list of cluster edge sets
+         */
+        List<Set<TopologyEdge>> clusterEdges() {
+            return clusterEdges;
+        }
+
+        /**
+         * Returns the index of the cluster containing the given vertex.
+         *
+         * @param vertex topology vertex
+         * @return cluster index, or -1 if the vertex is not in the graph
+         */
+        int clusterOf(TopologyVertex vertex) {
+            Integer index = clusterIndex.get(vertex);
+            return index != null ? index : -1;
+        }
+
+        /**
+         * Returns the index of the given cluster in the previous results it
+         * was carried over from.
+         *
+         * @param cluster cluster index
+         * @return index of the same cluster in the previous results, or -1
+         * if the cluster was searched anew
+         */
+        int previousCluster(int cluster) {
+            return previousClusters[cluster];
+        }
+
+        /**
+         * Indicates whether no viable edges join different clusters, in
+         * which case these results can be reused by incremental searches.
+         *
+         * @return true if clusters are joined by no viable edges
+         */
+        boolean isSealed() {
+            Boolean result = sealed;
+            if (result == null) {
+                result = graph.getEdges().stream()
+                        .noneMatch(e -> clusterOf(e.src()) != clusterOf(e.dst()) &&
+                                weigher.weight(e).isViable());
+                sealed = result;
+            }
+            return result;
+        }
+    }
+}
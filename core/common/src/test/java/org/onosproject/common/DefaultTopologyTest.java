@@ -148,6 +148,34 @@ public class DefaultTopologyTest {
         assertFalse("cluster should not contain D5", devs.contains(D5));
     }
 
+    @Test
+    public void incrementalClusters() {
+        Set<Device> devices = of(device("1"), device("2"),
+                                 device("3"), device("4"),
+                                 device("5"), device("6"));
+        Set<Link> links = of(link("1", 1, "2", 1), link("2", 1, "1", 1),
+                             link("3", 2, "2", 2), link("2", 2, "3", 2),
+                             link("1", 3, "4", 3), link("4", 3, "1", 3),
+                             link("3", 4, "4", 4), link("4", 4, "3", 4),
+                             link("5", 1, "6", 1), link("6", 1, "5", 1));
+        GraphDescription graphDescription =
+                new DefaultGraphDescription(System.nanoTime(), System.currentTimeMillis(), devices, links);
+
+        DefaultTopology incremental = new DefaultTopology(PID, graphDescription, null, dt);
+        DefaultTopology full = new DefaultTopology(PID, graphDescription);
+        assertEquals("incorrect cluster count", full.clusterCount(), incremental.clusterCount());
+        for (DeviceId deviceId : of(D1, D5, did("6"))) {
+            assertEquals("incorrect cluster devices",
+                         full.getClusterDevices(full.getCluster(deviceId)),
+                         incremental.getClusterDevices(incremental.getCluster(deviceId)));
+            assertEquals("incorrect broadcast set size",
+                         full.broadcastSetSize(full.getCluster(deviceId).id()),
+                         incremental.broadcastSetSize(incremental.getCluster(deviceId).id()));
+        }
+        assertTrue("cluster should contain D6",
+                   incremental.getClusterDevices(incremental.getCluster(D5)).contains(did("6")));
+    }
+
     // Short-hand for creating a link.
     public static Link link(String src, int sp, String dst, int dp) {
         return DefaultLink.builder().providerId(PID)
@@ -15,39 +15,66 @@
  */
 package org.onosproject.event.impl;
 
+import java.util.Dictionary;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Objects;
 import java.util.TimerTask;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onlab.util.SharedExecutors;
+import org.onlab.util.Tools;
+import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.DefaultEventSinkRegistry;
 import org.onosproject.event.Event;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.event.EventSink;
+import org.onosproject.event.ListenerRegistry;
+import org.onosproject.net.Device;
+import org.onosproject.net.Host;
+import org.onosproject.net.Link;
 import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.flow.FlowRule;
 import org.onosproject.net.flow.FlowRuleEvent;
 import org.onosproject.net.host.HostEvent;
+import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentEvent;
 import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.topology.TopologyEvent;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Gauge;
+import com.google.common.base.Splitter;
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.security.AppGuard.checkPermission;
 import static org.onosproject.security.AppPermission.Type.EVENT_READ;
@@ -55,6 +82,17 @@ import static org.onosproject.security.AppPermission.Type.EVENT_WRITE;
 import static org.slf4j.LoggerFactory.getLogger;
 /**
  * Simple implementation of an event dispatching service.
+ * <p>
+ * Topology and programming events may be spread over several dispatch loops,
+ * each taking the events of a subset of subjects, such as devices, so that
+ * events about the same subject are still dispatched in order while those
+ * about different subjects are dispatched concurrently.
+ * </p>
+ * <p>
+ * Events of high-churn types, such as port statistics updates, may be held
+ * for a short window during which a newer event about the same subject
+ * supersedes the pending one.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -63,13 +101,61 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
     private final Logger log = getLogger(getClass());
 
-
-    private DispatchLoop topologyDispatcher = new DispatchLoop("topology");
-    private DispatchLoop programmingDispatcher = new DispatchLoop("programming");
+    private static final int DEFAULT_PARTITIONS = 1;
+    private static final int DEFAULT_QUEUE_SIZE = 0;
+    private static final String DEFAULT_COALESCED_EVENTS = "";
+
+    @Property(name = "dispatchPartitions", intValue = DEFAULT_PARTITIONS,
+            label = "Number of dispatch loops over which topology and programming " +
+                    "events are spread by subject; events of different subjects may " +
+                    "then reach their sinks concurrently")
+    private int dispatchPartitions = DEFAULT_PARTITIONS;
+
+    @Property(name = "dispatchQueueSize", intValue = DEFAULT_QUEUE_SIZE,
+            label = "Number of pending events per dispatch loop above which posting " +
+                    "threads wait for the loop to catch up; 0 for no limit")
+    private volatile int dispatchQueueSize = DEFAULT_QUEUE_SIZE;
+
+    @Property(name = "coalescedEvents", value = DEFAULT_COALESCED_EVENTS,
+            label = "Comma-separated event types to coalesce within a window, given as " +
+                    "EventClass.TYPE=millis, e.g. DeviceEvent.PORT_STATS_UPDATED=500; " +
+                    "events about the same subject supersede the pending one")
+    private String coalescedEvents = DEFAULT_COALESCED_EVENTS;
+
+    // Both optional and dynamic; the services may themselves post events
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            policy = ReferencePolicy.DYNAMIC,
+            bind = "bindComponentConfigService",
+            unbind = "unbindComponentConfigService")
+    protected volatile ComponentConfigService cfgService;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY,
+            policy = ReferencePolicy.DYNAMIC,
+            bind = "bindMetricsService",
+            unbind = "unbindMetricsService")
+    protected volatile MetricsService metricsService;
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature coalescingFeature;
+    private MetricsComponent listenersComponent;
+
+    private static final String RECEIVED = ".received";
+    private static final String DELIVERED = ".delivered";
+    private static final String REDUCTION_RATIO = ".reductionRatio";
+
+    // Coalescers by simple event class name and event type name
+    private volatile Map<String, Map<String, EventCoalescer>> coalescers = ImmutableMap.of();
+    // Coalescers of each event class posted so far; replaced after the coalescers
+    private volatile Map<Class, Map<String, EventCoalescer>> classCoalescers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService coalesceExecutor =
+            newSingleThreadScheduledExecutor(groupedThreads("onos/event", "coalesce-%d", log));
+
+    private DispatchGroup topologyDispatcher = new DispatchGroup("topology");
+    private DispatchGroup programmingDispatcher = new DispatchGroup("programming");
     private DispatchLoop defaultDispatcher = new DispatchLoop("default");
 
-    private Map<Class, DispatchLoop> dispatcherMap =
-            new ImmutableMap.Builder<Class, DispatchLoop>()
+    private Map<Class, DispatchGroup> dispatcherMap =
+            new ImmutableMap.Builder<Class, DispatchGroup>()
                 .put(TopologyEvent.class, topologyDispatcher)
                 .put(DeviceEvent.class, topologyDispatcher)
                 .put(LinkEvent.class, topologyDispatcher)
@@ -78,11 +164,7 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                 .put(IntentEvent.class, programmingDispatcher)
                 .build();
 
-    private Set<DispatchLoop> dispatchers =
-            new ImmutableSet.Builder<DispatchLoop>()
-                .addAll(dispatcherMap.values())
-                .add(defaultDispatcher)
-                .build();
+    private List<DispatchGroup> groups = ImmutableList.of(topologyDispatcher, programmingDispatcher);
 
     // Default number of millis a sink can take to process an event.
     private static final long DEFAULT_EXECUTE_MS = 5_000; // ms
@@ -92,41 +174,245 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
     private static final Event KILL_PILL = new AbstractEvent(null, 0) {
     };
 
-    private long maxProcessMillis = DEFAULT_EXECUTE_MS;
+    // Marks the threads of the dispatch loops, which must never wait to post
+    private static final ThreadLocal<Boolean> DISPATCHING = ThreadLocal.withInitial(() -> false);
+
+    private volatile long maxProcessMillis = DEFAULT_EXECUTE_MS;
 
     private DispatchLoop getDispatcher(Event event) {
-        DispatchLoop dispatcher = dispatcherMap.get(event.getClass());
-        if (dispatcher == null) {
-            dispatcher = defaultDispatcher;
+        DispatchGroup group = dispatcherMap.get(event.getClass());
+        if (group == null) {
+            return defaultDispatcher;
+        }
+        return group.getDispatcher(event);
+    }
+
+    // Returns the key of the subject whose events must be dispatched in order.
+    private static Object partitionKey(Event event) {
+        Object subject = event.subject();
+        if (subject instanceof Device) {
+            return ((Device) subject).id();
+        } else if (subject instanceof Link) {
+            return ((Link) subject).src().deviceId();
+        } else if (subject instanceof Host) {
+            return ((Host) subject).id();
+        } else if (subject instanceof FlowRule) {
+            return ((FlowRule) subject).deviceId();
+        } else if (subject instanceof Intent) {
+            return ((Intent) subject).key();
         }
-        return dispatcher;
+        // e.g. topology events, whose subjects differ every time
+        return event.getClass();
     }
 
     @Override
     public void post(Event event) {
+        Map<String, EventCoalescer> eventCoalescers = classCoalescers.computeIfAbsent(
+                event.getClass(), cls -> coalescers.getOrDefault(cls.getSimpleName(), ImmutableMap.of()));
+        if (!eventCoalescers.isEmpty()) {
+            Object orderKey = partitionKey(event);
+            EventCoalescer coalescer = event.type() == null ? null :
+                    eventCoalescers.get(event.type().name());
+            if (coalescer != null && coalescer.add(event, orderKey)) {
+                return;
+            }
+            // Pending events about the same subject go first
+            eventCoalescers.values().forEach(c -> c.flush(orderKey));
+        }
 
         if (!getDispatcher(event).add(event)) {
             log.error("Unable to post event {}", event);
         }
     }
 
-    @Activate
-    public void activate() {
+    // Dispatches events released by coalescers, which must not wait for capacity.
+    private void postCoalesced(Event event) {
+        if (!getDispatcher(event).enqueue(event)) {
+            log.error("Unable to post event {}", event);
+        }
+    }
 
+    @Activate
+    public void activate(ComponentContext context) {
         if (maxProcessMillis != 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            allDispatchers().forEach(DispatchLoop::startWatchdog);
         }
+        modified(context);
 
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
-        dispatchers.forEach(DispatchLoop::stop);
+        allCoalescers(coalescers).forEach(EventCoalescer::close);
+        coalesceExecutor.shutdown();
+        allDispatchers().forEach(DispatchLoop::stop);
 
         log.info("Stopped");
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context == null) {
+            return;
+        }
+        Dictionary<?, ?> properties = context.getProperties();
+
+        int newPartitions = Tools.getIntegerProperty(properties, "dispatchPartitions", DEFAULT_PARTITIONS);
+        if (newPartitions < 1) {
+            log.warn("dispatchPartitions must be positive; keeping {}", dispatchPartitions);
+        } else if (newPartitions != dispatchPartitions) {
+            dispatchPartitions = newPartitions;
+            groups.forEach(group -> group.resize(newPartitions));
+            log.info("Configured. Dispatch partitions set to {}", newPartitions);
+        }
+
+        int newQueueSize = Tools.getIntegerProperty(properties, "dispatchQueueSize", DEFAULT_QUEUE_SIZE);
+        if (newQueueSize < 0) {
+            log.warn("dispatchQueueSize must not be negative; keeping {}", dispatchQueueSize);
+        } else if (newQueueSize != dispatchQueueSize) {
+            dispatchQueueSize = newQueueSize;
+            log.info("Configured. Dispatch queue size set to {}", newQueueSize);
+        }
+
+        String newCoalescedEvents = Tools.get(properties, "coalescedEvents");
+        newCoalescedEvents = newCoalescedEvents == null ? DEFAULT_COALESCED_EVENTS : newCoalescedEvents;
+        if (!Objects.equals(newCoalescedEvents, coalescedEvents)) {
+            coalescedEvents = newCoalescedEvents;
+            setCoalescers(parseCoalescers(newCoalescedEvents));
+            log.info("Configured. Coalesced events set to {}", newCoalescedEvents);
+        }
+    }
+
+    // Parses entries of the form EventClass.TYPE=millis, skipping invalid ones.
+    private Map<String, Map<String, EventCoalescer>> parseCoalescers(String spec) {
+        Map<String, Map<String, EventCoalescer>> result = Maps.newHashMap();
+        for (String entry : Splitter.on(',').trimResults().omitEmptyStrings().split(spec)) {
+            int dot = entry.lastIndexOf('.');
+            int equals = entry.indexOf('=', dot);
+            long window = -1;
+            if (dot > 0 && equals > dot + 1) {
+                try {
+                    window = Long.parseLong(entry.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    window = -1;
+                }
+            }
+            if (window <= 0) {
+                log.warn("Ignoring invalid coalesced event entry {}", entry);
+                continue;
+            }
+            String className = entry.substring(0, dot).trim();
+            String typeName = entry.substring(dot + 1, equals).trim();
+            result.computeIfAbsent(className, c -> Maps.newHashMap())
+                    .put(typeName, new EventCoalescer(className + "." + typeName, window,
+                                                      coalesceExecutor, this::postCoalesced));
+        }
+        ImmutableMap.Builder<String, Map<String, EventCoalescer>> builder = ImmutableMap.builder();
+        result.forEach((className, types) -> builder.put(className, ImmutableMap.copyOf(types)));
+        return builder.build();
+    }
+
+    // Replaces the coalescers, releasing the events held by the old ones.
+    private synchronized void setCoalescers(Map<String, Map<String, EventCoalescer>> newCoalescers) {
+        Map<String, Map<String, EventCoalescer>> old = coalescers;
+        coalescers = newCoalescers;
+        classCoalescers = new ConcurrentHashMap<>();
+        allCoalescers(old).forEach(EventCoalescer::close);
+
+        MetricsService service = metricsService;
+        if (service != null) {
+            allCoalescers(old).forEach(c -> removeCoalescerMetrics(service, c));
+            allCoalescers(newCoalescers).forEach(c -> registerCoalescerMetrics(service, c));
+        }
+    }
+
+    private static Stream<EventCoalescer> allCoalescers(Map<String, Map<String, EventCoalescer>> coalescers) {
+        return coalescers.values().stream().flatMap(types -> types.values().stream());
+    }
+
+    private void registerCoalescerMetrics(MetricsService service, EventCoalescer coalescer) {
+        service.registerMetric(metricsComponent, coalescingFeature, coalescer.name() + RECEIVED,
+                               (Gauge<Long>) coalescer::received);
+        service.registerMetric(metricsComponent, coalescingFeature, coalescer.name() + DELIVERED,
+                               (Gauge<Long>) coalescer::delivered);
+        service.registerMetric(metricsComponent, coalescingFeature, coalescer.name() + REDUCTION_RATIO,
+                               (Gauge<Double>) coalescer::reductionRatio);
+    }
+
+    private void removeCoalescerMetrics(MetricsService service, EventCoalescer coalescer) {
+        service.removeMetric(metricsComponent, coalescingFeature, coalescer.name() + RECEIVED);
+        service.removeMetric(metricsComponent, coalescingFeature, coalescer.name() + DELIVERED);
+        service.removeMetric(metricsComponent, coalescingFeature, coalescer.name() + REDUCTION_RATIO);
+    }
+
+    @Override
+    public synchronized <E extends Event> void addSink(Class<E> eventClass, EventSink<E> sink) {
+        super.addSink(eventClass, sink);
+        MetricsService service = metricsService;
+        if (service != null) {
+            enableListenerMetrics(service, eventClass, sink);
+        }
+    }
+
+    @Override
+    public synchronized <E extends Event> void removeSink(Class<E> eventClass) {
+        EventSink<E> sink = getSink(eventClass);
+        super.removeSink(eventClass);
+        if (sink instanceof ListenerRegistry) {
+            ((ListenerRegistry) sink).disableMetrics();
+        }
+    }
+
+    // Exports the metrics of the listeners of sinks keeping track of them.
+    private void enableListenerMetrics(MetricsService service, Class<? extends Event> eventClass,
+                                       EventSink<?> sink) {
+        if (sink instanceof ListenerRegistry) {
+            ((ListenerRegistry) sink).enableMetrics(
+                    service, listenersComponent, listenersComponent.registerFeature(eventClass.getSimpleName()));
+        }
+    }
+
+    protected void bindComponentConfigService(ComponentConfigService service) {
+        if (cfgService == null) {
+            cfgService = service;
+            service.registerProperties(getClass());
+        }
+    }
+
+    protected void unbindComponentConfigService(ComponentConfigService service) {
+        if (cfgService == service) {
+            service.unregisterProperties(getClass(), false);
+            cfgService = null;
+        }
+    }
+
+    protected synchronized void bindMetricsService(MetricsService service) {
+        if (metricsService == null) {
+            metricsComponent = service.registerComponent("eventDispatcher");
+            coalescingFeature = metricsComponent.registerFeature("coalescing");
+            listenersComponent = service.registerComponent("eventListeners");
+            metricsService = service;
+            allCoalescers(coalescers).forEach(c -> registerCoalescerMetrics(service, c));
+            getSinks().forEach(cls -> enableListenerMetrics(service, cls, getSink(cls)));
+        }
+    }
+
+    protected synchronized void unbindMetricsService(MetricsService service) {
+        if (metricsService == service) {
+            metricsService = null;
+            allCoalescers(coalescers).forEach(c -> removeCoalescerMetrics(service, c));
+            getSinks().stream().map(this::getSink)
+                    .filter(sink -> sink instanceof ListenerRegistry)
+                    .forEach(sink -> ((ListenerRegistry) sink).disableMetrics());
+        }
+    }
+
+    private Stream<DispatchLoop> allDispatchers() {
+        return Stream.concat(groups.stream().flatMap(group -> group.loops.stream()),
+                             Stream.of(defaultDispatcher));
+    }
+
     @Override
     public void setDispatchTimeLimit(long millis) {
         checkPermission(EVENT_WRITE);
@@ -136,9 +422,9 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         maxProcessMillis = millis;
 
         if (millis == 0 && oldMillis != 0) {
-            dispatchers.forEach(DispatchLoop::stopWatchdog);
+            allDispatchers().forEach(DispatchLoop::stopWatchdog);
         } else if (millis != 0 && oldMillis == 0) {
-            dispatchers.forEach(DispatchLoop::startWatchdog);
+            allDispatchers().forEach(DispatchLoop::startWatchdog);
         }
     }
 
@@ -148,10 +434,47 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         return maxProcessMillis;
     }
 
+    // Set of dispatch loops sharing the events of the same classes by subject.
+    private class DispatchGroup {
+        private final String name;
+        private volatile List<DispatchLoop> loops;
+
+        DispatchGroup(String name) {
+            this.name = name;
+            this.loops = ImmutableList.of(new DispatchLoop(name));
+        }
+
+        DispatchLoop getDispatcher(Event event) {
+            List<DispatchLoop> current = loops;
+            if (current.size() == 1) {
+                return current.get(0);
+            }
+            return current.get(Math.floorMod(partitionKey(event).hashCode(), current.size()));
+        }
+
+        // Replaces the loops by the given number of new ones. The old loops
+        // finish their pending events first, so events posted around the
+        // change may be dispatched out of order.
+        synchronized void resize(int size) {
+            List<DispatchLoop> old = loops;
+            ImmutableList.Builder<DispatchLoop> builder = ImmutableList.builder();
+            for (int i = 0; i < size; i++) {
+                DispatchLoop loop = new DispatchLoop(size == 1 ? name : name + "-" + i);
+                if (maxProcessMillis != 0) {
+                    loop.startWatchdog();
+                }
+                builder.add(loop);
+            }
+            loops = builder.build();
+            old.forEach(DispatchLoop::retire);
+        }
+    }
+
     // Auxiliary event dispatching loop that feeds off the events queue.
     private class DispatchLoop implements Runnable {
         private final String name;
         private volatile boolean stopped;
+        private volatile boolean retired;
         private volatile EventSink lastSink;
         // Means to detect long-running sinks
         private final Stopwatch stopwatch = Stopwatch.createUnstarted();
@@ -159,6 +482,8 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         private volatile Future<?> dispatchFuture;
         private final BlockingQueue<Event> eventsQueue;
         private final ExecutorService executor;
+        // Number of events posted but not yet dispatched
+        private final AtomicInteger pending = new AtomicInteger();
 
         DispatchLoop(String name) {
             this.name = name;
@@ -170,19 +495,65 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
         }
 
         public boolean add(Event event) {
+            int limit = dispatchQueueSize;
+            if (limit > 0 && !DISPATCHING.get() && pending.get() >= limit) {
+                awaitCapacity(limit);
+            }
+            return enqueue(event);
+        }
+
+        // Queues the event regardless of the number of pending events.
+        boolean enqueue(Event event) {
+            pending.incrementAndGet();
             return eventsQueue.add(event);
         }
 
+        // Waits, up to the dispatch time limit, for the pending events to
+        // drop below the limit; events are never dropped.
+        private synchronized void awaitCapacity(int limit) {
+            long waitMillis = maxProcessMillis != 0 ? maxProcessMillis : DEFAULT_EXECUTE_MS;
+            long deadline = System.currentTimeMillis() + waitMillis;
+            try {
+                long remaining = waitMillis;
+                while (pending.get() >= limit && remaining > 0) {
+                    wait(remaining);
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (pending.get() >= limit) {
+                log.warn("Dispatch loop({}) still has {} pending events; posting anyway",
+                         name, pending.get());
+            }
+        }
+
+        // Accounts for a dispatched event, waking up waiting posters once
+        // the pending events drop below the limit.
+        private void dispatched() {
+            int remaining = pending.decrementAndGet();
+            int limit = dispatchQueueSize;
+            if (limit > 0 && remaining == limit - 1) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
         @Override
         public void run() {
             stopped = false;
+            DISPATCHING.set(true);
             log.info("Dispatch loop({}) initiated", name);
             while (!stopped) {
                 try {
                     // Fetch the next event and if it is the kill-pill, bail
                     Event event = eventsQueue.take();
                     if (event != KILL_PILL) {
+                        dispatched();
                         process(event);
+                    } else if (retired) {
+                        stopped = true;
                     }
                 } catch (InterruptedException e) {
                     log.warn("Dispatch loop interrupted");
@@ -191,6 +562,10 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
                 }
             }
             log.info("Dispatch loop({}) terminated", name);
+            if (retired) {
+                stopWatchdog();
+                executor.shutdown();
+            }
         }
 
         // Locate the sink for the event class and use it to process the event
@@ -210,7 +585,13 @@ public class CoreEventDispatcher extends DefaultEventSinkRegistry
 
         void stop() {
             stopped = true;
-            add(KILL_PILL);
+            eventsQueue.add(KILL_PILL);
+        }
+
+        // Stops the loop once the events posted so far are dispatched.
+        void retire() {
+            retired = true;
+            eventsQueue.add(KILL_PILL);
         }
 
         void restart() {
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.event.impl;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import org.onosproject.event.Event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Stage holding the events of one class and type for a short window, during
+ * which an event supersedes the pending one about the same subject.
+ * <p>
+ * Pending events are released in the order their subjects were first seen,
+ * once the window elapses or as soon as an event of another type about the
+ * same subject needs to be dispatched after them.
+ * </p>
+ */
+final class EventCoalescer {
+
+    private final String name;
+    private final long windowMillis;
+    private final ScheduledExecutorService executor;
+    private final Consumer<Event> output;
+
+    private final Map<Object, Event> pending = new LinkedHashMap<>();
+    // Keys, in the dispatch order sense, of the subjects of the pending events
+    private final Multiset<Object> pendingOrderKeys = HashMultiset.create();
+    private boolean scheduled;
+    private boolean closed;
+
+    private long received;
+    private long delivered;
+
+    /**
+     * Creates a coalescing stage.
+     *
+     * @param name         name of the coalesced event class and type
+     * @param windowMillis time events are held for, in millis
+     * @param executor     executor releasing the events once the window elapses
+     * @param output       consumer of the released events
+     */
+    EventCoalescer(String name, long windowMillis,
+                   ScheduledExecutorService executor, Consumer<Event> output) {
+        this.name = name;
+        this.windowMillis = windowMillis;
+        this.executor = executor;
+        this.output = output;
+    }
+
+    /**
+     * Returns the name of the coalesced event class and type.
+     *
+     * @return coalescer name
+     */
+    String name() {
+        return name;
+    }
+
+    /**
+     * Holds the given event, superseding the pending event about the same
+     * subject, if any.
+     *
+     * @param event    event to hold
+     * @param orderKey key of the subject whose events must be dispatched in order
+     * @return false if the coalescer is closed and the event was not taken
+     */
+    synchronized boolean add(Event event, Object orderKey) {
+        if (closed) {
+            return false;
+        }
+        received++;
+        if (pending.put(event.coalesceKey(), event) == null) {
+            pendingOrderKeys.add(orderKey);
+        }
+        if (!scheduled) {
+            scheduled = true;
+            executor.schedule(() -> flush(), windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Releases the pending events if any of them is about the given subject,
+     * so that an event about it may follow them.
+     *
+     * @param orderKey key of the subject whose events must be dispatched in order
+     */
+    synchronized void flush(Object orderKey) {
+        if (pendingOrderKeys.contains(orderKey)) {
+            flush();
+        }
+    }
+
+    /**
+     * Releases all the pending events.
+     */
+    synchronized void flush() {
+        scheduled = false;
+        if (pending.isEmpty()) {
+            return;
+        }
+        // Released under the lock so that no later event can overtake them
+        pending.values().forEach(output);
+        delivered += pending.size();
+        pending.clear();
+        pendingOrderKeys.clear();
+    }
+
+    /**
+     * Releases the pending events and stops taking further ones.
+     */
+    synchronized void close() {
+        closed = true;
+        flush();
+    }
+
+    /**
+     * Returns the number of events taken by this coalescer.
+     *
+     * @return number of events received
+     */
+    synchronized long received() {
+        return received;
+    }
+
+    /**
+     * Returns the number of events released by this coalescer.
+     *
+     * @return number of events delivered
+     */
+    synchronized long delivered() {
+        return delivered;
+    }
+
+    /**
+     * Returns the share of the events taken that were superseded.
+     *
+     * @return reduction ratio between 0 and 1
+     */
+    synchronized double reductionRatio() {
+        return received == 0 ? 0 : 1 - (double) (delivered + pending.size()) / received;
+    }
+}
@@ -34,6 +34,8 @@ import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
+import org.onosproject.mastership.MastershipEvent;
+import org.onosproject.mastership.MastershipListener;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
@@ -67,6 +69,7 @@ import org.onosproject.net.provider.ProviderId;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -77,6 +80,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
@@ -120,6 +124,7 @@ public class FlowRuleManager
 
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
     private final DeviceListener deviceListener = new InternalDeviceListener();
+    private final MastershipListener mastershipListener = new InternalMastershipListener();
 
     private final FlowRuleDriverProvider driverProvider = new FlowRuleDriverProvider();
 
@@ -133,6 +138,9 @@ public class FlowRuleManager
 
     private final Map<Long, FlowOperationsProcessor> pendingFlowOperations = new ConcurrentHashMap<>();
 
+    // Flow metrics being pushed in parts, by device
+    private final Map<DeviceId, FlowMetricsParts> flowMetricsParts = new ConcurrentHashMap<>();
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowRuleStore store;
 
@@ -157,6 +165,7 @@ public class FlowRuleManager
         store.setDelegate(delegate);
         eventDispatcher.addSink(FlowRuleEvent.class, listenerRegistry);
         deviceService.addListener(deviceListener);
+        mastershipService.addListener(mastershipListener);
         cfgService.registerProperties(getClass());
         idGenerator = coreService.getIdGenerator(FLOW_OP_TOPIC);
         log.info("Started");
@@ -166,6 +175,7 @@ public class FlowRuleManager
     public void deactivate() {
         driverProvider.terminate();
         deviceService.removeListener(deviceListener);
+        mastershipService.removeListener(mastershipListener);
         cfgService.unregisterProperties(getClass(), false);
         deviceInstallers.shutdownNow();
         operationsService.shutdownNow();
@@ -459,9 +469,14 @@ public class FlowRuleManager
 
         private void flowAdded(FlowEntry flowEntry) {
             checkNotNull(flowEntry, FLOW_RULE_NULL);
+            flowAdded(flowEntry, store.getFlowEntry(flowEntry));
+        }
+
+        // Updates the stored counterpart of a rule found on the device.
+        private void flowAdded(FlowEntry flowEntry, FlowEntry storedEntry) {
             checkValidity();
 
-            if (checkRuleLiveness(flowEntry, store.getFlowEntry(flowEntry))) {
+            if (checkRuleLiveness(flowEntry, storedEntry)) {
                 FlowRuleEvent event = store.addOrUpdateFlowRule(flowEntry);
                 if (event == null) {
                     log.debug("No flow store event generated.");
@@ -526,18 +541,64 @@ public class FlowRuleManager
             pushFlowMetricsInternal(deviceId, flowEntries, false);
         }
 
+        @Override
+        public void pushFlowMetricsPart(DeviceId deviceId, long requestId,
+                                        Iterable<FlowEntry> flowEntries, boolean last) {
+            checkNotNull(deviceId, DEVICE_ID_NULL);
+            FlowMetricsParts parts = flowMetricsParts.get(deviceId);
+            if (parts == null || parts.requestId != requestId) {
+                if (parts != null) {
+                    log.debug("Discarding unfinished flow metrics {} of device {}",
+                              parts.requestId, deviceId);
+                }
+                parts = new FlowMetricsParts(requestId);
+                flowMetricsParts.put(deviceId, parts);
+            }
+            reconcile(deviceId, flowEntries, null, parts);
+            if (last) {
+                flowMetricsParts.remove(deviceId, parts);
+                if (parts.found != store.getFlowRuleCount(deviceId)) {
+                    parts.sort();
+                    flowMissing(store.getFlowEntries(deviceId), parts::wasFound);
+                }
+            }
+        }
+
+        // Reconciles the rules found on the device with the stored ones in a
+        // single pass over the former, looking each one up in the store. The
+        // stored rules are only fetched, to find the missing ones, when fewer
+        // of them were found on the device than the store counts.
         private void pushFlowMetricsInternal(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
                                              boolean useMissingFlow) {
-            Map<FlowEntry, FlowEntry> storedRules = Maps.newHashMap();
-            store.getFlowEntries(deviceId).forEach(f -> storedRules.put(f, f));
+            Map<FlowEntry, FlowEntry> copiedRules = mastershipService.isLocalMaster(deviceId) ?
+                    null : copiedRules(store.getFlowEntries(deviceId));
+            int found = reconcile(deviceId, flowEntries, copiedRules, null);
 
+            // DO NOT reinstall
+            if (useMissingFlow && found != store.getFlowRuleCount(deviceId)) {
+                Iterable<FlowEntry> storedRules = copiedRules != null ?
+                        copiedRules.keySet() : store.getFlowEntries(deviceId);
+                flowMissing(storedRules, Sets.newHashSet(flowEntries)::contains);
+            }
+        }
+
+        // Updates the stored rules found on the device and removes the
+        // device rules the store does not have; returns the number found.
+        private int reconcile(DeviceId deviceId, Iterable<FlowEntry> flowEntries,
+                              Map<FlowEntry, FlowEntry> copiedRules, FlowMetricsParts parts) {
+            int found = 0;
             for (FlowEntry rule : flowEntries) {
                 try {
-                    FlowEntry storedRule = storedRules.remove(rule);
+                    FlowEntry storedRule = copiedRules == null ?
+                            store.getFlowEntry(rule) : copiedRules.get(rule);
                     if (storedRule != null) {
+                        found++;
+                        if (parts != null) {
+                            parts.found(storedRule);
+                        }
                         if (storedRule.exactMatch(rule)) {
                             // we both have the rule, let's update some info then.
-                            flowAdded(rule);
+                            flowAdded(rule, storedRule);
                         } else {
                             // the two rules are not an exact match - remove the
                             // switch's rule and install our rule
@@ -555,21 +616,33 @@ public class FlowRuleManager
                              rule, deviceId, e);
                 }
             }
+            return found;
+        }
 
-            // DO NOT reinstall
-            if (useMissingFlow) {
-                for (FlowEntry rule : storedRules.keySet()) {
-                    try {
-                        // there are rules in the store that aren't on the switch
-                        log.debug("Adding the rule that is present in store but not on switch : {}", rule);
-                        flowMissing(rule, true);
-                    } catch (Exception e) {
-                        log.warn("Can't add missing flow rule:", e);
-                    }
+        // Reinstalls the stored rules the device does not have.
+        private void flowMissing(Iterable<FlowEntry> storedRules, Predicate<FlowEntry> present) {
+            for (FlowEntry rule : storedRules) {
+                if (present.test(rule)) {
+                    continue;
+                }
+                try {
+                    // there are rules in the store that aren't on the switch
+                    log.debug("Adding the rule that is present in store but not on switch : {}", rule);
+                    flowMissing(rule, true);
+                } catch (Exception e) {
+                    log.warn("Can't add missing flow rule:", e);
                 }
             }
         }
 
+        // The store would forward each lookup to the master of the device,
+        // so rules mastered elsewhere are looked up in a local copy instead.
+        private Map<FlowEntry, FlowEntry> copiedRules(Iterable<FlowEntry> storedRules) {
+            Map<FlowEntry, FlowEntry> copy = Maps.newHashMap();
+            storedRules.forEach(f -> copy.put(f, f));
+            return copy;
+        }
+
         @Override
         public void batchOperationCompleted(long batchId, CompletedBatchOperation operation) {
             store.batchOperationComplete(FlowRuleBatchEvent.completed(
@@ -585,6 +658,34 @@ public class FlowRuleManager
         }
     }
 
+    // Identifiers of the stored rules found so far on a device whose flow
+    // metrics are being pushed in parts; the stored rules are not copied.
+    private static final class FlowMetricsParts {
+        private final long requestId;
+        private long[] foundIds = new long[64];
+        private int found;
+
+        private FlowMetricsParts(long requestId) {
+            this.requestId = requestId;
+        }
+
+        private void found(FlowEntry storedRule) {
+            if (found == foundIds.length) {
+                foundIds = Arrays.copyOf(foundIds, found * 2);
+            }
+            foundIds[found++] = storedRule.id().value();
+        }
+
+        // Prepares the identifiers found for lookups, once all parts are in.
+        private void sort() {
+            Arrays.sort(foundIds, 0, found);
+        }
+
+        private boolean wasFound(FlowEntry storedRule) {
+            return Arrays.binarySearch(foundIds, 0, found, storedRule.id().value()) >= 0;
+        }
+    }
+
     // Store delegate to re-post events emitted from the store.
     private class InternalStoreDelegate implements FlowRuleStoreDelegate {
 
@@ -740,6 +841,10 @@ public class FlowRuleManager
                 case DEVICE_REMOVED:
                 case DEVICE_AVAILABILITY_CHANGED:
                     DeviceId deviceId = event.subject().id();
+                    if (event.type() == DeviceEvent.Type.DEVICE_REMOVED ||
+                            !deviceService.isAvailable(deviceId)) {
+                        flowMetricsParts.remove(deviceId);
+                    }
                     if (!deviceService.isAvailable(deviceId)) {
                         if (purgeOnDisconnection) {
                             store.purgeFlowRule(deviceId);
@@ -751,4 +856,15 @@ public class FlowRuleManager
             }
         }
     }
+
+    private class InternalMastershipListener implements MastershipListener {
+        @Override
+        public void event(MastershipEvent event) {
+            // flow metrics are only pushed to the master of the device
+            if (event.type() == MastershipEvent.Type.MASTER_CHANGED &&
+                    !mastershipService.isLocalMaster(event.subject())) {
+                flowMetricsParts.remove(event.subject());
+            }
+        }
+    }
 }
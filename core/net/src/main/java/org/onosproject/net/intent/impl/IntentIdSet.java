@@ -0,0 +1,310 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compact set of non-negative integer identifiers in the manner of roaring
+ * bitmaps. Identifiers are split into chunks of 2^16 by their high bits;
+ * each chunk keeps the low bits as a sorted array while it is sparse and as
+ * a bitmap once it is dense.
+ * <p>
+ * Not thread-safe.
+ * </p>
+ */
+final class IntentIdSet {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int LOW_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int BITMAP_WORDS = (1 << CHUNK_BITS) / Long.SIZE;
+
+    // Chunks holding more identifiers than this are kept as bitmaps
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    private int[] highs = new int[1];
+    private Chunk[] chunks = new Chunk[1];
+    private int chunkCount;
+    private int size;
+
+    /**
+     * Adds the specified identifier to the set.
+     *
+     * @param id non-negative identifier
+     * @return true if the set did not already contain the identifier
+     */
+    boolean add(int id) {
+        checkArgument(id >= 0, "Identifier must not be negative");
+        int index = Arrays.binarySearch(highs, 0, chunkCount, id >>> CHUNK_BITS);
+        if (index < 0) {
+            index = -index - 1;
+            insertChunk(index, id >>> CHUNK_BITS);
+        }
+        if (chunks[index].add(id & LOW_MASK)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the specified identifier from the set.
+     *
+     * @param id identifier
+     * @return true if the set contained the identifier
+     */
+    boolean remove(int id) {
+        int index = id < 0 ? -1 : Arrays.binarySearch(highs, 0, chunkCount, id >>> CHUNK_BITS);
+        if (index < 0 || !chunks[index].remove(id & LOW_MASK)) {
+            return false;
+        }
+        size--;
+        if (chunks[index].cardinality == 0) {
+            System.arraycopy(highs, index + 1, highs, index, chunkCount - index - 1);
+            System.arraycopy(chunks, index + 1, chunks, index, chunkCount - index - 1);
+            chunks[--chunkCount] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Indicates whether the set contains the specified identifier.
+     *
+     * @param id identifier
+     * @return true if the set contains the identifier
+     */
+    boolean contains(int id) {
+        int index = id < 0 ? -1 : Arrays.binarySearch(highs, 0, chunkCount, id >>> CHUNK_BITS);
+        return index >= 0 && chunks[index].contains(id & LOW_MASK);
+    }
+
+    /**
+     * Returns the number of identifiers in the set.
+     *
+     * @return number of identifiers
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether the set is empty.
+     *
+     * @return true if the set holds no identifiers
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds the identifiers of this set to the given bit set, which allows
+     * the union of many sets to be accumulated cheaply.
+     *
+     * @param target bit set to add to
+     */
+    void orInto(BitSet target) {
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].orInto(target, highs[i] << CHUNK_BITS);
+        }
+    }
+
+    /**
+     * Returns the intersection of this set with the given one.
+     *
+     * @param other other set
+     * @return new set of the identifiers in both sets
+     */
+    IntentIdSet and(IntentIdSet other) {
+        IntentIdSet result = new IntentIdSet();
+        int i = 0;
+        int j = 0;
+        while (i < chunkCount && j < other.chunkCount) {
+            if (highs[i] < other.highs[j]) {
+                i++;
+            } else if (highs[i] > other.highs[j]) {
+                j++;
+            } else {
+                Chunk chunk = chunks[i].and(other.chunks[j]);
+                if (chunk.cardinality > 0) {
+                    result.insertChunk(result.chunkCount, highs[i]);
+                    result.chunks[result.chunkCount - 1] = chunk;
+                    result.size += chunk.cardinality;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Performs the given action for each identifier, in ascending order.
+     *
+     * @param action action to perform
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < chunkCount; i++) {
+            chunks[i].forEach(action, highs[i] << CHUNK_BITS);
+        }
+    }
+
+    private void insertChunk(int index, int high) {
+        if (chunkCount == highs.length) {
+            highs = Arrays.copyOf(highs, chunkCount * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(highs, index, highs, index + 1, chunkCount - index);
+        System.arraycopy(chunks, index, chunks, index + 1, chunkCount - index);
+        highs[index] = high;
+        chunks[index] = new Chunk();
+        chunkCount++;
+    }
+
+    // Low bits of the identifiers sharing the same high bits; kept either
+    // as a sorted array or, when that would take more space, as a bitmap.
+    private static final class Chunk {
+        private char[] values = new char[4];
+        private long[] bitmap;
+        private int cardinality;
+
+        boolean add(int low) {
+            if (bitmap != null) {
+                if (isSet(bitmap, low)) {
+                    return false;
+                }
+                bitmap[low >>> 6] |= 1L << low;
+                cardinality++;
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == MAX_ARRAY_SIZE) {
+                toBitmap();
+                return add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, MAX_ARRAY_SIZE));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = (char) low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(int low) {
+            if (bitmap != null) {
+                if (!isSet(bitmap, low)) {
+                    return false;
+                }
+                bitmap[low >>> 6] &= ~(1L << low);
+                if (--cardinality == MAX_ARRAY_SIZE) {
+                    toArray();
+                }
+                return true;
+            }
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(int low) {
+            return bitmap != null ? isSet(bitmap, low) :
+                    Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+        }
+
+        void orInto(BitSet target, int base) {
+            if (bitmap == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    target.set(base + values[i]);
+                }
+            } else {
+                forEach(target::set, base);
+            }
+        }
+
+        void forEach(IntConsumer action, int base) {
+            if (bitmap == null) {
+                for (int i = 0; i < cardinality; i++) {
+                    action.accept(base + values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = bitmap[w];
+                while (word != 0) {
+                    action.accept(base + (w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        Chunk and(Chunk other) {
+            Chunk result = new Chunk();
+            if (bitmap != null && other.bitmap != null) {
+                result.bitmap = new long[BITMAP_WORDS];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    result.bitmap[w] = bitmap[w] & other.bitmap[w];
+                    result.cardinality += Long.bitCount(result.bitmap[w]);
+                }
+                if (result.cardinality <= MAX_ARRAY_SIZE) {
+                    result.toArray();
+                }
+                return result;
+            }
+            // Probe the array of the sparser chunk against the other one
+            Chunk array = bitmap == null ? this : other;
+            Chunk probe = array == this ? other : this;
+            result.values = new char[Math.max(array.cardinality, 1)];
+            for (int i = 0; i < array.cardinality; i++) {
+                if (probe.contains(array.values[i])) {
+                    result.values[result.cardinality++] = array.values[i];
+                }
+            }
+            return result;
+        }
+
+        private void toBitmap() {
+            bitmap = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                bitmap[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toArray() {
+            char[] array = new char[Math.max(cardinality, 1)];
+            int[] count = new int[1];
+            forEach(low -> array[count[0]++] = (char) low, 0);
+            values = array;
+            bitmap = null;
+        }
+
+        private static boolean isSet(long[] bitmap, int low) {
+            return (bitmap[low >>> 6] & (1L << low)) != 0;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.intent.impl;
 
+import com.google.common.collect.Maps;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -66,16 +67,13 @@ import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.concurrent.Executors.newFixedThreadPool;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.intent.IntentState.*;
 import static org.onosproject.net.intent.constraint.PartialFailureConstraint.intentAllowsPartialFailure;
@@ -116,6 +114,12 @@ public class IntentManager
             label = "Number of worker threads")
     private int numThreads = DEFAULT_NUM_THREADS;
 
+    private static final int DEFAULT_MAX_BATCHES_IN_FLIGHT = 4;
+    @Property(name = "maxBatchesInFlight",
+            intValue = DEFAULT_MAX_BATCHES_IN_FLIGHT,
+            label = "Maximum number of intent batches processed at a time")
+    private int maxBatchesInFlight = DEFAULT_MAX_BATCHES_IN_FLIGHT;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected CoreService coreService;
 
@@ -146,7 +150,6 @@ public class IntentManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private NetworkConfigService networkConfigService;
 
-    private ExecutorService batchExecutor;
     private ExecutorService workerExecutor;
 
     private final CompilerRegistry compilerRegistry = new CompilerRegistry();
@@ -159,7 +162,11 @@ public class IntentManager
     private InstallCoordinator installCoordinator;
     private IdGenerator idGenerator;
 
-    private final IntentAccumulator accumulator = new IntentAccumulator(batchDelegate);
+    private final IntentAccumulator accumulator =
+            new IntentAccumulator(batchDelegate, DEFAULT_MAX_BATCHES_IN_FLIGHT);
+
+    // Last pending operation on each intent key
+    private final Map<Key, CompletableFuture<Void>> inProgress = Maps.newConcurrentMap();
 
     @Activate
     public void activate() {
@@ -171,7 +178,6 @@ public class IntentManager
         }
         trackerService.setDelegate(topoDelegate);
         eventDispatcher.addSink(IntentEvent.class, listenerRegistry);
-        batchExecutor = newSingleThreadExecutor(groupedThreads("onos/intent", "batch", log));
         workerExecutor = newFixedThreadPool(numThreads, groupedThreads("onos/intent", "worker-%d", log));
         idGenerator = coreService.getIdGenerator("intent-ids");
         Intent.unbindIdGenerator(idGenerator);
@@ -190,7 +196,6 @@ public class IntentManager
         configService.unregisterProperties(getClass(), false);
         trackerService.unsetDelegate(topoDelegate);
         eventDispatcher.removeSink(IntentEvent.class);
-        batchExecutor.shutdown();
         workerExecutor.shutdown();
         Intent.unbindIdGenerator(idGenerator);
         log.info("Stopped");
@@ -229,6 +234,14 @@ public class IntentManager
             }
             logConfig("Reconfigured number of worker threads");
         }
+
+        s = Tools.get(context.getProperties(), "maxBatchesInFlight");
+        int newMaxBatchesInFlight = isNullOrEmpty(s) ? maxBatchesInFlight : Integer.parseInt(s.trim());
+        if (newMaxBatchesInFlight != maxBatchesInFlight && newMaxBatchesInFlight > 0) {
+            maxBatchesInFlight = newMaxBatchesInFlight;
+            accumulator.setMaxBatchesInFlight(maxBatchesInFlight);
+            logConfig("Reconfigured maximum number of batches in flight");
+        }
     }
 
     private void logConfig(String prefix) {
@@ -507,57 +520,68 @@ public class IntentManager
             log.debug("Execute {} operation(s).", operations.size());
             log.trace("Execute operations: {}", operations);
 
-            // batchExecutor is single-threaded, so only one batch is in flight at a time
-            CompletableFuture.runAsync(() -> {
-                // process intent until the phase reaches one of the final phases
-                List<CompletableFuture<IntentData>> futures = operations.stream()
-                        .map(data -> {
-                            log.debug("Start processing of {} {}@{}", data.request(), data.key(), data.version());
-                            return data;
-                        })
-                        .map(x -> CompletableFuture.completedFuture(x)
-                                .thenApply(IntentManager.this::createInitialPhase)
-                                .thenApplyAsync(IntentProcessPhase::process, workerExecutor)
-                                .thenApply(FinalIntentProcessPhase::data)
-                                .exceptionally(e -> {
-                                    // When the future fails, we update the Intent to simulate the failure of
-                                    // the installation/withdrawal phase and we save in the current map. In
-                                    // the next round the CleanUp Thread will pick this Intent again.
-                                    log.warn("Future failed", e);
-                                    log.warn("Intent {} - state {} - request {}",
-                                             x.key(), x.state(), x.request());
-                                    switch (x.state()) {
-                                        case INSTALL_REQ:
-                                        case INSTALLING:
-                                        case WITHDRAW_REQ:
-                                        case WITHDRAWING:
-                                            // TODO should we swtich based on current
-                                            IntentData current = store.getIntentData(x.key());
-                                            return IntentData.nextState(current, FAILED);
-                                        default:
-                                            return null;
-                                    }
-                                }))
-                        .collect(Collectors.toList());
-
-                // write multiple data to store in order
-                store.batchWrite(Tools.allOf(futures).join().stream()
-                                         .filter(Objects::nonNull)
-                                         .collect(Collectors.toList()));
-            }, batchExecutor).exceptionally(e -> {
-                log.error("Error submitting batches:", e);
-                // FIXME incomplete Intents should be cleaned up
-                //       (transition to FAILED, etc.)
-
-                // the batch has failed
-                // TODO: maybe we should do more?
-                log.error("Walk the plank, matey...");
-                return null;
-            }).thenRun(accumulator::ready);
-
+            // Several batches may be in flight; operations on the same intent
+            // key are still processed and written to the store in order.
+            CompletableFuture<?>[] futures = operations.stream()
+                    .map(IntentManager.this::process)
+                    .toArray(CompletableFuture[]::new);
+
+            CompletableFuture.allOf(futures).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.error("Error submitting batches:", e);
+                    // FIXME incomplete Intents should be cleaned up
+                    //       (transition to FAILED, etc.)
+
+                    // the batch has failed
+                    // TODO: maybe we should do more?
+                    log.error("Walk the plank, matey...");
+                }
+                accumulator.ready();
+            });
         }
     }
 
+    // Processes the intent operation once the previous operation on the same
+    // key is done, and writes its outcome to the store as soon as it is final.
+    private CompletableFuture<Void> process(IntentData data) {
+        CompletableFuture<Void> future = inProgress.compute(data.key(), (key, previous) ->
+                (previous != null ? previous : CompletableFuture.completedFuture(null))
+                        .handle((result, e) -> data)
+                        .thenApplyAsync(x -> {
+                            log.debug("Start processing of {} {}@{}", x.request(), x.key(), x.version());
+                            return createInitialPhase(x);
+                        }, workerExecutor)
+                        // process intent until the phase reaches one of the final phases
+                        .thenApply(IntentProcessPhase::process)
+                        .thenApply(FinalIntentProcessPhase::data)
+                        .exceptionally(e -> {
+                            // When the future fails, we update the Intent to simulate the failure of
+                            // the installation/withdrawal phase and we save in the current map. In
+                            // the next round the CleanUp Thread will pick this Intent again.
+                            log.warn("Future failed", e);
+                            log.warn("Intent {} - state {} - request {}",
+                                     data.key(), data.state(), data.request());
+                            switch (data.state()) {
+                                case INSTALL_REQ:
+                                case INSTALLING:
+                                case WITHDRAW_REQ:
+                                case WITHDRAWING:
+                                    // TODO should we swtich based on current
+                                    IntentData current = store.getIntentData(data.key());
+                                    return IntentData.nextState(current, FAILED);
+                                default:
+                                    return null;
+                            }
+                        })
+                        .thenAccept(result -> {
+                            if (result != null) {
+                                store.write(result);
+                            }
+                        }));
+        future.whenComplete((result, e) -> inProgress.remove(data.key(), future));
+        return future;
+    }
+
     private IntentProcessPhase createInitialPhase(IntentData data) {
         IntentData pending = store.getPendingData(data.key());
         if (pending == null || pending.version().isNewerThan(data.version())) {
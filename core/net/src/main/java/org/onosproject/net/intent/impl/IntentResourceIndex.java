@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.onosproject.net.intent.Key;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reverse index from tracked resources, such as link keys and element
+ * identifiers, to the keys of the intents using them.
+ * <p>
+ * Intent keys are interned as small integer identifiers, which are reused
+ * once no resource refers to them any more, so that the intents of each
+ * resource can be kept as a compact {@link IntentIdSet} and the intents of
+ * many resources can be combined without hashing their keys.
+ * </p>
+ */
+final class IntentResourceIndex {
+
+    private final Map<Key, Integer> ids = Maps.newHashMap();
+    private final List<Key> keys = new ArrayList<>();
+    private int[] references = new int[16];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+
+    private final Map<Object, IntentIdSet> intents = Maps.newHashMap();
+    private long entries;
+
+    /**
+     * Records that the specified intent uses the given resource.
+     *
+     * @param resource resource
+     * @param key      intent key
+     * @return true if the entry was not already in the index
+     */
+    synchronized boolean add(Object resource, Key key) {
+        checkNotNull(resource);
+        int id = intern(checkNotNull(key));
+        if (!intents.computeIfAbsent(resource, r -> new IntentIdSet()).add(id)) {
+            return false;
+        }
+        references[id]++;
+        entries++;
+        return true;
+    }
+
+    /**
+     * Records that the specified intent no longer uses the given resource.
+     *
+     * @param resource resource
+     * @param key      intent key
+     * @return true if the entry was in the index
+     */
+    synchronized boolean remove(Object resource, Key key) {
+        Integer id = ids.get(key);
+        IntentIdSet set = intents.get(resource);
+        if (id == null || set == null || !set.remove(id)) {
+            return false;
+        }
+        if (set.isEmpty()) {
+            intents.remove(resource);
+        }
+        entries--;
+        if (--references[id] == 0) {
+            release(key, id);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the keys of the intents using the given resource.
+     *
+     * @param resource resource
+     * @return set of intent keys
+     */
+    synchronized Set<Key> keys(Object resource) {
+        IntentIdSet set = intents.get(resource);
+        return set == null ? ImmutableSet.of() : toKeys(set);
+    }
+
+    /**
+     * Returns the keys of the intents using any of the given resources.
+     *
+     * @param resources resources
+     * @return set of intent keys
+     */
+    synchronized Set<Key> union(Collection<?> resources) {
+        BitSet union = new BitSet(keys.size());
+        for (Object resource : resources) {
+            IntentIdSet set = intents.get(resource);
+            if (set != null) {
+                set.orInto(union);
+            }
+        }
+        ImmutableSet.Builder<Key> builder = ImmutableSet.builder();
+        union.stream().forEach(id -> builder.add(keys.get(id)));
+        return builder.build();
+    }
+
+    /**
+     * Returns the keys of the intents using all of the given resources.
+     *
+     * @param resources resources
+     * @return set of intent keys
+     */
+    synchronized Set<Key> intersection(Collection<?> resources) {
+        Iterator<?> iterator = resources.iterator();
+        if (!iterator.hasNext()) {
+            return ImmutableSet.of();
+        }
+        IntentIdSet result = intents.get(iterator.next());
+        while (result != null && !result.isEmpty() && iterator.hasNext()) {
+            IntentIdSet set = intents.get(iterator.next());
+            result = set == null ? null : result.and(set);
+        }
+        return result == null ? ImmutableSet.of() : toKeys(result);
+    }
+
+    /**
+     * Indicates whether the specified intent uses any indexed resource.
+     *
+     * @param key intent key
+     * @return true if the intent is in the index
+     */
+    synchronized boolean contains(Key key) {
+        return ids.containsKey(key);
+    }
+
+    /**
+     * Returns the number of resources used by intents.
+     *
+     * @return number of indexed resources
+     */
+    synchronized int resourceCount() {
+        return intents.size();
+    }
+
+    /**
+     * Returns the number of intents using resources.
+     *
+     * @return number of indexed intents
+     */
+    synchronized int intentCount() {
+        return ids.size();
+    }
+
+    /**
+     * Returns the number of resource and intent pairs in the index.
+     *
+     * @return number of index entries
+     */
+    synchronized long entryCount() {
+        return entries;
+    }
+
+    private Set<Key> toKeys(IntentIdSet set) {
+        ImmutableSet.Builder<Key> builder = ImmutableSet.builder();
+        set.forEach(id -> builder.add(keys.get(id)));
+        return builder.build();
+    }
+
+    // Returns the identifier of the given key, allocating one if needed.
+    private int intern(Key key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+            keys.set(id, key);
+        } else {
+            id = keys.size();
+            keys.add(key);
+            if (id == references.length) {
+                references = Arrays.copyOf(references, id * 2);
+            }
+        }
+        ids.put(key, id);
+        return id;
+    }
+
+    private void release(Key key, int id) {
+        ids.remove(key);
+        keys.set(id, null);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+}
@@ -15,9 +15,8 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.SetMultimap;
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.ImmutableList;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -25,6 +24,9 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.event.Event;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
@@ -69,7 +71,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static org.onlab.util.Tools.groupedThreads;
@@ -91,12 +92,15 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
     private final Logger log = getLogger(getClass());
 
-    private final SetMultimap<LinkKey, Key> intentsByLink =
-            //TODO this could be slow as a point of synchronization
-            synchronizedSetMultimap(HashMultimap.<LinkKey, Key>create());
+    private static final String METRICS_COMPONENT = "objectiveTracker";
+    private static final String METRICS_FEATURE = "resourceIndex";
+    private static final String RESOURCES = "resources";
+    private static final String INTENTS = "intents";
+    private static final String ENTRIES = "entries";
+    private static final List<String> METRIC_NAMES = ImmutableList.of(RESOURCES, INTENTS, ENTRIES);
 
-    private final SetMultimap<ElementId, Key> intentsByDevice =
-            synchronizedSetMultimap(HashMultimap.<ElementId, Key>create());
+    // Intents by the link keys and element ids of the resources they use
+    private final IntentResourceIndex resourceIndex = new IntentResourceIndex();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected TopologyService topologyService;
@@ -119,6 +123,12 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected WorkPartitionService partitionService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected MetricsService metricsService;
+
+    private MetricsComponent metricsComponent;
+    private MetricsFeature metricsFeature;
+
     private ExecutorService executorService =
             newSingleThreadExecutor(groupedThreads("onos/intent", "objectivetracker", log));
     private ScheduledExecutorService executor =
@@ -163,6 +173,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         deviceService.addListener(deviceListener);
         hostService.addListener(hostListener);
         partitionService.addListener(partitionListener);
+        registerMetrics();
         scheduleIntentUpdate(1);
         log.info("Started");
     }
@@ -174,9 +185,31 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         deviceService.removeListener(deviceListener);
         hostService.removeListener(hostListener);
         partitionService.removeListener(partitionListener);
+        removeMetrics();
         log.info("Stopped");
     }
 
+    private void registerMetrics() {
+        if (metricsService == null) {
+            return;
+        }
+        metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+        metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+        registerGauge(RESOURCES, resourceIndex::resourceCount);
+        registerGauge(INTENTS, resourceIndex::intentCount);
+        registerGauge(ENTRIES, resourceIndex::entryCount);
+    }
+
+    private <T> void registerGauge(String name, Gauge<T> gauge) {
+        metricsService.registerMetric(metricsComponent, metricsFeature, name, gauge);
+    }
+
+    private void removeMetrics() {
+        if (metricsService != null && metricsComponent != null) {
+            METRIC_NAMES.forEach(name -> metricsService.removeMetric(metricsComponent, metricsFeature, name));
+        }
+    }
+
     protected void bindIntentService(IntentService service) {
         if (intentService == null) {
             intentService = service;
@@ -208,9 +241,9 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                     Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.put(linkKey((Link) resource), intentKey);
+                resourceIndex.add(linkKey((Link) resource), intentKey);
             } else if (resource instanceof ElementId) {
-                intentsByDevice.put((ElementId) resource, intentKey);
+                resourceIndex.add(resource, intentKey);
             }
         }
     }
@@ -220,9 +253,9 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                                        Collection<NetworkResource> resources) {
         for (NetworkResource resource : resources) {
             if (resource instanceof Link) {
-                intentsByLink.remove(linkKey((Link) resource), intentKey);
+                resourceIndex.remove(linkKey((Link) resource), intentKey);
             } else if (resource instanceof ElementId) {
-                intentsByDevice.remove(resource, intentKey);
+                resourceIndex.remove(resource, intentKey);
             }
         }
     }
@@ -243,7 +276,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
         if (log.isTraceEnabled()) {
             log.trace("intent {}, old: {}, new: {}, installableCount: {}, resourceCount: {}",
                       key,
-                      intentsByDevice.values().contains(key),
+                      resourceIndex.contains(key),
                       isLocal && isInstalled,
                       installables.size(),
                       intent.resources().size() +
@@ -299,27 +332,24 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
                 delegate.triggerCompile(Collections.emptySet(), true);
 
             } else {
-                Set<Key> intentsToRecompile = new HashSet<>();
+                Set<LinkKey> changedLinks = new HashSet<>();
                 boolean dontRecompileAllFailedIntents = true;
 
-                // Scan through the list of reasons and keep accruing all
-                // intents that need to be recompiled.
+                // Scan through the list of reasons and accrue the changed
+                // links; their intents are then looked up all at once.
                 for (Event reason : event.reasons()) {
                     if (reason instanceof LinkEvent) {
                         LinkEvent linkEvent = (LinkEvent) reason;
-                        final LinkKey linkKey = linkKey(linkEvent.subject());
-                        synchronized (intentsByLink) {
-                            Set<Key> intentKeys = intentsByLink.get(linkKey);
-                            log.debug("recompile triggered by LinkEvent {} ({}) for {}",
-                                    linkKey, linkEvent.type(), intentKeys);
-                            intentsToRecompile.addAll(intentKeys);
-                        }
+                        changedLinks.add(linkKey(linkEvent.subject()));
                         dontRecompileAllFailedIntents = dontRecompileAllFailedIntents &&
                                 (linkEvent.type() == LINK_REMOVED ||
                                 (linkEvent.type() == LINK_UPDATED &&
                                 linkEvent.subject().isExpected()));
                     }
                 }
+                Set<Key> intentsToRecompile = resourceIndex.union(changedLinks);
+                log.debug("recompile triggered by LinkEvents for {} for {}",
+                          changedLinks, intentsToRecompile);
                 delegate.triggerCompile(intentsToRecompile, !dontRecompileAllFailedIntents);
             }
         }
@@ -364,11 +394,7 @@ public class ObjectiveTracker implements ObjectiveTrackerService {
 
             // TODO should we recompile on available==true?
 
-            final ImmutableSet<Key> snapshot;
-            synchronized (intentsByDevice) {
-                snapshot = ImmutableSet.copyOf(intentsByDevice.get(id));
-            }
-            delegate.triggerCompile(snapshot, available);
+            delegate.triggerCompile(resourceIndex.keys(id), available);
         }
     }
 
@@ -58,6 +58,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -385,6 +386,30 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
             return ScalarWeight.toWeight(cost);
 
         }
+
+        // Weighers with the same constraints weigh links alike, so that the
+        // paths computed for one intent are found again when it is
+        // recompiled, unless the weights depend on the available resources.
+        private boolean dependsOnResources() {
+            return constraints.stream().anyMatch(c -> c instanceof BandwidthConstraint);
+        }
+
+        @Override
+        public int hashCode() {
+            return dependsOnResources() ? System.identityHashCode(this) : constraints.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass() || dependsOnResources()) {
+                return false;
+            }
+            final ConstraintBasedLinkWeigher other = (ConstraintBasedLinkWeigher) obj;
+            return Objects.equals(this.constraints, other.constraints);
+        }
     }
 
 }
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.IPacket;
+import org.onlab.packet.IPv4;
+import org.onlab.packet.IPv6;
+import org.onlab.packet.TCP;
+import org.onlab.packet.UDP;
+import org.onlab.packet.ipv6.IExtensionHeader;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.criteria.Criterion;
+import org.onosproject.net.flow.criteria.EthTypeCriterion;
+import org.onosproject.net.flow.criteria.IPProtocolCriterion;
+import org.onosproject.net.flow.criteria.TcpPortCriterion;
+import org.onosproject.net.flow.criteria.UdpPortCriterion;
+import org.onosproject.net.packet.InboundPacket;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Immutable table dispatching each inbound packet to the targets interested
+ * in it, in their order.
+ * <p>
+ * Packets are classified once by Ethernet type and IP protocol, which picks
+ * the list of targets compiled for that class; only the ports and receiving
+ * device are then checked against the interest of each of them.
+ * </p>
+ *
+ * @param <T> type of the targets
+ */
+final class PacketDispatchTable<T> {
+
+    private static final int ANY = -1;
+
+    private final Map<Integer, List<Slot<T>>> slots;
+
+    private PacketDispatchTable(Map<Integer, List<Slot<T>>> slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles the dispatch table of the given targets.
+     *
+     * @param targets   targets in the order packets are dispatched to them
+     * @param interests function giving the interest of a target
+     * @param <T>       type of the targets
+     * @return dispatch table
+     */
+    static <T> PacketDispatchTable<T> compile(List<T> targets, Function<T, Interest> interests) {
+        List<Slot<T>> all = targets.stream()
+                .map(t -> new Slot<>(t, interests.apply(t)))
+                .collect(ImmutableList.toImmutableList());
+
+        // Classes told apart by at least one target, each with and without
+        // its IP protocol so that packets of other protocols fall back on it
+        Map<Integer, int[]> classes = new HashMap<>();
+        classes.put(classOf(ANY, ANY), new int[]{ANY, ANY});
+        for (Slot<T> slot : all) {
+            for (int ethType : slot.interest.ethTypes) {
+                int ipProto = slot.interest.ipProto;
+                classes.put(classOf(ethType, ipProto), new int[]{ethType, ipProto});
+                classes.put(classOf(ethType, ANY), new int[]{ethType, ANY});
+            }
+        }
+
+        Map<Integer, List<Slot<T>>> slots = new HashMap<>();
+        classes.forEach((c, key) -> slots.put(c, all.stream()
+                .filter(s -> s.interest.admits(key[0], key[1]))
+                .collect(ImmutableList.toImmutableList())));
+        return new PacketDispatchTable<>(ImmutableMap.copyOf(slots));
+    }
+
+    // Encodes a packet class as follows: 0 for any Ethernet type,
+    // 1 << 25 | ethType for an Ethernet type and any IP protocol, and
+    // (ipProto + 1) << 16 | ethType for an Ethernet type and IP protocol.
+    private static int classOf(int ethType, int ipProto) {
+        if (ethType == ANY) {
+            return 0;
+        }
+        return ipProto == ANY ? 1 << 25 | ethType : (ipProto + 1) << 16 | ethType;
+    }
+
+    /**
+     * Hands the given packet to the targets interested in it, in order.
+     *
+     * @param packet inbound packet
+     * @param action action run for each interested target
+     */
+    void dispatch(InboundPacket packet, Consumer<T> action) {
+        int ethType = ANY;
+        int ipProto = ANY;
+        int srcPort = ANY;
+        int dstPort = ANY;
+
+        Ethernet eth = packet.parsed();
+        if (eth != null) {
+            ethType = eth.getEtherType() & 0xffff;
+            IPacket l4 = null;
+            if (eth.getPayload() instanceof IPv4) {
+                IPv4 ip = (IPv4) eth.getPayload();
+                ipProto = ip.getProtocol() & 0xff;
+                l4 = ip.getPayload();
+            } else if (eth.getPayload() instanceof IPv6) {
+                IPv6 ip = (IPv6) eth.getPayload();
+                ipProto = ip.getNextHeader() & 0xff;
+                l4 = ip.getPayload();
+                while (l4 instanceof IExtensionHeader) {
+                    ipProto = ((IExtensionHeader) l4).getNextHeader() & 0xff;
+                    l4 = l4.getPayload();
+                }
+            }
+            if (l4 instanceof TCP) {
+                srcPort = ((TCP) l4).getSourcePort();
+                dstPort = ((TCP) l4).getDestinationPort();
+            } else if (l4 instanceof UDP) {
+                srcPort = ((UDP) l4).getSourcePort();
+                dstPort = ((UDP) l4).getDestinationPort();
+            }
+        }
+
+        List<Slot<T>> candidates = slots.get(classOf(ethType, ipProto));
+        if (candidates == null) {
+            candidates = slots.get(classOf(ethType, ANY));
+        }
+        if (candidates == null) {
+            candidates = slots.get(classOf(ANY, ANY));
+        }
+
+        DeviceId deviceId = packet.receivedFrom() != null ? packet.receivedFrom().deviceId() : null;
+        for (int i = 0; i < candidates.size(); i++) {
+            Slot<T> slot = candidates.get(i);
+            if (slot.interest.matches(deviceId, srcPort, dstPort)) {
+                action.accept(slot.target);
+            }
+        }
+    }
+
+    private static final class Slot<T> {
+        private final T target;
+        private final Interest interest;
+
+        private Slot(T target, Interest interest) {
+            this.target = target;
+            this.interest = interest;
+        }
+    }
+
+    /**
+     * Packets a target is interested in.
+     */
+    static final class Interest {
+
+        /**
+         * Interest in all packets.
+         */
+        static final Interest ALL = new Interest(ImmutableSet.of(), ANY, ANY, ANY, ImmutableSet.of());
+
+        private final Set<Integer> ethTypes;
+        private final int ipProto;
+        private final int srcPort;
+        private final int dstPort;
+        private final Set<DeviceId> devices;
+
+        private Interest(Set<Integer> ethTypes, int ipProto, int srcPort, int dstPort,
+                         Set<DeviceId> devices) {
+            this.ethTypes = ethTypes;
+            this.ipProto = ipProto;
+            this.srcPort = srcPort;
+            this.dstPort = dstPort;
+            this.devices = devices;
+        }
+
+        /**
+         * Returns the interest in the packets matching the supported criteria
+         * of the given selector and received by one of the given devices.
+         *
+         * @param selector selector of the packets
+         * @param devices  receiving devices; empty for all
+         * @return packet interest
+         * @throws IllegalArgumentException if the criteria contradict each other
+         */
+        static Interest of(TrafficSelector selector, Set<DeviceId> devices) {
+            EthTypeCriterion ethType = (EthTypeCriterion) selector.getCriterion(Criterion.Type.ETH_TYPE);
+            IPProtocolCriterion ipProto = (IPProtocolCriterion) selector.getCriterion(Criterion.Type.IP_PROTO);
+            TcpPortCriterion tcpSrc = (TcpPortCriterion) selector.getCriterion(Criterion.Type.TCP_SRC);
+            TcpPortCriterion tcpDst = (TcpPortCriterion) selector.getCriterion(Criterion.Type.TCP_DST);
+            UdpPortCriterion udpSrc = (UdpPortCriterion) selector.getCriterion(Criterion.Type.UDP_SRC);
+            UdpPortCriterion udpDst = (UdpPortCriterion) selector.getCriterion(Criterion.Type.UDP_DST);
+
+            boolean tcp = tcpSrc != null || tcpDst != null;
+            boolean udp = udpSrc != null || udpDst != null;
+            checkArgument(!(tcp && udp), "Both TCP and UDP ports selected");
+
+            int proto = ipProto != null ? ipProto.protocol() : ANY;
+            if (tcp || udp) {
+                int l4Proto = tcp ? IPv4.PROTOCOL_TCP : IPv4.PROTOCOL_UDP;
+                checkArgument(proto == ANY || proto == l4Proto,
+                              "Ports selected for another IP protocol than %s", proto);
+                proto = l4Proto;
+            }
+
+            Set<Integer> ethTypes;
+            if (ethType != null) {
+                ethTypes = ImmutableSet.of(ethType.ethType().toShort() & 0xffff);
+            } else if (proto != ANY) {
+                ethTypes = ImmutableSet.of(Ethernet.TYPE_IPV4 & 0xffff, Ethernet.TYPE_IPV6 & 0xffff);
+            } else {
+                ethTypes = ImmutableSet.of();
+            }
+
+            int srcPort = tcpSrc != null ? tcpSrc.tcpPort().toInt() :
+                    udpSrc != null ? udpSrc.udpPort().toInt() : ANY;
+            int dstPort = tcpDst != null ? tcpDst.tcpPort().toInt() :
+                    udpDst != null ? udpDst.udpPort().toInt() : ANY;
+            return new Interest(ethTypes, proto, srcPort, dstPort, ImmutableSet.copyOf(devices));
+        }
+
+        // Whether packets of the given class may be of interest
+        private boolean admits(int ethType, int ipProto) {
+            return (ethTypes.isEmpty() || ethTypes.contains(ethType)) &&
+                    (this.ipProto == ANY || this.ipProto == ipProto);
+        }
+
+        // Whether a packet of an admitted class is of interest
+        private boolean matches(DeviceId deviceId, int srcPort, int dstPort) {
+            return (devices.isEmpty() || devices.contains(deviceId)) &&
+                    (this.srcPort == ANY || this.srcPort == srcPort) &&
+                    (this.dstPort == ANY || this.dstPort == dstPort);
+        }
+    }
+}
@@ -57,14 +57,17 @@ import org.onosproject.net.packet.PacketRequest;
 import org.onosproject.net.packet.PacketService;
 import org.onosproject.net.packet.PacketStore;
 import org.onosproject.net.packet.PacketStoreDelegate;
+import org.onosproject.net.packet.impl.PacketDispatchTable.Interest;
 import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onlab.util.Tools.groupedThreads;
@@ -89,6 +92,7 @@ public class PacketManager
     private static final String ERROR_NULL_SELECTOR = "Selector cannot be null";
     private static final String ERROR_NULL_APP_ID = "Application ID cannot be null";
     private static final String ERROR_NULL_DEVICE_ID = "Device ID cannot be null";
+    private static final String ERROR_NULL_DEVICES = "Devices cannot be null";
     private static final String SUPPORT_PACKET_REQUEST_PROPERTY = "supportPacketRequest";
 
     private final PacketStoreDelegate delegate = new InternalStoreDelegate();
@@ -116,6 +120,9 @@ public class PacketManager
     private final DeviceListener deviceListener = new InternalDeviceListener();
 
     private final List<ProcessorEntry> processors = Lists.newCopyOnWriteArrayList();
+    private volatile PacketDispatchTable<ProcessorEntry> dispatchTable =
+            PacketDispatchTable.compile(processors, ProcessorEntry::interest);
+    private final AtomicLong packets = new AtomicLong();
 
     private final PacketDriverProvider defaultProvider = new PacketDriverProvider();
 
@@ -163,7 +170,21 @@ public class PacketManager
     public void addProcessor(PacketProcessor processor, int priority) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
-        ProcessorEntry entry = new ProcessorEntry(processor, priority);
+        addProcessor(new ProcessorEntry(processor, priority, Interest.ALL));
+    }
+
+    @Override
+    public void addProcessor(PacketProcessor processor, int priority,
+                             TrafficSelector selector, Set<DeviceId> devices) {
+        checkPermission(PACKET_EVENT);
+        checkNotNull(processor, ERROR_NULL_PROCESSOR);
+        checkNotNull(selector, ERROR_NULL_SELECTOR);
+        checkNotNull(devices, ERROR_NULL_DEVICES);
+        addProcessor(new ProcessorEntry(processor, priority, Interest.of(selector, devices)));
+    }
+
+    private synchronized void addProcessor(ProcessorEntry entry) {
+        int priority = entry.priority();
 
         // Insert the new processor according to its priority.
         int i = 0;
@@ -173,10 +194,11 @@ public class PacketManager
             }
         }
         processors.add(i, entry);
+        dispatchTable = PacketDispatchTable.compile(processors, ProcessorEntry::interest);
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkPermission(PACKET_EVENT);
         checkNotNull(processor, ERROR_NULL_PROCESSOR);
 
@@ -187,6 +209,7 @@ public class PacketManager
                 break;
             }
         }
+        dispatchTable = PacketDispatchTable.compile(processors, ProcessorEntry::interest);
     }
 
     @Override
@@ -393,25 +416,33 @@ public class PacketManager
 
         @Override
         public void processPacket(PacketContext context) {
-            // TODO filter packets sent to processors based on registrations
-            for (ProcessorEntry entry : processors) {
-                try {
-                    if (log.isTraceEnabled()) {
-                        log.trace("Starting packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
+            packets.incrementAndGet();
+            dispatchTable.dispatch(context.inPacket(), entry -> process(entry, context));
+        }
+
+        private void process(ProcessorEntry entry, PacketContext context) {
+            try {
+                if (log.isTraceEnabled()) {
+                    log.trace("Starting packet processing by {}",
+                            entry.processor().getClass().getName());
+                }
 
-                    long start = System.nanoTime();
+                // counted before processing so that failed invocations
+                // are not reported as skipped packets
+                entry.invoked();
+                long start = System.nanoTime();
+                try {
                     entry.processor().process(context);
+                } finally {
                     entry.addNanos(System.nanoTime() - start);
+                }
 
-                    if (log.isTraceEnabled()) {
-                        log.trace("Finished packet processing by {}",
-                                entry.processor().getClass().getName());
-                    }
-                } catch (Exception e) {
-                    log.warn("Packet processor {} threw an exception", entry.processor(), e);
+                if (log.isTraceEnabled()) {
+                    log.trace("Finished packet processing by {}",
+                            entry.processor().getClass().getName());
                 }
+            } catch (Exception e) {
+                log.warn("Packet processor {} threw an exception", entry.processor(), e);
             }
         }
 
@@ -502,12 +533,15 @@ public class PacketManager
     private class ProcessorEntry implements PacketProcessorEntry {
         private final PacketProcessor processor;
         private final int priority;
+        private final Interest interest;
+        private final long packetsBefore = packets.get();
         private long invocations = 0;
         private long nanos = 0;
 
-        public ProcessorEntry(PacketProcessor processor, int priority) {
+        public ProcessorEntry(PacketProcessor processor, int priority, Interest interest) {
             this.processor = processor;
             this.priority = priority;
+            this.interest = interest;
         }
 
         @Override
@@ -535,9 +569,21 @@ public class PacketManager
             return invocations > 0 ? nanos / invocations : 0;
         }
 
+        @Override
+        public long skippedPackets() {
+            return Math.max(packets.get() - packetsBefore - invocations, 0);
+        }
+
+        Interest interest() {
+            return interest;
+        }
+
+        void invoked() {
+            this.invocations++;
+        }
+
         void addNanos(long nanos) {
             this.nanos += nanos;
-            this.invocations++;
         }
     }
 }
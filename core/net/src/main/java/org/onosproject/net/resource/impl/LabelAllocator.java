@@ -397,10 +397,12 @@ public final class LabelAllocator {
                 ))
                 .collect(Collectors.toSet());
 
-        List<ResourceAllocation> allocations = resourceService.allocate(resourceConsumer,
-                                                                        ImmutableList.copyOf(resources));
+        // labels are discrete, so the batch allocation can turn down a request
+        // conflicting with known allocations without a store round-trip
+        Map<ResourceConsumer, List<ResourceAllocation>> allocations = resourceService.allocate(
+                ImmutableMap.of(resourceConsumer, ImmutableList.copyOf(resources)));
 
-        if (allocations.isEmpty()) {
+        if (!allocations.containsKey(resourceConsumer)) {
             return Collections.emptyMap();
         }
 
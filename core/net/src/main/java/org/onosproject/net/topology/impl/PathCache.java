@@ -0,0 +1,280 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.topology.impl;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.event.Event;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.Link;
+import org.onosproject.net.LinkKey;
+import org.onosproject.net.Path;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.link.LinkEvent;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEvent;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.onosproject.net.LinkKey.linkKey;
+import static org.onosproject.net.device.DeviceEvent.Type.DEVICE_REMOVED;
+import static org.onosproject.net.link.LinkEvent.Type.LINK_REMOVED;
+
+/**
+ * Bounded cache of the paths between pairs of infrastructure devices, as
+ * computed for a given topology and link weigher.
+ * <p>
+ * The cached paths are valid for a single topology at a time. When the
+ * topology changes only by removal of links or devices, the cached paths
+ * which traverse them are invalidated and all others carry over to the
+ * new topology; any other change invalidates all cached paths. Paths are
+ * cached per link weigher instance, as identified by its equality, and so
+ * only weighers which depend solely on the topology should be reused.
+ * </p>
+ */
+final class PathCache {
+
+    static final int DEFAULT_MAX_SIZE = 10000;
+
+    private static final String METRICS_COMPONENT = "pathCache";
+    private static final String METRICS_FEATURE = "paths";
+    private static final String HIT_RATIO = "hitRatio";
+    private static final String HITS = "hits";
+    private static final String MISSES = "misses";
+    private static final String EVICTIONS = "evictions";
+    private static final String INVALIDATIONS = "invalidations";
+    private static final List<String> METRIC_NAMES =
+            ImmutableList.of(HIT_RATIO, HITS, MISSES, EVICTIONS, INVALIDATIONS);
+
+    private final Cache<Key, Set<Path>> cache;
+
+    // Keys of the cached paths which traverse each link and device
+    private final SetMultimap<LinkKey, Key> linkIndex = HashMultimap.create();
+    private final SetMultimap<DeviceId, Key> deviceIndex = HashMultimap.create();
+
+    private final Counter invalidations = new Counter();
+    private final MetricsService metricsService;
+    private final MetricsComponent metricsComponent;
+    private final MetricsFeature metricsFeature;
+
+    // Topology for which the cached paths are valid
+    private volatile Topology topology;
+
+    /**
+     * Creates a path cache.
+     *
+     * @param maxSize        maximum number of cached device pairs
+     * @param metricsService metrics service to export cache metrics to, or null
+     */
+    PathCache(int maxSize, MetricsService metricsService) {
+        checkArgument(maxSize > 0, "maxSize must be positive");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .removalListener(this::unindex)
+                .build();
+
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+            metricsFeature = metricsComponent.registerFeature(METRICS_FEATURE);
+            registerGauge(HIT_RATIO, () -> cache.stats().hitRate());
+            registerGauge(HITS, () -> cache.stats().hitCount());
+            registerGauge(MISSES, () -> cache.stats().missCount());
+            registerGauge(EVICTIONS, () -> cache.stats().evictionCount());
+            metricsService.registerMetric(metricsComponent, metricsFeature, INVALIDATIONS, invalidations);
+        } else {
+            metricsComponent = null;
+            metricsFeature = null;
+        }
+    }
+
+    private <T> void registerGauge(String name, Gauge<T> gauge) {
+        metricsService.registerMetric(metricsComponent, metricsFeature, name, gauge);
+    }
+
+    /**
+     * Removes the cache metrics from the metrics service.
+     */
+    void destroy() {
+        if (metricsService != null) {
+            METRIC_NAMES.forEach(name -> metricsService.removeMetric(metricsComponent, metricsFeature, name));
+        }
+    }
+
+    /**
+     * Returns the paths between the given devices, computing and caching
+     * them if they are not cached for the given topology.
+     *
+     * @param topology topology to compute the paths in
+     * @param src      source device
+     * @param dst      destination device
+     * @param weigher  link weigher
+     * @param paths    supplier of the paths computed in the topology
+     * @return set of paths
+     */
+    Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
+                       LinkWeigher weigher, Supplier<Set<Path>> paths) {
+        if (topology == null || topology != this.topology) {
+            // Not the topology cached for; either stale or not yet notified
+            return paths.get();
+        }
+
+        Key key = new Key(src, dst, weigher);
+        Set<Path> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Set<Path> computed = ImmutableSet.copyOf(paths.get());
+        synchronized (this) {
+            if (topology == this.topology && cache.asMap().putIfAbsent(key, computed) == null) {
+                index(key, computed);
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * Makes the cache valid for the specified topology, without regard
+     * for the paths cached so far.
+     *
+     * @param topology current topology
+     */
+    synchronized void reset(Topology topology) {
+        cache.invalidateAll();
+        this.topology = topology;
+    }
+
+    /**
+     * Carries the cached paths over to the topology of the given event,
+     * invalidating those affected by the topology changes.
+     *
+     * @param event topology event
+     */
+    synchronized void update(TopologyEvent event) {
+        List<Event> reasons = event.reasons();
+        if (reasons == null || reasons.isEmpty() || !reasons.stream().allMatch(this::isRemoval)) {
+            invalidations.inc(cache.size());
+            reset(event.subject());
+            return;
+        }
+
+        Set<Key> affected = ImmutableSet.copyOf(reasons.stream()
+                .flatMap(reason -> reason instanceof LinkEvent ?
+                        linkIndex.get(linkKey(((LinkEvent) reason).subject())).stream() :
+                        deviceIndex.get(((DeviceEvent) reason).subject().id()).stream())
+                .iterator());
+        invalidations.inc(affected.size());
+        cache.invalidateAll(affected);
+        this.topology = event.subject();
+    }
+
+    // Indicates whether the event removes an element from the topology.
+    private boolean isRemoval(Event reason) {
+        return (reason instanceof LinkEvent && reason.type() == LINK_REMOVED) ||
+                (reason instanceof DeviceEvent && reason.type() == DEVICE_REMOVED);
+    }
+
+    private void index(Key key, Set<Path> paths) {
+        for (Path path : paths) {
+            for (Link link : path.links()) {
+                linkIndex.put(linkKey(link), key);
+                deviceIndex.put(link.src().deviceId(), key);
+                deviceIndex.put(link.dst().deviceId(), key);
+            }
+        }
+    }
+
+    // Removes the index entries of paths removed from the cache.
+    private void unindex(RemovalNotification<Key, Set<Path>> notification) {
+        synchronized (this) {
+            for (Path path : notification.getValue()) {
+                for (Link link : path.links()) {
+                    linkIndex.remove(linkKey(link), notification.getKey());
+                    deviceIndex.remove(link.src().deviceId(), notification.getKey());
+                    deviceIndex.remove(link.dst().deviceId(), notification.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the cache statistics.
+     *
+     * @return cache statistics
+     */
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the number of cached device pairs.
+     *
+     * @return number of cached device pairs
+     */
+    long size() {
+        return cache.size();
+    }
+
+    // Cache key of the paths between two devices.
+    private static final class Key {
+        private final DeviceId src;
+        private final DeviceId dst;
+        private final LinkWeigher weigher;
+
+        private Key(DeviceId src, DeviceId dst, LinkWeigher weigher) {
+            this.src = src;
+            this.dst = dst;
+            this.weigher = weigher;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(src, dst, weigher);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj instanceof Key) {
+                Key that = (Key) obj;
+                return Objects.equals(src, that.src) &&
+                        Objects.equals(dst, that.dst) &&
+                        Objects.equals(weigher, that.weigher);
+            }
+            return false;
+        }
+    }
+}
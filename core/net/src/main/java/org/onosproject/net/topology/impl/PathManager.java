@@ -21,6 +21,8 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
+import org.onosproject.net.DeviceId;
 import org.onosproject.net.DisjointPath;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
@@ -28,6 +30,9 @@ import org.onosproject.net.Path;
 import org.onosproject.net.host.HostService;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEvent;
+import org.onosproject.net.topology.TopologyListener;
 import org.onosproject.net.topology.TopologyService;
 import org.onosproject.net.topology.AbstractPathService;
 import org.slf4j.Logger;
@@ -45,6 +50,10 @@ import static org.onosproject.security.AppPermission.Type.*;
 /**
  * Provides implementation of a path selection service atop the current
  * topology and host services.
+ * <p>
+ * Paths between infrastructure devices are cached for the current topology
+ * and carried over topology changes which do not affect them.
+ * </p>
  */
 @Component(immediate = true)
 @Service
@@ -58,16 +67,28 @@ public class PathManager extends AbstractPathService implements PathService {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected HostService hostService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected MetricsService metricsService;
+
+    private final TopologyListener topologyListener = new InternalTopologyListener();
+
+    private PathCache pathCache;
+
     @Activate
     public void activate() {
         // initialize AbstractPathService
         super.topologyService = this.topologyService;
         super.hostService = this.hostService;
+        pathCache = new PathCache(PathCache.DEFAULT_MAX_SIZE, metricsService);
+        topologyService.addListener(topologyListener);
+        pathCache.reset(topologyService.currentTopology());
         log.info("Started");
     }
 
     @Deactivate
     public void deactivate() {
+        topologyService.removeListener(topologyListener);
+        pathCache.destroy();
         log.info("Stopped");
     }
 
@@ -117,4 +138,19 @@ public class PathManager extends AbstractPathService implements PathService {
         return super.getDisjointPaths(src, dst, weigher, riskProfile);
     }
 
+    @Override
+    protected Set<Path> infrastructurePaths(Topology topology, DeviceId src,
+                                            DeviceId dst, LinkWeigher weigher) {
+        return pathCache.getPaths(topology, src, dst, weigher,
+                                  () -> super.infrastructurePaths(topology, src, dst, weigher));
+    }
+
+    // Carries cached paths over topology changes.
+    private class InternalTopologyListener implements TopologyListener {
+        @Override
+        public void event(TopologyEvent event) {
+            pathCache.update(event);
+        }
+    }
+
 }
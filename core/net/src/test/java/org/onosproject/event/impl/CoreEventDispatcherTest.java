@@ -15,19 +15,31 @@
  */
 package org.onosproject.event.impl;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.osgi.ComponentContextAdapter;
 import org.onosproject.event.AbstractEvent;
 import org.onosproject.event.EventSink;
+import org.onosproject.net.Device;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceEvent;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.device;
 
 /**
  * Test of the event dispatcher mechanism.
@@ -40,7 +52,7 @@ public class CoreEventDispatcherTest {
 
     @Before
     public void setUp() {
-        dispatcher.activate();
+        dispatcher.activate(null);
         dispatcher.addSink(Prickle.class, prickleSink);
         dispatcher.addSink(Goo.class, gooSink);
     }
@@ -88,6 +100,71 @@ public class CoreEventDispatcherTest {
         assertTrue(takesTooLong.interrupted);
     }
 
+    @Test
+    public void postPartitioned() throws Exception {
+        dispatcher.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("dispatchPartitions", "4");
+                return props;
+            }
+        });
+
+        DeviceSink deviceSink = new DeviceSink();
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+        int devices = 8;
+        int eventsPerDevice = 50;
+        deviceSink.latch = new CountDownLatch(devices * eventsPerDevice);
+
+        Map<DeviceId, List<DeviceEvent>> posted = new ConcurrentHashMap<>();
+        for (int i = 0; i < eventsPerDevice; i++) {
+            for (int d = 0; d < devices; d++) {
+                Device device = device("s" + d);
+                DeviceEvent event = new DeviceEvent(DeviceEvent.Type.DEVICE_UPDATED, device);
+                posted.computeIfAbsent(device.id(), id -> new ArrayList<>()).add(event);
+                dispatcher.post(event);
+            }
+        }
+
+        assertTrue("events not dispatched", deviceSink.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("events of a device dispatched out of order", posted, deviceSink.events);
+        assertTrue("events not spread over dispatch loops", deviceSink.threads.size() > 1);
+        dispatcher.removeSink(DeviceEvent.class);
+    }
+
+    @Test
+    public void postCoalesced() throws Exception {
+        dispatcher.modified(new ComponentContextAdapter() {
+            @Override
+            public Dictionary getProperties() {
+                Hashtable<String, String> props = new Hashtable<>();
+                props.put("coalescedEvents", "DeviceEvent.PORT_STATS_UPDATED=1000, Bogus");
+                return props;
+            }
+        });
+
+        CoalescedSink deviceSink = new CoalescedSink();
+        dispatcher.addSink(DeviceEvent.class, deviceSink);
+        Device device1 = device("s1");
+        Device device2 = device("s2");
+        DeviceEvent last1 = null;
+        DeviceEvent last2 = null;
+        for (int i = 0; i < 100; i++) {
+            last1 = new DeviceEvent(DeviceEvent.Type.PORT_STATS_UPDATED, device1);
+            last2 = new DeviceEvent(DeviceEvent.Type.PORT_STATS_UPDATED, device2);
+            dispatcher.post(last1);
+            dispatcher.post(last2);
+        }
+        // Not coalesced, and releases the pending statistics updates first
+        DeviceEvent removed = new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, device1);
+        dispatcher.post(removed);
+
+        assertTrue("events not dispatched", deviceSink.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("events not coalesced", ImmutableList.of(last1, last2, removed), deviceSink.events);
+        dispatcher.removeSink(DeviceEvent.class);
+    }
+
     private void validate(Sink sink, String... strings) {
         int i = 0;
         assertEquals("incorrect event count", strings.length, sink.subjects.size());
@@ -141,6 +218,33 @@ public class CoreEventDispatcherTest {
         }
     }
 
+    private static class DeviceSink implements EventSink<DeviceEvent> {
+        final Map<DeviceId, List<DeviceEvent>> events = new ConcurrentHashMap<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch;
+
+        @Override
+        public void process(DeviceEvent event) {
+            // lists of the same device are only touched by one dispatch loop
+            events.computeIfAbsent(event.subject().id(), id -> new ArrayList<>()).add(event);
+            threads.add(Thread.currentThread().getName());
+            latch.countDown();
+        }
+    }
+
+    private static class CoalescedSink implements EventSink<DeviceEvent> {
+        final List<DeviceEvent> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void process(DeviceEvent event) {
+            events.add(event);
+            if (event.type() == DeviceEvent.Type.DEVICE_REMOVED) {
+                latch.countDown();
+            }
+        }
+    }
+
     private static class TooLongEvent extends AbstractEvent<Type, String> {
         protected TooLongEvent(String subject) {
             super(Type.FOO, subject);
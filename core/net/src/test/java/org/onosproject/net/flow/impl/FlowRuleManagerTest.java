@@ -39,6 +39,8 @@ import org.onosproject.net.Device;
 import org.onosproject.net.Device.Type;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.MastershipRole;
+import org.onosproject.net.device.DeviceEvent;
+import org.onosproject.net.device.DeviceListener;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
@@ -231,6 +233,82 @@ public class FlowRuleManagerTest {
         validateEvents(RULE_UPDATED, RULE_UPDATED);
     }
 
+    @Test
+    public void missingAndExtraneousFlows() {
+        FlowRule f1 = addFlowRule(1);
+        FlowRule f2 = addFlowRule(2);
+        FlowRule f3 = addFlowRule(3);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        FlowEntry fe3 = new DefaultFlowEntry(f3);
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe1, fe2, fe3));
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED, RULE_ADDED, RULE_ADDED);
+
+        // as many rules as stored, but one of them is not and one stored is missing
+        FlowEntry extraneous = new DefaultFlowEntry(flowRule(4, 4));
+        providerService.pushFlowMetrics(DID, ImmutableList.of(fe1, extraneous, fe2));
+        validateEvents(RULE_UPDATED, RULE_UPDATED, RULE_UPDATED);
+        assertTrue("Missing entry should be pending add.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.ADDED,
+                           f2, FlowEntryState.ADDED,
+                           f3, FlowEntryState.PENDING_ADD)));
+    }
+
+    @Test
+    public void flowMetricsParts() {
+        FlowRule f1 = addFlowRule(1);
+        FlowRule f2 = addFlowRule(2);
+        FlowRule f3 = addFlowRule(3);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        FlowEntry fe3 = new DefaultFlowEntry(f3);
+        providerService.pushFlowMetricsPart(DID, 1, ImmutableList.of(fe1, fe2), false);
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED, RULE_ADDED);
+        providerService.pushFlowMetricsPart(DID, 1, ImmutableList.of(fe3), true);
+        validateEvents(RULE_ADDED);
+
+        // the unfinished parts of a request are discarded by another one
+        providerService.pushFlowMetricsPart(DID, 2, ImmutableList.of(fe1), false);
+        providerService.pushFlowMetricsPart(DID, 3, ImmutableList.of(fe2), false);
+        validateEvents(RULE_UPDATED, RULE_UPDATED);
+
+        // rules found in earlier parts are not missing
+        providerService.pushFlowMetricsPart(DID, 3, ImmutableList.of(fe3), true);
+        validateEvents(RULE_UPDATED, RULE_UPDATED);
+        assertTrue("Missing entry should be pending add.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.PENDING_ADD,
+                           f2, FlowEntryState.ADDED,
+                           f3, FlowEntryState.ADDED)));
+    }
+
+    @Test
+    public void flowMetricsPartsDroppedOnDeviceRemoval() {
+        FlowRule f1 = addFlowRule(1);
+        FlowRule f2 = addFlowRule(2);
+        FlowRule f3 = addFlowRule(3);
+        FlowEntry fe1 = new DefaultFlowEntry(f1);
+        FlowEntry fe2 = new DefaultFlowEntry(f2);
+        FlowEntry fe3 = new DefaultFlowEntry(f3);
+        providerService.pushFlowMetricsPart(DID, 1, ImmutableList.of(fe1), false);
+        validateEvents(RULE_ADD_REQUESTED, RULE_ADD_REQUESTED, RULE_ADD_REQUESTED,
+                       RULE_ADDED);
+
+        // the parts pushed before the device was removed are forgotten
+        ((TestDeviceService) mgr.deviceService).listener
+                .event(new DeviceEvent(DeviceEvent.Type.DEVICE_REMOVED, DEV));
+        providerService.pushFlowMetricsPart(DID, 1, ImmutableList.of(fe2, fe3), true);
+        validateEvents(RULE_ADDED, RULE_ADDED, RULE_UPDATED);
+        assertTrue("Missing entry should be pending add.",
+                   validateState(ImmutableMap.of(
+                           f1, FlowEntryState.PENDING_ADD,
+                           f2, FlowEntryState.ADDED,
+                           f3, FlowEntryState.ADDED)));
+    }
+
     private boolean validateState(Map<FlowRule, FlowEntryState> expected) {
         Map<FlowRule, FlowEntryState> expectedToCheck = new HashMap<>(expected);
         Iterable<FlowEntry> rules = service.getFlowEntries(DID);
@@ -491,6 +569,13 @@ public class FlowRuleManagerTest {
     }
 
     private static class TestDeviceService extends DeviceServiceAdapter {
+        private DeviceListener listener;
+
+        @Override
+        public void addListener(DeviceListener listener) {
+            this.listener = listener;
+        }
+
         @Override
         public int getDeviceCount() {
             return 2;
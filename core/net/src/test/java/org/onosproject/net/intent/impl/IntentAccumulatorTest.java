@@ -33,6 +33,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 
 /**
  * Unit tests for the intent accumulator.
@@ -143,5 +144,29 @@ public class IntentAccumulatorTest extends AbstractIntentTest {
         accumulator.processItems(intentDataItems);
     }
 
+    /**
+     * Tests that the accumulator lets the configured number of batches be
+     * in process at a time.
+     */
+    @Test
+    public void checkBatchesInFlight() {
+        IntentAccumulator accumulator = new IntentAccumulator(operations -> { }, 2);
+        List<IntentData> items = ImmutableList.of(
+                new IntentData(intent1, IntentState.INSTALLED, new MockTimestamp(1)));
+
+        assertThat(accumulator.isReady(), is(true));
+        accumulator.processItems(items);
+        assertThat(accumulator.isReady(), is(true));
+        accumulator.processItems(items);
+        assertThat(accumulator.isReady(), is(false));
+
+        accumulator.ready();
+        assertThat(accumulator.isReady(), is(true));
+
+        accumulator.setMaxBatchesInFlight(1);
+        assertThat(accumulator.isReady(), is(false));
+        accumulator.ready();
+        assertThat(accumulator.isReady(), is(true));
+    }
 
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for the compact intent identifier set.
+ */
+public class IntentIdSetTest {
+
+    private static List<Integer> toList(IntentIdSet set) {
+        List<Integer> ids = new ArrayList<>();
+        set.forEach(ids::add);
+        return ids;
+    }
+
+    private static void assertContents(IntentIdSet set, SortedSet<Integer> expected) {
+        assertThat(set.size(), is(expected.size()));
+        assertThat(toList(set), is(new ArrayList<>(expected)));
+        BitSet bits = new BitSet();
+        set.orInto(bits);
+        assertThat(bits.cardinality(), is(expected.size()));
+        expected.forEach(id -> assertThat(bits.get(id), is(true)));
+    }
+
+    /**
+     * Tests adding, checking and removing identifiers.
+     */
+    @Test
+    public void basics() {
+        IntentIdSet set = new IntentIdSet();
+        assertThat(set.isEmpty(), is(true));
+        assertThat(set.add(3), is(true));
+        assertThat(set.add(3), is(false));
+        assertThat(set.add(70000), is(true));
+        assertThat(set.contains(3), is(true));
+        assertThat(set.contains(4), is(false));
+        assertThat(set.contains(70000), is(true));
+        assertThat(toList(set), is(Arrays.asList(3, 70000)));
+
+        assertThat(set.remove(4), is(false));
+        assertThat(set.remove(70000), is(true));
+        assertThat(set.remove(3), is(true));
+        assertThat(set.isEmpty(), is(true));
+        assertThat(set.contains(3), is(false));
+    }
+
+    /**
+     * Tests dense chunks turning into bitmaps and back to arrays.
+     */
+    @Test
+    public void denseChunks() {
+        IntentIdSet set = new IntentIdSet();
+        SortedSet<Integer> expected = new TreeSet<>();
+        for (int id = 0; id < 3 * IntentIdSet.MAX_ARRAY_SIZE; id += 2) {
+            set.add(id);
+            expected.add(id);
+        }
+        assertContents(set, expected);
+
+        for (int id = 0; id < 3 * IntentIdSet.MAX_ARRAY_SIZE; id += 4) {
+            set.remove(id);
+            expected.remove(id);
+        }
+        assertContents(set, expected);
+        assertThat(set.contains(2), is(true));
+        assertThat(set.contains(4), is(false));
+    }
+
+    /**
+     * Tests random operations against a reference set.
+     */
+    @Test
+    public void randomOperations() {
+        Random random = new Random(0);
+        IntentIdSet set = new IntentIdSet();
+        SortedSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 50000; i++) {
+            // Bias the identifiers towards the first chunk to make it dense
+            int id = random.nextBoolean() ? random.nextInt(8000) : random.nextInt(300000);
+            if (random.nextInt(3) == 0) {
+                assertThat(set.remove(id), is(expected.remove(id)));
+            } else {
+                assertThat(set.add(id), is(expected.add(id)));
+            }
+        }
+        assertContents(set, expected);
+    }
+
+    /**
+     * Tests intersections of sparse and dense sets.
+     */
+    @Test
+    public void intersection() {
+        Random random = new Random(1);
+        IntentIdSet dense = new IntentIdSet();
+        IntentIdSet sparse = new IntentIdSet();
+        IntentIdSet other = new IntentIdSet();
+        SortedSet<Integer> denseIds = new TreeSet<>();
+        SortedSet<Integer> sparseIds = new TreeSet<>();
+        SortedSet<Integer> otherIds = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(150000);
+            dense.add(id);
+            denseIds.add(id);
+            id = random.nextInt(150000);
+            other.add(id);
+            otherIds.add(id);
+        }
+        for (int i = 0; i < 500; i++) {
+            int id = random.nextInt(150000);
+            sparse.add(id);
+            sparseIds.add(id);
+        }
+
+        assertContents(dense.and(other), new TreeSet<>(Sets.intersection(denseIds, otherIds)));
+        assertContents(dense.and(sparse), new TreeSet<>(Sets.intersection(denseIds, sparseIds)));
+        assertContents(sparse.and(dense), new TreeSet<>(Sets.intersection(sparseIds, denseIds)));
+        assertThat(sparse.and(new IntentIdSet()).isEmpty(), is(true));
+    }
+}
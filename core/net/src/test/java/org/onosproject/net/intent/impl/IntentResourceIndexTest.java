@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.LinkKey;
+import org.onosproject.net.intent.Key;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.onosproject.net.NetTestTools.APP_ID;
+import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.did;
+
+/**
+ * Unit tests for the reverse index of intent resources.
+ */
+public class IntentResourceIndexTest {
+
+    private final LinkKey link1 = LinkKey.linkKey(connectPoint("s1", 1), connectPoint("s2", 1));
+    private final LinkKey link2 = LinkKey.linkKey(connectPoint("s2", 2), connectPoint("s3", 1));
+    private final LinkKey link3 = LinkKey.linkKey(connectPoint("s3", 2), connectPoint("s4", 1));
+    private final DeviceId device = did("s2");
+
+    private final Key key1 = Key.of(1L, APP_ID);
+    private final Key key2 = Key.of(2L, APP_ID);
+    private final Key key3 = Key.of(3L, APP_ID);
+
+    /**
+     * Tests lookups of the intents of single and multiple resources.
+     */
+    @Test
+    public void lookups() {
+        IntentResourceIndex index = new IntentResourceIndex();
+        assertThat(index.add(link1, key1), is(true));
+        assertThat(index.add(link1, key1), is(false));
+        index.add(link2, key1);
+        index.add(device, key1);
+        index.add(link2, key2);
+        index.add(link3, key3);
+
+        assertThat(index.keys(link1), containsInAnyOrder(key1));
+        assertThat(index.keys(link2), containsInAnyOrder(key1, key2));
+        assertThat(index.keys(device), containsInAnyOrder(key1));
+        assertThat(index.keys(did("s9")), is(empty()));
+        assertThat(index.union(ImmutableList.of(link1, link3)), containsInAnyOrder(key1, key3));
+        assertThat(index.union(ImmutableList.of(link2, link3, did("s9"))),
+                   containsInAnyOrder(key1, key2, key3));
+        assertThat(index.intersection(ImmutableList.of(link1, link2)), containsInAnyOrder(key1));
+        assertThat(index.intersection(ImmutableList.of(link2, link3)), is(empty()));
+        assertThat(index.intersection(ImmutableList.of(link2, did("s9"))), is(empty()));
+
+        assertThat(index.resourceCount(), is(4));
+        assertThat(index.intentCount(), is(3));
+        assertThat(index.entryCount(), is(6L));
+    }
+
+    /**
+     * Tests that removed intents leave the index and their identifiers
+     * are reused by other intents.
+     */
+    @Test
+    public void removals() {
+        IntentResourceIndex index = new IntentResourceIndex();
+        index.add(link1, key1);
+        index.add(link2, key1);
+        index.add(link2, key2);
+
+        assertThat(index.remove(link1, key2), is(false));
+        assertThat(index.remove(link1, key1), is(true));
+        assertThat(index.contains(key1), is(true));
+        assertThat(index.remove(link2, key1), is(true));
+        assertThat(index.contains(key1), is(false));
+        assertThat(index.resourceCount(), is(1));
+        assertThat(index.intentCount(), is(1));
+
+        index.add(link1, key3);
+        assertThat(index.keys(link1), containsInAnyOrder(key3));
+        assertThat(index.keys(link2), containsInAnyOrder(key2));
+        assertThat(index.union(ImmutableList.of(link1, link2)), containsInAnyOrder(key2, key3));
+        assertThat(index.entryCount(), is(2L));
+    }
+}
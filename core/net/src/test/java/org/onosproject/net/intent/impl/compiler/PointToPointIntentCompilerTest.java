@@ -18,6 +18,7 @@ package org.onosproject.net.intent.impl.compiler;
 import com.google.common.collect.ImmutableSet;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.onlab.junit.TestUtils;
 import org.onlab.util.Bandwidth;
 import org.onosproject.TestApplicationId;
 import org.onosproject.core.ApplicationId;
@@ -25,10 +26,13 @@ import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.FilteredConnectPoint;
 import org.onosproject.net.Link;
+import org.onosproject.net.NetTestTools;
+import org.onosproject.net.Path;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.ResourceGroup;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.host.HostServiceAdapter;
 import org.onosproject.net.intent.AbstractIntentTest;
 import org.onosproject.net.intent.Constraint;
 import org.onosproject.net.intent.Intent;
@@ -37,18 +41,25 @@ import org.onosproject.net.intent.Key;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.PointToPointIntent;
 import org.onosproject.net.intent.constraint.BandwidthConstraint;
+import org.onosproject.net.intent.constraint.LatencyConstraint;
 import org.onosproject.net.intent.impl.PathNotFoundException;
 import org.onosproject.net.resource.ContinuousResource;
 import org.onosproject.net.resource.MockResourceService;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceService;
 import org.onosproject.net.resource.Resources;
+import org.onosproject.net.topology.LinkWeigher;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+import org.onosproject.net.topology.impl.PathManager;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.easymock.EasyMock.createMock;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -582,4 +593,54 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
         assertThat(resourceAllocations, hasSize(6));
         assertEquals(expectedresourceAllocations, resourceAllocations);
     }
+
+    /**
+     * Tests that recompiling an intent finds its paths in the path cache.
+     */
+    @Test
+    public void testRecompilationHitsPathCache() throws TestUtils.TestUtilsException {
+        CountingTopologyService topologyService = new CountingTopologyService(
+                NetTestTools.createPath(S1, S2, S3));
+        PathManager pathManager = new PathManager();
+        TestUtils.setField(pathManager, "topologyService", topologyService);
+        TestUtils.setField(pathManager, "hostService", new HostServiceAdapter());
+        pathManager.activate();
+
+        PointToPointIntentCompiler compiler = makeCompiler(new String[]{S1, S2, S3});
+        compiler.pathService = pathManager;
+        PointToPointIntent intent = makeIntent(new ConnectPoint(DID_1, PORT_1),
+                                               new ConnectPoint(DID_3, PORT_2),
+                                               Collections.singletonList(
+                                                       new LatencyConstraint(Duration.ofMillis(10))));
+        try {
+            assertThat(compiler.compile(intent, null), hasSize(1));
+            assertThat(compiler.compile(intent, null), hasSize(1));
+            assertThat("paths should be searched once", topologyService.searches, is(1));
+        } finally {
+            pathManager.deactivate();
+        }
+    }
+
+    // Topology service giving out a single path and counting path searches.
+    private static class CountingTopologyService extends TopologyServiceAdapter {
+        private final Topology topology = createMock(Topology.class);
+        private final Path path;
+        private int searches;
+
+        CountingTopologyService(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public Topology currentTopology() {
+            return topology;
+        }
+
+        @Override
+        public Set<Path> getPaths(Topology topology, DeviceId src,
+                                  DeviceId dst, LinkWeigher weigher) {
+            searches++;
+            return ImmutableSet.of(path);
+        }
+    }
 }
@@ -20,16 +20,19 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.packet.Ethernet;
 import org.onosproject.cluster.ClusterServiceAdapter;
 import org.onosproject.common.event.impl.TestEventDispatcher;
 import org.onosproject.core.CoreServiceAdapter;
 import org.onosproject.core.IdGenerator;
 import org.onosproject.event.TestListener;
 import org.onosproject.net.AnnotationKeys;
+import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DefaultAnnotations;
 import org.onosproject.net.DefaultDevice;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
 import org.onosproject.net.device.DeviceServiceAdapter;
 import org.onosproject.net.driver.AbstractHandlerBehaviour;
 import org.onosproject.net.driver.DefaultDriver;
@@ -37,10 +40,18 @@ import org.onosproject.net.driver.DriverRegistry;
 import org.onosproject.net.driver.impl.DriverManager;
 import org.onosproject.net.driver.impl.DriverRegistryManager;
 import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.packet.DefaultInboundPacket;
 import org.onosproject.net.packet.DefaultOutboundPacket;
+import org.onosproject.net.packet.InboundPacket;
 import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContextAdapter;
+import org.onosproject.net.packet.PacketProcessor;
+import org.onosproject.net.packet.PacketProcessorEntry;
 import org.onosproject.net.packet.PacketProgrammable;
+import org.onosproject.net.packet.PacketProvider;
 import org.onosproject.net.packet.PacketProviderRegistry;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.provider.TestProvider;
 import org.onosproject.store.trivial.SimplePacketStore;
@@ -57,6 +68,7 @@ import static org.onosproject.net.NetTestTools.injectEventDispatcher;
 public class PacketManagerTest {
 
     private static final ProviderId FOO_PID = new ProviderId("foo", "foo");
+    private static final ProviderId BAR_PID = new ProviderId("bar", "bar");
 
     private static final DeviceId FOO_DID = DeviceId.deviceId("foo:002");
 
@@ -106,6 +118,36 @@ public class PacketManagerTest {
         assertEquals("Packet not emitted correctly", packet, emittedPacket);
     }
 
+    /**
+     * Tests that packets handed to a failing processor are counted as
+     * invocations rather than as skipped packets.
+     */
+    @Test
+    public void failedInvocationsNotSkipped() {
+        PacketProviderService providerService = providerRegistry.register(new TestPacketProvider());
+        mgr.addProcessor(context -> {
+            throw new IllegalStateException("processing failed");
+        }, PacketProcessor.director(1));
+
+        InboundPacket inPacket = new DefaultInboundPacket(new ConnectPoint(FOO_DID, PortNumber.portNumber(1)),
+                                                          new Ethernet(), ByteBuffer.allocate(0));
+        providerService.processPacket(new PacketContextAdapter(0, inPacket, null, false));
+
+        PacketProcessorEntry entry = mgr.getProcessors().get(0);
+        assertEquals(1, entry.invocations());
+        assertEquals(0, entry.skippedPackets());
+    }
+
+    private static class TestPacketProvider extends AbstractProvider implements PacketProvider {
+        TestPacketProvider() {
+            super(BAR_PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+
     private static class TestDeviceService extends DeviceServiceAdapter {
         @Override
         public int getDeviceCount() {
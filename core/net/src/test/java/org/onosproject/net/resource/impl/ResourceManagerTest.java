@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.resource.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.resource.DiscreteResourceId;
+import org.onosproject.net.resource.Resource;
+import org.onosproject.net.resource.ResourceAllocation;
+import org.onosproject.net.resource.ResourceConsumer;
+import org.onosproject.net.resource.ResourceEvent;
+import org.onosproject.net.resource.ResourceId;
+import org.onosproject.net.resource.ResourceStore;
+import org.onosproject.net.resource.ResourceStoreDelegate;
+import org.onosproject.net.resource.Resources;
+import org.onosproject.store.AbstractStore;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for ResourceManager.
+ */
+public class ResourceManagerTest {
+
+    private static final DeviceId D1 = DeviceId.deviceId("of:001");
+    private static final PortNumber P1 = PortNumber.portNumber(1);
+    private static final Resource VLAN1 = Resources.discrete(D1, P1, VlanId.vlanId((short) 100)).resource();
+    private static final Resource VLAN2 = Resources.discrete(D1, P1, VlanId.vlanId((short) 200)).resource();
+    private static final Resource VLAN3 = Resources.discrete(D1, P1, VlanId.vlanId((short) 300)).resource();
+    private static final ResourceConsumer RC1 = IntentId.valueOf(1L);
+    private static final ResourceConsumer RC2 = IntentId.valueOf(2L);
+    private static final ResourceConsumer RC3 = IntentId.valueOf(3L);
+
+    private ResourceManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new ResourceManager();
+        manager.store = new SimpleResourceStore();
+    }
+
+    /**
+     * Tests that a batch allocates each request on its own, leaving nothing
+     * allocated to the consumers of the requests which failed.
+     */
+    @Test
+    public void testAllocateRequests() {
+        Map<ResourceConsumer, List<ResourceAllocation>> allocations = manager.allocate(ImmutableMap.of(
+                RC1, ImmutableList.of(VLAN1, VLAN2),
+                RC2, ImmutableList.of(VLAN2, VLAN3),
+                RC3, ImmutableList.of(VLAN3)));
+
+        assertThat(allocations.keySet(), contains(RC1, RC3));
+        assertThat(allocations.get(RC1), contains(new ResourceAllocation(VLAN1, RC1),
+                                                  new ResourceAllocation(VLAN2, RC1)));
+        assertThat(allocations.get(RC3), contains(new ResourceAllocation(VLAN3, RC3)));
+        assertThat(manager.getResourceAllocations(RC2), is(empty()));
+        assertThat(manager.getResourceAllocations(VLAN3.id()),
+                   contains(new ResourceAllocation(VLAN3, RC3)));
+    }
+
+    // In-memory store of discrete resource allocations.
+    private static class SimpleResourceStore
+            extends AbstractStore<ResourceEvent, ResourceStoreDelegate>
+            implements ResourceStore {
+
+        private final Map<Resource, ResourceConsumer> allocations = new HashMap<>();
+
+        @Override
+        public boolean register(List<? extends Resource> resources) {
+            return true;
+        }
+
+        @Override
+        public boolean unregister(List<? extends ResourceId> ids) {
+            return true;
+        }
+
+        @Override
+        public boolean allocate(List<? extends Resource> resources, ResourceConsumer consumer) {
+            if (resources.stream().anyMatch(allocations::containsKey)) {
+                return false;
+            }
+            resources.forEach(r -> allocations.put(r, consumer));
+            return true;
+        }
+
+        @Override
+        public boolean release(List<ResourceAllocation> toRelease) {
+            toRelease.forEach(a -> allocations.remove(a.resource()));
+            return true;
+        }
+
+        @Override
+        public List<ResourceAllocation> getResourceAllocations(ResourceId id) {
+            return allocations.entrySet().stream()
+                    .filter(e -> e.getKey().id().equals(id))
+                    .map(e -> new ResourceAllocation(e.getKey(), e.getValue()))
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean isAvailable(Resource resource) {
+            return !allocations.containsKey(resource);
+        }
+
+        @Override
+        public Collection<Resource> getResources(ResourceConsumer consumer) {
+            return allocations.entrySet().stream()
+                    .filter(e -> e.getValue().equals(consumer))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public Set<Resource> getChildResources(DiscreteResourceId parent) {
+            return ImmutableSet.of();
+        }
+
+        @Override
+        public <T> Set<Resource> getChildResources(DiscreteResourceId parent, Class<T> cls) {
+            return ImmutableSet.of();
+        }
+
+        @Override
+        public <T> Collection<Resource> getAllocatedResources(DiscreteResourceId parent, Class<T> cls) {
+            return ImmutableList.of();
+        }
+    }
+}
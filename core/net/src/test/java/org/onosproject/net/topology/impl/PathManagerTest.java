@@ -18,25 +18,32 @@ package org.onosproject.net.topology.impl;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import com.google.common.collect.ImmutableList;
 import org.onlab.junit.TestUtils;
+import org.onosproject.event.Event;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.Host;
 import org.onosproject.net.HostId;
 import org.onosproject.net.Path;
 import org.onosproject.net.host.HostServiceAdapter;
+import org.onosproject.net.link.LinkEvent;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.topology.LinkWeigher;
 import org.onosproject.net.topology.PathService;
 import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEvent;
+import org.onosproject.net.topology.TopologyListener;
 import org.onosproject.net.topology.TopologyServiceAdapter;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import static org.easymock.EasyMock.createMock;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.onosproject.net.NetTestTools.*;
@@ -137,6 +144,40 @@ public class PathManagerTest {
         assertTrue("there should be no paths", paths.isEmpty());
     }
 
+    @Test
+    public void cachedPaths() {
+        DeviceId src = did("src");
+        DeviceId dst = did("dst");
+        fakeTopoMgr.paths.add(createPath("src", "middle", "dst"));
+        changeTopology(null);
+
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        assertEquals("paths should be cached", 1, fakeTopoMgr.searches);
+
+        // removal of a link not on the path keeps the path cached
+        changeTopology(ImmutableList.of(new LinkEvent(LinkEvent.Type.LINK_REMOVED, link("src", 3, "other", 1))));
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        assertEquals("paths should be cached", 1, fakeTopoMgr.searches);
+
+        // removal of a link on the path invalidates it
+        changeTopology(ImmutableList.of(new LinkEvent(LinkEvent.Type.LINK_REMOVED, link("middle", 2, "dst", 1))));
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        assertEquals("paths should be searched", 2, fakeTopoMgr.searches);
+
+        // addition of any link invalidates all paths
+        changeTopology(ImmutableList.of(new LinkEvent(LinkEvent.Type.LINK_ADDED, link("src", 3, "other", 1))));
+        validatePaths(service.getPaths(src, dst), 1, 2, src, dst);
+        assertEquals("paths should be searched", 3, fakeTopoMgr.searches);
+    }
+
+    // Moves to a new topology as if changed for the given reasons.
+    private void changeTopology(List<Event> reasons) {
+        fakeTopoMgr.topology = createMock(Topology.class);
+        fakeTopoMgr.listener.event(new TopologyEvent(TopologyEvent.Type.TOPOLOGY_CHANGED,
+                                                     fakeTopoMgr.topology, reasons));
+    }
+
     // Makes sure the set of paths meets basic expectations.
     private void validatePaths(Set<Path> paths, int count, int length,
                                ElementId src, ElementId dst) {
@@ -151,6 +192,19 @@ public class PathManagerTest {
     // Fake entity to give out paths.
     private class FakeTopoMgr extends TopologyServiceAdapter {
         Set<Path> paths = new HashSet<>();
+        Topology topology;
+        TopologyListener listener;
+        int searches;
+
+        @Override
+        public Topology currentTopology() {
+            return topology;
+        }
+
+        @Override
+        public void addListener(TopologyListener listener) {
+            this.listener = listener;
+        }
 
         @Override
         public Set<Path> getPaths(Topology topology, DeviceId src,
@@ -161,6 +215,7 @@ public class PathManagerTest {
         @Override
         public Set<Path> getPaths(Topology topology, DeviceId src,
                                   DeviceId dst, LinkWeigher weight) {
+            searches++;
             return paths;
         }
     }
@@ -17,6 +17,9 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Throwables;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -37,6 +40,10 @@ import org.onosproject.utils.MeteringAgent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -137,6 +144,25 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
     }
 
+    @Override
+    public <M> CompletableFuture<Void> unicastBuffered(M message,
+                                                       MessageSubject subject,
+                                                       BiConsumer<M, OutputStream> writer,
+                                                       NodeId toNodeId) {
+        checkPermission(CLUSTER_WRITE);
+        try {
+            ByteBuf payload = writePayload(message, writer);
+            try {
+                return doUnicast(subject, toNodeId, ep -> messagingService.sendAsync(ep, subject.toString(),
+                        envelopeWriter(subject, payload)));
+            } finally {
+                payload.release();
+            }
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
     @Override
     public <M> void multicast(M message,
                               MessageSubject subject,
@@ -171,15 +197,89 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
         }
     }
 
+    @Override
+    public <M, R> CompletableFuture<R> sendAndReceiveBuffered(M message,
+                                                              MessageSubject subject,
+                                                              BiConsumer<M, OutputStream> writer,
+                                                              Function<ByteBuffer, R> decoder,
+                                                              NodeId toNodeId) {
+        checkPermission(CLUSTER_WRITE);
+        try {
+            ByteBuf payload = writePayload(message, writer);
+            try {
+                return sendAndReceive(subject, toNodeId, ep -> messagingService.sendAndReceive(ep,
+                        subject.toString(), envelopeWriter(subject, payload)))
+                        .thenApply(bytes -> timeFunction(decoder, subjectMeteringAgent, DESERIALIZING)
+                                .apply(ByteBuffer.wrap(bytes).asReadOnlyBuffer()));
+            } finally {
+                payload.release();
+            }
+        } catch (Exception e) {
+            return Tools.exceptionalFuture(e);
+        }
+    }
+
+    /**
+     * Serializes a message into a pooled buffer.
+     *
+     * @param message message to serialize
+     * @param writer  function for writing message to a stream
+     * @param <M>     message type
+     * @return buffer holding the serialized message
+     */
+    private <M> ByteBuf writePayload(M message, BiConsumer<M, OutputStream> writer) {
+        ByteBuf payload = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        MeteringAgent.Context context = subjectMeteringAgent.startTimer(SERIALIZING);
+        try {
+            writer.accept(message, new ByteBufOutputStream(payload));
+            context.stop(null);
+            return payload;
+        } catch (RuntimeException e) {
+            context.stop(e);
+            payload.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a writer of the cluster message envelope around a serialized
+     * payload, which is copied from its pooled buffer into the transport's.
+     *
+     * @param subject message subject
+     * @param payload serialized payload
+     * @return payload writer for the messaging service
+     */
+    private Consumer<OutputStream> envelopeWriter(MessageSubject subject, ByteBuf payload) {
+        return stream -> {
+            try {
+                stream.write(ClusterMessage.encodeEnvelope(localNodeId, subject, payload.readableBytes()));
+                payload.getBytes(payload.readerIndex(), stream, payload.readableBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
     private CompletableFuture<Void> doUnicast(MessageSubject subject, byte[] payload, NodeId toNodeId) {
+        return doUnicast(subject, toNodeId, ep -> messagingService.sendAsync(ep, subject.toString(), payload));
+    }
+
+    private CompletableFuture<Void> doUnicast(MessageSubject subject, NodeId toNodeId,
+                                              Function<Endpoint, CompletableFuture<Void>> sender) {
         ControllerNode node = clusterService.getNode(toNodeId);
         checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
         Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
         MeteringAgent.Context context = subjectMeteringAgent.startTimer(subject.toString() + ONE_WAY_SUFFIX);
-        return messagingService.sendAsync(nodeEp, subject.toString(), payload).whenComplete((r, e) -> context.stop(e));
+        return sender.apply(nodeEp).whenComplete((r, e) -> context.stop(e));
     }
 
     private CompletableFuture<byte[]> sendAndReceive(MessageSubject subject, byte[] payload, NodeId toNodeId) {
+        return sendAndReceive(subject, toNodeId,
+                ep -> messagingService.sendAndReceive(ep, subject.toString(), payload));
+    }
+
+    private CompletableFuture<byte[]> sendAndReceive(MessageSubject subject, NodeId toNodeId,
+                                                     Function<Endpoint, CompletableFuture<byte[]>> sender) {
         ControllerNode node = clusterService.getNode(toNodeId);
         checkArgument(node != null, "Unknown nodeId: %s", toNodeId);
         Endpoint nodeEp = new Endpoint(node.ip(), node.tcpPort());
@@ -187,7 +287,7 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
                 startTimer(NODE_PREFIX + toNodeId.toString() + ROUND_TRIP_SUFFIX);
         MeteringAgent.Context subjectContext = subjectMeteringAgent.
                 startTimer(subject.toString() + ROUND_TRIP_SUFFIX);
-        return messagingService.sendAndReceive(nodeEp, subject.toString(), payload).
+        return sender.apply(nodeEp).
                 whenComplete((bytes, throwable) -> {
                     subjectContext.stop(throwable);
                     epContext.stop(throwable);
@@ -252,6 +352,38 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
                 executor);
     }
 
+    @Override
+    public <M, R> void addBufferSubscriber(MessageSubject subject,
+            Function<ByteBuffer, M> decoder,
+            Function<M, R> handler,
+            Function<R, byte[]> encoder,
+            Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        messagingService.registerBufferHandler(subject.toString(),
+                new InternalBufferResponder<M, R>(decoder, encoder, m -> {
+                    CompletableFuture<R> responseFuture = new CompletableFuture<>();
+                    executor.execute(() -> {
+                        try {
+                            responseFuture.complete(handler.apply(m));
+                        } catch (Exception e) {
+                            responseFuture.completeExceptionally(e);
+                        }
+                    });
+                    return responseFuture;
+                }));
+    }
+
+    @Override
+    public <M> void addBufferSubscriber(MessageSubject subject,
+            Function<ByteBuffer, M> decoder,
+            Consumer<M> handler,
+            Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        messagingService.registerBufferHandler(subject.toString(),
+                new InternalBufferConsumer<>(decoder, handler),
+                executor);
+    }
+
     /**
      * Performs the timed function, returning the value it would while timing the operation.
      *
@@ -337,4 +469,42 @@ public class ClusterCommunicationManager implements ClusterCommunicationService
                     apply(ClusterMessage.fromBytes(bytes).payload()));
         }
     }
+
+    private class InternalBufferResponder<M, R>
+            implements BiFunction<Endpoint, ByteBuffer, CompletableFuture<byte[]>> {
+        private final Function<ByteBuffer, M> decoder;
+        private final Function<R, byte[]> encoder;
+        private final Function<M, CompletableFuture<R>> handler;
+
+        public InternalBufferResponder(Function<ByteBuffer, M> decoder,
+                                       Function<R, byte[]> encoder,
+                                       Function<M, CompletableFuture<R>> handler) {
+            this.decoder = decoder;
+            this.encoder = encoder;
+            this.handler = handler;
+        }
+
+        @Override
+        public CompletableFuture<byte[]> apply(Endpoint sender, ByteBuffer buffer) {
+            return handler.apply(timeFunction(decoder, subjectMeteringAgent, DESERIALIZING).
+                    apply(ClusterMessage.payloadOf(buffer))).
+                    thenApply(m -> timeFunction(encoder, subjectMeteringAgent, SERIALIZING).apply(m));
+        }
+    }
+
+    private class InternalBufferConsumer<M> implements BiConsumer<Endpoint, ByteBuffer> {
+        private final Function<ByteBuffer, M> decoder;
+        private final Consumer<M> consumer;
+
+        public InternalBufferConsumer(Function<ByteBuffer, M> decoder, Consumer<M> consumer) {
+            this.decoder = decoder;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(Endpoint sender, ByteBuffer buffer) {
+            consumer.accept(timeFunction(decoder, subjectMeteringAgent, DESERIALIZING).
+                    apply(ClusterMessage.payloadOf(buffer)));
+        }
+    }
 }
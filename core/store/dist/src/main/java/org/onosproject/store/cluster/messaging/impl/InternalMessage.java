@@ -15,10 +15,22 @@
  */
 package org.onosproject.store.cluster.messaging.impl;
 
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 
+import static com.google.common.base.Preconditions.checkState;
+
 /**
  * Base class for internal messages.
+ * <p>
+ * The payload is either an array or a reference counted buffer. A buffer
+ * is owned by the message: it is released once the payload is copied out,
+ * handed to the encoder, or the message is {@link #release() released}.
+ * </p>
  */
 public abstract class InternalMessage {
 
@@ -65,16 +77,42 @@ public abstract class InternalMessage {
     private final int preamble;
     private final HybridLogicalTime time;
     private final long id;
-    private final byte[] payload;
+    private final int payloadLength;
+    private byte[] payload;
+    private ByteBuf payloadBuffer;
+    private final boolean compressed;
 
     protected InternalMessage(int preamble,
             HybridLogicalTime time,
             long id,
             byte[] payload) {
+        this(preamble, time, id, payload, false);
+    }
+
+    protected InternalMessage(int preamble,
+            HybridLogicalTime time,
+            long id,
+            byte[] payload,
+            boolean compressed) {
         this.preamble = preamble;
         this.time = time;
         this.id = id;
+        this.payloadLength = payload.length;
         this.payload = payload;
+        this.compressed = compressed;
+    }
+
+    protected InternalMessage(int preamble,
+            HybridLogicalTime time,
+            long id,
+            ByteBuf payload,
+            boolean compressed) {
+        this.preamble = preamble;
+        this.time = time;
+        this.id = id;
+        this.payloadLength = payload.readableBytes();
+        this.payloadBuffer = payload;
+        this.compressed = compressed;
     }
 
     public abstract Type type();
@@ -99,7 +137,80 @@ public abstract class InternalMessage {
         return id;
     }
 
-    public byte[] payload() {
+    /**
+     * Returns the payload, copying it out of the payload buffer and
+     * releasing the buffer if the message holds one.
+     *
+     * @return payload bytes
+     */
+    public synchronized byte[] payload() {
+        if (payload == null) {
+            checkState(payloadBuffer != null, "Payload has been released");
+            payload = ByteBufUtil.getBytes(payloadBuffer);
+            release();
+        }
         return payload;
     }
+
+    /**
+     * Returns the length of the payload.
+     *
+     * @return payload length in bytes
+     */
+    public int payloadLength() {
+        return payloadLength;
+    }
+
+    /**
+     * Returns a read-only view of the payload, which is only valid until
+     * the message is released.
+     *
+     * @return payload view
+     */
+    public synchronized ByteBuffer payloadView() {
+        if (payloadBuffer != null) {
+            return payloadBuffer.nioBuffer().asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(payload()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Transfers ownership of the payload buffer to the caller.
+     *
+     * @return payload buffer, or null if the payload is held as an array
+     */
+    synchronized ByteBuf takePayloadBuffer() {
+        ByteBuf buffer = payloadBuffer;
+        payloadBuffer = null;
+        return buffer;
+    }
+
+    /**
+     * Releases the payload buffer, if the message still holds one.
+     */
+    public synchronized void release() {
+        if (payloadBuffer != null) {
+            payloadBuffer.release();
+            payloadBuffer = null;
+        }
+    }
+
+    /**
+     * Returns a printable summary of the payload, which does not copy
+     * the payload out of its buffer.
+     *
+     * @return payload summary
+     */
+    protected synchronized Object payloadSummary() {
+        return payload != null ? ByteArraySizeHashPrinter.of(payload) : "ByteBuf{size=" + payloadLength + "}";
+    }
+
+    /**
+     * Returns whether the payload is in compressed form.
+     *
+     * @return true if the payload is compressed
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
 }
\ No newline at end of file
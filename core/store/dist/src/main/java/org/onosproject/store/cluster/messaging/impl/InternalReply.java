@@ -16,7 +16,6 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
-import org.onlab.util.ByteArraySizeHashPrinter;
 import org.onosproject.core.HybridLogicalTime;
 
 /**
@@ -102,7 +101,16 @@ public final class InternalReply extends InternalMessage {
             long id,
             byte[] payload,
             Status status) {
-        super(preamble, time, id, payload);
+        this(preamble, time, id, payload, status, false);
+    }
+
+    public InternalReply(int preamble,
+            HybridLogicalTime time,
+            long id,
+            byte[] payload,
+            Status status,
+            boolean compressed) {
+        super(preamble, time, id, payload, compressed);
         this.status = status;
     }
 
@@ -121,7 +129,8 @@ public final class InternalReply extends InternalMessage {
                 .add("time", time())
                 .add("id", id())
                 .add("status", status())
-                .add("payload", ByteArraySizeHashPrinter.of(payload()))
+                .add("payload", payloadSummary())
+                .add("compressed", isCompressed())
                 .toString();
     }
 }
\ No newline at end of file
@@ -17,7 +17,7 @@ package org.onosproject.store.cluster.messaging.impl;
 
 import com.google.common.base.MoreObjects;
 
-import org.onlab.util.ByteArraySizeHashPrinter;
+import io.netty.buffer.ByteBuf;
 import org.onosproject.core.HybridLogicalTime;
 import org.onosproject.store.cluster.messaging.Endpoint;
 
@@ -34,7 +34,29 @@ public final class InternalRequest extends InternalMessage {
                            Endpoint sender,
                            String subject,
                            byte[] payload) {
-        super(preamble, time, id, payload);
+        this(preamble, time, id, sender, subject, payload, false);
+    }
+
+    public InternalRequest(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String subject,
+                           byte[] payload,
+                           boolean compressed) {
+        super(preamble, time, id, payload, compressed);
+        this.sender = sender;
+        this.subject = subject;
+    }
+
+    public InternalRequest(int preamble,
+                           HybridLogicalTime time,
+                           long id,
+                           Endpoint sender,
+                           String subject,
+                           ByteBuf payload,
+                           boolean compressed) {
+        super(preamble, time, id, payload, compressed);
         this.sender = sender;
         this.subject = subject;
     }
@@ -59,7 +81,8 @@ public final class InternalRequest extends InternalMessage {
                 .add("id", id())
                 .add("subject", subject)
                 .add("sender", sender)
-                .add("payload", ByteArraySizeHashPrinter.of(payload()))
+                .add("payload", payloadSummary())
+                .add("compressed", isCompressed())
                 .toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Outbound handler that coalesces flushes of encoded messages.
+ * <p>
+ * Writes are passed on immediately but flush requests are held back until
+ * either the bytes written since the last flush reach the batch size or the
+ * batch delay expires, so that messages sent to the same endpoint within a
+ * short time share a single flush and system call. The handler must sit
+ * between the transport and the message encoder so that it sees encoded
+ * buffers. All methods are invoked on the channel event loop.
+ * </p>
+ */
+public class MessageBatchingHandler extends ChannelDuplexHandler {
+
+    private final long maxDelayMicros;
+    private final int maxBatchBytes;
+
+    private long pendingBytes;
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * Creates a new batching handler.
+     *
+     * @param maxDelayMicros maximum time a flush may be deferred, in microseconds
+     * @param maxBatchBytes  number of pending bytes that forces an immediate flush
+     */
+    public MessageBatchingHandler(long maxDelayMicros, int maxBatchBytes) {
+        checkArgument(maxDelayMicros >= 0, "maxDelayMicros must not be negative");
+        checkArgument(maxBatchBytes > 0, "maxBatchBytes must be positive");
+        this.maxDelayMicros = maxDelayMicros;
+        this.maxBatchBytes = maxBatchBytes;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        if (msg instanceof ByteBuf) {
+            pendingBytes += ((ByteBuf) msg).readableBytes();
+        }
+        ctx.write(msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (pendingBytes >= maxBatchBytes || maxDelayMicros == 0 || !ctx.channel().isWritable()) {
+            flushNow(ctx);
+        } else if (flushTask == null) {
+            flushTask = ctx.executor().schedule(() -> flushNow(ctx), maxDelayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        pendingBytes = 0;
+        ctx.flush();
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushNow(ctx);
+        ctx.close(promise);
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushNow(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushNow(ctx);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compresses and decompresses message payloads of selected subjects.
+ * <p>
+ * Payloads are deflated at the fastest compression level and prefixed with
+ * their original length. Only payloads of at least the threshold size are
+ * compressed, and the compressed form is only used when it is smaller than
+ * the original. The original length declared by a peer is checked against
+ * {@link #MAX_PAYLOAD_LENGTH} and the size of the compressed data before any
+ * buffer is allocated for it. The compressed and uncompressed byte counts and the time
+ * spent compressing and decompressing are recorded per subject, so that the
+ * compression ratio and its CPU cost can be compared.
+ * </p>
+ */
+final class MessageCompressor {
+
+    private static final String COMPONENT_NAME = "clusterMessaging";
+    private static final String COMPRESSION_PREFIX = "compression:";
+    private static final int LENGTH_PREFIX = 4;
+
+    /**
+     * Largest payload that is compressed or decompressed, in bytes.
+     */
+    static final int MAX_PAYLOAD_LENGTH = 128 * 1024 * 1024;
+
+    // Upper bound of the deflate compression ratio, used to reject declared
+    // lengths that the compressed data could not possibly expand to
+    private static final int MAX_DEFLATE_RATIO = 1032;
+
+    private static final ThreadLocal<Deflater> DEFLATER =
+            ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED, true));
+    private static final ThreadLocal<Inflater> INFLATER =
+            ThreadLocal.withInitial(() -> new Inflater(true));
+
+    private final int threshold;
+    private final Set<String> subjects;
+    private final MetricsService metricsService;
+    private final MetricsComponent metricsComponent;
+    private final Map<String, SubjectMetrics> subjectMetrics = Maps.newConcurrentMap();
+
+    /**
+     * Creates a new message compressor.
+     *
+     * @param threshold      minimum payload size to compress, in bytes
+     * @param subjects       subjects to compress; empty to compress all subjects
+     * @param metricsService metrics service; may be null to disable metrics
+     */
+    MessageCompressor(int threshold, Set<String> subjects, MetricsService metricsService) {
+        checkArgument(threshold >= 0, "threshold must not be negative");
+        this.threshold = Math.max(threshold, LENGTH_PREFIX + 1);
+        this.subjects = ImmutableSet.copyOf(subjects);
+        this.metricsService = metricsService;
+        this.metricsComponent = metricsService != null ? metricsService.registerComponent(COMPONENT_NAME) : null;
+    }
+
+    /**
+     * Compresses the given payload if its subject and size qualify and
+     * compression actually reduces its size.
+     *
+     * @param subject message subject
+     * @param payload message payload
+     * @return compressed payload, or null if the payload is to be sent as is
+     */
+    byte[] compress(String subject, byte[] payload) {
+        if (!qualifies(subject, payload.length)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(payload);
+        deflater.finish();
+
+        // give up as soon as the output would not be smaller than the input
+        byte[] output = new byte[payload.length];
+        writeLength(output, payload.length);
+        int length = LENGTH_PREFIX;
+        while (!deflater.finished()) {
+            if (length == output.length) {
+                record(subject, payload.length, payload.length, System.nanoTime() - start, true);
+                return null;
+            }
+            length += deflater.deflate(output, length, output.length - length);
+        }
+        record(subject, payload.length, length, System.nanoTime() - start, true);
+        return Arrays.copyOf(output, length);
+    }
+
+    /**
+     * Returns whether a payload of the given subject and size is eligible
+     * for compression.
+     *
+     * @param subject message subject
+     * @param length  payload length
+     * @return true if the payload may be compressed
+     */
+    boolean qualifies(String subject, int length) {
+        return length >= threshold && length <= MAX_PAYLOAD_LENGTH
+                && (subjects.isEmpty() || subjects.contains(subject));
+    }
+
+    /**
+     * Restores a payload compressed by {@link #compress(String, byte[])}.
+     *
+     * @param subject message subject
+     * @param payload compressed payload
+     * @return original payload
+     * @throws DataFormatException if the payload is not validly compressed
+     */
+    byte[] decompress(String subject, byte[] payload) throws DataFormatException {
+        if (payload.length < LENGTH_PREFIX) {
+            throw new DataFormatException("Compressed payload too short");
+        }
+        long start = System.nanoTime();
+        int originalLength = readLength(payload);
+        if (originalLength < 0 || originalLength > MAX_PAYLOAD_LENGTH
+                || originalLength > (long) (payload.length - LENGTH_PREFIX) * MAX_DEFLATE_RATIO) {
+            throw new DataFormatException("Invalid payload length " + originalLength);
+        }
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(payload, LENGTH_PREFIX, payload.length - LENGTH_PREFIX);
+
+        byte[] output = new byte[originalLength];
+        int length = 0;
+        while (length < originalLength) {
+            int inflated = inflater.inflate(output, length, originalLength - length);
+            if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                throw new DataFormatException("Truncated compressed payload");
+            }
+            length += inflated;
+        }
+        record(subject, originalLength, payload.length, System.nanoTime() - start, false);
+        return output;
+    }
+
+    private static void writeLength(byte[] bytes, int length) {
+        bytes[0] = (byte) (length >>> 24);
+        bytes[1] = (byte) (length >>> 16);
+        bytes[2] = (byte) (length >>> 8);
+        bytes[3] = (byte) length;
+    }
+
+    private static int readLength(byte[] bytes) {
+        return (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff);
+    }
+
+    private void record(String subject, int uncompressedBytes, int compressedBytes,
+                        long nanos, boolean compression) {
+        if (metricsService == null) {
+            return;
+        }
+        SubjectMetrics metrics = subjectMetrics.computeIfAbsent(subject, SubjectMetrics::new);
+        metrics.uncompressedBytes.inc(uncompressedBytes);
+        metrics.compressedBytes.inc(compressedBytes);
+        (compression ? metrics.compressTimer : metrics.decompressTimer).update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Compression metrics of a single subject.
+     */
+    private final class SubjectMetrics {
+        private final Counter uncompressedBytes;
+        private final Counter compressedBytes;
+        private final Timer compressTimer;
+        private final Timer decompressTimer;
+
+        SubjectMetrics(String subject) {
+            MetricsFeature feature = metricsComponent.registerFeature(COMPRESSION_PREFIX + subject);
+            uncompressedBytes = metricsService.createCounter(metricsComponent, feature, "uncompressedBytes");
+            compressedBytes = metricsService.createCounter(metricsComponent, feature, "compressedBytes");
+            compressTimer = metricsService.createTimer(metricsComponent, feature, "compress");
+            decompressTimer = metricsService.createTimer(metricsComponent, feature, "decompress");
+        }
+    }
+}
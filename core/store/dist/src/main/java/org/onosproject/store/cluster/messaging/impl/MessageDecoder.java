@@ -37,6 +37,8 @@ import static com.google.common.base.Preconditions.checkState;
  */
 public class MessageDecoder extends ReplayingDecoder<DecoderState> {
 
+    private static final byte[] EMPTY_CONTENT = new byte[0];
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private Version ipVersion;
@@ -44,12 +46,14 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
     private int senderPort;
 
     private InternalMessage.Type type;
+    private boolean compressed;
     private int preamble;
     private long logicalTime;
     private long logicalCounter;
     private long messageId;
     private int contentLength;
     private byte[] content;
+    private ByteBuf contentBuffer;
     private int subjectLength;
     private String subject;
     private InternalReply.Status status;
@@ -78,7 +82,9 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                 senderPort = buffer.readInt();
                 checkpoint(DecoderState.READ_TYPE);
             case READ_TYPE:
-                type = InternalMessage.Type.forId(buffer.readByte());
+                int typeId = buffer.readByte() & 0xff;
+                compressed = (typeId & MessageEncoder.COMPRESSED_FLAG) != 0;
+                type = InternalMessage.Type.forId(typeId & ~MessageEncoder.COMPRESSED_FLAG);
                 checkpoint(DecoderState.READ_PREAMBLE);
             case READ_PREAMBLE:
                 preamble = buffer.readInt();
@@ -96,12 +102,20 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                 contentLength = buffer.readInt();
                 checkpoint(DecoderState.READ_CONTENT);
             case READ_CONTENT:
-                if (contentLength > 0) {
-                    //TODO Perform a sanity check on the size before allocating
+                if (contentLength > 0 && type == InternalMessage.Type.REQUEST) {
+                    // Requests keep a retained slice of the received bytes
+                    // rather than a copy; the request releases it once its
+                    // handler has consumed the payload.
+                    contentBuffer = buffer.readRetainedSlice(contentLength);
+                } else if (contentLength > 0) {
+                    // Replies are consumed right away, so they are copied.
+                    // Slice first so that the content array is only allocated
+                    // once the whole payload has arrived, not on every replay.
+                    ByteBuf replyBuffer = buffer.readSlice(contentLength);
                     content = new byte[contentLength];
-                    buffer.readBytes(content);
+                    replyBuffer.getBytes(replyBuffer.readerIndex(), content);
                 } else {
-                    content = new byte[0];
+                    content = EMPTY_CONTENT;
                 }
 
                 switch (type) {
@@ -129,12 +143,25 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                         byte[] messageTypeBytes = new byte[subjectLength];
                         buffer.readBytes(messageTypeBytes);
                         subject = new String(messageTypeBytes, Charsets.UTF_8);
-                        InternalRequest message = new InternalRequest(preamble,
-                                new HybridLogicalTime(logicalTime, logicalCounter),
-                                messageId,
-                                new Endpoint(senderIp, senderPort),
-                                subject,
-                                content);
+                        InternalRequest message;
+                        if (contentBuffer != null) {
+                            message = new InternalRequest(preamble,
+                                    new HybridLogicalTime(logicalTime, logicalCounter),
+                                    messageId,
+                                    new Endpoint(senderIp, senderPort),
+                                    subject,
+                                    contentBuffer,
+                                    compressed);
+                            contentBuffer = null;
+                        } else {
+                            message = new InternalRequest(preamble,
+                                    new HybridLogicalTime(logicalTime, logicalCounter),
+                                    messageId,
+                                    new Endpoint(senderIp, senderPort),
+                                    subject,
+                                    content,
+                                    compressed);
+                        }
                         out.add(message);
                         checkpoint(DecoderState.READ_TYPE);
                         break;
@@ -150,7 +177,8 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
                                 new HybridLogicalTime(logicalTime, logicalCounter),
                                 messageId,
                                 content,
-                                status);
+                                status,
+                                compressed);
                         out.add(message);
                         checkpoint(DecoderState.READ_TYPE);
                         break;
@@ -163,6 +191,15 @@ public class MessageDecoder extends ReplayingDecoder<DecoderState> {
         }
     }
 
+    @Override
+    protected void handlerRemoved0(ChannelHandlerContext context) throws Exception {
+        // release the content of a request whose subject never arrived
+        if (contentBuffer != null) {
+            contentBuffer.release();
+            contentBuffer = null;
+        }
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext context, Throwable cause) {
         log.error("Exception inside channel handling pipeline.", cause);
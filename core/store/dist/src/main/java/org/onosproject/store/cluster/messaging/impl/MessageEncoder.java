@@ -16,11 +16,14 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.google.common.base.Charsets;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
 import org.onlab.packet.IpAddress;
 import org.onlab.packet.IpAddress.Version;
 import org.onosproject.store.cluster.messaging.Endpoint;
@@ -29,11 +32,32 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Encode InternalMessage out into a byte buffer.
+ * <p>
+ * Message headers are written into a pooled buffer. Payloads of at least
+ * {@link #ZERO_COPY_THRESHOLD} bytes are not copied; payload arrays are
+ * wrapped, and payload buffers are handed over, and chained behind the
+ * header in a composite buffer.
+ * </p>
  */
-public class MessageEncoder extends MessageToByteEncoder<Object> {
-// Effectively MessageToByteEncoder<InternalMessage>,
+public class MessageEncoder extends MessageToMessageEncoder<Object> {
+// Effectively MessageToMessageEncoder<InternalMessage>,
 // had to specify <Object> to avoid Class Loader not being able to find some classes.
 
+    /**
+     * Payload size from which payloads are wrapped rather than copied.
+     */
+    static final int ZERO_COPY_THRESHOLD = 8 * 1024;
+
+    /**
+     * Bit set in the message type byte when the payload is compressed.
+     */
+    static final int COMPRESSED_FLAG = 0x80;
+
+    // type, preamble, logical time, logical counter, message id, payload length
+    private static final int HEADER_LENGTH = 1 + 4 + 8 + 8 + 8 + 4;
+    // sender IP version, sender IP, sender port
+    private static final int MAX_ENDPOINT_LENGTH = 1 + 16 + 4;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     private final Endpoint endpoint;
@@ -50,11 +74,41 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
     protected void encode(
             ChannelHandlerContext context,
             Object rawMessage,
-            ByteBuf out) throws Exception {
-        if (rawMessage instanceof InternalRequest) {
-            encodeRequest((InternalRequest) rawMessage, out);
-        } else if (rawMessage instanceof InternalReply) {
-            encodeReply((InternalReply) rawMessage, out);
+            List<Object> out) throws Exception {
+        InternalMessage message = (InternalMessage) rawMessage;
+        // a buffer backed payload is owned by the encoder from here on
+        ByteBuf payloadBuffer = message.takePayloadBuffer();
+        try {
+            ByteBuf payload = payloadBuffer != null ? payloadBuffer : Unpooled.wrappedBuffer(message.payload());
+            byte[] messageTypeBytes = message instanceof InternalRequest
+                    ? ((InternalRequest) message).subject().getBytes(Charsets.UTF_8) : null;
+            int trailerLength = messageTypeBytes != null ? 2 + messageTypeBytes.length : 1;
+            boolean wrapPayload = message.payloadLength() >= ZERO_COPY_THRESHOLD;
+
+            int headerLength = HEADER_LENGTH + (endpointWritten ? 0 : MAX_ENDPOINT_LENGTH);
+            ByteBuf header = context.alloc().ioBuffer(
+                    wrapPayload ? headerLength : headerLength + message.payloadLength() + trailerLength);
+            encodeMessage(message, header);
+
+            if (!wrapPayload) {
+                // write payload.
+                header.writeBytes(payload);
+                encodeTrailer(message, messageTypeBytes, header);
+                out.add(header);
+                return;
+            }
+
+            ByteBuf trailer = context.alloc().ioBuffer(trailerLength);
+            encodeTrailer(message, messageTypeBytes, trailer);
+            CompositeByteBuf composite = context.alloc().compositeBuffer(3);
+            composite.addComponents(true, header, payload, trailer);
+            // the composite buffer releases the payload buffer once written
+            payloadBuffer = null;
+            out.add(composite);
+        } finally {
+            if (payloadBuffer != null) {
+                payloadBuffer.release();
+            }
         }
     }
 
@@ -75,7 +129,8 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
             endpointWritten = true;
         }
 
-        out.writeByte(message.type().id());
+        out.writeByte(message.isCompressed()
+                ? message.type().id() | COMPRESSED_FLAG : message.type().id());
         out.writeInt(this.preamble);
 
         // write time
@@ -85,33 +140,21 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         // write message id
         out.writeLong(message.id());
 
-        byte[] payload = message.payload();
-
         // write payload length
-        out.writeInt(payload.length);
-
-        // write payload.
-        out.writeBytes(payload);
+        out.writeInt(message.payloadLength());
     }
 
-    private void encodeRequest(InternalRequest request, ByteBuf out) {
-        encodeMessage(request, out);
+    private void encodeTrailer(InternalMessage message, byte[] messageTypeBytes, ByteBuf out) {
+        if (message instanceof InternalRequest) {
+            // write length of message type
+            out.writeShort(messageTypeBytes.length);
 
-        byte[] messageTypeBytes = request.subject().getBytes(Charsets.UTF_8);
-
-        // write length of message type
-        out.writeShort(messageTypeBytes.length);
-
-        // write message type bytes
-        out.writeBytes(messageTypeBytes);
-
-    }
-
-    private void encodeReply(InternalReply reply, ByteBuf out) {
-        encodeMessage(reply, out);
-
-        // write message status value
-        out.writeByte(reply.status().id());
+            // write message type bytes
+            out.writeBytes(messageTypeBytes);
+        } else {
+            // write message status value
+            out.writeByte(((InternalReply) message).status().id());
+        }
     }
 
     @Override
@@ -124,7 +167,7 @@ public class MessageEncoder extends MessageToByteEncoder<Object> {
         context.close();
     }
 
-    // Effectively same result as one generated by MessageToByteEncoder<InternalMessage>
+    // Effectively same result as one generated by MessageToMessageEncoder<InternalMessage>
     @Override
     public final boolean acceptOutboundMessage(Object msg) throws Exception {
         return msg instanceof InternalMessage;
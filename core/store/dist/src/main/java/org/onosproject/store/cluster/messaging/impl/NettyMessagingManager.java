@@ -19,10 +19,13 @@ import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.OutputStream;
 import java.net.ConnectException;
+import java.nio.ByteBuffer;
 import java.security.Key;
 import java.security.KeyStore;
 import java.security.MessageDigest;
@@ -34,6 +37,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -49,16 +53,22 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.zip.DataFormatException;
 
+import com.google.common.base.Splitter;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
@@ -85,6 +95,7 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cluster.ClusterMetadataService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.core.HybridLogicalClockService;
@@ -113,8 +124,14 @@ public class NettyMessagingManager implements MessagingService {
     private static final long MIN_TIMEOUT_MILLIS = 100;
     private static final long MAX_TIMEOUT_MILLIS = 15000;
     private static final int CHANNEL_POOL_SIZE = 8;
+    private static final long DEFAULT_BATCH_DELAY_MICROS = 200;
+    private static final int DEFAULT_BATCH_MAX_BYTES = 64 * 1024;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 4 * 1024;
+    private static final String COMPRESSION_SUBJECT = "onos-messaging-compression";
 
     private static final byte[] EMPTY_PAYLOAD = new byte[0];
+    private static final MessageCompressor PASSIVE_COMPRESSOR =
+            new MessageCompressor(DEFAULT_COMPRESSION_THRESHOLD, ImmutableSet.of(), null);
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
@@ -152,16 +169,30 @@ public class NettyMessagingManager implements MessagingService {
     protected static final boolean TLS_DISABLED = false;
     protected boolean enableNettyTls = TLS_ENABLED;
 
+    protected boolean enableNettyBatching = false;
+    protected long batchDelayMicros = DEFAULT_BATCH_DELAY_MICROS;
+    protected int batchMaxBytes = DEFAULT_BATCH_MAX_BYTES;
+
+    protected boolean enableNettyCompression = false;
+    private MessageCompressor compressor;
+    // Whether peers decode compressed messages, probed before compressing to them
+    private final Map<Endpoint, CompletableFuture<Boolean>> compressionSupport = Maps.newConcurrentMap();
+
     protected TrustManagerFactory trustManager;
     protected KeyManagerFactory keyManager;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ClusterMetadataService clusterMetadataService;
 
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL_UNARY)
+    protected MetricsService metricsService;
+
     @Activate
     public void activate() throws InterruptedException {
         ControllerNode localNode = clusterMetadataService.getLocalNode();
         getTlsParameters();
+        getBatchingParameters();
+        getCompressionParameters();
 
         if (started.get()) {
             log.warn("Already running at local endpoint: {}", localEndpoint);
@@ -169,6 +200,9 @@ public class NettyMessagingManager implements MessagingService {
         }
         this.preamble = clusterMetadataService.getClusterMetadata().getName().hashCode();
         this.localEndpoint = new Endpoint(localNode.ip(), localNode.tcpPort());
+        // tells peers that this node decodes compressed messages
+        handlers.put(COMPRESSION_SUBJECT, (message, connection) ->
+                connection.reply(message, InternalReply.Status.OK, Optional.empty()));
         initEventLoopGroup();
         startAcceptingConnections();
         timeoutExecutor = Executors.newSingleThreadScheduledExecutor(
@@ -200,6 +234,156 @@ public class NettyMessagingManager implements MessagingService {
         }
     }
 
+    private void getBatchingParameters() {
+        // outbound batching is opt-in since it trades latency for throughput
+        enableNettyBatching = Boolean.parseBoolean(System.getProperty("enableNettyBatching", "false"));
+        try {
+            batchDelayMicros = Long.parseLong(System.getProperty("nettyBatchDelayMicros",
+                    Long.toString(DEFAULT_BATCH_DELAY_MICROS)));
+            batchMaxBytes = Integer.parseInt(System.getProperty("nettyBatchMaxBytes",
+                    Integer.toString(DEFAULT_BATCH_MAX_BYTES)));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid messaging batch parameters; using defaults", e);
+            batchDelayMicros = DEFAULT_BATCH_DELAY_MICROS;
+            batchMaxBytes = DEFAULT_BATCH_MAX_BYTES;
+        }
+        if (enableNettyBatching) {
+            log.info("Batching outbound messages with delay = {}us, maxBytes = {}", batchDelayMicros, batchMaxBytes);
+        }
+    }
+
+    private void getCompressionParameters() {
+        // compression is opt-in since it trades CPU for bandwidth; every node
+        // decodes compressed messages, but only enabled nodes send them, and
+        // only to peers that answered the compression probe
+        enableNettyCompression = Boolean.parseBoolean(System.getProperty("enableNettyCompression", "false"));
+        if (!enableNettyCompression) {
+            compressor = null;
+            return;
+        }
+        int threshold;
+        try {
+            threshold = Integer.parseInt(System.getProperty("nettyCompressionThreshold",
+                    Integer.toString(DEFAULT_COMPRESSION_THRESHOLD)));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid messaging compression threshold; using default", e);
+            threshold = DEFAULT_COMPRESSION_THRESHOLD;
+        }
+        Set<String> subjects = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings()
+                .split(System.getProperty("nettyCompressionSubjects", "")));
+        compressor = new MessageCompressor(threshold, subjects, metricsService);
+        log.info("Compressing messages of at least {} bytes for subjects {}", threshold,
+                subjects.isEmpty() ? "*" : subjects);
+    }
+
+    /**
+     * Returns whether the given peer is known to decode compressed messages.
+     * The first call for a peer probes it and returns false; peers running
+     * an older version reply that they have no handler for the probe.
+     *
+     * @param endpoint peer endpoint
+     * @return true if messages to the peer may be compressed
+     */
+    private boolean supportsCompression(Endpoint endpoint) {
+        CompletableFuture<Boolean> support = compressionSupport.get(endpoint);
+        if (support == null) {
+            CompletableFuture<Boolean> probe = new CompletableFuture<>();
+            support = compressionSupport.putIfAbsent(endpoint, probe);
+            if (support == null) {
+                support = probe;
+                sendAndReceive(endpoint, COMPRESSION_SUBJECT, EMPTY_PAYLOAD).whenComplete((result, error) -> {
+                    if (error == null) {
+                        probe.complete(true);
+                    } else {
+                        if (!(Throwables.getRootCause(error) instanceof MessagingException.NoRemoteHandler)) {
+                            // the peer could not answer; probe it again later
+                            compressionSupport.remove(endpoint, probe);
+                        }
+                        probe.complete(false);
+                    }
+                });
+            }
+        }
+        return support.getNow(false);
+    }
+
+    /**
+     * Returns the given request with its payload compressed, if compression
+     * is enabled, worthwhile for it and supported by the peer.
+     *
+     * @param message  request to send
+     * @param endpoint peer endpoint, or null if unknown
+     * @return request to write to the channel
+     */
+    private InternalRequest compress(InternalRequest message, Endpoint endpoint) {
+        if (compressor == null || endpoint == null
+                || !compressor.qualifies(message.subject(), message.payloadLength())
+                || !supportsCompression(endpoint)) {
+            return message;
+        }
+        byte[] compressed = compressor.compress(message.subject(), message.payload());
+        if (compressed == null) {
+            return message;
+        }
+        return new InternalRequest(message.preamble(),
+                message.time(),
+                message.id(),
+                message.sender(),
+                message.subject(),
+                compressed,
+                true);
+    }
+
+    /**
+     * Returns the given request with its payload restored to its original form.
+     *
+     * @param message received request
+     * @return uncompressed request
+     * @throws DataFormatException if the payload cannot be decompressed
+     */
+    private InternalRequest decompress(InternalRequest message) throws DataFormatException {
+        if (!message.isCompressed()) {
+            return message;
+        }
+        return new InternalRequest(message.preamble(),
+                message.time(),
+                message.id(),
+                message.sender(),
+                message.subject(),
+                decompress(message.subject(), message.payload(), true));
+    }
+
+    /**
+     * Returns the given payload restored to its original form.
+     *
+     * @param subject    message subject
+     * @param payload    received payload
+     * @param compressed whether the payload is compressed
+     * @return uncompressed payload
+     * @throws DataFormatException if the payload cannot be decompressed
+     */
+    private byte[] decompress(String subject, byte[] payload, boolean compressed) throws DataFormatException {
+        if (!compressed) {
+            return payload;
+        }
+        // a peer may send compressed messages even if compression is disabled locally
+        MessageCompressor decompressor = compressor != null ? compressor : PASSIVE_COMPRESSOR;
+        return decompressor.decompress(subject, payload);
+    }
+
+    /**
+     * Adds the outbound batching handler ahead of the message encoder, if
+     * batching is enabled.
+     *
+     * @param channel channel being initialized
+     */
+    private void addBatchingHandler(SocketChannel channel) {
+        if (enableNettyBatching) {
+            channel.pipeline().addBefore("encoder", "batcher",
+                    new MessageBatchingHandler(batchDelayMicros, batchMaxBytes));
+        }
+    }
+
     private boolean loadKeyStores() {
         // Maintain a local copy of the trust and key managers in case anything goes wrong
         TrustManagerFactory tmf;
@@ -307,12 +491,30 @@ public class NettyMessagingManager implements MessagingService {
         return executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor());
     }
 
+    @Override
+    public CompletableFuture<Void> sendAsync(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        checkPermission(CLUSTER_WRITE);
+        InternalRequest message = newRequest(ep, type, payloadWriter);
+        // releases the payload buffer unless the encoder has taken it over
+        return executeOnPooledConnection(ep, type, c -> c.sendAsync(message), MoreExecutors.directExecutor())
+                .whenComplete((result, error) -> message.release());
+    }
+
     @Override
     public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload) {
         checkPermission(CLUSTER_WRITE);
         return sendAndReceive(ep, type, payload, MoreExecutors.directExecutor());
     }
 
+    @Override
+    public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        checkPermission(CLUSTER_WRITE);
+        InternalRequest message = newRequest(ep, type, payloadWriter);
+        // releases the payload buffer unless the encoder has taken it over
+        return executeOnPooledConnection(ep, type, c -> c.sendAndReceive(message), MoreExecutors.directExecutor())
+                .whenComplete((result, error) -> message.release());
+    }
+
     @Override
     public CompletableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload, Executor executor) {
         checkPermission(CLUSTER_WRITE);
@@ -326,6 +528,44 @@ public class NettyMessagingManager implements MessagingService {
         return executeOnPooledConnection(ep, type, c -> c.sendAndReceive(message), executor);
     }
 
+    /**
+     * Creates a request whose payload is written straight into a pooled
+     * buffer, which the encoder chains into the outbound message.
+     *
+     * @param ep            end point to send the request to
+     * @param type          type of request
+     * @param payloadWriter writes the request payload to the given stream
+     * @return request
+     */
+    private InternalRequest newRequest(Endpoint ep, String type, Consumer<OutputStream> payloadWriter) {
+        long messageId = messageIdGenerator.incrementAndGet();
+        if (ep.equals(localEndpoint)) {
+            // local handlers are handed the request as is, so use an array
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            payloadWriter.accept(stream);
+            return new InternalRequest(preamble,
+                    clockService.timeNow(),
+                    messageId,
+                    localEndpoint,
+                    type,
+                    stream.toByteArray());
+        }
+        ByteBuf payload = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            payloadWriter.accept(new ByteBufOutputStream(payload));
+        } catch (RuntimeException e) {
+            payload.release();
+            throw e;
+        }
+        return new InternalRequest(preamble,
+                clockService.timeNow(),
+                messageId,
+                localEndpoint,
+                type,
+                payload,
+                false);
+    }
+
     private List<CompletableFuture<Channel>> getChannelPool(Endpoint endpoint) {
         return channels.computeIfAbsent(endpoint, e -> {
             List<CompletableFuture<Channel>> defaultList = new ArrayList<>(CHANNEL_POOL_SIZE);
@@ -429,7 +669,8 @@ public class NettyMessagingManager implements MessagingService {
 
         getChannel(endpoint, type).whenComplete((channel, channelError) -> {
             if (channelError == null) {
-                ClientConnection connection = clientConnections.computeIfAbsent(channel, RemoteClientConnection::new);
+                ClientConnection connection = clientConnections.computeIfAbsent(channel,
+                        c -> new RemoteClientConnection(c, endpoint));
                 callback.apply(connection).whenComplete((result, sendError) -> {
                     if (sendError == null) {
                         executor.execute(() -> future.complete(result));
@@ -453,24 +694,31 @@ public class NettyMessagingManager implements MessagingService {
     @Override
     public void registerHandler(String type, BiConsumer<Endpoint, byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, (message, connection) -> executor.execute(() ->
-                handler.accept(message.sender(), message.payload())));
+        handlers.put(type, (message, connection) -> {
+            // copy the payload out now rather than hold its buffer while queued
+            byte[] payload = message.payload();
+            executor.execute(() -> handler.accept(message.sender(), payload));
+        });
     }
 
     @Override
     public void registerHandler(String type, BiFunction<Endpoint, byte[], byte[]> handler, Executor executor) {
         checkPermission(CLUSTER_WRITE);
-        handlers.put(type, (message, connection) -> executor.execute(() -> {
-            byte[] responsePayload = null;
-            InternalReply.Status status = InternalReply.Status.OK;
-            try {
-                responsePayload = handler.apply(message.sender(), message.payload());
-            } catch (Exception e) {
-                log.debug("An error occurred in a message handler: {}", e);
-                status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
-            }
-            connection.reply(message, status, Optional.ofNullable(responsePayload));
-        }));
+        handlers.put(type, (message, connection) -> {
+            // copy the payload out now rather than hold its buffer while queued
+            byte[] payload = message.payload();
+            executor.execute(() -> {
+                byte[] responsePayload = null;
+                InternalReply.Status status = InternalReply.Status.OK;
+                try {
+                    responsePayload = handler.apply(message.sender(), payload);
+                } catch (Exception e) {
+                    log.debug("An error occurred in a message handler: {}", e);
+                    status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
+                }
+                connection.reply(message, status, Optional.ofNullable(responsePayload));
+            });
+        });
     }
 
     @Override
@@ -490,6 +738,49 @@ public class NettyMessagingManager implements MessagingService {
         });
     }
 
+    @Override
+    public void registerBufferHandler(String type, BiConsumer<Endpoint, ByteBuffer> handler, Executor executor) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, (message, connection) -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        handler.accept(message.sender(), message.payloadView());
+                    } finally {
+                        message.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                message.release();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public void registerBufferHandler(String type,
+                                      BiFunction<Endpoint, ByteBuffer, CompletableFuture<byte[]>> handler) {
+        checkPermission(CLUSTER_WRITE);
+        handlers.put(type, (message, connection) -> {
+            CompletableFuture<byte[]> future;
+            try {
+                future = handler.apply(message.sender(), message.payloadView());
+            } finally {
+                message.release();
+            }
+            future.whenComplete((result, error) -> {
+                InternalReply.Status status;
+                if (error == null) {
+                    status = InternalReply.Status.OK;
+                } else {
+                    log.debug("An error occurred in a message handler: {}", error);
+                    status = InternalReply.Status.ERROR_HANDLER_EXCEPTION;
+                }
+                connection.reply(message, status, Optional.ofNullable(result));
+            });
+        });
+    }
+
     @Override
     public void unregisterHandler(String type) {
         checkPermission(CLUSTER_WRITE);
@@ -584,6 +875,7 @@ public class NettyMessagingManager implements MessagingService {
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
                     .addLast("decoder", new MessageDecoder())
                     .addLast("handler", dispatcher);
+            addBatchingHandler(channel);
         }
     }
 
@@ -609,6 +901,7 @@ public class NettyMessagingManager implements MessagingService {
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
                     .addLast("decoder", new MessageDecoder())
                     .addLast("handler", dispatcher);
+            addBatchingHandler(channel);
         }
     }
 
@@ -624,6 +917,7 @@ public class NettyMessagingManager implements MessagingService {
                     .addLast("encoder", new MessageEncoder(localEndpoint, preamble))
                     .addLast("decoder", new MessageDecoder())
                     .addLast("handler", dispatcher);
+            addBatchingHandler(channel);
         }
     }
 
@@ -899,15 +1193,21 @@ public class NettyMessagingManager implements MessagingService {
      */
     private final class RemoteClientConnection extends AbstractClientConnection {
         private final Channel channel;
+        private final Endpoint endpoint;
 
         RemoteClientConnection(Channel channel) {
+            this(channel, null);
+        }
+
+        RemoteClientConnection(Channel channel, Endpoint endpoint) {
             this.channel = channel;
+            this.endpoint = endpoint;
         }
 
         @Override
         public CompletableFuture<Void> sendAsync(InternalRequest message) {
             CompletableFuture<Void> future = new CompletableFuture<>();
-            channel.writeAndFlush(message).addListener(channelFuture -> {
+            channel.writeAndFlush(compress(message, endpoint)).addListener(channelFuture -> {
                 if (!channelFuture.isSuccess()) {
                     future.completeExceptionally(channelFuture.cause());
                 } else {
@@ -921,7 +1221,7 @@ public class NettyMessagingManager implements MessagingService {
         public CompletableFuture<byte[]> sendAndReceive(InternalRequest message) {
             CompletableFuture<byte[]> future = new CompletableFuture<>();
             registerCallback(message.id(), message.subject(), future);
-            channel.writeAndFlush(message).addListener(channelFuture -> {
+            channel.writeAndFlush(compress(message, endpoint)).addListener(channelFuture -> {
                 if (!channelFuture.isSuccess()) {
                     Callback callback = failCallback(message.id());
                     if (callback != null) {
@@ -932,6 +1232,15 @@ public class NettyMessagingManager implements MessagingService {
             return future;
         }
 
+        @Override
+        public void close() {
+            if (endpoint != null) {
+                // the peer may come back running another version
+                compressionSupport.remove(endpoint);
+            }
+            super.close();
+        }
+
         /**
          * Dispatches a message to a local handler.
          *
@@ -948,7 +1257,12 @@ public class NettyMessagingManager implements MessagingService {
             Callback callback = completeCallback(message.id());
             if (callback != null) {
                 if (message.status() == InternalReply.Status.OK) {
-                    callback.complete(message.payload());
+                    try {
+                        callback.complete(decompress(callback.type, message.payload(), message.isCompressed()));
+                    } catch (DataFormatException e) {
+                        log.debug("Received an invalid compressed reply for message id:[{}]", message.id(), e);
+                        callback.completeExceptionally(new MessagingException.ProtocolException());
+                    }
                 } else if (message.status() == InternalReply.Status.ERROR_NO_HANDLER) {
                     callback.completeExceptionally(new MessagingException.NoRemoteHandler());
                 } else if (message.status() == InternalReply.Status.ERROR_HANDLER_EXCEPTION) {
@@ -982,28 +1296,48 @@ public class NettyMessagingManager implements MessagingService {
         private void dispatch(InternalRequest message) {
             if (message.preamble() != preamble) {
                 log.debug("Received {} with invalid preamble from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.PROTOCOL_EXCEPTION, Optional.empty());
                 return;
             }
 
             clockService.recordEventTime(message.time());
 
+            if (message.isCompressed()) {
+                compressionSupport.put(message.sender(), CompletableFuture.completedFuture(true));
+            }
+
             BiConsumer<InternalRequest, ServerConnection> handler = handlers.get(message.subject());
             if (handler != null) {
-                handler.accept(message, this);
+                InternalRequest request;
+                try {
+                    request = decompress(message);
+                } catch (DataFormatException e) {
+                    log.debug("Received an invalid compressed {} from {}", message.type(), message.sender(), e);
+                    reply(message, InternalReply.Status.PROTOCOL_EXCEPTION, Optional.empty());
+                    return;
+                }
+                handler.accept(request, this);
             } else {
                 log.debug("No handler for message type {} from {}", message.type(), message.sender());
+                message.release();
                 reply(message, InternalReply.Status.ERROR_NO_HANDLER, Optional.empty());
             }
         }
 
         @Override
         public void reply(InternalRequest message, InternalReply.Status status, Optional<byte[]> payload) {
+            byte[] responsePayload = payload.orElse(EMPTY_PAYLOAD);
+            byte[] compressed = compressor != null
+                    && compressor.qualifies(message.subject(), responsePayload.length)
+                    && supportsCompression(message.sender())
+                    ? compressor.compress(message.subject(), responsePayload) : null;
             InternalReply response = new InternalReply(preamble,
                     clockService.timeNow(),
                     message.id(),
-                    payload.orElse(EMPTY_PAYLOAD),
-                    status);
+                    compressed != null ? compressed : responsePayload,
+                    status,
+                    compressed != null);
             channel.writeAndFlush(response);
         }
     }
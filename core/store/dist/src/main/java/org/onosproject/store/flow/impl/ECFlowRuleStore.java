@@ -15,6 +15,7 @@
  */
 package org.onosproject.store.flow.impl;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashSet;
@@ -95,10 +96,12 @@ import com.google.common.util.concurrent.Futures;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.onlab.util.Tools.get;
 import static org.onlab.util.Tools.groupedThreads;
+import static org.onlab.util.Tools.isPropertyEnabled;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVED;
 import static org.onosproject.store.flow.ReplicaInfoEvent.Type.MASTER_CHANGED;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.APPLY_BATCH_FLOWS;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.FLOW_TABLE_BACKUP;
+import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.FLOW_TABLE_DELTA_BACKUP;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_DEVICE_FLOW_ENTRIES;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.GET_FLOW_ENTRY;
 import static org.onosproject.store.flow.impl.ECFlowRuleStoreMessageSubjects.REMOTE_APPLY_COMPLETED;
@@ -123,6 +126,9 @@ public class ECFlowRuleStore
     private static final long FLOW_RULE_STORE_TIMEOUT_MILLIS = 5000;
     // number of devices whose flow entries will be backed up in one communication round
     private static final int FLOW_TABLE_BACKUP_BATCH_SIZE = 1;
+    private static final boolean DEFAULT_DELTA_BACKUP_ENABLED = false;
+    // max number of changes retained per device for incremental backups
+    private static final int FLOW_TABLE_CHANGE_LOG_SIZE = 100000;
 
     @Property(name = "msgHandlerPoolSize", intValue = MESSAGE_HANDLER_THREAD_POOL_SIZE,
             label = "Number of threads in the message handler pool")
@@ -139,6 +145,10 @@ public class ECFlowRuleStore
             label = "Max number of backup copies for each device")
     private volatile int backupCount = DEFAULT_MAX_BACKUP_COUNT;
 
+    @Property(name = "deltaBackupEnabled", boolValue = DEFAULT_DELTA_BACKUP_ENABLED,
+            label = "Indicates whether backups ship only the flow table changes since the last backup")
+    private volatile boolean deltaBackupEnabled = DEFAULT_DELTA_BACKUP_ENABLED;
+
     private InternalFlowTable flowTable = new InternalFlowTable();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -180,7 +190,12 @@ public class ECFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected StorageService storageService;
 
-    protected final Serializer serializer = Serializer.using(KryoNamespaces.API);
+    private final KryoNamespace serializerNamespace = KryoNamespace.newBuilder()
+            .register(KryoNamespaces.API)
+            .register(FlowTableDelta.class)
+            .build();
+
+    protected final Serializer serializer = Serializer.using(serializerNamespace);
 
     protected final KryoNamespace.Builder serializerBuilder = KryoNamespace.newBuilder()
             .register(KryoNamespaces.API)
@@ -259,6 +274,7 @@ public class ECFlowRuleStore
         int newPoolSize;
         int newBackupPeriod;
         int newBackupCount;
+        boolean newDeltaBackupEnabled;
         try {
             String s = get(properties, "msgHandlerPoolSize");
             newPoolSize = isNullOrEmpty(s) ? msgHandlerPoolSize : Integer.parseInt(s.trim());
@@ -268,10 +284,14 @@ public class ECFlowRuleStore
 
             s = get(properties, "backupCount");
             newBackupCount = isNullOrEmpty(s) ? backupCount : Integer.parseInt(s.trim());
+
+            Boolean enabled = isPropertyEnabled(properties, "deltaBackupEnabled");
+            newDeltaBackupEnabled = enabled == null ? deltaBackupEnabled : enabled;
         } catch (NumberFormatException | ClassCastException e) {
             newPoolSize = MESSAGE_HANDLER_THREAD_POOL_SIZE;
             newBackupPeriod = DEFAULT_BACKUP_PERIOD_MILLIS;
             newBackupCount = DEFAULT_MAX_BACKUP_COUNT;
+            newDeltaBackupEnabled = DEFAULT_DELTA_BACKUP_ENABLED;
         }
 
         boolean restartBackupTask = false;
@@ -304,6 +324,11 @@ public class ECFlowRuleStore
         if (backupCount != newBackupCount) {
             backupCount = newBackupCount;
         }
+        if (deltaBackupEnabled != newDeltaBackupEnabled) {
+            deltaBackupEnabled = newDeltaBackupEnabled;
+            // backups received in the other mode are not sequenced; start over with full copies
+            flowTable.resetBackupSequences();
+        }
         logConfig("Reconfigured");
     }
 
@@ -318,8 +343,12 @@ public class ECFlowRuleStore
                 GET_DEVICE_FLOW_ENTRIES, serializer::decode, flowTable::getFlowEntries, serializer::encode, executor);
         clusterCommunicator.addSubscriber(
                 REMOVE_FLOW_ENTRY, serializer::decode, this::removeFlowRuleInternal, serializer::encode, executor);
+        clusterCommunicator.addBufferSubscriber(
+                FLOW_TABLE_BACKUP, serializerNamespace::deserialize, flowTable::onBackupReceipt,
+                serializer::encode, executor);
         clusterCommunicator.addSubscriber(
-                FLOW_TABLE_BACKUP, serializer::decode, flowTable::onBackupReceipt, serializer::encode, executor);
+                FLOW_TABLE_DELTA_BACKUP, serializer::decode, flowTable::onDeltaBackupReceipt,
+                serializer::encode, executor);
     }
 
     private void unregisterMessageHandlers() {
@@ -329,11 +358,12 @@ public class ECFlowRuleStore
         clusterCommunicator.removeSubscriber(APPLY_BATCH_FLOWS);
         clusterCommunicator.removeSubscriber(REMOTE_APPLY_COMPLETED);
         clusterCommunicator.removeSubscriber(FLOW_TABLE_BACKUP);
+        clusterCommunicator.removeSubscriber(FLOW_TABLE_DELTA_BACKUP);
     }
 
     private void logConfig(String prefix) {
-        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}",
-                 prefix, msgHandlerPoolSize, backupPeriod, backupCount);
+        log.info("{} with msgHandlerPoolSize = {}; backupPeriod = {}, backupCount = {}, deltaBackupEnabled = {}",
+                 prefix, msgHandlerPoolSize, backupPeriod, backupCount, deltaBackupEnabled);
     }
 
     // This is not a efficient operation on a distributed sharded
@@ -349,8 +379,8 @@ public class ECFlowRuleStore
     @Override
     public int getFlowRuleCount(DeviceId deviceId) {
         Integer count = flowCounts.get(deviceId);
-        return count != null ? count : flowTable.flowEntries.get(deviceId) != null ?
-                flowTable.flowEntries.get(deviceId).keySet().size() : 0;
+        FlowEntryIndex index = flowTable.flowEntries.get(deviceId);
+        return count != null ? count : index != null ? index.size() : 0;
     }
 
     @Override
@@ -680,15 +710,37 @@ public class ECFlowRuleStore
         }
     }
 
+    /**
+     * Position of a backup flow table in the change log of the device master.
+     */
+    private static final class BackupSequence {
+        private final long epoch;
+        private final long sequence;
+
+        private BackupSequence(long epoch, long sequence) {
+            this.epoch = epoch;
+            this.sequence = sequence;
+        }
+
+        private boolean precedes(FlowTableDelta delta) {
+            return epoch == delta.epoch() && sequence == delta.baseSequence();
+        }
+    }
+
     private class InternalFlowTable implements ReplicaInfoEventListener {
 
-        //TODO replace the Map<V,V> with ExtendedSet
+        private final Map<DeviceId, FlowEntryIndex> flowEntries = Maps.newConcurrentMap();
         private final Map<DeviceId, Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>
-                flowEntries = Maps.newConcurrentMap();
+                persistentFlowEntries = Maps.newConcurrentMap();
 
         private final Map<BackupOperation, Long> lastBackupTimes = Maps.newConcurrentMap();
         private final Map<DeviceId, Long> lastUpdateTimes = Maps.newConcurrentMap();
 
+        // state used when deltaBackupEnabled is set
+        private final Map<DeviceId, FlowTableChangeLog> changeLogs = Maps.newConcurrentMap();
+        private final Map<BackupOperation, Long> lastBackupSequences = Maps.newConcurrentMap();
+        private final Map<DeviceId, BackupSequence> backupSequences = Maps.newConcurrentMap();
+
         @Override
         public void event(ReplicaInfoEvent event) {
             eventHandler.execute(() -> handleEvent(event));
@@ -701,6 +753,9 @@ public class ECFlowRuleStore
             }
             if (event.type() == MASTER_CHANGED) {
                 lastUpdateTimes.put(deviceId, System.currentTimeMillis());
+                // start a new change log epoch; backups must be resynchronized with a full copy
+                changeLogs.remove(deviceId);
+                lastBackupSequences.keySet().removeIf(op -> op.deviceId.equals(deviceId));
             }
             backupSenderExecutor.schedule(this::backup, 0, TimeUnit.SECONDS);
         }
@@ -708,7 +763,111 @@ public class ECFlowRuleStore
         private void sendBackups(NodeId nodeId, Set<DeviceId> deviceIds) {
             // split up the devices into smaller batches and send them separately.
             Iterables.partition(deviceIds, FLOW_TABLE_BACKUP_BATCH_SIZE)
-                     .forEach(ids -> backupFlowEntries(nodeId, Sets.newHashSet(ids)));
+                     .forEach(ids -> {
+                         if (deltaBackupEnabled) {
+                             backupFlowTableDeltas(nodeId, Sets.newHashSet(ids));
+                         } else {
+                             backupFlowEntries(nodeId, Sets.newHashSet(ids));
+                         }
+                     });
+        }
+
+        private void backupFlowTableDeltas(NodeId nodeId, Set<DeviceId> deviceIds) {
+            if (deviceIds.isEmpty()) {
+                return;
+            }
+            long backupTime = System.currentTimeMillis();
+            List<FlowTableDelta> deltas = deviceIds.stream()
+                    .map(id -> {
+                        flowCounts.put(id, getFlowTable(id).size());
+                        return getFlowTableDelta(nodeId, id);
+                    })
+                    .collect(Collectors.toList());
+            log.debug("Sending flow table deltas {} to {} for backup.", deltas, nodeId);
+            clusterCommunicator.<List<FlowTableDelta>, Set<DeviceId>>
+                    sendAndReceive(deltas,
+                                   FLOW_TABLE_DELTA_BACKUP,
+                                   serializer::encode,
+                                   serializer::decode,
+                                   nodeId)
+                    .whenComplete((backedupDevices, error) -> {
+                        deltas.forEach(delta -> {
+                            BackupOperation operation = new BackupOperation(nodeId, delta.deviceId());
+                            if (backedupDevices != null && backedupDevices.contains(delta.deviceId())) {
+                                lastBackupSequences.put(operation, delta.sequence());
+                                lastBackupTimes.put(operation, backupTime);
+                                trimChangeLog(delta.deviceId());
+                            } else {
+                                // the backup is out of sync; catch it up with a full copy next round
+                                lastBackupSequences.remove(operation);
+                                log.warn("Failed to backup device: {}. Reason: {}, Node: {}",
+                                         delta.deviceId(), error != null ? error.getMessage() : "none",
+                                         nodeId);
+                            }
+                        });
+                    });
+        }
+
+        /**
+         * Returns the changes the given backup node is missing for a device, or
+         * a full copy of the device flow table if they are no longer available.
+         *
+         * @param nodeId   identifier of the backup node
+         * @param deviceId identifier of the device
+         * @return flow table delta
+         */
+        private FlowTableDelta getFlowTableDelta(NodeId nodeId, DeviceId deviceId) {
+            FlowTableChangeLog changeLog = getChangeLog(deviceId);
+            Long acknowledged = lastBackupSequences.get(new BackupOperation(nodeId, deviceId));
+            FlowTableDelta delta = acknowledged != null ? changeLog.deltaSince(acknowledged) : null;
+            return delta != null ? delta : changeLog.snapshot(() -> getStoredFlowEntries(deviceId));
+        }
+
+        private void trimChangeLog(DeviceId deviceId) {
+            FlowTableChangeLog changeLog = changeLogs.get(deviceId);
+            if (changeLog == null) {
+                return;
+            }
+            long acknowledged = Long.MAX_VALUE;
+            for (NodeId backupNode : getBackupNodes(deviceId)) {
+                Long sequence = lastBackupSequences.get(new BackupOperation(backupNode, deviceId));
+                if (sequence == null) {
+                    // this backup will be caught up with a full copy anyway
+                    continue;
+                }
+                acknowledged = Math.min(acknowledged, sequence);
+            }
+            if (acknowledged != Long.MAX_VALUE) {
+                changeLog.trim(acknowledged);
+            }
+        }
+
+        private FlowTableChangeLog getChangeLog(DeviceId deviceId) {
+            return changeLogs.computeIfAbsent(deviceId,
+                    id -> new FlowTableChangeLog(id, FLOW_TABLE_CHANGE_LOG_SIZE));
+        }
+
+        private void recordUpdate(StoredFlowEntry entry) {
+            if (deltaBackupEnabled) {
+                getChangeLog(entry.deviceId()).recordUpdate(entry);
+            }
+        }
+
+        private void recordRemove(StoredFlowEntry entry) {
+            if (deltaBackupEnabled) {
+                getChangeLog(entry.deviceId()).recordRemove(entry);
+            }
+        }
+
+        /**
+         * Discards all change logs and backup positions so that the next
+         * backup round ships full copies of every flow table.
+         */
+        private void resetBackupSequences() {
+            changeLogs.clear();
+            lastBackupSequences.clear();
+            backupSequences.clear();
+            lastBackupTimes.clear();
         }
 
         private void backupFlowEntries(NodeId nodeId, Set<DeviceId> deviceIds) {
@@ -720,19 +879,17 @@ public class ECFlowRuleStore
                     deviceFlowEntries = Maps.newConcurrentMap();
             deviceIds.forEach(id -> {
                 Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> copy = getFlowTableCopy(id);
-                int flowCount = copy.entrySet().stream()
-                        .mapToInt(e -> e.getValue().values().size()).sum();
-                flowCounts.put(id, flowCount);
+                flowCounts.put(id, getFlowTable(id).size());
                 deviceFlowEntries.put(id, copy);
             });
             clusterCommunicator.<Map<DeviceId,
                                  Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>>,
                                  Set<DeviceId>>
-                    sendAndReceive(deviceFlowEntries,
-                                   FLOW_TABLE_BACKUP,
-                                   serializer::encode,
-                                   serializer::decode,
-                                   nodeId)
+                    sendAndReceiveBuffered(deviceFlowEntries,
+                                           FLOW_TABLE_BACKUP,
+                                           serializerNamespace::serialize,
+                                           serializerNamespace::deserialize,
+                                           nodeId)
                     .whenComplete((backedupDevices, error) -> {
                         Set<DeviceId> devicesNotBackedup = error != null ?
                             deviceFlowEntries.keySet() :
@@ -754,78 +911,87 @@ public class ECFlowRuleStore
          * Returns the flow table for specified device.
          *
          * @param deviceId identifier of the device
-         * @return Map representing Flow Table of given device.
+         * @return index of the flow entries of given device.
          */
-        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTable(DeviceId deviceId) {
-            if (persistenceEnabled) {
-                return flowEntries.computeIfAbsent(deviceId, id -> persistenceService
-                        .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
-                        .withName("FlowTable:" + deviceId.toString())
-                        .withSerializer(new Serializer() {
-                            @Override
-                            public <T> byte[] encode(T object) {
-                                return serializer.encode(object);
-                            }
+        private FlowEntryIndex getFlowTable(DeviceId deviceId) {
+            return flowEntries.computeIfAbsent(deviceId, id -> {
+                FlowEntryIndex index = new FlowEntryIndex();
+                if (persistenceEnabled) {
+                    index.putAll(getPersistentFlowTable(id));
+                }
+                return index;
+            });
+        }
 
-                            @Override
-                            public <T> T decode(byte[] bytes) {
-                                return serializer.decode(bytes);
-                            }
+        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getPersistentFlowTable(DeviceId deviceId) {
+            return persistentFlowEntries.computeIfAbsent(deviceId, id -> persistenceService
+                    .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
+                    .withName("FlowTable:" + deviceId.toString())
+                    .withSerializer(new Serializer() {
+                        @Override
+                        public <T> byte[] encode(T object) {
+                            return serializer.encode(object);
+                        }
 
-                            @Override
-                            public <T> T copy(T object) {
-                                return serializer.copy(object);
-                            }
-                        })
-                        .build());
-            } else {
-                return flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap());
-            }
+                        @Override
+                        public <T> T decode(byte[] bytes) {
+                            return serializer.decode(bytes);
+                        }
+
+                        @Override
+                        public <T> T copy(T object) {
+                            return serializer.copy(object);
+                        }
+                    })
+                    .build());
         }
 
-        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTableCopy(DeviceId deviceId) {
-            Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> copy = Maps.newHashMap();
+        /**
+         * Writes the entries sharing the flow ID of the given rule through to
+         * the persistent flow table, if persistence is enabled.
+         *
+         * @param rule flow rule
+         */
+        private void persist(FlowRule rule) {
             if (persistenceEnabled) {
-                return flowEntries.computeIfAbsent(deviceId, id -> persistenceService
-                        .<FlowId, Map<StoredFlowEntry, StoredFlowEntry>>persistentMapBuilder()
-                        .withName("FlowTable:" + deviceId.toString())
-                        .withSerializer(new Serializer() {
-                            @Override
-                            public <T> byte[] encode(T object) {
-                                return serializer.encode(object);
-                            }
-
-                            @Override
-                            public <T> T decode(byte[] bytes) {
-                                return serializer.decode(bytes);
-                            }
+                Map<StoredFlowEntry, StoredFlowEntry> bucket = getFlowTable(rule.deviceId()).bucket(rule.id());
+                if (bucket.isEmpty()) {
+                    getPersistentFlowTable(rule.deviceId()).remove(rule.id());
+                } else {
+                    getPersistentFlowTable(rule.deviceId()).put(rule.id(), bucket);
+                }
+            }
+        }
 
-                            @Override
-                            public <T> T copy(T object) {
-                                return serializer.copy(object);
-                            }
-                        })
-                        .build());
-            } else {
-                flowEntries.computeIfAbsent(deviceId, id -> Maps.newConcurrentMap()).forEach((k, v) -> {
-                    copy.put(k, Maps.newHashMap(v));
-                });
-                return copy;
+        /**
+         * Writes the whole flow table of the given device through to the
+         * persistent flow table, if persistence is enabled.
+         *
+         * @param deviceId identifier of the device
+         */
+        private void persist(DeviceId deviceId) {
+            if (persistenceEnabled) {
+                Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> persistentFlowTable =
+                        getPersistentFlowTable(deviceId);
+                persistentFlowTable.clear();
+                persistentFlowTable.putAll(getFlowTable(deviceId).toFlowTable());
             }
         }
 
-        private Map<StoredFlowEntry, StoredFlowEntry> getFlowEntriesInternal(DeviceId deviceId, FlowId flowId) {
-            return getFlowTable(deviceId).computeIfAbsent(flowId, id -> Maps.newConcurrentMap());
+        private Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> getFlowTableCopy(DeviceId deviceId) {
+            return getFlowTable(deviceId).toFlowTable();
         }
 
         private StoredFlowEntry getFlowEntryInternal(FlowRule rule) {
-            return getFlowEntriesInternal(rule.deviceId(), rule.id()).get(rule);
+            return getFlowTable(rule.deviceId()).get(rule);
+        }
+
+        private Collection<StoredFlowEntry> getStoredFlowEntries(DeviceId deviceId) {
+            return getFlowTable(deviceId).entries();
         }
 
         private Set<FlowEntry> getFlowEntriesInternal(DeviceId deviceId) {
-            return getFlowTable(deviceId).values().stream()
-                        .flatMap(m -> m.values().stream())
-                        .collect(Collectors.toSet());
+            return new HashSet<>(getFlowTable(deviceId).entries());
         }
 
         public StoredFlowEntry getFlowEntry(FlowRule rule) {
@@ -837,21 +1003,25 @@ public class ECFlowRuleStore
         }
 
         public void add(FlowEntry rule) {
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                    .compute((StoredFlowEntry) rule, (k, stored) -> {
-                        return (StoredFlowEntry) rule;
-                    });
+            FlowEntryIndex index = getFlowTable(rule.deviceId());
+            // logged under the index lock, so that the log follows the table order
+            synchronized (index) {
+                index.put((StoredFlowEntry) rule);
+                recordUpdate((StoredFlowEntry) rule);
+            }
+            persist(rule);
             lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
         }
 
         public void update(FlowEntry rule) {
-            getFlowEntriesInternal(rule.deviceId(), rule.id())
-                .computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
+            getFlowTable(rule.deviceId())
+                .computeIfPresent(rule, stored -> {
                     if (rule instanceof DefaultFlowEntry) {
                         DefaultFlowEntry updated = (DefaultFlowEntry) rule;
                         if (stored instanceof DefaultFlowEntry) {
                             DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
                             if (updated.created() >= storedEntry.created()) {
+                                recordUpdate(updated);
                                 lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
                                 return updated;
                             } else {
@@ -862,31 +1032,30 @@ public class ECFlowRuleStore
                     }
                     return stored;
                 });
+            persist(rule);
         }
 
         public FlowEntry remove(FlowEntry rule) {
             final AtomicReference<FlowEntry> removedRule = new AtomicReference<>();
-            final Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> flowTable = getFlowTable(rule.deviceId());
-            flowTable.computeIfPresent(rule.id(), (flowId, flowEntries) -> {
-                flowEntries.computeIfPresent((StoredFlowEntry) rule, (k, stored) -> {
-                    if (rule instanceof DefaultFlowEntry) {
-                        DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
-                        if (stored instanceof DefaultFlowEntry) {
-                            DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
-                            if (toRemove.created() < storedEntry.created()) {
-                                log.debug("Trying to remove more recent flow entry {} (stored: {})", toRemove, stored);
-                                // the key is not updated, removedRule remains null
-                                return stored;
-                            }
+            getFlowTable(rule.deviceId()).computeIfPresent(rule, stored -> {
+                if (rule instanceof DefaultFlowEntry) {
+                    DefaultFlowEntry toRemove = (DefaultFlowEntry) rule;
+                    if (stored instanceof DefaultFlowEntry) {
+                        DefaultFlowEntry storedEntry = (DefaultFlowEntry) stored;
+                        if (toRemove.created() < storedEntry.created()) {
+                            log.debug("Trying to remove more recent flow entry {} (stored: {})", toRemove, stored);
+                            // the key is not updated, removedRule remains null
+                            return stored;
                         }
                     }
-                    removedRule.set(stored);
-                    return null;
-                });
-                return flowEntries.isEmpty() ? null : flowEntries;
+                }
+                removedRule.set(stored);
+                recordRemove(stored);
+                return null;
             });
 
             if (removedRule.get() != null) {
+                persist(rule);
                 lastUpdateTimes.put(rule.deviceId(), System.currentTimeMillis());
                 return removedRule.get();
             } else {
@@ -896,10 +1065,14 @@ public class ECFlowRuleStore
 
         public void purgeFlowRule(DeviceId deviceId) {
             flowEntries.remove(deviceId);
+            changeLogs.remove(deviceId);
+            backupSequences.remove(deviceId);
         }
 
         public void purgeFlowRules() {
             flowEntries.clear();
+            changeLogs.clear();
+            backupSequences.clear();
         }
 
         private List<NodeId> getBackupNodes(DeviceId deviceId) {
@@ -938,10 +1111,11 @@ public class ECFlowRuleStore
                 flowTables.forEach((deviceId, deviceFlowTable) -> {
                     // Only process those devices are that not managed by the local node.
                     if (!Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
-                        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> backupFlowTable =
-                                getFlowTable(deviceId);
+                        FlowEntryIndex backupFlowTable = getFlowTable(deviceId);
                         backupFlowTable.clear();
                         backupFlowTable.putAll(deviceFlowTable);
+                        persist(deviceId);
+                        backupSequences.remove(deviceId);
                         backedupDevices.add(deviceId);
                     }
                 });
@@ -950,6 +1124,48 @@ public class ECFlowRuleStore
             }
             return backedupDevices;
         }
+
+        private Set<DeviceId> onDeltaBackupReceipt(List<FlowTableDelta> deltas) {
+            log.debug("Received flow table deltas {} to backup", deltas);
+            Set<DeviceId> backedupDevices = Sets.newHashSet();
+            try {
+                deltas.forEach(delta -> {
+                    DeviceId deviceId = delta.deviceId();
+                    // Only process those devices are that not managed by the local node.
+                    if (Objects.equals(local, mastershipService.getMasterFor(deviceId))) {
+                        return;
+                    }
+                    backupSequences.compute(deviceId, (id, current) -> {
+                        if (!delta.isFull() && (current == null || !current.precedes(delta))) {
+                            log.debug("Backup of {} is out of sync; awaiting full copy", deviceId);
+                            return current;
+                        }
+                        applyDelta(delta);
+                        backedupDevices.add(deviceId);
+                        return new BackupSequence(delta.epoch(), delta.sequence());
+                    });
+                });
+            } catch (Exception e) {
+                log.warn("Failure processing delta backup request", e);
+            }
+            return backedupDevices;
+        }
+
+        private void applyDelta(FlowTableDelta delta) {
+            DeviceId deviceId = delta.deviceId();
+            FlowEntryIndex backupFlowTable = getFlowTable(deviceId);
+            if (delta.isFull()) {
+                backupFlowTable.clear();
+            }
+            backupFlowTable.putAll(delta.updated());
+            delta.removed().forEach(backupFlowTable::remove);
+            if (delta.isFull()) {
+                persist(deviceId);
+            } else {
+                delta.updated().forEach(this::persist);
+                delta.removed().forEach(this::persist);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+/**
+ * Flow entry index of a single device, keyed by primitive flow ID.
+ * <p>
+ * Entries are kept in an open addressing table with linear probing over a
+ * {@code long[]} of flow IDs, so no {@link FlowId} or per-flow map is
+ * allocated for stored entries. Each slot holds either the single entry for
+ * its flow ID or, in the rare case of a flow ID collision between distinct
+ * rules, a small array of entries.
+ * </p>
+ * <p>
+ * All operations are synchronized on the index; read operations returning
+ * several entries return a snapshot.
+ * </p>
+ */
+final class FlowEntryIndex {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    // null for empty slots, otherwise a StoredFlowEntry or a StoredFlowEntry[]
+    private Object[] slots;
+    private int occupied;
+    private int size;
+
+    /**
+     * Creates an empty flow entry index.
+     */
+    FlowEntryIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        slots = new Object[capacity];
+        occupied = 0;
+    }
+
+    private static int hash(long key) {
+        long h = key * GOLDEN_RATIO;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the slot holding the given key, or the complement of the free
+     * slot where it would be inserted.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (slots[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return ~i;
+    }
+
+    /**
+     * Returns the number of entries in the index.
+     *
+     * @return entry count
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the stored entry matching the given rule.
+     *
+     * @param rule flow rule
+     * @return stored flow entry, or null if none
+     */
+    synchronized StoredFlowEntry get(FlowRule rule) {
+        int i = find(rule.id().value());
+        return i < 0 ? null : match(slots[i], rule);
+    }
+
+    private static StoredFlowEntry match(Object slot, FlowRule rule) {
+        if (slot instanceof StoredFlowEntry) {
+            return rule.equals(slot) ? (StoredFlowEntry) slot : null;
+        }
+        for (StoredFlowEntry entry : (StoredFlowEntry[]) slot) {
+            if (rule.equals(entry)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the given entry, replacing any stored entry for the same rule.
+     *
+     * @param entry flow entry
+     * @return the replaced entry, or null if none
+     */
+    synchronized StoredFlowEntry put(StoredFlowEntry entry) {
+        long key = entry.id().value();
+        int i = find(key);
+        if (i < 0) {
+            if ((occupied + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+                i = find(key);
+            }
+            i = ~i;
+            keys[i] = key;
+            slots[i] = entry;
+            occupied++;
+            size++;
+            return null;
+        }
+        Object slot = slots[i];
+        if (slot instanceof StoredFlowEntry) {
+            if (entry.equals(slot)) {
+                slots[i] = entry;
+                return (StoredFlowEntry) slot;
+            }
+            slots[i] = new StoredFlowEntry[] {(StoredFlowEntry) slot, entry};
+            size++;
+            return null;
+        }
+        StoredFlowEntry[] entries = (StoredFlowEntry[]) slot;
+        for (int j = 0; j < entries.length; j++) {
+            if (entry.equals(entries[j])) {
+                StoredFlowEntry previous = entries[j];
+                entries[j] = entry;
+                return previous;
+            }
+        }
+        StoredFlowEntry[] grown = Arrays.copyOf(entries, entries.length + 1);
+        grown[entries.length] = entry;
+        slots[i] = grown;
+        size++;
+        return null;
+    }
+
+    /**
+     * Atomically replaces the entry matching the given rule, if present, with
+     * the result of the given function; a null result removes the entry.
+     *
+     * @param rule     flow rule
+     * @param function function computing the new entry from the stored one
+     * @return the new entry, or null if absent or removed
+     */
+    synchronized StoredFlowEntry computeIfPresent(FlowRule rule, UnaryOperator<StoredFlowEntry> function) {
+        StoredFlowEntry stored = get(rule);
+        if (stored == null) {
+            return null;
+        }
+        StoredFlowEntry updated = function.apply(stored);
+        if (updated == null) {
+            remove(rule);
+        } else if (updated != stored) {
+            put(updated);
+        }
+        return updated;
+    }
+
+    /**
+     * Removes the entry matching the given rule.
+     *
+     * @param rule flow rule
+     * @return the removed entry, or null if none
+     */
+    synchronized StoredFlowEntry remove(FlowRule rule) {
+        int i = find(rule.id().value());
+        if (i < 0) {
+            return null;
+        }
+        Object slot = slots[i];
+        if (slot instanceof StoredFlowEntry) {
+            if (!rule.equals(slot)) {
+                return null;
+            }
+            delete(i);
+            size--;
+            return (StoredFlowEntry) slot;
+        }
+        StoredFlowEntry[] entries = (StoredFlowEntry[]) slot;
+        for (int j = 0; j < entries.length; j++) {
+            if (rule.equals(entries[j])) {
+                StoredFlowEntry removed = entries[j];
+                if (entries.length == 2) {
+                    slots[i] = entries[1 - j];
+                } else {
+                    StoredFlowEntry[] shrunk = new StoredFlowEntry[entries.length - 1];
+                    System.arraycopy(entries, 0, shrunk, 0, j);
+                    System.arraycopy(entries, j + 1, shrunk, j, entries.length - j - 1);
+                    slots[i] = shrunk;
+                }
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Frees the given slot, shifting back any following entries of the probe
+     * sequence so that lookups never need tombstones.
+     */
+    private void delete(int i) {
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (slots[j] == null) {
+                break;
+            }
+            int home = hash(keys[j]) & mask;
+            boolean stays = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                slots[i] = slots[j];
+                i = j;
+            }
+        }
+        keys[i] = 0L;
+        slots[i] = null;
+        occupied--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldSlots = slots;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != null) {
+                int j = hash(oldKeys[i]) & mask;
+                while (slots[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                slots[j] = oldSlots[i];
+                occupied++;
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the index.
+     */
+    synchronized void clear() {
+        allocate(MIN_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Returns a snapshot of all entries in the index.
+     *
+     * @return list of flow entries
+     */
+    synchronized List<StoredFlowEntry> entries() {
+        List<StoredFlowEntry> entries = Lists.newArrayListWithCapacity(size);
+        for (Object slot : slots) {
+            if (slot instanceof StoredFlowEntry) {
+                entries.add((StoredFlowEntry) slot);
+            } else if (slot != null) {
+                entries.addAll(Arrays.asList((StoredFlowEntry[]) slot));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Returns a snapshot of the entries sharing the given flow ID, in the
+     * form used by flow table backups and persistence.
+     *
+     * @param flowId flow identifier
+     * @return map of flow entries, empty if none
+     */
+    synchronized Map<StoredFlowEntry, StoredFlowEntry> bucket(FlowId flowId) {
+        Map<StoredFlowEntry, StoredFlowEntry> bucket = Maps.newHashMap();
+        int i = find(flowId.value());
+        if (i >= 0) {
+            addTo(bucket, slots[i]);
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns a snapshot of the index in the form used by flow table backups
+     * and persistence.
+     *
+     * @return map of flow entries grouped by flow ID
+     */
+    synchronized Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> toFlowTable() {
+        Map<FlowId, Map<StoredFlowEntry, StoredFlowEntry>> table = Maps.newHashMapWithExpectedSize(occupied);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null) {
+                addTo(table.computeIfAbsent(FlowId.valueOf(keys[i]), id -> Maps.newHashMap()), slots[i]);
+            }
+        }
+        return table;
+    }
+
+    private static void addTo(Map<StoredFlowEntry, StoredFlowEntry> bucket, Object slot) {
+        if (slot instanceof StoredFlowEntry) {
+            bucket.put((StoredFlowEntry) slot, (StoredFlowEntry) slot);
+        } else {
+            for (StoredFlowEntry entry : (StoredFlowEntry[]) slot) {
+                bucket.put(entry, entry);
+            }
+        }
+    }
+
+    /**
+     * Adds all entries of the given flow table to the index.
+     *
+     * @param flowTable map of flow entries grouped by flow ID
+     */
+    synchronized void putAll(Map<FlowId, ? extends Map<StoredFlowEntry, StoredFlowEntry>> flowTable) {
+        flowTable.values().forEach(bucket -> putAll(bucket.values()));
+    }
+
+    /**
+     * Adds all the given entries to the index.
+     *
+     * @param entries flow entries
+     */
+    synchronized void putAll(Collection<StoredFlowEntry> entries) {
+        entries.forEach(this::put);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bounded, sequenced log of the changes applied to a single device flow table,
+ * used to derive incremental backups.
+ * <p>
+ * Every change bumps the sequence number of the log. A backup node that has
+ * acknowledged sequence {@code n} can be brought up to date by shipping the
+ * changes recorded after {@code n}, as long as they have not been trimmed.
+ * Each log carries a random epoch so that deltas from an older mastership term
+ * are never applied on top of state received from a newer one.
+ * </p>
+ */
+final class FlowTableChangeLog {
+
+    /**
+     * Sequence number that denotes a backup that has not received any state.
+     */
+    static final long NO_SEQUENCE = -1L;
+
+    private final DeviceId deviceId;
+    private final int capacity;
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long sequence = 0L;
+
+    /**
+     * Creates a new change log.
+     *
+     * @param deviceId device whose flow table is being logged
+     * @param capacity maximum number of changes retained
+     */
+    FlowTableChangeLog(DeviceId deviceId, int capacity) {
+        checkArgument(capacity > 0, "capacity must be positive");
+        this.deviceId = checkNotNull(deviceId);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the epoch of this log.
+     *
+     * @return epoch
+     */
+    long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the sequence number of the latest recorded change.
+     *
+     * @return sequence number
+     */
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Records the addition or update of a flow entry.
+     *
+     * @param entry flow entry
+     */
+    synchronized void recordUpdate(StoredFlowEntry entry) {
+        append(entry, false);
+    }
+
+    /**
+     * Records the removal of a flow entry.
+     *
+     * @param entry flow entry
+     */
+    synchronized void recordRemove(StoredFlowEntry entry) {
+        append(entry, true);
+    }
+
+    private void append(StoredFlowEntry entry, boolean removed) {
+        changes.addLast(new Change(++sequence, entry, removed));
+        while (changes.size() > capacity) {
+            changes.removeFirst();
+        }
+    }
+
+    /**
+     * Returns a delta bringing a backup at the given sequence number up to
+     * date, or null if the changes needed have been trimmed or the sequence
+     * number does not belong to this log.
+     *
+     * @param since sequence number last acknowledged by the backup
+     * @return flow table delta, or null if a full snapshot is required
+     */
+    synchronized FlowTableDelta deltaSince(long since) {
+        if (since == NO_SEQUENCE || since > sequence) {
+            return null;
+        }
+        long oldest = changes.isEmpty() ? sequence : changes.peekFirst().sequence - 1;
+        if (since < oldest) {
+            return null;
+        }
+        // Only the most recent change of each entry needs to be shipped.
+        Map<StoredFlowEntry, Change> latest = Maps.newLinkedHashMap();
+        for (Change change : changes) {
+            if (change.sequence > since) {
+                latest.put(change.entry, change);
+            }
+        }
+        List<StoredFlowEntry> updated = Lists.newArrayList();
+        List<StoredFlowEntry> removed = Lists.newArrayList();
+        latest.values().forEach(c -> (c.removed ? removed : updated).add(c.entry));
+        return FlowTableDelta.delta(deviceId, epoch, since, sequence, updated, removed);
+    }
+
+    /**
+     * Returns a full snapshot of the given flow table entries at the current
+     * sequence number.
+     * <p>
+     * The sequence number is sampled before the entries are copied so that a
+     * change racing with the copy is shipped again with the next delta.
+     * </p>
+     *
+     * @param entries supplier of the current flow table entries
+     * @return full flow table delta
+     */
+    FlowTableDelta snapshot(Supplier<Collection<StoredFlowEntry>> entries) {
+        long snapshotSequence = sequence();
+        return FlowTableDelta.full(deviceId, epoch, snapshotSequence, entries.get());
+    }
+
+    /**
+     * Discards changes that every backup node has already acknowledged.
+     *
+     * @param acknowledged lowest sequence number acknowledged by the backups
+     */
+    synchronized void trim(long acknowledged) {
+        while (!changes.isEmpty() && changes.peekFirst().sequence <= acknowledged) {
+            changes.removeFirst();
+        }
+    }
+
+    /**
+     * Returns the number of changes currently retained.
+     *
+     * @return retained change count
+     */
+    synchronized int size() {
+        return changes.size();
+    }
+
+    private static final class Change {
+        private final long sequence;
+        private final StoredFlowEntry entry;
+        private final boolean removed;
+
+        private Change(long sequence, StoredFlowEntry entry, boolean removed) {
+            this.sequence = sequence;
+            this.entry = entry;
+            this.removed = removed;
+        }
+    }
+}
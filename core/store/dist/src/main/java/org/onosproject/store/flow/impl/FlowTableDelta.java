@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Incremental backup message carrying the changes made to a device flow table
+ * between two sequence numbers of the master's change log.
+ * <p>
+ * A delta with {@link #isFull() full} set carries a complete snapshot of the
+ * flow table and replaces whatever the backup node currently holds; it is
+ * used to bootstrap new backups and to let lagging backups catch up.
+ * </p>
+ */
+public final class FlowTableDelta {
+
+    private final DeviceId deviceId;
+    private final long epoch;
+    private final long baseSequence;
+    private final long sequence;
+    private final boolean full;
+    private final List<StoredFlowEntry> updated;
+    private final List<StoredFlowEntry> removed;
+
+    private FlowTableDelta(DeviceId deviceId, long epoch, long baseSequence, long sequence,
+                           boolean full, Collection<StoredFlowEntry> updated,
+                           Collection<StoredFlowEntry> removed) {
+        this.deviceId = checkNotNull(deviceId);
+        this.epoch = epoch;
+        this.baseSequence = baseSequence;
+        this.sequence = sequence;
+        this.full = full;
+        this.updated = ImmutableList.copyOf(updated);
+        this.removed = ImmutableList.copyOf(removed);
+    }
+
+    /**
+     * Creates a delta carrying the changes made after the given base sequence.
+     *
+     * @param deviceId     device identifier
+     * @param epoch        epoch of the change log the delta was taken from
+     * @param baseSequence sequence number the delta applies on top of
+     * @param sequence     sequence number the backup reaches after applying the delta
+     * @param updated      entries added or updated since the base sequence
+     * @param removed      entries removed since the base sequence
+     * @return flow table delta
+     */
+    public static FlowTableDelta delta(DeviceId deviceId, long epoch, long baseSequence, long sequence,
+                                       Collection<StoredFlowEntry> updated,
+                                       Collection<StoredFlowEntry> removed) {
+        return new FlowTableDelta(deviceId, epoch, baseSequence, sequence, false, updated, removed);
+    }
+
+    /**
+     * Creates a delta carrying a full snapshot of the device flow table.
+     *
+     * @param deviceId device identifier
+     * @param epoch    epoch of the change log the snapshot was taken from
+     * @param sequence sequence number of the change log when the snapshot was taken
+     * @param entries  all entries in the flow table
+     * @return flow table delta
+     */
+    public static FlowTableDelta full(DeviceId deviceId, long epoch, long sequence,
+                                      Collection<StoredFlowEntry> entries) {
+        return new FlowTableDelta(deviceId, epoch, sequence, sequence, true, entries, ImmutableList.of());
+    }
+
+    /**
+     * Returns the device identifier.
+     *
+     * @return device identifier
+     */
+    public DeviceId deviceId() {
+        return deviceId;
+    }
+
+    /**
+     * Returns the epoch of the change log that produced this delta.
+     *
+     * @return change log epoch
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Returns the sequence number the backup must be at for this delta to apply.
+     *
+     * @return base sequence number
+     */
+    public long baseSequence() {
+        return baseSequence;
+    }
+
+    /**
+     * Returns the sequence number the backup reaches once this delta is applied.
+     *
+     * @return sequence number
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns whether this delta is a full snapshot of the flow table.
+     *
+     * @return true if full snapshot
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Returns the entries added or updated by this delta.
+     *
+     * @return updated entries
+     */
+    public List<StoredFlowEntry> updated() {
+        return updated;
+    }
+
+    /**
+     * Returns the entries removed by this delta.
+     *
+     * @return removed entries
+     */
+    public List<StoredFlowEntry> removed() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("deviceId", deviceId)
+                .add("epoch", epoch)
+                .add("baseSequence", baseSequence)
+                .add("sequence", sequence)
+                .add("full", full)
+                .add("updated", updated.size())
+                .add("removed", removed.size())
+                .toString();
+    }
+}
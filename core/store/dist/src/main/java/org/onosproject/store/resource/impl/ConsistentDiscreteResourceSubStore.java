@@ -41,6 +41,8 @@ import static org.onosproject.store.resource.impl.ConsistentResourceStore.SERIAL
 class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
         <DiscreteResourceId, DiscreteResource, TransactionalDiscreteResourceSubStore> {
     private ConsistentMap<DiscreteResourceId, ResourceConsumerId> consumers;
+    // Locally cached view of the consumers, possibly lagging behind the cluster
+    private ConsistentMap<DiscreteResourceId, ResourceConsumerId> cachedConsumers;
     private ConsistentMap<DiscreteResourceId, DiscreteResources> childMap;
 
     ConsistentDiscreteResourceSubStore(StorageService service) {
@@ -48,6 +50,11 @@ class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
                 .withName(MapNames.DISCRETE_CONSUMER_MAP)
                 .withSerializer(SERIALIZER)
                 .build();
+        this.cachedConsumers = service.<DiscreteResourceId, ResourceConsumerId>consistentMapBuilder()
+                .withName(MapNames.DISCRETE_CONSUMER_MAP)
+                .withSerializer(SERIALIZER)
+                .withRelaxedReadConsistency()
+                .build();
         this.childMap = service.<DiscreteResourceId, DiscreteResources>consistentMapBuilder()
                 .withName(MapNames.DISCRETE_CHILD_MAP)
                 .withSerializer(SERIALIZER)
@@ -99,6 +106,18 @@ class ConsistentDiscreteResourceSubStore implements ConsistentResourceSubStore
         return getResourceAllocations(resource.id()).isEmpty();
     }
 
+    /**
+     * Returns whether the given resource is available according to the
+     * locally cached view of the allocations. The answer may be stale and
+     * is only meant to reject requests without a cluster round-trip.
+     *
+     * @param resource the resource to check
+     * @return true if the resource appears not to be allocated
+     */
+    boolean isAvailableLocally(DiscreteResource resource) {
+        return !cachedConsumers.containsKey(resource.id());
+    }
+
     @Override
     public Stream<DiscreteResource> getAllocatedResources(DiscreteResourceId parent, Class<?> cls) {
         Set<DiscreteResource> children = getChildResources(parent);
@@ -16,6 +16,7 @@
 package org.onosproject.store.resource.impl;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -259,6 +260,76 @@ public class ConsistentResourceStore extends AbstractStore<ResourceEvent, Resour
         }
     }
 
+    // Requests are checked against the local view of the allocations first, so that requests
+    // conflicting with known allocations or with each other are rejected without a cluster
+    // round-trip. The remaining ones are allocated together in a single transaction, in which
+    // each request is validated as a whole before any of it is written, so that a request
+    // found to conflict only there fails on its own instead of aborting the transaction.
+    @Override
+    public Set<ResourceConsumer> allocate(Map<ResourceConsumer, ? extends List<? extends Resource>> requests) {
+        checkNotNull(requests);
+
+        Set<ResourceConsumer> allocated = new LinkedHashSet<>();
+        Map<ResourceConsumer, List<DiscreteResource>> batch = new LinkedHashMap<>();
+        Set<DiscreteResourceId> claimed = new HashSet<>();
+        for (Map.Entry<ResourceConsumer, ? extends List<? extends Resource>> request : requests.entrySet()) {
+            ResourceConsumer consumer = request.getKey();
+            List<? extends Resource> resources = request.getValue();
+            if (!resources.stream().allMatch(x -> x instanceof DiscreteResource)) {
+                // continuous resources can be shared, so such requests are allocated on their own
+                if (allocate(resources, consumer)) {
+                    allocated.add(consumer);
+                }
+                continue;
+            }
+
+            List<DiscreteResource> discrete = resources.stream()
+                    .map(x -> (DiscreteResource) x)
+                    .collect(Collectors.toList());
+            Set<DiscreteResourceId> ids = discrete.stream()
+                    .map(DiscreteResource::id)
+                    .collect(Collectors.toSet());
+            if (ids.size() == discrete.size() &&
+                    ids.stream().noneMatch(claimed::contains) &&
+                    discrete.stream().allMatch(discreteStore::isAvailableLocally)) {
+                claimed.addAll(ids);
+                batch.put(consumer, discrete);
+            } else {
+                log.trace("Allocation to {} conflicts locally: resources={}", consumer, resources);
+            }
+        }
+
+        while (!batch.isEmpty()) {
+            TransactionContext tx = service.transactionContextBuilder().build();
+            tx.begin();
+
+            TransactionalDiscreteResourceSubStore discreteTxStore = discreteStore.transactional(tx);
+            Set<ResourceConsumer> staged = new LinkedHashSet<>();
+            for (Map.Entry<ResourceConsumer, List<DiscreteResource>> request : batch.entrySet()) {
+                if (request.getValue().stream().allMatch(discreteTxStore::isAllocatable)) {
+                    ResourceConsumerId consumerId = request.getKey().consumerId();
+                    request.getValue().forEach(x -> discreteTxStore.allocate(consumerId, x));
+                    staged.add(request.getKey());
+                }
+            }
+            if (staged.isEmpty()) {
+                abortTransaction(tx);
+                break;
+            }
+
+            try {
+                if (commitTransaction(tx) == CommitStatus.SUCCESS) {
+                    allocated.addAll(staged);
+                    break;
+                }
+            } catch (InterruptedException | ExecutionException | TimeoutException e) {
+                log.warn("Failed to allocate {}: {}", batch, e);
+                break;
+            }
+        }
+        return allocated;
+    }
+
     @Override
     public boolean release(List<ResourceAllocation> allocations) {
         checkNotNull(allocations);
@@ -17,15 +17,16 @@ package org.onosproject.store.resource.impl;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 import org.onlab.util.Tools;
 import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.DiscreteResourceCodec;
 import org.onosproject.net.resource.DiscreteResourceId;
 import org.onosproject.net.resource.Resources;
 
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -36,27 +37,43 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Represents discrete resources encoded by a codec.
+ * <p>
+ * The encoded values are kept as an immutable set of disjoint ranges, so
+ * that contiguous blocks of values, such as whole VLAN or MPLS label spaces,
+ * take the same space as a single value.
+ * </p>
  */
 final class EncodedDiscreteResources {
-    private final RangeSet<Integer> rangeSet;
+    private final ImmutableRangeSet<Integer> rangeSet;
     private final DiscreteResourceCodec codec;
 
     EncodedDiscreteResources(RangeSet<Integer> rangeSet, DiscreteResourceCodec codec) {
-        this.rangeSet = rangeSet;
+        this.rangeSet = ImmutableRangeSet.copyOf(rangeSet);
         this.codec = codec;
     }
 
+    @SuppressWarnings("unchecked")
     static EncodedDiscreteResources of(Set<DiscreteResource> resources, DiscreteResourceCodec codec) {
-        RangeSet<Integer> rangeSet = TreeRangeSet.create();
-        resources.stream()
+        int[] values = resources.stream()
                 .map(x -> x.valueAs(Object.class))
                 .flatMap(Tools::stream)
-                .map(x -> codec.encode(x))
-                .map(Range::singleton)
-                .map(x -> x.canonical(DiscreteDomain.integers()))
-                .forEach(rangeSet::add);
+                .mapToInt(x -> codec.encode(x))
+                .toArray();
+        Arrays.sort(values);
+
+        // coalesce runs of consecutive values into ranges
+        ImmutableRangeSet.Builder<Integer> builder = ImmutableRangeSet.builder();
+        int i = 0;
+        while (i < values.length) {
+            int start = values[i];
+            int end = start;
+            while (++i < values.length && (values[i] == end || values[i] == end + 1)) {
+                end = values[i];
+            }
+            builder.add(Range.closed(start, end).canonical(DiscreteDomain.integers()));
+        }
 
-        return new EncodedDiscreteResources(rangeSet, codec);
+        return new EncodedDiscreteResources(builder.build(), codec);
     }
 
     RangeSet<Integer> rangeSet() {
@@ -92,19 +109,13 @@ final class EncodedDiscreteResources {
     EncodedDiscreteResources difference(EncodedDiscreteResources other) {
         checkArgument(this.codec.getClass() == other.codec.getClass());
 
-        RangeSet<Integer> newRangeSet = TreeRangeSet.create(this.rangeSet);
-        newRangeSet.removeAll(other.rangeSet);
-
-        return new EncodedDiscreteResources(newRangeSet, this.codec);
+        return new EncodedDiscreteResources(rangeSet.difference(other.rangeSet), this.codec);
     }
 
     EncodedDiscreteResources add(EncodedDiscreteResources other) {
         checkArgument(this.codec.getClass() == other.codec.getClass());
 
-        RangeSet<Integer> newRangeSet = TreeRangeSet.create(this.rangeSet);
-        newRangeSet.addAll(other.rangeSet);
-
-        return new EncodedDiscreteResources(newRangeSet, this.codec);
+        return new EncodedDiscreteResources(rangeSet.union(other.rangeSet), this.codec);
     }
 
     boolean isEmpty() {
@@ -19,39 +19,52 @@ import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
-import org.onlab.util.ClosedOpenRange;
 import org.onosproject.net.resource.DiscreteResourceCodec;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 /**
  * Kryo Serializer for {@link EncodedDiscreteResources}.
+ * <p>
+ * The ranges are written as variable-length gaps from the end of the
+ * previous range followed by their lengths, so that the size depends on
+ * the number of ranges rather than on the number of values.
+ * </p>
  */
 final class EncodedResourcesSerializer extends Serializer<EncodedDiscreteResources> {
+    // exclusive upper bound of ranges unbounded above
+    private static final long UNBOUNDED = (long) Integer.MAX_VALUE + 1;
+
     @Override
     public void write(Kryo kryo, Output output, EncodedDiscreteResources object) {
-        List<ClosedOpenRange> ranges = object.rangeSet().asRanges().stream()
-                .map(ClosedOpenRange::of)
-                .collect(Collectors.toList());
-        kryo.writeObject(output, ranges);
+        RangeSet<Integer> rangeSet = object.rangeSet();
+        output.writeVarInt(rangeSet.asRanges().size(), true);
+        long previous = 0;
+        for (Range<Integer> range : rangeSet.asRanges()) {
+            long lower = range.lowerEndpoint();
+            long upper = range.hasUpperBound() ? range.upperEndpoint() : UNBOUNDED;
+            output.writeVarLong(lower - previous, false);
+            output.writeVarLong(upper - lower, true);
+            previous = upper;
+        }
         kryo.writeClassAndObject(output, object.codec());
     }
 
     @Override
     public EncodedDiscreteResources read(Kryo kryo, Input input, Class<EncodedDiscreteResources> cls) {
-        @SuppressWarnings("unchecked")
-        List<ClosedOpenRange> ranges = kryo.readObject(input, ArrayList.class);
+        int count = input.readVarInt(true);
+        ImmutableRangeSet.Builder<Integer> builder = ImmutableRangeSet.builder();
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long lower = previous + input.readVarLong(false);
+            long upper = lower + input.readVarLong(true);
+            builder.add(upper == UNBOUNDED ?
+                    Range.atLeast((int) lower) : Range.closedOpen((int) lower, (int) upper));
+            previous = upper;
+        }
         DiscreteResourceCodec codec = (DiscreteResourceCodec) kryo.readClassAndObject(input);
 
-        RangeSet<Integer> rangeSet = TreeRangeSet.create();
-        ranges.stream()
-                .map(x -> Range.closedOpen(x.lowerBound(), x.upperBound()))
-                .forEach(rangeSet::add);
-        return new EncodedDiscreteResources(rangeSet, codec);
+        return new EncodedDiscreteResources(builder.build(), codec);
     }
 }
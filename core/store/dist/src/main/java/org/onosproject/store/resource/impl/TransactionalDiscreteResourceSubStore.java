@@ -119,6 +119,16 @@ class TransactionalDiscreteResourceSubStore
         return consumers.get(id) != null;
     }
 
+    /**
+     * Returns whether the given resource is registered and not allocated.
+     *
+     * @param resource the resource to check
+     * @return true if the resource can be allocated
+     */
+    boolean isAllocatable(DiscreteResource resource) {
+        return lookup(resource.id()).isPresent() && !isAllocated(resource.id());
+    }
+
     @Override
     public boolean allocate(ResourceConsumerId consumerId, DiscreteResource resource) {
         // if the resource is not registered, then abort
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the message flush batching handler.
+ */
+public class MessageBatchingHandlerTest {
+
+    private static final long DELAY_MICROS = 10_000;
+    private static final int BATCH_BYTES = 100;
+
+    private static EmbeddedChannel channel() {
+        return new EmbeddedChannel(new MessageBatchingHandler(DELAY_MICROS, BATCH_BYTES));
+    }
+
+    private static void write(EmbeddedChannel channel, int length) {
+        channel.write(Unpooled.wrappedBuffer(new byte[length]));
+    }
+
+    private static int readOutbound(EmbeddedChannel channel) {
+        int bytes = 0;
+        ByteBuf buffer;
+        while ((buffer = channel.readOutbound()) != null) {
+            bytes += buffer.readableBytes();
+            buffer.release();
+        }
+        return bytes;
+    }
+
+    /**
+     * Tests that a flush is deferred until the batch delay expires.
+     */
+    @Test
+    public void testDeferredFlush() throws InterruptedException {
+        EmbeddedChannel channel = channel();
+        write(channel, 10);
+        channel.flush();
+        write(channel, 20);
+        channel.flush();
+        assertNull(channel.readOutbound());
+
+        Thread.sleep(DELAY_MICROS * 2 / 1000);
+        channel.runPendingTasks();
+        assertEquals(30, readOutbound(channel));
+        assertFalse(channel.finish());
+    }
+
+    /**
+     * Tests that a flush happens at once when the pending bytes reach the
+     * batch size.
+     */
+    @Test
+    public void testFlushAtBatchSize() {
+        EmbeddedChannel channel = channel();
+        write(channel, BATCH_BYTES - 40);
+        channel.flush();
+        assertNull(channel.readOutbound());
+
+        write(channel, 40);
+        channel.flush();
+        assertEquals(BATCH_BYTES, readOutbound(channel));
+
+        // the pending byte count starts over after a flush
+        write(channel, 40);
+        channel.flush();
+        assertNull(channel.readOutbound());
+        assertTrue(channel.finish());
+        assertEquals(40, readOutbound(channel));
+    }
+
+    /**
+     * Tests that pending writes are flushed when the channel is closed.
+     */
+    @Test
+    public void testCloseWithPendingWrites() {
+        EmbeddedChannel channel = channel();
+        write(channel, 10);
+        channel.flush();
+        write(channel, 20);
+
+        channel.close();
+        assertEquals(30, readOutbound(channel));
+        assertFalse(channel.isOpen());
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.core.HybridLogicalTime;
+import org.onosproject.store.cluster.messaging.Endpoint;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the cluster message encoder and decoder.
+ */
+public class MessageCodecTest {
+
+    private static final int PREAMBLE = 42;
+    private static final Endpoint ENDPOINT = new Endpoint(IpAddress.valueOf("127.0.0.1"), 9876);
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        new Random(length).nextBytes(payload);
+        return payload;
+    }
+
+    private static ByteBuf encode(InternalMessage... messages) {
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageEncoder(ENDPOINT, PREAMBLE));
+        ByteBuf encoded = channel.alloc().buffer();
+        for (InternalMessage message : messages) {
+            channel.writeOutbound(message);
+            ByteBuf buffer = channel.readOutbound();
+            encoded.writeBytes(buffer);
+            buffer.release();
+        }
+        return encoded;
+    }
+
+    /**
+     * Tests round trips of small and large (wrapped) payloads.
+     */
+    @Test
+    public void testRoundTrip() {
+        byte[] small = payload(100);
+        byte[] large = payload(MessageEncoder.ZERO_COPY_THRESHOLD * 4);
+        InternalRequest request = new InternalRequest(PREAMBLE, new HybridLogicalTime(1, 2), 3,
+                ENDPOINT, "test-subject", large);
+        InternalReply reply = new InternalReply(PREAMBLE, new HybridLogicalTime(4, 5), 6,
+                small, InternalReply.Status.OK);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder());
+        channel.writeInbound(encode(request, reply));
+
+        InternalRequest decodedRequest = channel.readInbound();
+        assertEquals("test-subject", decodedRequest.subject());
+        assertEquals(ENDPOINT, decodedRequest.sender());
+        assertEquals(3, decodedRequest.id());
+        assertEquals(1, decodedRequest.time().logicalTime());
+        assertEquals(2, decodedRequest.time().logicalCounter());
+        assertArrayEquals(large, decodedRequest.payload());
+
+        InternalReply decodedReply = channel.readInbound();
+        assertEquals(6, decodedReply.id());
+        assertEquals(InternalReply.Status.OK, decodedReply.status());
+        assertArrayEquals(small, decodedReply.payload());
+    }
+
+    /**
+     * Tests that the compressed flag survives a round trip.
+     */
+    @Test
+    public void testCompressedFlag() {
+        byte[] small = payload(100);
+        InternalRequest request = new InternalRequest(PREAMBLE, new HybridLogicalTime(1, 2), 3,
+                ENDPOINT, "test-subject", small, true);
+        InternalReply reply = new InternalReply(PREAMBLE, new HybridLogicalTime(4, 5), 6,
+                small, InternalReply.Status.OK, true);
+        InternalRequest plain = new InternalRequest(PREAMBLE, new HybridLogicalTime(7, 8), 9,
+                ENDPOINT, "test-subject", small);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder());
+        channel.writeInbound(encode(request, reply, plain));
+
+        InternalRequest decodedRequest = channel.readInbound();
+        assertTrue(decodedRequest.isCompressed());
+        assertEquals(InternalMessage.Type.REQUEST, decodedRequest.type());
+        InternalReply decodedReply = channel.readInbound();
+        assertTrue(decodedReply.isCompressed());
+        assertEquals(InternalReply.Status.OK, decodedReply.status());
+        InternalRequest decodedPlain = channel.readInbound();
+        assertFalse(decodedPlain.isCompressed());
+        assertArrayEquals(small, decodedPlain.payload());
+    }
+
+    /**
+     * Tests decoding a large payload delivered in many small chunks.
+     */
+    @Test
+    public void testChunkedDecode() {
+        byte[] large = payload(MessageEncoder.ZERO_COPY_THRESHOLD * 8);
+        InternalRequest request = new InternalRequest(PREAMBLE, new HybridLogicalTime(1, 0), 1,
+                ENDPOINT, "chunked", large);
+        ByteBuf encoded = encode(request);
+
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder());
+        while (encoded.isReadable()) {
+            channel.writeInbound(encoded.readRetainedSlice(Math.min(1000, encoded.readableBytes())));
+        }
+        encoded.release();
+
+        InternalRequest decoded = channel.readInbound();
+        assertArrayEquals(large, decoded.payload());
+        assertNull(channel.readInbound());
+    }
+
+    /**
+     * Tests that payload buffers are handed to the encoder, and that
+     * decoded requests hold a view of the received bytes until released.
+     */
+    @Test
+    public void testBufferedPayload() {
+        byte[] large = payload(MessageEncoder.ZERO_COPY_THRESHOLD * 2);
+        byte[] small = payload(100);
+        ByteBuf largeBuffer = Unpooled.copiedBuffer(large);
+        ByteBuf smallBuffer = Unpooled.copiedBuffer(small);
+        InternalRequest largeRequest = new InternalRequest(PREAMBLE, new HybridLogicalTime(1, 2), 3,
+                ENDPOINT, "test-subject", largeBuffer, false);
+        InternalRequest smallRequest = new InternalRequest(PREAMBLE, new HybridLogicalTime(4, 5), 6,
+                ENDPOINT, "test-subject", smallBuffer, false);
+
+        ByteBuf encoded = encode(largeRequest, smallRequest);
+        assertEquals(0, largeBuffer.refCnt());
+        assertEquals(0, smallBuffer.refCnt());
+
+        EmbeddedChannel channel = new EmbeddedChannel(new MessageDecoder());
+        channel.writeInbound(encoded);
+
+        InternalRequest decodedLarge = channel.readInbound();
+        assertEquals(large.length, decodedLarge.payloadLength());
+        ByteBuffer view = decodedLarge.payloadView();
+        assertTrue(view.isReadOnly());
+        byte[] viewed = new byte[view.remaining()];
+        view.get(viewed);
+        assertArrayEquals(large, viewed);
+        decodedLarge.release();
+
+        InternalRequest decodedSmall = channel.readInbound();
+        assertArrayEquals(small, decodedSmall.payload());
+        assertArrayEquals(small, decodedSmall.payload());
+        assertEquals(0, encoded.refCnt());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the message payload compressor.
+ */
+public class MessageCompressorTest {
+
+    private static final String SUBJECT = "compressed-subject";
+
+    private static byte[] compressible(int length) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++) {
+            payload[i] = (byte) (i % 16);
+        }
+        return payload;
+    }
+
+    /**
+     * Tests a round trip of a compressible payload.
+     */
+    @Test
+    public void testRoundTrip() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(1024, ImmutableSet.of(), null);
+        byte[] payload = compressible(64 * 1024);
+
+        byte[] compressed = compressor.compress(SUBJECT, payload);
+        assertNotNull(compressed);
+        assertTrue(compressed.length < payload.length / 10);
+        assertArrayEquals(payload, compressor.decompress(SUBJECT, compressed));
+    }
+
+    /**
+     * Tests that small, incompressible and unselected payloads are not compressed.
+     */
+    @Test
+    public void testNotCompressed() {
+        MessageCompressor compressor = new MessageCompressor(1024, ImmutableSet.of(SUBJECT), null);
+        assertNull(compressor.compress(SUBJECT, compressible(100)));
+        assertNull(compressor.compress("other-subject", compressible(4096)));
+
+        byte[] random = new byte[4096];
+        new Random(0).nextBytes(random);
+        assertNull(compressor.compress(SUBJECT, random));
+    }
+
+    /**
+     * Tests that a truncated payload is rejected.
+     */
+    @Test(expected = DataFormatException.class)
+    public void testTruncated() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(1024, ImmutableSet.of(), null);
+        byte[] compressed = compressor.compress(SUBJECT, compressible(64 * 1024));
+        compressor.decompress(SUBJECT, Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    /**
+     * Tests that a declared length the payload cannot expand to is rejected
+     * before allocating it.
+     */
+    @Test(expected = DataFormatException.class)
+    public void testOversizedLength() throws DataFormatException {
+        MessageCompressor compressor = new MessageCompressor(1024, ImmutableSet.of(), null);
+        byte[] compressed = compressor.compress(SUBJECT, compressible(64 * 1024));
+        // claim an original length of 2 GB
+        compressed[0] = 0x7f;
+        compressor.decompress(SUBJECT, compressed);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.Map;
+
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests for the primitive flow entry index.
+ */
+public class FlowEntryIndexTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+
+    private static StoredFlowEntry entry(long cookie, int port) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withCookie(cookie)
+                .withSelector(DefaultTrafficSelector.builder()
+                        .matchInPort(PortNumber.portNumber(port)).build())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(10)
+                .makePermanent()
+                .fromApp(new DefaultApplicationId(1, "foo"))
+                .build());
+    }
+
+    /**
+     * Tests basic put, get and remove operations.
+     */
+    @Test
+    public void testBasics() {
+        FlowEntryIndex index = new FlowEntryIndex();
+        StoredFlowEntry e1 = entry(1, 1);
+        StoredFlowEntry e2 = entry(2, 2);
+
+        assertThat(index.put(e1), is(nullValue()));
+        assertThat(index.put(e2), is(nullValue()));
+        assertThat(index.size(), is(2));
+        assertThat(index.get(e1), sameInstance(e1));
+
+        StoredFlowEntry e1Again = entry(1, 1);
+        assertThat(index.put(e1Again), sameInstance(e1));
+        assertThat(index.size(), is(2));
+        assertThat(index.get(e1), sameInstance(e1Again));
+
+        assertThat(index.remove(e1), sameInstance(e1Again));
+        assertThat(index.get(e1), is(nullValue()));
+        assertThat(index.remove(e1), is(nullValue()));
+        assertThat(index.entries(), containsInAnyOrder(e2));
+        assertThat(index.size(), is(1));
+    }
+
+    /**
+     * Tests distinct rules sharing the same flow ID.
+     */
+    @Test
+    public void testFlowIdCollision() {
+        FlowEntryIndex index = new FlowEntryIndex();
+        StoredFlowEntry e1 = entry(7, 1);
+        StoredFlowEntry e2 = entry(7, 2);
+        StoredFlowEntry e3 = entry(7, 3);
+
+        index.put(e1);
+        index.put(e2);
+        index.put(e3);
+        assertThat(index.size(), is(3));
+        assertThat(index.get(e2), sameInstance(e2));
+
+        Map<StoredFlowEntry, StoredFlowEntry> bucket = index.bucket(FlowId.valueOf(7));
+        assertThat(bucket.keySet(), containsInAnyOrder(e1, e2, e3));
+
+        assertThat(index.remove(e2), sameInstance(e2));
+        assertThat(index.entries(), containsInAnyOrder(e1, e3));
+        assertThat(index.remove(e1), sameInstance(e1));
+        assertThat(index.entries(), containsInAnyOrder(e3));
+        assertThat(index.get(e3), sameInstance(e3));
+    }
+
+    /**
+     * Tests atomic conditional update and removal.
+     */
+    @Test
+    public void testComputeIfPresent() {
+        FlowEntryIndex index = new FlowEntryIndex();
+        StoredFlowEntry e1 = entry(1, 1);
+        StoredFlowEntry updated = new DefaultFlowEntry(e1, FlowEntryState.ADDED);
+
+        assertThat(index.computeIfPresent(e1, stored -> updated), is(nullValue()));
+        index.put(e1);
+        assertThat(index.computeIfPresent(e1, stored -> updated), sameInstance(updated));
+        assertThat(index.get(e1), sameInstance(updated));
+        assertThat(index.computeIfPresent(e1, stored -> null), is(nullValue()));
+        assertThat(index.size(), is(0));
+    }
+
+    /**
+     * Tests growth, removal with probe sequence repair and conversion to the
+     * backup form.
+     */
+    @Test
+    public void testManyEntries() {
+        FlowEntryIndex index = new FlowEntryIndex();
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            index.put(entry(i, i));
+        }
+        assertThat(index.size(), is(count));
+        for (int i = 0; i < count; i += 2) {
+            assertThat(index.remove(entry(i, i)) != null, is(true));
+        }
+        assertThat(index.size(), is(count / 2));
+        for (int i = 0; i < count; i++) {
+            assertThat(index.get(entry(i, i)) != null, is(i % 2 == 1));
+        }
+
+        FlowEntryIndex copy = new FlowEntryIndex();
+        copy.putAll(index.toFlowTable());
+        assertThat(copy.size(), is(count / 2));
+
+        index.clear();
+        assertThat(index.size(), is(0));
+        assertThat(index.entries().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import java.util.List;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.onosproject.store.flow.impl.FlowTableChangeLog.NO_SEQUENCE;
+
+/**
+ * Unit tests for the flow table change log.
+ */
+public class FlowTableChangeLogTest {
+
+    private static final DeviceId DID = DeviceId.deviceId("of:1");
+
+    private static StoredFlowEntry entry(int port) {
+        return new DefaultFlowEntry(DefaultFlowRule.builder()
+                .forDevice(DID)
+                .withSelector(DefaultTrafficSelector.builder()
+                        .matchInPort(PortNumber.portNumber(port)).build())
+                .withTreatment(DefaultTrafficTreatment.emptyTreatment())
+                .withPriority(10)
+                .makePermanent()
+                .fromApp(new DefaultApplicationId(1, "foo"))
+                .build());
+    }
+
+    /**
+     * Tests that deltas only carry the latest change of each entry.
+     */
+    @Test
+    public void testDeltaSince() {
+        FlowTableChangeLog log = new FlowTableChangeLog(DID, 10);
+        StoredFlowEntry e1 = entry(1);
+        StoredFlowEntry e2 = entry(2);
+
+        log.recordUpdate(e1);
+        log.recordUpdate(e2);
+        log.recordRemove(e1);
+        assertThat(log.sequence(), is(3L));
+
+        FlowTableDelta delta = log.deltaSince(0);
+        assertThat(delta.isFull(), is(false));
+        assertThat(delta.baseSequence(), is(0L));
+        assertThat(delta.sequence(), is(3L));
+        assertThat(delta.updated(), contains(e2));
+        assertThat(delta.removed(), contains(e1));
+
+        FlowTableDelta empty = log.deltaSince(3);
+        assertThat(empty.updated(), is(empty()));
+        assertThat(empty.removed(), is(empty()));
+    }
+
+    /**
+     * Tests that backups behind the retained changes need a full copy.
+     */
+    @Test
+    public void testCatchUpRequired() {
+        FlowTableChangeLog log = new FlowTableChangeLog(DID, 2);
+        log.recordUpdate(entry(1));
+        log.recordUpdate(entry(2));
+        log.recordUpdate(entry(3));
+
+        assertThat(log.deltaSince(NO_SEQUENCE), is(nullValue()));
+        assertThat(log.deltaSince(0), is(nullValue()));
+        assertThat(log.deltaSince(1).updated().size(), is(2));
+        assertThat(log.deltaSince(4), is(nullValue()));
+
+        log.trim(2);
+        assertThat(log.size(), is(1));
+        assertThat(log.deltaSince(1), is(nullValue()));
+        assertThat(log.deltaSince(2).updated().size(), is(1));
+    }
+
+    /**
+     * Tests that a full snapshot is taken at the current sequence number.
+     */
+    @Test
+    public void testSnapshot() {
+        FlowTableChangeLog log = new FlowTableChangeLog(DID, 10);
+        StoredFlowEntry e1 = entry(1);
+        log.recordUpdate(e1);
+
+        FlowTableDelta snapshot = log.snapshot(() -> Lists.newArrayList(e1));
+        assertThat(snapshot.isFull(), is(true));
+        assertThat(snapshot.sequence(), is(1L));
+        assertThat(snapshot.epoch(), is(log.epoch()));
+        assertThat(snapshot.updated(), contains(e1));
+    }
+
+    /**
+     * Tests that a small delta of a large table is much smaller on the wire
+     * than a full copy.
+     */
+    @Test
+    public void testEncodedSize() {
+        Serializer serializer = Serializer.using(KryoNamespaces.API, FlowTableDelta.class);
+        FlowTableChangeLog log = new FlowTableChangeLog(DID, 100);
+        List<StoredFlowEntry> table = Lists.newArrayList();
+        for (int i = 1; i <= 1000; i++) {
+            table.add(entry(i));
+        }
+        FlowTableDelta full = log.snapshot(() -> table);
+        log.recordUpdate(table.get(0));
+        log.recordRemove(table.get(1));
+        FlowTableDelta delta = log.deltaSince(full.sequence());
+
+        FlowTableDelta decoded = serializer.decode(serializer.encode(delta));
+        assertThat(decoded.updated(), contains(table.get(0)));
+        assertThat(decoded.removed(), contains(table.get(1)));
+        assertThat(serializer.encode(delta).length * 50, lessThan(serializer.encode(full).length));
+    }
+}
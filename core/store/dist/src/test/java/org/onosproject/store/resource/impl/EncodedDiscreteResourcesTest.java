@@ -25,8 +25,11 @@ import org.onosproject.net.resource.DiscreteResource;
 import org.onosproject.net.resource.Resources;
 
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.*;
 
 public class EncodedDiscreteResourcesTest {
@@ -75,4 +78,29 @@ public class EncodedDiscreteResourcesTest {
                 is(EncodedDiscreteResources.of(ImmutableSet.of(res1, res2, res3), new VlanIdCodec())));
     }
 
+    @Test
+    public void testCoalescedRanges() {
+        EncodedDiscreteResources sut = EncodedDiscreteResources.of(vlans(1, 4095, 100), new VlanIdCodec());
+
+        assertThat(sut.rangeSet().asRanges().size(), is(2));
+        assertThat(sut.values(Resources.discrete(DID, PN).id()), is(vlans(1, 4095, 100)));
+    }
+
+    @Test
+    public void testSerializedSize() {
+        EncodedDiscreteResources sut = EncodedDiscreteResources.of(vlans(1, 4095, 100), new VlanIdCodec());
+
+        byte[] bytes = ConsistentResourceStore.SERIALIZER.encode(sut);
+        assertThat(bytes.length, is(lessThan(32)));
+        assertThat(ConsistentResourceStore.SERIALIZER.decode(bytes), is(sut));
+    }
+
+    // VLAN resources with the IDs in the given range, except for one
+    private static Set<DiscreteResource> vlans(int from, int to, int except) {
+        return IntStream.range(from, to)
+                .filter(x -> x != except)
+                .mapToObj(x -> Resources.discrete(DID, PN, VlanId.vlanId((short) x)).resource())
+                .collect(Collectors.toSet());
+    }
+
 }
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Two level hash tree summarizing the contents of an eventually consistent
+ * map for anti-entropy.
+ * <p>
+ * Each key is assigned to one of {@link #LEAF_COUNT} leaves by a hash of its
+ * serialized form, and the hash of a leaf is the sum of the hashes of the
+ * serialized keys and digests of its entries. The leaves are grouped under
+ * {@link #FANOUT} inner nodes whose hashes are the sums of their leaves.
+ * Since sums do not depend on ordering, the tree is maintained incrementally
+ * as entries change and replicas holding the same entries have the same
+ * hashes, so peers only need to compare the digests of the entries under
+ * the leaves whose hashes differ.
+ * </p>
+ * <p>
+ * The tree only keeps the leaf hashes; the entries under a leaf are found
+ * in the map itself. Callers hash each key once per update with
+ * {@link #keyHash(Object)} and may cache entry hashes, since an entry hash
+ * only depends on the key hash and the digest.
+ * </p>
+ * <p>
+ * Updates of a key must not run concurrently with each other; the map does
+ * this by updating the tree from within its per-key compute functions.
+ * </p>
+ */
+final class AntiEntropyHashTree {
+
+    /**
+     * Level of the inner nodes of the tree.
+     */
+    static final int INNER_LEVEL = 1;
+
+    /**
+     * Level of the leaves of the tree.
+     */
+    static final int LEAF_LEVEL = 2;
+
+    /**
+     * Number of children of each node.
+     */
+    static final int FANOUT = 64;
+
+    /**
+     * Total number of leaves.
+     */
+    static final int LEAF_COUNT = FANOUT * FANOUT;
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final Function<Object, byte[]> encoder;
+    private final AtomicLongArray leafHashes = new AtomicLongArray(LEAF_COUNT);
+
+    /**
+     * Creates an empty hash tree.
+     *
+     * @param encoder encoder for keys and timestamps; must encode equal
+     *                objects identically on all nodes
+     */
+    AntiEntropyHashTree(Function<Object, byte[]> encoder) {
+        this.encoder = encoder;
+    }
+
+    /**
+     * Returns the indices of all inner nodes.
+     *
+     * @return inner node indices
+     */
+    static int[] innerNodes() {
+        return IntStream.range(0, FANOUT).toArray();
+    }
+
+    /**
+     * Returns the indices of the leaves under the given inner nodes.
+     *
+     * @param innerNodes inner node indices
+     * @return leaf indices
+     */
+    static int[] children(int[] innerNodes) {
+        return IntStream.of(innerNodes)
+                .flatMap(node -> IntStream.range(node * FANOUT, (node + 1) * FANOUT))
+                .toArray();
+    }
+
+    /**
+     * Returns the hash of the serialized form of the given key.
+     *
+     * @param key entry key
+     * @return key hash
+     */
+    long keyHash(Object key) {
+        return HASH.hashBytes(encoder.apply(key)).asLong();
+    }
+
+    /**
+     * Returns the hash of an entry.
+     *
+     * @param keyHash hash of the entry key
+     * @param digest  digest of the entry value
+     * @return entry hash
+     */
+    long entryHash(long keyHash, MapValue.Digest digest) {
+        return HASH.newHasher()
+                .putLong(keyHash)
+                .putBytes(encoder.apply(digest.timestamp()))
+                .putBoolean(digest.isTombstone())
+                .hash()
+                .asLong();
+    }
+
+    /**
+     * Returns a predicate matching the keys assigned to the given leaves.
+     *
+     * @param leaves leaf indices
+     * @return key predicate
+     */
+    Predicate<Object> under(int[] leaves) {
+        BitSet set = new BitSet(LEAF_COUNT);
+        IntStream.of(leaves).forEach(set::set);
+        return key -> set.get(leaf(keyHash(key)));
+    }
+
+    private static int leaf(long keyHash) {
+        return (int) (keyHash >>> 32) & (LEAF_COUNT - 1);
+    }
+
+    /**
+     * Updates the tree with the new value of a key.
+     *
+     * @param keyHash      hash of the entry key
+     * @param previousHash entry hash of the previous value, or 0 if the key was absent
+     * @param currentHash  entry hash of the current value, or 0 if the key was removed
+     */
+    void update(long keyHash, long previousHash, long currentHash) {
+        long delta = currentHash - previousHash;
+        if (delta != 0) {
+            leafHashes.addAndGet(leaf(keyHash), delta);
+        }
+    }
+
+    /**
+     * Returns the hashes of the given nodes.
+     *
+     * @param level tree level of the nodes
+     * @param nodes node indices
+     * @return node hashes, in the order of the given indices
+     */
+    long[] hashes(int level, int[] nodes) {
+        long[] hashes = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            hashes[i] = hash(level, nodes[i]);
+        }
+        return hashes;
+    }
+
+    private long hash(int level, int node) {
+        if (level == LEAF_LEVEL) {
+            return leafHashes.get(node);
+        }
+        checkArgument(level == INNER_LEVEL, "Unknown tree level %s", level);
+        long hash = 0;
+        for (int leaf = node * FANOUT; leaf < (node + 1) * FANOUT; leaf++) {
+            hash += leafHashes.get(leaf);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the given nodes whose local hashes differ from the given ones.
+     *
+     * @param level  tree level of the nodes
+     * @param nodes  node indices
+     * @param hashes remote node hashes, in the order of the node indices
+     * @return indices of the divergent nodes
+     */
+    int[] divergent(int level, int[] nodes, long[] hashes) {
+        checkArgument(nodes.length == hashes.length, "Node and hash counts differ");
+        return IntStream.range(0, nodes.length)
+                .filter(i -> hash(level, nodes[i]) != hashes[i])
+                .map(i -> nodes[i])
+                .toArray();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Anti-entropy advertisement for eventually consistent map limited to the
+ * entries under some hash tree leaves.
+ *
+ * @param <K> key type
+ */
+public class AntiEntropyLeafAdvertisement<K> {
+
+    private final int[] leaves;
+    private final AntiEntropyAdvertisement<K> advertisement;
+
+    /**
+     * Creates a new leaf advertisement message.
+     *
+     * @param leaves        hash tree leaves covered by the advertisement
+     * @param advertisement advertisement of the entries under the leaves
+     */
+    public AntiEntropyLeafAdvertisement(int[] leaves, AntiEntropyAdvertisement<K> advertisement) {
+        this.leaves = checkNotNull(leaves);
+        this.advertisement = checkNotNull(advertisement);
+    }
+
+    /**
+     * Returns the hash tree leaves covered by the advertisement.
+     *
+     * @return leaf indices
+     */
+    public int[] leaves() {
+        return leaves;
+    }
+
+    /**
+     * Returns the advertisement of the entries under the leaves.
+     *
+     * @return anti-entropy advertisement
+     */
+    public AntiEntropyAdvertisement<K> advertisement() {
+        return advertisement;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(getClass())
+                .add("totalLeaves", leaves.length)
+                .add("advertisement", advertisement)
+                .toString();
+    }
+}
@@ -23,13 +23,19 @@ import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.MapEventListener;
 import org.onosproject.store.service.Versioned;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 
 import static org.onosproject.store.service.DistributedPrimitive.Status.INACTIVE;
@@ -44,18 +50,34 @@ import static org.onosproject.store.service.DistributedPrimitive.Status.SUSPENDE
  * {@link AsyncConsistentMap#getOrDefault(Object, Object) getOrDefault}, and
  * {@link AsyncConsistentMap#containsKey(Object) containsKey} calls. All other calls skip the cache
  * and directly go the backing map.
+ * <p> The cache holds at most a configured number of entries, evicting the least recently used ones.
+ * When a metrics service is supplied, its hit ratio, evictions and event driven invalidations are
+ * exported as metrics of the {@code consistentMapCache} component.
  *
  * @param <K> key type
  * @param <V> value type
  */
 public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMap<K, V> {
-    private static final int DEFAULT_CACHE_SIZE = 10000;
+    static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private static final String METRICS_COMPONENT = "consistentMapCache";
+    private static final String HIT_RATIO = "hitRatio";
+    private static final String HITS = "hits";
+    private static final String MISSES = "misses";
+    private static final String EVICTIONS = "evictions";
+    private static final String INVALIDATIONS = "invalidations";
+
     private final Logger log = getLogger(getClass());
 
     private final LoadingCache<K, CompletableFuture<Versioned<V>>> cache;
     private final AsyncConsistentMap<K, V> backingMap;
     private final MapEventListener<K, V> cacheUpdater;
     private final Consumer<Status> statusListener;
+    private final MetricsService metricsService;
+    private final MetricsComponent metricsComponent;
+    private final MetricsFeature metricsFeature;
+    private final Counter invalidations = new Counter();
+    private boolean metricsRegistered;
 
     /**
      * Default constructor.
@@ -73,10 +95,24 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
      * @param cacheSize the maximum size of the cache
      */
     public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap, int cacheSize) {
+        this(backingMap, cacheSize, null);
+    }
+
+    /**
+     * Constructor to configure cache size and export cache metrics.
+     *
+     * @param backingMap a distributed, strongly consistent map for backing
+     * @param cacheSize the maximum size of the cache
+     * @param metricsService metrics service to export cache metrics to, or null
+     */
+    public CachingAsyncConsistentMap(AsyncConsistentMap<K, V> backingMap,
+                                     int cacheSize,
+                                     MetricsService metricsService) {
         super(backingMap);
         this.backingMap = backingMap;
         cache = CacheBuilder.newBuilder()
                             .maximumSize(cacheSize)
+                            .recordStats()
                             .build(CacheLoader.from(CachingAsyncConsistentMap.super::get));
         cacheUpdater = event -> {
             Versioned<V> newValue = event.newValue();
@@ -85,6 +121,7 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
             } else {
                 cache.put(event.key(), CompletableFuture.completedFuture(newValue));
             }
+            invalidations.inc();
         };
         statusListener = status -> {
             log.debug("{} status changed to {}", this.name(), status);
@@ -96,11 +133,63 @@ public class CachingAsyncConsistentMap<K, V> extends DelegatingAsyncConsistentMa
         };
         super.addListener(cacheUpdater);
         super.addStatusChangeListener(statusListener);
+
+        this.metricsService = metricsService;
+        if (metricsService != null) {
+            metricsComponent = metricsService.registerComponent(METRICS_COMPONENT);
+            metricsFeature = metricsComponent.registerFeature(backingMap.name());
+            metricsRegistered = registerMetrics();
+        } else {
+            metricsComponent = null;
+            metricsFeature = null;
+        }
+    }
+
+    private boolean registerMetrics() {
+        try {
+            registerGauge(HIT_RATIO, () -> cache.stats().hitRate());
+            registerGauge(HITS, () -> cache.stats().hitCount());
+            registerGauge(MISSES, () -> cache.stats().missCount());
+            registerGauge(EVICTIONS, () -> cache.stats().evictionCount());
+            metricsService.registerMetric(metricsComponent, metricsFeature, INVALIDATIONS, invalidations);
+            return true;
+        } catch (IllegalArgumentException e) {
+            // another instance of the same map on this node already reports its cache metrics
+            log.debug("Cache metrics for {} are already registered", name());
+            return false;
+        }
+    }
+
+    private <T> void registerGauge(String name, Gauge<T> gauge) {
+        metricsService.registerMetric(metricsComponent, metricsFeature, name, gauge);
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return cache statistics
+     */
+    CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the number of cache entries updated or invalidated by map events.
+     *
+     * @return number of event driven invalidations
+     */
+    long invalidationCount() {
+        return invalidations.getCount();
     }
 
     @Override
     public CompletableFuture<Void> destroy() {
         super.removeStatusChangeListener(statusListener);
+        if (metricsRegistered) {
+            for (String name : new String[]{HIT_RATIO, HITS, MISSES, EVICTIONS, INVALIDATIONS}) {
+                metricsService.removeMetric(metricsComponent, metricsFeature, name);
+            }
+        }
         return super.destroy().thenCompose(v -> removeListener(cacheUpdater));
     }
 
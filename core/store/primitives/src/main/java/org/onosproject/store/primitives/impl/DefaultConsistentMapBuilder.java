@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.primitives.impl;
 
+import org.onlab.metrics.MetricsService;
+import org.onlab.osgi.DefaultServiceDirectory;
 import org.onosproject.store.primitives.DistributedPrimitiveCreator;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.AsyncConsistentMap;
@@ -72,7 +74,12 @@ public class DefaultConsistentMapBuilder<K, V> extends ConsistentMapBuilder<K, V
         }
 
         map = nullValues() ? map : DistributedPrimitives.newNotNullMap(map);
-        map = relaxedReadConsistency() ? DistributedPrimitives.newCachingMap(map) : map;
+        if (relaxedReadConsistency()) {
+            int cacheSize = cacheSize() > 0 ? cacheSize() : CachingAsyncConsistentMap.DEFAULT_CACHE_SIZE;
+            MetricsService metricsService = meteringEnabled()
+                    ? DefaultServiceDirectory.getService(MetricsService.class) : null;
+            map = DistributedPrimitives.newCachingMap(map, cacheSize, metricsService);
+        }
         map = readOnly() ? DistributedPrimitives.newUnmodifiableMap(map) : map;
         return meteringEnabled() ? DistributedPrimitives.newMeteredMap(map) : map;
     }
@@ -18,6 +18,7 @@ package org.onosproject.store.primitives.impl;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
+import org.onlab.metrics.MetricsService;
 import org.onosproject.core.Version;
 import org.onosproject.store.service.AsyncAtomicCounterMap;
 import org.onosproject.store.service.AsyncAtomicValue;
@@ -69,6 +70,22 @@ public final class DistributedPrimitives {
         return new CachingAsyncConsistentMap<>(map);
     }
 
+    /**
+     * Creates an instance of {@code AsyncConsistentMap} that caches up to the given number of entries.
+     *
+     * @param map backing map
+     * @param cacheSize maximum number of cached entries
+     * @param metricsService metrics service to export cache metrics to, or null
+     * @return caching map
+     * @param <K> map key type
+     * @param <V> map value type
+     */
+    public static <K, V> AsyncConsistentMap<K, V> newCachingMap(AsyncConsistentMap<K, V> map,
+                                                                int cacheSize,
+                                                                MetricsService metricsService) {
+        return new CachingAsyncConsistentMap<>(map, cacheSize, metricsService);
+    }
+
     /**
      * Creates an instance of {@code AsyncConsistentMap} that disallows updates.
      *
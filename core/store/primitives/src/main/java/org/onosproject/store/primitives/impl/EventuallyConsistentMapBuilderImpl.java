@@ -54,8 +54,10 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
     private long antiEntropyPeriod = 5;
     private TimeUnit antiEntropyTimeUnit = TimeUnit.SECONDS;
     private boolean convergeFaster = false;
+    private boolean hashTreeAntiEntropy = false;
     private boolean persistent = false;
     private boolean persistentMap = false;
+    private boolean offHeap = false;
     private final PersistenceService persistenceService;
     private Supplier<List<NodeId>> peersSupplier;
     private Supplier<List<NodeId>> bootstrapPeersSupplier;
@@ -154,6 +156,12 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withHashTreeAntiEntropy() {
+        hashTreeAntiEntropy = true;
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMapBuilder<K, V> withPersistence() {
         checkNotNull(this.persistenceService);
@@ -161,6 +169,12 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         return this;
     }
 
+    @Override
+    public EventuallyConsistentMapBuilder<K, V> withOffHeapStorage() {
+        offHeap = true;
+        return this;
+    }
+
     @Override
     public EventuallyConsistentMap<K, V> build() {
         checkNotNull(name, "name is a mandatory parameter");
@@ -170,6 +184,7 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
         }
         checkNotNull(serializer, "serializer is a mandatory parameter");
         checkNotNull(localNodeId, "local node id cannot be null");
+        checkArgument(!(persistent && offHeap), "persistent maps cannot use off-heap storage");
 
         return new EventuallyConsistentMapImpl<>(
                 localNodeId,
@@ -185,7 +200,9 @@ public class EventuallyConsistentMapBuilderImpl<K, V>
                 antiEntropyPeriod,
                 antiEntropyTimeUnit,
                 convergeFaster,
+                hashTreeAntiEntropy,
                 persistent,
+                offHeap,
                 persistenceService,
                 peersSupplier,
                 bootstrapPeersSupplier
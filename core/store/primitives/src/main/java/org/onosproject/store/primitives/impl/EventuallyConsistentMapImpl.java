@@ -64,6 +64,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -99,6 +100,8 @@ public class EventuallyConsistentMapImpl<K, V>
     private final MessageSubject initializeMessageSubject;
     private final MessageSubject updateMessageSubject;
     private final MessageSubject antiEntropyAdvertisementSubject;
+    private final MessageSubject antiEntropyHashAdvertisementSubject;
+    private final MessageSubject antiEntropyLeafAdvertisementSubject;
     private final MessageSubject updateRequestSubject;
     private final Set<EventuallyConsistentMapListener<K, V>> listeners
             = Sets.newCopyOnWriteArraySet();
@@ -114,6 +117,7 @@ public class EventuallyConsistentMapImpl<K, V>
     private final boolean lightweightAntiEntropy;
     private final boolean tombstonesDisabled;
     private final boolean persistent;
+    private final AntiEntropyHashTree hashTree;
     private final Supplier<List<NodeId>> peersSupplier;
     private final Supplier<List<NodeId>> bootstrapPeersSupplier;
     private final NodeId localNodeId;
@@ -142,7 +146,9 @@ public class EventuallyConsistentMapImpl<K, V>
      * @param antiEntropyPeriod      period that the anti-entropy task should run
      * @param antiEntropyTimeUnit    time unit for anti-entropy period
      * @param convergeFaster         make anti-entropy try to converge faster
+     * @param hashTreeAntiEntropy    make anti-entropy compare hash tree ranges before digests
      * @param persistent             persist data to disk
+     * @param offHeap                keep values serialized in off-heap memory
      * @param persistenceService     persistence service
      * @param peersSupplier          supplier for peers
      * @param bootstrapPeersSupplier supplier for bootstrap peers
@@ -162,7 +168,9 @@ public class EventuallyConsistentMapImpl<K, V>
             long antiEntropyPeriod,
             TimeUnit antiEntropyTimeUnit,
             boolean convergeFaster,
+            boolean hashTreeAntiEntropy,
             boolean persistent,
+            boolean offHeap,
             PersistenceService persistenceService,
             Supplier<List<NodeId>> peersSupplier,
             Supplier<List<NodeId>> bootstrapPeersSupplier
@@ -179,9 +187,17 @@ public class EventuallyConsistentMapImpl<K, V>
                     .withName(mapName)
                     .withSerializer(this.serializer)
                     .build();
+        } else if (offHeap) {
+            items = new OffHeapMapValueStore<>(this.serializer);
         } else {
             items = Maps.newConcurrentMap();
         }
+        if (hashTreeAntiEntropy) {
+            hashTree = new AntiEntropyHashTree(serializer::encode);
+            items.forEach((key, value) -> updateHashTree(keyHash(key), null, value));
+        } else {
+            hashTree = null;
+        }
         senderPending = Maps.newConcurrentMap();
         destroyedMessage = mapName + ERROR_DESTROYED;
 
@@ -273,6 +289,28 @@ public class EventuallyConsistentMapImpl<K, V>
                 this.backgroundExecutor
         );
 
+        antiEntropyHashAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-hash");
+        if (hashTree != null) {
+            clusterCommunicator.addSubscriber(
+                    antiEntropyHashAdvertisementSubject,
+                    serializer::decode,
+                    this::handleAntiEntropyHashAdvertisement,
+                    serializer::encode,
+                    this.backgroundExecutor
+            );
+        }
+
+        antiEntropyLeafAdvertisementSubject = new MessageSubject("ecm-" + mapName + "-anti-entropy-leaves");
+        if (hashTree != null) {
+            clusterCommunicator.addSubscriber(
+                    antiEntropyLeafAdvertisementSubject,
+                    serializer::decode,
+                    this::handleAntiEntropyLeafAdvertisement,
+                    serializer::encode,
+                    this.backgroundExecutor
+            );
+        }
+
         updateRequestSubject = new MessageSubject("ecm-" + mapName + "-update-request");
         clusterCommunicator.addSubscriber(
                 updateRequestSubject,
@@ -313,6 +351,8 @@ public class EventuallyConsistentMapImpl<K, V>
                 .register(MapValue.class)
                 .register(MapValue.Digest.class)
                 .register(UpdateRequest.class)
+                .register(AntiEntropyHashAdvertisement.class)
+                .register(AntiEntropyLeafAdvertisement.class)
                 .build(name() + "-ecmap"));
     }
 
@@ -410,6 +450,7 @@ public class EventuallyConsistentMapImpl<K, V>
         tombstone.ifPresent(v -> checkState(v.isTombstone()));
 
         counter.incrementCount();
+        long keyHash = keyHash(key);
         AtomicBoolean updated = new AtomicBoolean(false);
         AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         items.compute(key, (k, existing) -> {
@@ -429,6 +470,7 @@ public class EventuallyConsistentMapImpl<K, V>
             }
             if (updated.get()) {
                 previousValue.set(existing);
+                updateHashTree(keyHash, existing, tombstone.orElse(null));
                 return tombstone.orElse(null);
             } else {
                 return existing;
@@ -443,6 +485,7 @@ public class EventuallyConsistentMapImpl<K, V>
         checkNotNull(key, ERROR_NULL_KEY);
         checkNotNull(recomputeFunction, "Recompute function cannot be null");
 
+        long keyHash = keyHash(key);
         AtomicBoolean updated = new AtomicBoolean(false);
         AtomicReference<MapValue<V>> previousValue = new AtomicReference<>();
         MapValue<V> computedValue = items.compute(serializer.copy(key), (k, mv) -> {
@@ -457,7 +500,9 @@ public class EventuallyConsistentMapImpl<K, V>
                 updated.set(true);
                 // We return a copy to ensure updates to peers can be serialized.
                 // This prevents replica divergence due to serialization failures.
-                return serializer.copy(newValue);
+                MapValue<V> copy = serializer.copy(newValue);
+                updateHashTree(keyHash, mv, copy);
+                return copy;
             } else {
                 return mv;
             }
@@ -524,10 +569,12 @@ public class EventuallyConsistentMapImpl<K, V>
         checkNotNull(newValue, ERROR_NULL_VALUE);
         checkState(newValue.isAlive());
         counter.incrementCount();
+        long keyHash = keyHash(key);
         AtomicBoolean updated = new AtomicBoolean(false);
         items.compute(key, (k, existing) -> {
             if (existing == null || newValue.isNewerThan(existing)) {
                 updated.set(true);
+                updateHashTree(keyHash, existing, newValue);
                 return newValue;
             }
             return existing;
@@ -535,6 +582,36 @@ public class EventuallyConsistentMapImpl<K, V>
         return updated.get();
     }
 
+    /**
+     * Returns the anti-entropy hash tree hash of a key, or 0 if the map has
+     * no hash tree. Computed ahead of the compute function updating the key
+     * so that the key is not serialized while the entry is locked.
+     *
+     * @param key key
+     * @return key hash
+     */
+    private long keyHash(K key) {
+        return hashTree != null ? hashTree.keyHash(key) : 0L;
+    }
+
+    /**
+     * Updates the anti-entropy hash tree, if any, with the new value of a key.
+     * Must be called from within the compute function updating the key.
+     *
+     * @param keyHash       hash of the key
+     * @param previousValue previous value, or null if the key was absent
+     * @param newValue      new value, or null if the key is removed
+     */
+    private void updateHashTree(long keyHash, MapValue<V> previousValue, MapValue<V> newValue) {
+        if (hashTree != null) {
+            hashTree.update(keyHash, entryHash(keyHash, previousValue), entryHash(keyHash, newValue));
+        }
+    }
+
+    private long entryHash(long keyHash, MapValue<V> value) {
+        return value == null ? 0L : value.entryHash(() -> hashTree.entryHash(keyHash, value.digest()));
+    }
+
     @Override
     public void addListener(EventuallyConsistentMapListener<K, V> listener) {
         checkState(!destroyed, destroyedMessage);
@@ -569,6 +646,10 @@ public class EventuallyConsistentMapImpl<K, V>
         clusterCommunicator.removeSubscriber(updateMessageSubject);
         clusterCommunicator.removeSubscriber(updateRequestSubject);
         clusterCommunicator.removeSubscriber(antiEntropyAdvertisementSubject);
+        if (hashTree != null) {
+            clusterCommunicator.removeSubscriber(antiEntropyHashAdvertisementSubject);
+            clusterCommunicator.removeSubscriber(antiEntropyLeafAdvertisementSubject);
+        }
         return CompletableFuture.completedFuture(null);
     }
 
@@ -614,19 +695,60 @@ public class EventuallyConsistentMapImpl<K, V>
 
     private void sendAdvertisementToPeer(NodeId peer) {
         long adCreationTime = System.currentTimeMillis();
-        AntiEntropyAdvertisement<K> ad = createAdvertisement();
-        clusterCommunicator.sendAndReceive(ad,
+        CompletableFuture<AntiEntropyResponse> response = hashTree != null
+                ? sendHashAdvertisementToPeer(peer, AntiEntropyHashTree.INNER_LEVEL, AntiEntropyHashTree.innerNodes())
+                : sendAdvertisementToPeer(peer, createAdvertisement());
+        response.whenComplete((result, error) -> {
+            if (error != null) {
+                log.debug("Failed to send anti-entropy advertisement to {}: {}",
+                        peer, error.getMessage());
+            } else if (result == AntiEntropyResponse.PROCESSED) {
+                antiEntropyTimes.put(peer, adCreationTime);
+            }
+        });
+    }
+
+    private CompletableFuture<AntiEntropyResponse> sendAdvertisementToPeer(NodeId peer,
+                                                                           AntiEntropyAdvertisement<K> ad) {
+        return clusterCommunicator.sendAndReceive(ad,
                 antiEntropyAdvertisementSubject,
                 serializer::encode,
                 serializer::decode,
+                peer);
+    }
+
+    /**
+     * Advertises the hashes of the given hash tree nodes to a peer, then
+     * descends into the nodes the peer reports as divergent; the digests of
+     * the entries under divergent leaves are advertised last.
+     *
+     * @param peer  peer to synchronize with
+     * @param level tree level of the nodes
+     * @param nodes indices of the nodes to advertise
+     * @return future completed with the outcome of the exchange
+     */
+    private CompletableFuture<AntiEntropyResponse> sendHashAdvertisementToPeer(NodeId peer, int level, int[] nodes) {
+        AntiEntropyHashAdvertisement ad = new AntiEntropyHashAdvertisement(localNodeId,
+                level, nodes, hashTree.hashes(level, nodes));
+        return clusterCommunicator.<AntiEntropyHashAdvertisement, int[]>sendAndReceive(ad,
+                antiEntropyHashAdvertisementSubject,
+                serializer::encode,
+                serializer::decode,
                 peer)
-                .whenComplete((result, error) -> {
-                    if (error != null) {
-                        log.debug("Failed to send anti-entropy advertisement to {}: {}",
-                                peer, error.getMessage());
-                    } else if (result == AntiEntropyResponse.PROCESSED) {
-                        antiEntropyTimes.put(peer, adCreationTime);
+                .thenCompose(divergent -> {
+                    if (divergent == null) {
+                        return CompletableFuture.completedFuture(AntiEntropyResponse.IGNORED);
+                    } else if (divergent.length == 0) {
+                        return CompletableFuture.completedFuture(AntiEntropyResponse.PROCESSED);
+                    } else if (level == AntiEntropyHashTree.INNER_LEVEL) {
+                        return sendHashAdvertisementToPeer(peer,
+                                AntiEntropyHashTree.LEAF_LEVEL, AntiEntropyHashTree.children(divergent));
                     }
+                    return clusterCommunicator.sendAndReceive(createLeafAdvertisement(divergent),
+                            antiEntropyLeafAdvertisementSubject,
+                            serializer::encode,
+                            serializer::decode,
+                            peer);
                 });
     }
 
@@ -649,7 +771,56 @@ public class EventuallyConsistentMapImpl<K, V>
                 ImmutableMap.copyOf(Maps.transformValues(items, MapValue::digest)));
     }
 
+    private AntiEntropyLeafAdvertisement<K> createLeafAdvertisement(int[] leaves) {
+        return new AntiEntropyLeafAdvertisement<>(leaves, new AntiEntropyAdvertisement<>(localNodeId,
+                ImmutableMap.copyOf(Maps.transformValues(localItems(leaves), MapValue::digest))));
+    }
+
+    /**
+     * Returns a snapshot of the local entries under the given hash tree leaves.
+     *
+     * @param leaves leaf indices
+     * @return map of entries
+     */
+    private Map<K, MapValue<V>> localItems(int[] leaves) {
+        Predicate<Object> underLeaves = hashTree.under(leaves);
+        Map<K, MapValue<V>> localItems = Maps.newHashMap();
+        items.forEach((key, value) -> {
+            if (underLeaves.test(key)) {
+                localItems.put(key, value);
+            }
+        });
+        return localItems;
+    }
+
+    /**
+     * Handles a hash tree advertisement from a peer.
+     *
+     * @param ad hash tree advertisement
+     * @return indices of the advertised nodes whose local hashes differ, or
+     * null if the advertisement was ignored
+     */
+    private int[] handleAntiEntropyHashAdvertisement(AntiEntropyHashAdvertisement ad) {
+        if (destroyed || underHighLoad()) {
+            return null;
+        }
+        return hashTree.divergent(ad.level(), ad.nodes(), ad.hashes());
+    }
+
     private AntiEntropyResponse handleAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad) {
+        return processAntiEntropyAdvertisement(ad, items);
+    }
+
+    private AntiEntropyResponse handleAntiEntropyLeafAdvertisement(AntiEntropyLeafAdvertisement<K> ad) {
+        if (destroyed || underHighLoad()) {
+            return AntiEntropyResponse.IGNORED;
+        }
+        // the advertisement only covers the entries under its leaves
+        return processAntiEntropyAdvertisement(ad.advertisement(), localItems(ad.leaves()));
+    }
+
+    private AntiEntropyResponse processAntiEntropyAdvertisement(AntiEntropyAdvertisement<K> ad,
+                                                                Map<K, MapValue<V>> localItems) {
         if (destroyed || underHighLoad()) {
             return AntiEntropyResponse.IGNORED;
         }
@@ -658,7 +829,7 @@ public class EventuallyConsistentMapImpl<K, V>
                 log.trace("Received anti-entropy advertisement from {} for {} with {} entries in it",
                         ad.sender(), mapName, ad.digest().size());
             }
-            antiEntropyCheckLocalItems(ad).forEach(this::notifyListeners);
+            antiEntropyCheckLocalItems(ad, localItems).forEach(this::notifyListeners);
         } catch (Exception e) {
             log.warn("Error handling anti-entropy advertisement", e);
             return AntiEntropyResponse.FAILED;
@@ -673,14 +844,14 @@ public class EventuallyConsistentMapImpl<K, V>
      * timestamp than the local entry, update local state.
      */
     private List<EventuallyConsistentMapEvent<K, V>> antiEntropyCheckLocalItems(
-            AntiEntropyAdvertisement<K> ad) {
+            AntiEntropyAdvertisement<K> ad, Map<K, MapValue<V>> localItems) {
         final List<EventuallyConsistentMapEvent<K, V>> externalEvents = Lists.newLinkedList();
         final NodeId sender = ad.sender();
         final List<NodeId> peers = ImmutableList.of(sender);
         Set<K> staleOrMissing = new HashSet<>();
         Set<K> locallyUnknown = new HashSet<>(ad.digest().keySet());
 
-        items.forEach((key, localValue) -> {
+        localItems.forEach((key, localValue) -> {
             locallyUnknown.remove(key);
             MapValue.Digest remoteValueDigest = ad.digest().get(key);
             if (remoteValueDigest == null || localValue.isNewerThan(remoteValueDigest.timestamp())) {
@@ -738,7 +909,16 @@ public class EventuallyConsistentMapImpl<K, V>
                 .filter(e -> e.getValue().creationTime() <= currentSafeTombstonePurgeTime)
                 .collect(Collectors.toList());
         previousTombstonePurgeTime = currentSafeTombstonePurgeTime;
-        tombStonesToDelete.forEach(entry -> items.remove(entry.getKey(), entry.getValue()));
+        tombStonesToDelete.forEach(entry -> {
+            long keyHash = keyHash(entry.getKey());
+            items.computeIfPresent(entry.getKey(), (key, value) -> {
+                if (!value.equals(entry.getValue())) {
+                    return value;
+                }
+                updateHashTree(keyHash, value, null);
+                return null;
+            });
+        });
     }
 
     private void processUpdates(Collection<UpdateEntry<K, V>> updates) {
@@ -15,6 +15,8 @@
  */
 package org.onosproject.store.primitives.impl;
 
+import java.util.function.LongSupplier;
+
 import org.onosproject.store.Timestamp;
 
 import com.google.common.base.MoreObjects;
@@ -31,6 +33,8 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
     private final Timestamp timestamp;
     private final V value;
     private long creationTime;
+    // hash of the entry in the anti-entropy hash tree; 0 until computed
+    private transient volatile long entryHash;
 
     /**
      * Creates a tombstone value with the specified timestamp.
@@ -155,6 +159,22 @@ public class MapValue<V> implements Comparable<MapValue<V>> {
         return new Digest(timestamp, isTombstone());
     }
 
+    /**
+     * Returns the anti-entropy hash tree hash of the entry holding this
+     * value, computing it with the given function on first use.
+     *
+     * @param hasher function computing the entry hash
+     * @return entry hash
+     */
+    long entryHash(LongSupplier hasher) {
+        long hash = entryHash;
+        if (hash == 0) {
+            hash = hasher.getAsLong();
+            entryHash = hash;
+        }
+        return hash;
+    }
+
     @Override
     public int compareTo(MapValue<V> o) {
         return this.timestamp.compareTo(o.timestamp);
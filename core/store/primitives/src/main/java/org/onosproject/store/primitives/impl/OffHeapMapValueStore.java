@@ -0,0 +1,308 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.onosproject.store.service.Serializer;
+
+/**
+ * Map of eventually consistent map values kept serialized in off-heap memory.
+ * <p>
+ * Only the keys and a small handle per entry live on the heap; values are
+ * serialized into chunks carved out of direct memory slabs and decoded on
+ * each access, so that large maps add little to the old generation. Chunks
+ * are allocated in power of two size classes and recycled when values are
+ * replaced or removed; values too large for a slab get a buffer of their own.
+ * </p>
+ * <p>
+ * Like a concurrent map, {@link #compute(Object, BiFunction)} is atomic per
+ * key and iteration is weakly consistent. Iterators do not support removal.
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class OffHeapMapValueStore<K, V> extends AbstractMap<K, MapValue<V>> {
+
+    private static final int SLAB_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SHIFT = 5;
+    private static final int MAX_CHUNK_SHIFT = 20;
+
+    private final Serializer serializer;
+    private final ConcurrentMap<K, Chunk> index = Maps.newConcurrentMap();
+
+    // allocator state, guarded by allocatorLock
+    private final Object allocatorLock = new Object();
+    private final List<ByteBuffer> slabs = Lists.newArrayList();
+    private final Deque<Chunk>[] freeChunks;
+    private int slabPosition = SLAB_SIZE;
+    private long allocatedBytes;
+
+    /**
+     * Creates a new off-heap store.
+     *
+     * @param serializer serializer for map values
+     */
+    @SuppressWarnings("unchecked")
+    OffHeapMapValueStore(Serializer serializer) {
+        this.serializer = serializer;
+        this.freeChunks = new Deque[MAX_CHUNK_SHIFT - MIN_CHUNK_SHIFT + 1];
+        for (int i = 0; i < freeChunks.length; i++) {
+            freeChunks[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Off-heap memory holding a serialized value.
+     * <p>
+     * A chunk is immutable once written; when its value is replaced or
+     * removed it is marked as freed and its memory is handed to a new chunk.
+     * </p>
+     */
+    private static final class Chunk {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int capacity;
+        private final int sizeClass;
+        private int length;
+        private boolean freed;
+
+        private Chunk(ByteBuffer buffer, int offset, int capacity, int sizeClass) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.capacity = capacity;
+            this.sizeClass = sizeClass;
+        }
+
+        private void write(byte[] bytes) {
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            view.put(bytes);
+            length = bytes.length;
+        }
+
+        /**
+         * Returns a copy of the value bytes, or null if the chunk was freed.
+         */
+        private synchronized byte[] read() {
+            if (freed) {
+                return null;
+            }
+            ByteBuffer view = buffer.duplicate();
+            view.position(offset);
+            byte[] bytes = new byte[length];
+            view.get(bytes);
+            return bytes;
+        }
+
+        private synchronized void free() {
+            freed = true;
+        }
+    }
+
+    private static int sizeClass(int length) {
+        int shift = Math.max(MIN_CHUNK_SHIFT, 32 - Integer.numberOfLeadingZeros(length - 1));
+        return shift <= MAX_CHUNK_SHIFT ? shift - MIN_CHUNK_SHIFT : -1;
+    }
+
+    private Chunk allocate(int length) {
+        int sizeClass = sizeClass(length);
+        synchronized (allocatorLock) {
+            if (sizeClass < 0) {
+                allocatedBytes += length;
+                return new Chunk(ByteBuffer.allocateDirect(length), 0, length, sizeClass);
+            }
+            int capacity = 1 << (sizeClass + MIN_CHUNK_SHIFT);
+            allocatedBytes += capacity;
+            Chunk free = freeChunks[sizeClass].poll();
+            if (free != null) {
+                return new Chunk(free.buffer, free.offset, capacity, sizeClass);
+            }
+            if (slabPosition + capacity > SLAB_SIZE) {
+                slabs.add(ByteBuffer.allocateDirect(SLAB_SIZE));
+                slabPosition = 0;
+            }
+            Chunk chunk = new Chunk(slabs.get(slabs.size() - 1), slabPosition, capacity, sizeClass);
+            slabPosition += capacity;
+            return chunk;
+        }
+    }
+
+    private void release(Chunk chunk) {
+        chunk.free();
+        synchronized (allocatorLock) {
+            allocatedBytes -= chunk.capacity;
+            if (chunk.sizeClass >= 0) {
+                freeChunks[chunk.sizeClass].push(chunk);
+            }
+        }
+    }
+
+    private Chunk store(MapValue<V> value) {
+        byte[] bytes = serializer.encode(value);
+        Chunk chunk = allocate(bytes.length);
+        chunk.write(bytes);
+        return chunk;
+    }
+
+    /**
+     * Returns the number of off-heap bytes held by values.
+     *
+     * @return allocated bytes
+     */
+    long allocatedBytes() {
+        synchronized (allocatorLock) {
+            return allocatedBytes;
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public MapValue<V> get(Object key) {
+        while (true) {
+            Chunk chunk = index.get(key);
+            if (chunk == null) {
+                return null;
+            }
+            byte[] bytes = chunk.read();
+            if (bytes != null) {
+                return serializer.decode(bytes);
+            }
+            // the value was replaced while reading; look it up again
+        }
+    }
+
+    @Override
+    public MapValue<V> compute(K key,
+                               BiFunction<? super K, ? super MapValue<V>, ? extends MapValue<V>> function) {
+        AtomicReference<MapValue<V>> result = new AtomicReference<>();
+        index.compute(key, (k, chunk) -> {
+            // chunks are only freed from within compute, so this one is live
+            MapValue<V> existing = chunk == null ? null : serializer.decode(chunk.read());
+            MapValue<V> updated = function.apply(k, existing);
+            result.set(updated);
+            if (updated == existing) {
+                return chunk;
+            }
+            Chunk updatedChunk = updated == null ? null : store(updated);
+            if (chunk != null) {
+                release(chunk);
+            }
+            return updatedChunk;
+        });
+        return result.get();
+    }
+
+    @Override
+    public MapValue<V> computeIfPresent(K key,
+                                        BiFunction<? super K, ? super MapValue<V>, ? extends MapValue<V>> function) {
+        return compute(key, (k, existing) -> existing == null ? null : function.apply(k, existing));
+    }
+
+    @Override
+    public MapValue<V> put(K key, MapValue<V> value) {
+        AtomicReference<MapValue<V>> previous = new AtomicReference<>();
+        compute(key, (k, existing) -> {
+            previous.set(existing);
+            return value;
+        });
+        return previous.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public MapValue<V> remove(Object key) {
+        AtomicReference<MapValue<V>> previous = new AtomicReference<>();
+        computeIfPresent((K) key, (k, existing) -> {
+            previous.set(existing);
+            return null;
+        });
+        return previous.get();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        AtomicReference<Boolean> removed = new AtomicReference<>(false);
+        computeIfPresent((K) key, (k, existing) -> {
+            if (!Objects.equals(existing, value)) {
+                return existing;
+            }
+            removed.set(true);
+            return null;
+        });
+        return removed.get();
+    }
+
+    @Override
+    public void clear() {
+        index.keySet().forEach(this::remove);
+    }
+
+    @Override
+    public Set<Map.Entry<K, MapValue<V>>> entrySet() {
+        return new AbstractSet<Map.Entry<K, MapValue<V>>>() {
+            @Override
+            public Iterator<Map.Entry<K, MapValue<V>>> iterator() {
+                Iterator<Map.Entry<K, Chunk>> entries = index.entrySet().iterator();
+                return new AbstractIterator<Map.Entry<K, MapValue<V>>>() {
+                    @Override
+                    protected Map.Entry<K, MapValue<V>> computeNext() {
+                        while (entries.hasNext()) {
+                            Map.Entry<K, Chunk> entry = entries.next();
+                            byte[] bytes = entry.getValue().read();
+                            MapValue<V> value = bytes != null ? serializer.decode(bytes) : get(entry.getKey());
+                            if (value != null) {
+                                return new SimpleImmutableEntry<>(entry.getKey(), value);
+                            }
+                        }
+                        return endOfData();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+}
@@ -18,6 +18,7 @@ package org.onosproject.store.primitives.impl;
 
 import com.google.common.collect.Maps;
 import org.onlab.util.Tools;
+import org.onosproject.store.primitives.LazyVersioned;
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.AsyncConsistentMap;
@@ -42,6 +43,10 @@ import java.util.stream.Collectors;
 /**
  * An {@code AsyncConsistentMap} that maps its operations to operations on a
  * differently typed {@code AsyncConsistentMap} by transcoding operation inputs and outputs.
+ * <p>
+ * Values returned in {@code Versioned} wrappers, including those of events,
+ * are only decoded when first accessed.
+ * </p>
  *
  * @param <K2> key type of other map
  * @param <V2> value type of other map
@@ -69,7 +74,7 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
         this.keyDecoder = k -> k == null ? null : keyDecoder.apply(k);
         this.valueEncoder = v -> v == null ? null : valueEncoder.apply(v);
         this.valueDecoder = v -> v == null ? null : valueDecoder.apply(v);
-        this.versionedValueTransform = v -> v == null ? null : v.map(valueDecoder);
+        this.versionedValueTransform = v -> LazyVersioned.of(v, this.valueDecoder);
     }
 
     @Override
@@ -182,11 +187,14 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
 
     @Override
     public CompletableFuture<Set<Entry<K1, Versioned<V1>>>> entrySet() {
+        // collect through a map so that values are not hashed, which would decode them
         return backingMap.entrySet()
-                         .thenApply(s -> s.stream()
-                                          .map(e -> Maps.immutableEntry(keyDecoder.apply(e.getKey()),
-                                                                        versionedValueTransform.apply(e.getValue())))
-                                          .collect(Collectors.toSet()));
+                         .thenApply(s -> {
+                             Map<K1, Versioned<V1>> entries = Maps.newHashMapWithExpectedSize(s.size());
+                             s.forEach(e -> entries.put(keyDecoder.apply(e.getKey()),
+                                                        versionedValueTransform.apply(e.getValue())));
+                             return entries.entrySet();
+                         });
     }
 
     @Override
@@ -342,8 +350,8 @@ public class TranscodingAsyncConsistentMap<K1, V1, K2, V2> implements AsyncConsi
                     event.type(),
                     event.name(),
                     keyDecoder.apply(event.key()),
-                    event.newValue() != null ? event.newValue().map(valueDecoder) : null,
-                    event.oldValue() != null ? event.oldValue().map(valueDecoder) : null));
+                    versionedValueTransform.apply(event.newValue()),
+                    versionedValueTransform.apply(event.oldValue())));
         }
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.MultiValuedTimestamp;
+import org.onosproject.store.service.Serializer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.onosproject.store.primitives.impl.AntiEntropyHashTree.FANOUT;
+import static org.onosproject.store.primitives.impl.AntiEntropyHashTree.INNER_LEVEL;
+import static org.onosproject.store.primitives.impl.AntiEntropyHashTree.LEAF_LEVEL;
+
+/**
+ * Unit tests for the anti-entropy hash tree.
+ */
+public class AntiEntropyHashTreeTest {
+
+    private static final NodeId NODE = NodeId.nodeId("node");
+    private static final Serializer SERIALIZER = Serializer.using(KryoNamespace.newBuilder()
+            .register(KryoNamespaces.API)
+            .register(LogicalTimestamp.class)
+            .register(AntiEntropyAdvertisement.class)
+            .register(AntiEntropyHashAdvertisement.class)
+            .register(AntiEntropyLeafAdvertisement.class)
+            .register(MapValue.Digest.class)
+            .register(MultiValuedTimestamp.class)
+            .build());
+
+    private static MapValue.Digest digest(long time) {
+        return new MapValue.Digest(new LogicalTimestamp(time), false);
+    }
+
+    private static void update(AntiEntropyHashTree tree, String key,
+                               MapValue.Digest previous, MapValue.Digest current) {
+        long keyHash = tree.keyHash(key);
+        tree.update(keyHash,
+                previous != null ? tree.entryHash(keyHash, previous) : 0L,
+                current != null ? tree.entryHash(keyHash, current) : 0L);
+    }
+
+    private static AntiEntropyHashTree tree(int keys) {
+        AntiEntropyHashTree tree = new AntiEntropyHashTree(SERIALIZER::encode);
+        for (int i = 0; i < keys; i++) {
+            update(tree, "key" + i, null, digest(1));
+        }
+        return tree;
+    }
+
+    private static Set<String> keys(AntiEntropyHashTree tree, Stream<String> keys, int[] leaves) {
+        return keys.filter(tree.under(leaves)).collect(Collectors.toSet());
+    }
+
+    private static Stream<String> keys(int keys) {
+        return IntStream.range(0, keys).mapToObj(i -> "key" + i);
+    }
+
+    private static int[] divergentLeaves(AntiEntropyHashTree local, AntiEntropyHashTree remote) {
+        int[] inner = AntiEntropyHashTree.innerNodes();
+        int[] divergentInner = remote.divergent(INNER_LEVEL, inner, local.hashes(INNER_LEVEL, inner));
+        int[] leaves = AntiEntropyHashTree.children(divergentInner);
+        return remote.divergent(LEAF_LEVEL, leaves, local.hashes(LEAF_LEVEL, leaves));
+    }
+
+    /**
+     * Tests that replicas holding the same entries have the same hashes
+     * regardless of the order of updates.
+     */
+    @Test
+    public void testSameContents() {
+        AntiEntropyHashTree tree1 = tree(1000);
+        AntiEntropyHashTree tree2 = new AntiEntropyHashTree(SERIALIZER::encode);
+        for (int i = 999; i >= 0; i--) {
+            update(tree2, "key" + i, null, digest(0));
+            update(tree2, "key" + i, digest(0), digest(1));
+        }
+        update(tree2, "extra", null, digest(1));
+        update(tree2, "extra", digest(1), null);
+
+        assertThat(divergentLeaves(tree1, tree2).length, is(0));
+    }
+
+    /**
+     * Tests that divergent entries are located by their leaves.
+     */
+    @Test
+    public void testDivergence() {
+        AntiEntropyHashTree tree1 = tree(1000);
+        AntiEntropyHashTree tree2 = tree(1000);
+        update(tree2, "key7", digest(1), digest(2));
+
+        int[] leaves = divergentLeaves(tree1, tree2);
+        assertThat(leaves.length, is(1));
+        assertThat(keys(tree2, keys(1000), leaves), hasItem("key7"));
+        assertThat(keys(tree2, keys(1000), leaves).size(), lessThan(10));
+
+        update(tree1, "key7", digest(1), digest(2));
+        update(tree1, "missing", null, new MapValue.Digest(new LogicalTimestamp(3), true));
+        leaves = divergentLeaves(tree1, tree2);
+        assertThat(leaves.length, is(1));
+        assertThat(keys(tree1, Stream.concat(keys(1000), Stream.of("missing")), leaves), hasItem("missing"));
+    }
+
+    /**
+     * Tests that entries differing only in timestamps with equal hash codes
+     * are told apart.
+     */
+    @Test
+    public void testTimestampHashCodeCollision() {
+        MapValue.Digest digest1 = new MapValue.Digest(new MultiValuedTimestamp<>(1, 40), false);
+        MapValue.Digest digest2 = new MapValue.Digest(new MultiValuedTimestamp<>(2, 9), false);
+        assertThat(digest1.timestamp().hashCode(), is(digest2.timestamp().hashCode()));
+
+        AntiEntropyHashTree tree1 = tree(10);
+        AntiEntropyHashTree tree2 = tree(10);
+        update(tree1, "key3", digest(1), digest1);
+        update(tree2, "key3", digest(1), digest2);
+        assertThat(divergentLeaves(tree1, tree2).length, is(1));
+    }
+
+    /**
+     * Tests that synchronizing a single divergent entry of a large map
+     * exchanges far fewer bytes than a full advertisement.
+     */
+    @Test
+    public void testAdvertisementSize() {
+        int keys = 10000;
+        AntiEntropyHashTree local = tree(keys);
+        AntiEntropyHashTree remote = tree(keys);
+        update(remote, "key42", digest(1), digest(2));
+
+        Map<String, MapValue.Digest> digests = Maps.newHashMap();
+        for (int i = 0; i < keys; i++) {
+            digests.put("key" + i, digest(1));
+        }
+        int fullSize = SERIALIZER.encode(new AntiEntropyAdvertisement<>(NODE, digests)).length;
+
+        int[] inner = AntiEntropyHashTree.innerNodes();
+        int[] divergentInner = remote.divergent(INNER_LEVEL, inner, local.hashes(INNER_LEVEL, inner));
+        int[] leaves = AntiEntropyHashTree.children(divergentInner);
+        int[] divergentLeaves = remote.divergent(LEAF_LEVEL, leaves, local.hashes(LEAF_LEVEL, leaves));
+        Map<String, MapValue.Digest> partial = Maps.newHashMap();
+        keys(local, keys(keys), divergentLeaves).forEach(key -> partial.put(key, digest(1)));
+
+        int hashTreeSize = SERIALIZER.encode(new AntiEntropyHashAdvertisement(NODE, INNER_LEVEL,
+                        inner, local.hashes(INNER_LEVEL, inner))).length
+                + SERIALIZER.encode(new AntiEntropyHashAdvertisement(NODE, LEAF_LEVEL,
+                        leaves, local.hashes(LEAF_LEVEL, leaves))).length
+                + SERIALIZER.encode(new AntiEntropyLeafAdvertisement<>(divergentLeaves,
+                        new AntiEntropyAdvertisement<>(NODE, partial))).length;
+
+        assertThat(leaves.length, is(FANOUT));
+        assertThat(hashTreeSize * 10, lessThan(fullSize));
+    }
+}
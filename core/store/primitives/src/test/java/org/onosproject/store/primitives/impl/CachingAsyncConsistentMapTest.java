@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onosproject.store.service.MapEvent;
+import org.onosproject.store.service.MapEventListener;
+import org.onosproject.store.service.Versioned;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Unit tests for the caching consistent map.
+ */
+public class CachingAsyncConsistentMapTest {
+
+    private static final String NAME = "test-map";
+
+    private TestMap backingMap;
+
+    /**
+     * Backing map that allows events to be injected.
+     */
+    private static class TestMap extends AsyncConsistentMapMock<String, String> {
+        private MapEventListener<String, String> listener;
+
+        @Override
+        public String name() {
+            return NAME;
+        }
+
+        @Override
+        public CompletableFuture<Void> addListener(MapEventListener<String, String> listener, Executor e) {
+            this.listener = listener;
+            return super.addListener(listener, e);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        backingMap = new TestMap();
+    }
+
+    /**
+     * Tests that reads are served from the cache and recorded in its stats.
+     */
+    @Test
+    public void testHitsAndMisses() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap, 10);
+        backingMap.put("foo", "bar").join();
+
+        assertThat(map.get("foo").join().value(), is("bar"));
+        assertThat(map.get("foo").join().value(), is("bar"));
+        assertThat(map.containsKey("foo").join(), is(true));
+        assertThat(map.cacheStats().missCount(), is(1L));
+        assertThat(map.cacheStats().hitCount(), is(2L));
+    }
+
+    /**
+     * Tests that the cache is bounded.
+     */
+    @Test
+    public void testBounded() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap, 10);
+        for (int i = 0; i < 100; i++) {
+            backingMap.put("key" + i, "value" + i).join();
+            map.get("key" + i).join();
+        }
+        assertThat(map.cacheStats().evictionCount(), is(90L));
+    }
+
+    /**
+     * Tests that map events update the cache.
+     */
+    @Test
+    public void testEventInvalidation() {
+        CachingAsyncConsistentMap<String, String> map = new CachingAsyncConsistentMap<>(backingMap, 10);
+        backingMap.put("foo", "bar").join();
+        map.get("foo").join();
+
+        backingMap.listener.event(new MapEvent<>(NAME, "foo", new Versioned<>("baz", 2, 0),
+                new Versioned<>("bar", 1, 0)));
+        assertThat(map.get("foo").join().value(), is("baz"));
+        assertThat(map.cacheStats().missCount(), is(1L));
+        assertThat(map.invalidationCount(), is(1L));
+    }
+
+    /**
+     * Tests that cache metrics are registered and removed with the map.
+     */
+    @Test
+    public void testMetrics() {
+        MetricsManager metricsService = new MetricsManager();
+        CachingAsyncConsistentMap<String, String> map =
+                new CachingAsyncConsistentMap<>(backingMap, 10, metricsService);
+        assertThat(metricsService.getMetrics(), hasKey("consistentMapCache.test-map.hitRatio"));
+        assertThat(metricsService.getMetrics(), hasKey("consistentMapCache.test-map.invalidations"));
+
+        // a second instance of the same map does not take over the metrics
+        CachingAsyncConsistentMap<String, String> other =
+                new CachingAsyncConsistentMap<>(backingMap, 10, metricsService);
+        other.destroy().join();
+        assertThat(metricsService.getMetrics(), hasKey("consistentMapCache.test-map.hitRatio"));
+
+        map.destroy().join();
+        assertThat(metricsService.getMetrics(), not(hasKey("consistentMapCache.test-map.hitRatio")));
+    }
+}
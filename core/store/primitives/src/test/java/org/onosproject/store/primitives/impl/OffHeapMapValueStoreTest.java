@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.primitives.impl;
+
+import java.util.Map;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import org.junit.Test;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.store.LogicalTimestamp;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.service.Serializer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests for the off-heap map value store.
+ */
+public class OffHeapMapValueStoreTest {
+
+    private static final Serializer SERIALIZER = Serializer.using(KryoNamespace.newBuilder()
+            .register(KryoNamespaces.BASIC)
+            .register(LogicalTimestamp.class)
+            .register(MapValue.class)
+            .build());
+
+    private static MapValue<String> value(String value, long time) {
+        return new MapValue<>(value, new LogicalTimestamp(time), 0);
+    }
+
+    /**
+     * Tests basic map operations.
+     */
+    @Test
+    public void testBasics() {
+        OffHeapMapValueStore<String, String> store = new OffHeapMapValueStore<>(SERIALIZER);
+        assertThat(store.put("a", value("1", 1)), is(nullValue()));
+        assertThat(store.put("b", value("2", 1)), is(nullValue()));
+        assertThat(store.size(), is(2));
+        assertThat(store.get("a"), is(value("1", 1)));
+        assertThat(store.containsKey("b"), is(true));
+
+        assertThat(store.put("a", value("3", 2)), is(value("1", 1)));
+        assertThat(store.get("a"), is(value("3", 2)));
+
+        assertThat(store.remove("a", value("1", 1)), is(false));
+        assertThat(store.remove("a", value("3", 2)), is(true));
+        assertThat(store.remove("b"), is(value("2", 1)));
+        assertThat(store.get("a"), is(nullValue()));
+        assertThat(store.isEmpty(), is(true));
+        assertThat(store.allocatedBytes(), is(0L));
+    }
+
+    /**
+     * Tests that compute keeps unchanged values and stores tombstones.
+     */
+    @Test
+    public void testCompute() {
+        OffHeapMapValueStore<String, String> store = new OffHeapMapValueStore<>(SERIALIZER);
+        MapValue<String> initial = value("1", 1);
+        assertThat(store.compute("a", (k, v) -> initial), sameInstance(initial));
+
+        long allocated = store.allocatedBytes();
+        MapValue<String> unchanged = store.compute("a", (k, v) -> v);
+        assertThat(unchanged, is(initial));
+        assertThat(store.allocatedBytes(), is(allocated));
+
+        store.compute("a", (k, v) -> MapValue.tombstone(new LogicalTimestamp(2)));
+        assertThat(store.get("a").isTombstone(), is(true));
+        assertThat(store.computeIfPresent("b", (k, v) -> initial), is(nullValue()));
+        assertThat(store.containsKey("b"), is(false));
+    }
+
+    /**
+     * Tests that memory is recycled and large values are supported.
+     */
+    @Test
+    public void testMemory() {
+        OffHeapMapValueStore<String, String> store = new OffHeapMapValueStore<>(SERIALIZER);
+        // values of the same serialized size reuse the same chunks
+        for (int i = 1000; i < 2000; i++) {
+            store.put("key" + (i % 10), value("value" + i, i));
+        }
+        long allocated = store.allocatedBytes();
+        for (int i = 2000; i < 3000; i++) {
+            store.put("key" + (i % 10), value("value" + i, i));
+        }
+        assertThat(store.allocatedBytes(), is(allocated));
+
+        String large = Strings.repeat("x", 2 * 1024 * 1024);
+        store.put("large", value(large, 1));
+        assertThat(store.get("large").get(), is(large));
+
+        store.clear();
+        assertThat(store.size(), is(0));
+        assertThat(store.allocatedBytes(), is(0L));
+    }
+
+    /**
+     * Tests iteration over the stored entries.
+     */
+    @Test
+    public void testEntrySet() {
+        OffHeapMapValueStore<String, String> store = new OffHeapMapValueStore<>(SERIALIZER);
+        Map<String, MapValue<String>> expected = Maps.newHashMap();
+        for (int i = 0; i < 100; i++) {
+            expected.put("key" + i, value("value" + i, i));
+            store.put("key" + i, value("value" + i, i));
+        }
+        assertThat(Maps.newHashMap(store), is(expected));
+        assertThat(store.entrySet().size(), is(100));
+    }
+}
@@ -18,12 +18,15 @@ package org.onosproject.store.primitives.impl;
 import org.junit.Before;
 import org.junit.Test;
 import org.onosproject.net.DeviceId;
+import org.onosproject.store.primitives.LazyVersioned;
 import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.service.AsyncConsistentMap;
 import org.onosproject.store.service.Serializer;
+import org.onosproject.store.service.Versioned;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static org.hamcrest.Matchers.hasItem;
@@ -177,4 +180,41 @@ public class TranscodingAsyncConsistentMapTest {
         assertThat(transcodingMap.keySet().join(), hasItem(KEY2));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLazyDecoding() throws Exception {
+        AtomicInteger decodes = new AtomicInteger();
+        AsyncConsistentMap<String, DeviceId> countingMap = DistributedPrimitives.newTranscodingMap(
+                baseMap,
+                Function.identity(),
+                Function.identity(),
+                serializer::encode,
+                bytes -> {
+                    decodes.incrementAndGet();
+                    return serializer.decode(bytes);
+                });
+        countingMap.put(KEY1, DEV1).join();
+        countingMap.put(KEY2, DEV2).join();
+
+        Versioned<DeviceId> value = countingMap.get(KEY1).join();
+        assertThat(countingMap.entrySet().join().size(), is(2));
+        assertThat(countingMap.values().join().size(), is(2));
+        assertThat(decodes.get(), is(0));
+
+        assertThat(value.value(), is(DEV1));
+        assertThat(value.value(), is(DEV1));
+        assertThat(decodes.get(), is(1));
+    }
+
+    @Test
+    public void testLazyValueSerialization() throws Exception {
+        transcodingMap.put(KEY1, DEV1).join();
+        Versioned<DeviceId> value = transcodingMap.get(KEY1).join();
+
+        // serialized as a plain versioned value, decoded first
+        Versioned<DeviceId> copy = serializer.decode(serializer.encode(value));
+        assertFalse(copy instanceof LazyVersioned);
+        assertThat(copy, is(new Versioned<>(DEV1, value.version(), value.creationTime())));
+        assertThat(value.value(), is(DEV1));
+    }
+
+}
@@ -261,6 +261,7 @@ import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumerId;
 import org.onosproject.security.Permission;
 import org.onosproject.store.Timestamp;
+import org.onosproject.store.primitives.LazyVersioned;
 import org.onosproject.store.primitives.MapUpdate;
 import org.onosproject.store.primitives.TransactionId;
 import org.onosproject.store.service.MapEvent;
@@ -620,7 +621,7 @@ public final class KryoNamespaces {
             .register(TransactionLog.class)
             .register(MapUpdate.class)
             .register(MapUpdate.Type.class)
-            .register(Versioned.class)
+            .register(new VersionedSerializer(), Versioned.class, LazyVersioned.class)
             .register(MapEvent.class)
             .register(MapEvent.Type.class)
             .register(MultimapEvent.class)
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onosproject.store.primitives.LazyVersioned;
+import org.onosproject.store.service.Versioned;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link Versioned} and {@link LazyVersioned}, meant to be
+ * registered for both under one type id.
+ * <p>
+ * Values are written with the default serializer of {@link Versioned}, so that
+ * their encoding does not change; lazily decoded values are decoded and
+ * written as plain {@link Versioned} values, and read back as such.
+ * </p>
+ */
+public class VersionedSerializer extends Serializer<Versioned<?>> {
+
+    /**
+     * Creates {@link Versioned} serializer instance.
+     */
+    public VersionedSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, Versioned<?> object) {
+        Versioned<?> versioned = object instanceof LazyVersioned ?
+                new Versioned<>(object.value(), object.version(), object.creationTime()) : object;
+        defaultSerializer(kryo).write(kryo, output, versioned);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Versioned<?> read(Kryo kryo, Input input, Class<Versioned<?>> type) {
+        return defaultSerializer(kryo).read(kryo, input, (Class) Versioned.class);
+    }
+
+    // Returns the default serializer of Versioned, created once per Kryo instance.
+    @SuppressWarnings("unchecked")
+    private Serializer<Versioned<?>> defaultSerializer(Kryo kryo) {
+        Serializer<Versioned<?>> serializer = (Serializer<Versioned<?>>) kryo.getContext().get(this);
+        if (serializer == null) {
+            serializer = kryo.getDefaultSerializer(Versioned.class);
+            kryo.getContext().put(this, serializer);
+        }
+        return serializer;
+    }
+}
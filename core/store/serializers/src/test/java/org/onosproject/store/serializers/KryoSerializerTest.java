@@ -58,6 +58,8 @@ import org.onosproject.net.flow.oldbatch.FlowRuleBatchEntry;
 import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.resource.ResourceAllocation;
 import org.onosproject.net.resource.ResourceConsumerId;
+import org.onosproject.store.primitives.LazyVersioned;
+import org.onosproject.store.service.Versioned;
 import org.onosproject.net.resource.Resources;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.intent.constraint.AnnotationConstraint;
@@ -231,6 +233,30 @@ public class KryoSerializerTest {
         assertEquals(versioned3.value1, versioned3Downgrade.value1);
     }
 
+    @Test
+    public void testVersionedValue() {
+        StoreSerializer defaultSerializer = StoreSerializer.using(KryoNamespace.newBuilder()
+                .register(KryoNamespaces.BASIC)
+                .register(Versioned.class)
+                .build());
+
+        StoreSerializer versionedSerializer = StoreSerializer.using(KryoNamespace.newBuilder()
+                .register(KryoNamespaces.BASIC)
+                .register(new VersionedSerializer(), Versioned.class, LazyVersioned.class)
+                .build());
+
+        // encoded as by the default serializer, lazy values as plain ones
+        Versioned<Integer> versioned = new Versioned<>(1, 2, 3);
+        Versioned<Integer> lazy = LazyVersioned.of(new Versioned<>("1", 2, 3), Integer::valueOf);
+        byte[] expected = serialize(versioned, defaultSerializer);
+        assertArrayEquals(expected, serialize(versioned, versionedSerializer));
+        assertArrayEquals(expected, serialize(lazy, versionedSerializer));
+
+        Versioned<Integer> copy = deserialize(expected, versionedSerializer);
+        assertFalse(copy instanceof LazyVersioned);
+        assertEquals(versioned, copy);
+    }
+
     @Test
     public void testConnectPoint() {
         testSerializedEquals(new ConnectPoint(DID1, P1));
@@ -59,6 +59,9 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -85,6 +88,10 @@ public class Controller {
     // Configuration options
     protected List<Integer> openFlowPorts = ImmutableList.of(6633, 6653);
     protected int workerThreads = 0;
+    protected int dispatcherThreads = 0;
+    protected long writeBatchWindowMicros = 0;
+    protected int writeBatchMessages = 1000;
+    protected int writeBatchBytes = 64 * 1024;
 
     // Start time of the controller
     protected long systemStartTime;
@@ -93,6 +100,8 @@ public class Controller {
 
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
+    // Threads handing the messages of all switches over to their drivers
+    private ExecutorService dispatcher;
 
     protected String ksLocation;
     protected String tsLocation;
@@ -185,6 +194,36 @@ public class Controller {
             this.workerThreads = Integer.parseInt(threads);
         }
         log.debug("Number of worker threads set to {}", this.workerThreads);
+
+        threads = get(properties, "dispatcherThreads");
+        if (!Strings.isNullOrEmpty(threads)) {
+            this.dispatcherThreads = Integer.parseInt(threads);
+        }
+        log.debug("Number of dispatcher threads set to {}", this.dispatcherThreads);
+
+        String window = get(properties, "writeBatchWindowMicros");
+        if (!Strings.isNullOrEmpty(window)) {
+            this.writeBatchWindowMicros = Long.parseLong(window);
+        }
+        String messages = get(properties, "writeBatchMessages");
+        if (!Strings.isNullOrEmpty(messages)) {
+            this.writeBatchMessages = Integer.parseInt(messages);
+        }
+        String bytes = get(properties, "writeBatchBytes");
+        if (!Strings.isNullOrEmpty(bytes)) {
+            this.writeBatchBytes = Integer.parseInt(bytes);
+        }
+        log.debug("Write batches set to {} us, {} messages, {} bytes",
+                  this.writeBatchWindowMicros, this.writeBatchMessages, this.writeBatchBytes);
+    }
+
+    /**
+     * Returns the executor dispatching the messages received from switches.
+     *
+     * @return dispatcher shared by all switch connections
+     */
+    Executor getDispatcher() {
+        return dispatcher;
     }
 
     /**
@@ -322,6 +361,9 @@ public class Controller {
         this.agent = ag;
         this.driverService = driverService;
         this.init();
+        int threads = dispatcherThreads > 0 ? dispatcherThreads :
+                2 * Runtime.getRuntime().availableProcessors();
+        dispatcher = Executors.newFixedThreadPool(threads, groupedThreads("onos/of", "dispatcher-%d", log));
         this.run();
     }
 
@@ -333,6 +375,7 @@ public class Controller {
         // Shut down all event loops to terminate all threads.
         bossGroup.shutdownGracefully();
         workerGroup.shutdownGracefully();
+        dispatcher.shutdownNow();
 
         // Wait until all threads are terminated.
         try {
@@ -16,8 +16,6 @@
 
 package org.onosproject.openflow.controller.impl;
 
-import static org.onlab.util.Tools.groupedThreads;
-
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
@@ -28,13 +26,7 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import org.onlab.packet.IpAddress;
 import org.onosproject.openflow.controller.Dpid;
@@ -150,26 +142,22 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
 
 
     private static final int MSG_READ_BUFFER = 5000;
+    private static final int MSG_DISPATCH_BATCH = 500;
 
     /**
-     * OFMessage dispatch queue.
-     */
-    private final BlockingQueue<OFMessage> dispatchQueue =
-            new LinkedBlockingQueue<>(MSG_READ_BUFFER);
-
-    /**
-     * Single thread executor for OFMessage dispatching.
+     * OFMessage dispatch queue, drained by the dispatcher threads shared
+     * by all switches.
      *
-     * Gets initialized on channelActive, shutdown on channelInactive.
+     * Gets initialized on channelActive, closed on channelInactive.
      */
-    private ExecutorService dispatcher;
+    private OFDispatchQueue dispatchQueue;
 
     /**
-     * Handle for dispatcher thread.
-     * <p>
-     * Should only be touched from the Channel I/O thread
+     * Outbound buffer gathering the messages sent to the switch.
+     *
+     * Gets initialized on channelActive, closed on channelInactive.
      */
-    private Future<?> dispatcherHandle = CompletableFuture.completedFuture(null);
+    private OFWriteBatcher writeBatcher;
 
     /**
      * Dispatch backlog.
@@ -1244,7 +1232,14 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             channelId = channel.toString();
         }
 
-        dispatcher = Executors.newSingleThreadExecutor(groupedThreads("onos/of/dispatcher", channelId, log));
+        dispatchQueue = new OFDispatchQueue(MSG_READ_BUFFER, MSG_DISPATCH_BATCH,
+                                            controller.getDispatcher(),
+                                            msg -> sw.handleMessage(msg),
+                                            this::pauseReading,
+                                            this::resumeReading);
+        writeBatcher = new OFWriteBatcher(channel, controller.writeBatchWindowMicros,
+                                          controller.writeBatchMessages,
+                                          controller.writeBatchBytes);
 
         /*
             hack to wait for the switch to tell us what it's
@@ -1262,9 +1257,11 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
         log.info("Switch disconnected callback for sw:{}. Cleaning up ...",
                  getSwitchInfoString());
 
-        if (dispatcher != null) {
-            dispatcher.shutdownNow();
-            dispatcher = null;
+        if (dispatchQueue != null) {
+            dispatchQueue.close();
+        }
+        if (writeBatcher != null) {
+            writeBatcher.close();
         }
 
          if (thisdpid != 0) {
@@ -1415,8 +1412,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
 
         if (dispatchBacklog.isEmpty()) {
             if (!dispatchQueue.offer(m)) {
-                // queue full
-                channel.config().setAutoRead(false);
+                // queue full; reading paused
                 // put it on the head of backlog
                 dispatchBacklog.addFirst(m);
                 return;
@@ -1429,45 +1425,23 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             OFMessage msg = dispatchBacklog.pop();
 
             if (!dispatchQueue.offer(msg)) {
-                // queue full
-                channel.config().setAutoRead(false);
+                // queue full; reading paused
                 // put it back to the head of backlog
                 dispatchBacklog.addFirst(msg);
                 return;
             }
         }
+    }
 
+    // Stops reading from the switch until the dispatcher makes room for its messages.
+    private void pauseReading() {
+        channel.config().setAutoRead(false);
+    }
 
-        if (dispatcherHandle.isDone()) {
-            // dispatcher terminated for some reason, restart
-
-            dispatcherHandle = dispatcher.submit((Runnable) () -> {
-                try {
-                    List<OFMessage> msgs = new ArrayList<>();
-                    for (;;) {
-                        // wait for new message
-                        OFMessage msg = dispatchQueue.take();
-                        sw.handleMessage(msg);
-
-                        while (dispatchQueue.drainTo(msgs, MSG_READ_BUFFER) > 0) {
-                            if (!channel.config().isAutoRead()) {
-                                channel.config().setAutoRead(true);
-                            }
-                            msgs.forEach(sw::handleMessage);
-                            msgs.clear();
-                        }
-
-                        if (!channel.config().isAutoRead()) {
-                            channel.config().setAutoRead(true);
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    // interrupted. gracefully shutting down
-                    return;
-                }
-
-            });
+    // Reads from the switch again once the dispatcher made room for its messages.
+    private void resumeReading() {
+        if (!channel.config().isAutoRead()) {
+            channel.config().setAutoRead(true);
         }
     }
 
@@ -1648,7 +1622,7 @@ class OFChannelHandler extends ChannelInboundHandlerAdapter
             if (log.isTraceEnabled()) {
                 log.trace("Sending messages for switch {} via openflow channel: {}", getSwitchInfoString(), msgs);
             }
-            channel.writeAndFlush(msgs, channel.voidPromise());
+            writeBatcher.send(msgs);
             return true;
         } else {
             log.warn("Dropping messages for switch {} because channel is not connected: {}",
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Bounded queue of the messages received from a switch, which hands them
+ * over in order on a dispatcher pool shared by all the switches.
+ * <p>
+ * At most one thread drains the queue of a switch at a time, a batch at a
+ * time, so that the switches sharing the pool take turns.
+ * </p>
+ */
+final class OFDispatchQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OFDispatchQueue.class);
+
+    private final BlockingQueue<OFMessage> queue;
+    private final int batchSize;
+    private final Executor executor;
+    private final Consumer<OFMessage> handler;
+    private final Runnable full;
+    private final Runnable drained;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * Creates a dispatch queue.
+     *
+     * @param capacity  maximum number of queued messages
+     * @param batchSize maximum number of messages handled per turn
+     * @param executor  shared dispatcher pool
+     * @param handler   handler of the messages
+     * @param full      callback run when a message finds the queue full
+     * @param drained   callback run after each batch, once there is room in the queue
+     */
+    OFDispatchQueue(int capacity, int batchSize, Executor executor,
+                    Consumer<OFMessage> handler, Runnable full, Runnable drained) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.handler = handler;
+        this.full = full;
+        this.drained = drained;
+    }
+
+    /**
+     * Queues the given message for dispatching.
+     *
+     * @param msg message
+     * @return false if the queue is full and the message was not queued
+     */
+    boolean offer(OFMessage msg) {
+        if (!queue.offer(msg)) {
+            full.run();
+            // make sure a turn, and thus the drained callback, follows
+            schedule();
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    /**
+     * Discards the queued messages and stops dispatching further ones.
+     */
+    void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    private void schedule() {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                log.warn("Dispatcher rejected messages; dropping {} of them", queue.size());
+                queue.clear();
+            }
+        }
+    }
+
+    private void dispatch() {
+        try {
+            if (closed) {
+                return;
+            }
+            List<OFMessage> msgs = new ArrayList<>(Math.min(batchSize, queue.size()));
+            queue.drainTo(msgs, batchSize);
+            drained.run();
+            for (OFMessage msg : msgs) {
+                try {
+                    handler.accept(msg);
+                } catch (Exception e) {
+                    log.warn("Error encountered while dispatching {}", msg.getType(), e);
+                }
+            }
+            drained.run();
+        } finally {
+            scheduled.set(false);
+        }
+        // messages queued while this turn was ending get a turn of their own
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Returns the number of messages waiting to be dispatched.
+     *
+     * @return queue depth
+     */
+    int size() {
+        return queue.size();
+    }
+}
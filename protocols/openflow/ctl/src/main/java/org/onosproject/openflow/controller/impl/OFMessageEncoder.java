@@ -76,6 +76,9 @@ public final class OFMessageEncoder extends ChannelOutboundHandlerAdapter {
                 }
                 buf = null;
 
+            } else if (msg instanceof ByteBuf) {
+                // already encoded, e.g. by a write batcher
+                ctx.write(msg, promise);
             } else {
                 log.warn("Attempted to encode unexpected message: {}", msg);
                 ctx.write(msg, promise);
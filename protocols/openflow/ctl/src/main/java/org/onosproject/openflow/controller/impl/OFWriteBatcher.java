@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound buffer of a switch channel, gathering the messages sent by all
+ * callers into one encoded buffer and flush.
+ * <p>
+ * Flow, group and meter modifications and barriers are held until the
+ * channel event loop gets to flush them, or for the configured window, so
+ * that bursts of them leave in few large writes. Any other message flushes
+ * the buffer at once, as does reaching the message or byte limit.
+ * </p>
+ */
+final class OFWriteBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OFWriteBatcher.class);
+
+    private static final Set<OFType> BATCHED_TYPES =
+            EnumSet.of(OFType.FLOW_MOD, OFType.GROUP_MOD, OFType.METER_MOD, OFType.BARRIER_REQUEST);
+
+    private final Channel channel;
+    private final long windowMicros;
+    private final int maxMessages;
+    private final int maxBytes;
+
+    private ByteBuf pending;
+    private int pendingMessages;
+    private boolean flushScheduled;
+    private boolean closed;
+
+    /**
+     * Creates an outbound buffer for the given channel.
+     *
+     * @param channel      switch channel
+     * @param windowMicros time messages may be held for, in microseconds;
+     *                     0 to only gather those sent before the event loop flushes
+     * @param maxMessages  number of held messages triggering a flush
+     * @param maxBytes     number of held bytes triggering a flush
+     */
+    OFWriteBatcher(Channel channel, long windowMicros, int maxMessages, int maxBytes) {
+        this.channel = channel;
+        this.windowMicros = windowMicros;
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Encodes the given messages into the buffer, flushing it as needed.
+     *
+     * @param msgs messages to send
+     */
+    synchronized void send(Iterable<OFMessage> msgs) {
+        if (closed) {
+            return;
+        }
+        if (pending == null) {
+            pending = channel.alloc().ioBuffer();
+        }
+        boolean urgent = false;
+        for (OFMessage msg : msgs) {
+            int mark = pending.writerIndex();
+            try {
+                msg.writeTo(pending);
+            } catch (RuntimeException e) {
+                pending.writerIndex(mark);
+                log.error("Exception encoding {}", msg, e);
+                continue;
+            }
+            pendingMessages++;
+            urgent |= !BATCHED_TYPES.contains(msg.getType());
+        }
+
+        if (urgent || pendingMessages >= maxMessages || pending.readableBytes() >= maxBytes) {
+            flush();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            try {
+                if (windowMicros > 0) {
+                    channel.eventLoop().schedule(this::scheduledFlush, windowMicros, TimeUnit.MICROSECONDS);
+                } else {
+                    channel.eventLoop().execute(this::scheduledFlush);
+                }
+            } catch (RejectedExecutionException e) {
+                flushScheduled = false;
+                flush();
+            }
+        }
+    }
+
+    private synchronized void scheduledFlush() {
+        flushScheduled = false;
+        flush();
+    }
+
+    /**
+     * Writes the held messages to the channel.
+     */
+    synchronized void flush() {
+        if (pending == null || !pending.isReadable()) {
+            return;
+        }
+        ByteBuf buf = pending;
+        pending = null;
+        pendingMessages = 0;
+        channel.writeAndFlush(buf, channel.voidPromise());
+    }
+
+    /**
+     * Discards the held messages and drops any sent afterwards.
+     */
+    synchronized void close() {
+        closed = true;
+        if (pending != null) {
+            pending.release();
+            pending = null;
+            pendingMessages = 0;
+        }
+    }
+}
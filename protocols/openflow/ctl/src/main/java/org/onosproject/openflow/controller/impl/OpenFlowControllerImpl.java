@@ -26,6 +26,7 @@ import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.util.Tools;
 import org.onosproject.cfg.ComponentConfigService;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.device.DeviceEvent;
@@ -76,6 +77,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -87,6 +89,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
 
 import static org.onlab.util.Tools.groupedThreads;
 import static org.onosproject.net.Device.Type.CONTROLLER;
@@ -100,6 +103,12 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     private static final String APP_ID = "org.onosproject.openflow-base";
     private static final String DEFAULT_OFPORT = "6633,6653";
     private static final int DEFAULT_WORKER_THREADS = 0;
+    private static final int DEFAULT_DISPATCHER_THREADS = 0;
+    private static final int DEFAULT_WRITE_BATCH_WINDOW_MICROS = 0;
+    private static final int DEFAULT_WRITE_BATCH_MESSAGES = 1000;
+    private static final int DEFAULT_WRITE_BATCH_BYTES = 64 * 1024;
+    private static final boolean DEFAULT_STREAM_FLOW_STATS = false;
+    private static final int FLOW_STATS_THREADS = 4;
     protected static final String SCHEME = "of";
 
     private static final Logger log =
@@ -126,9 +135,41 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             label = "Number of controller worker threads")
     private int workerThreads = DEFAULT_WORKER_THREADS;
 
+    @Property(name = "dispatcherThreads", intValue = DEFAULT_DISPATCHER_THREADS,
+            label = "Number of threads dispatching the messages of all switches; " +
+                    "0 for twice the number of processors")
+    private int dispatcherThreads = DEFAULT_DISPATCHER_THREADS;
+
+    @Property(name = "writeBatchWindowMicros", intValue = DEFAULT_WRITE_BATCH_WINDOW_MICROS,
+            label = "Time in microseconds flow, group and meter modifications and barriers " +
+                    "are held to be written to a switch together; 0 to only gather those " +
+                    "sent before the channel gets to write them")
+    private int writeBatchWindowMicros = DEFAULT_WRITE_BATCH_WINDOW_MICROS;
+
+    @Property(name = "writeBatchMessages", intValue = DEFAULT_WRITE_BATCH_MESSAGES,
+            label = "Number of messages held for a switch above which they are written at once")
+    private int writeBatchMessages = DEFAULT_WRITE_BATCH_MESSAGES;
+
+    @Property(name = "writeBatchBytes", intValue = DEFAULT_WRITE_BATCH_BYTES,
+            label = "Number of encoded bytes held for a switch above which they are written at once")
+    private int writeBatchBytes = DEFAULT_WRITE_BATCH_BYTES;
+
+    @Property(name = "streamFlowStats", boolValue = DEFAULT_STREAM_FLOW_STATS,
+            label = "Hand each part of multipart flow stats replies over to the listeners " +
+                    "as it arrives rather than all the parts at once; listeners must then " +
+                    "handle partial replies")
+    private volatile boolean streamFlowStats = DEFAULT_STREAM_FLOW_STATS;
+
     protected ExecutorService executorMsgs =
         Executors.newFixedThreadPool(32, groupedThreads("onos/of", "event-stats-%d", log));
 
+    // Parts of the flow stats replies of a switch are handed over in order
+    // by the thread the switch maps to
+    private final ExecutorService[] executorFlowStats = IntStream.range(0, FLOW_STATS_THREADS)
+            .mapToObj(i -> Executors.newSingleThreadExecutor(
+                    groupedThreads("onos/of", "event-flow-stats-" + i, log)))
+            .toArray(ExecutorService[]::new);
+
     private final ExecutorService executorBarrier =
         Executors.newFixedThreadPool(4, groupedThreads("onos/of", "event-barrier-%d", log));
 
@@ -192,7 +233,9 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         coreService.registerApplication(APP_ID, this::cleanup);
         cfgService.registerProperties(getClass());
         deviceService.addListener(listener);
-        ctrl.setConfigParams(context.getProperties());
+        Dictionary<?, ?> properties = context.getProperties();
+        readComponentConfiguration(properties);
+        ctrl.setConfigParams(properties);
         ctrl.start(agent, driverService);
     }
 
@@ -216,10 +259,25 @@ public class OpenFlowControllerImpl implements OpenFlowController {
     @Modified
     public void modified(ComponentContext context) {
         ctrl.stop();
-        ctrl.setConfigParams(context.getProperties());
+        Dictionary<?, ?> properties = context.getProperties();
+        readComponentConfiguration(properties);
+        ctrl.setConfigParams(properties);
         ctrl.start(agent, driverService);
     }
 
+    private void readComponentConfiguration(Dictionary<?, ?> properties) {
+        boolean stream = Tools.isPropertyEnabled(properties, "streamFlowStats",
+                                                 DEFAULT_STREAM_FLOW_STATS);
+        if (stream != streamFlowStats) {
+            synchronized (this) {
+                // parts gathered before the change would not be completed
+                fullFlowStats.clear();
+            }
+            streamFlowStats = stream;
+        }
+        log.debug("Streaming of flow stats {}", streamFlowStats ? "enabled" : "disabled");
+    }
+
     @Override
     public Iterable<OpenFlowSwitch> getSwitches() {
         return connectedSwitches.values();
@@ -422,6 +480,11 @@ public class OpenFlowControllerImpl implements OpenFlowController {
                 break;
 
             case FLOW:
+                if (streamFlowStats) {
+                    executorFlowStats[Math.floorMod(dpid.hashCode(), FLOW_STATS_THREADS)]
+                            .execute(new OFMessageHandler(dpid, reply));
+                    break;
+                }
                 Collection<OFFlowStatsEntry> flowStats = publishFlowStats(dpid, (OFFlowStatsReply) reply);
                 if (flowStats != null) {
                     OFFlowStatsReply.Builder rep =
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import org.junit.Test;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Unit tests for the dispatch queue of OpenFlow messages.
+ */
+public class OFDispatchQueueTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OFDispatchQueueTest.class);
+
+    private static final OFFactory FACTORY = OFFactories.getFactory(OFVersion.OF_13);
+
+    private static OFMessage message(long xid) {
+        return FACTORY.buildEchoRequest().setXid(xid).build();
+    }
+
+    /**
+     * Tests that a full queue pauses reading until a turn drains it.
+     */
+    @Test
+    public void backPressure() {
+        Queue<Runnable> turns = new LinkedList<>();
+        List<Long> handled = new ArrayList<>();
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger drained = new AtomicInteger();
+        OFDispatchQueue queue = new OFDispatchQueue(2, 1, turns::add,
+                                                    msg -> handled.add(msg.getXid()),
+                                                    full::incrementAndGet,
+                                                    drained::incrementAndGet);
+
+        assertThat(queue.offer(message(1)), is(true));
+        assertThat(queue.offer(message(2)), is(true));
+        assertThat(queue.offer(message(3)), is(false));
+        assertThat(full.get(), is(1));
+        assertThat("only one turn at a time", turns.size(), is(1));
+
+        // each turn takes one message and schedules the next turn
+        while (!turns.isEmpty()) {
+            turns.poll().run();
+        }
+        assertThat(handled, contains(1L, 2L));
+        assertThat(drained.get(), is(4));
+        assertThat(queue.size(), is(0));
+
+        queue.close();
+        assertThat(queue.offer(message(4)), is(true));
+        assertThat("closed queue scheduled a turn", turns.isEmpty(), is(true));
+    }
+
+    /**
+     * Tests that a fleet of switches sharing a few dispatcher threads get
+     * their messages handled in order.
+     */
+    @Test
+    public void switchFleet() throws InterruptedException {
+        int switches = 1000;
+        int messagesPerSwitch = 200;
+        int threads = 4;
+        ExecutorService dispatcher = Executors.newFixedThreadPool(threads);
+        Set<String> dispatcherThreads = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(switches);
+        List<OFDispatchQueue> queues = new ArrayList<>();
+        List<List<Long>> handled = new ArrayList<>();
+        int threadsBefore = Thread.activeCount();
+
+        for (int i = 0; i < switches; i++) {
+            List<Long> xids = new ArrayList<>();
+            handled.add(xids);
+            queues.add(new OFDispatchQueue(50, 10, dispatcher, msg -> {
+                xids.add(msg.getXid());
+                dispatcherThreads.add(Thread.currentThread().getName());
+                if (msg.getXid() == messagesPerSwitch - 1) {
+                    done.countDown();
+                }
+            }, () -> { }, () -> { }));
+        }
+
+        long start = System.nanoTime();
+        for (int xid = 0; xid < messagesPerSwitch; xid++) {
+            OFMessage msg = message(xid);
+            for (OFDispatchQueue queue : queues) {
+                // stands in for the channel waiting with reads paused
+                while (!queue.offer(msg)) {
+                    Thread.yield();
+                }
+            }
+        }
+        assertThat("messages not dispatched", done.await(30, TimeUnit.SECONDS), is(true));
+        long elapsed = System.nanoTime() - start;
+
+        log.info("Dispatched {} messages of {} switches in {} ms ({} messages/s) " +
+                         "using {} dispatcher threads; {} threads before, {} after",
+                 switches * messagesPerSwitch, switches, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                 (long) (switches * messagesPerSwitch / (elapsed / 1e9)),
+                 dispatcherThreads.size(), threadsBefore, Thread.activeCount());
+        dispatcher.shutdownNow();
+
+        assertThat(dispatcherThreads.size(), lessThanOrEqualTo(threads));
+        for (List<Long> xids : handled) {
+            assertThat(xids.size(), is(messagesPerSwitch));
+            for (int xid = 0; xid < messagesPerSwitch; xid++) {
+                assertThat("messages of a switch dispatched out of order",
+                           xids.get(xid), is((long) xid));
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.openflow.OfMessageAdapter;
+import org.projectfloodlight.openflow.protocol.OFType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Unit tests for the outbound buffer of switch channels.
+ */
+public class OFWriteBatcherTest {
+
+    private EmbeddedChannel channel;
+
+    private static class MockOfMessage extends OfMessageAdapter {
+        private final String text;
+
+        MockOfMessage(OFType type, String text) {
+            super(type);
+            this.text = text;
+        }
+
+        @Override
+        public void writeTo(ByteBuf byteBuf) {
+            byteBuf.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static MockOfMessage flowMod(String text) {
+        return new MockOfMessage(OFType.FLOW_MOD, text);
+    }
+
+    private String readWrite() {
+        ByteBuf buf = channel.readOutbound();
+        if (buf == null) {
+            return null;
+        }
+        String text = buf.toString(StandardCharsets.UTF_8);
+        buf.release();
+        return text;
+    }
+
+    @Before
+    public void setUp() {
+        channel = new EmbeddedChannel();
+    }
+
+    @After
+    public void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    /**
+     * Tests that modifications sent by several callers leave in one write.
+     */
+    @Test
+    public void gathering() {
+        OFWriteBatcher batcher = new OFWriteBatcher(channel, 0, 100, 1024);
+        batcher.send(ImmutableList.of(flowMod("a"), flowMod("b")));
+        batcher.send(ImmutableList.of(new MockOfMessage(OFType.BARRIER_REQUEST, "c")));
+        assertThat(readWrite(), is(nullValue()));
+
+        channel.runPendingTasks();
+        assertThat(readWrite(), is("abc"));
+        assertThat(readWrite(), is(nullValue()));
+    }
+
+    /**
+     * Tests that other messages flush the held ones along with them.
+     */
+    @Test
+    public void urgentMessages() {
+        OFWriteBatcher batcher = new OFWriteBatcher(channel, 0, 100, 1024);
+        batcher.send(ImmutableList.of(flowMod("a")));
+        batcher.send(ImmutableList.of(new MockOfMessage(OFType.PACKET_OUT, "p")));
+        assertThat(readWrite(), is("ap"));
+
+        channel.runPendingTasks();
+        assertThat(readWrite(), is(nullValue()));
+    }
+
+    /**
+     * Tests that reaching the message or byte limit flushes the held messages.
+     */
+    @Test
+    public void limits() {
+        OFWriteBatcher batcher = new OFWriteBatcher(channel, 0, 3, 1024);
+        batcher.send(ImmutableList.of(flowMod("a"), flowMod("b")));
+        assertThat(readWrite(), is(nullValue()));
+        batcher.send(ImmutableList.of(flowMod("c")));
+        assertThat(readWrite(), is("abc"));
+
+        batcher = new OFWriteBatcher(channel, 0, 100, 4);
+        batcher.send(ImmutableList.of(flowMod("ab")));
+        assertThat(readWrite(), is(nullValue()));
+        batcher.send(ImmutableList.of(flowMod("cd")));
+        assertThat(readWrite(), is("abcd"));
+    }
+
+    /**
+     * Tests that closing the buffer drops the held and later messages.
+     */
+    @Test
+    public void close() {
+        OFWriteBatcher batcher = new OFWriteBatcher(channel, 0, 100, 1024);
+        batcher.send(ImmutableList.of(flowMod("a")));
+        batcher.close();
+        batcher.send(ImmutableList.of(new MockOfMessage(OFType.PACKET_OUT, "p")));
+        channel.runPendingTasks();
+        assertThat(readWrite(), is(nullValue()));
+    }
+}
@@ -75,6 +75,7 @@ import org.projectfloodlight.openflow.protocol.OFFlowStatsReply;
 import org.projectfloodlight.openflow.protocol.OFMessage;
 import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
+import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
 import org.projectfloodlight.openflow.protocol.OFStatsType;
 import org.projectfloodlight.openflow.protocol.OFTableStatsEntry;
 import org.projectfloodlight.openflow.protocol.OFTableStatsReply;
@@ -156,6 +157,9 @@ public class OpenFlowRuleProvider extends AbstractProvider
     private final Map<Dpid, NewAdaptiveFlowStatsCollector> afsCollectors = Maps.newConcurrentMap();
     private final Map<Dpid, TableStatisticsCollector> tableStatsCollectors = Maps.newConcurrentMap();
 
+    // Xid of the multipart flow stats reply being received part by part
+    private final Map<Dpid, Long> flowStatsParts = Maps.newConcurrentMap();
+
     /**
      * Creates an OpenFlow host provider.
      */
@@ -421,6 +425,7 @@ public class OpenFlowRuleProvider extends AbstractProvider
                 stopCollectorIfNeeded(simpleCollectors.remove(dpid));
             }
             stopCollectorIfNeeded(tableStatsCollectors.remove(dpid));
+            flowStatsParts.remove(dpid);
         }
 
         @Override
@@ -630,6 +635,17 @@ public class OpenFlowRuleProvider extends AbstractProvider
             DeviceId did = DeviceId.deviceId(Dpid.uri(dpid));
             NewAdaptiveFlowStatsCollector afsc = afsCollectors.get(dpid);
 
+            // The controller may hand over the parts of a multipart reply as
+            // they arrive, rather than once all of them have been received
+            boolean last = !replies.getFlags().contains(OFStatsReplyFlags.REPLY_MORE);
+            boolean part;
+            if (last) {
+                part = flowStatsParts.remove(dpid, replies.getXid());
+            } else {
+                flowStatsParts.put(dpid, replies.getXid());
+                part = true;
+            }
+
             if (adaptiveFlowSampling && afsc != null)  {
                 List<FlowEntry> flowEntries = replies.getEntries().stream()
                         .map(entry -> new FlowEntryBuilder(did, entry, handler).withSetAfsc(afsc).build())
@@ -643,10 +659,12 @@ public class OpenFlowRuleProvider extends AbstractProvider
                     if (afsc.getFlowMissingXid() == replies.getXid()) {
                         // call entire flow stats update with flowMissing synchronization.
                         // used existing pushFlowMetrics
-                        providerService.pushFlowMetrics(did, flowEntries);
+                        pushFlowEntries(did, replies.getXid(), flowEntries, part, last);
+                    }
+                    if (last) {
+                        // reset flowMissingXid to NO_FLOW_MISSING_XID
+                        afsc.setFlowMissingXid(NewAdaptiveFlowStatsCollector.NO_FLOW_MISSING_XID);
                     }
-                    // reset flowMissingXid to NO_FLOW_MISSING_XID
-                    afsc.setFlowMissingXid(NewAdaptiveFlowStatsCollector.NO_FLOW_MISSING_XID);
                 } else {
                     // call individual flow stats update
                     providerService.pushFlowMetricsWithoutFlowMissing(did, flowEntries);
@@ -657,6 +675,17 @@ public class OpenFlowRuleProvider extends AbstractProvider
                         .collect(Collectors.toList());
 
                 // call existing entire flow stats update with flowMissing synchronization
+                pushFlowEntries(did, replies.getXid(), flowEntries, part, last);
+            }
+        }
+
+        // Pushes the entries of a whole reply, or of a part of one along
+        // with the previous parts, with flowMissing synchronization.
+        private void pushFlowEntries(DeviceId did, long xid, List<FlowEntry> flowEntries,
+                                     boolean part, boolean last) {
+            if (part) {
+                providerService.pushFlowMetricsPart(did, xid, flowEntries, last);
+            } else {
                 providerService.pushFlowMetrics(did, flowEntries);
             }
         }
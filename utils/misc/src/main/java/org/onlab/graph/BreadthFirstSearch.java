@@ -20,6 +20,10 @@ import java.util.Set;
 
 /**
  * Implementation of the BFS algorithm.
+ * <p>
+ * Searches of a {@link CompactGraph} track visited vertexes and the
+ * frontier by vertex index.
+ * </p>
  */
 public class BreadthFirstSearch<V extends Vertex, E extends Edge<V>>
         extends AbstractGraphPathSearch<V, E> {
@@ -27,6 +31,9 @@ public class BreadthFirstSearch<V extends Vertex, E extends Edge<V>>
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
+        if (graph instanceof CompactGraph) {
+            return compactSearch((CompactGraph<V, E>) graph, src, dst, weigher, maxPaths);
+        }
 
         // Prepare the graph result.
         DefaultResult result = new DefaultResult(src, dst, maxPaths);
@@ -75,4 +82,43 @@ public class BreadthFirstSearch<V extends Vertex, E extends Edge<V>>
         return result;
     }
 
+    // Searches the compact graph, visiting the frontier vertexes in order.
+    private Result<V, E> compactSearch(CompactGraph<V, E> graph, V src, V dst,
+                                       EdgeWeigher<V, E> weigher, int maxPaths) {
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        int dstIndex = dst != null ? graph.index(dst) : -1;
+
+        // Each vertex is queued at most once, when it is first visited.
+        Weight[] costs = new Weight[graph.vertexCount()];
+        int[] queue = new int[graph.vertexCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = graph.index(src);
+        costs[queue[0]] = weigher.getInitialWeight();
+        result.updateVertex(src, null, costs[queue[0]], true);
+
+        boolean reachedEnd = false;
+        while (!reachedEnd && head < tail) {
+            int vertex = queue[head++];
+            for (int e = graph.firstEdge(vertex); e < graph.lastEdge(vertex); e++) {
+                int next = graph.target(e);
+                if (costs[next] == null) {
+                    // If this vertex has not been visited yet, update it.
+                    E edge = graph.edge(e);
+                    costs[next] = costs[vertex].merge(weigher.weight(edge));
+                    result.updateVertex(graph.vertex(next), edge, costs[next], true);
+                    // If we have reached our intended destination, bail.
+                    if (next == dstIndex) {
+                        reachedEnd = true;
+                        break;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        result.buildPaths();
+        return result;
+    }
+
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Immutable graph which, in addition to the regular graph view, indexes its
+ * vertexes by integers and keeps the egress edges of each vertex in
+ * compressed sparse row form.
+ * <p>
+ * Path searches, such as {@link DijkstraGraphSearch} and
+ * {@link BreadthFirstSearch}, recognize this graph and traverse it using
+ * the integer indexes and primitive arrays rather than hash lookups. The
+ * graph is meant to be built once from an immutable graph and then shared
+ * by all searches over it.
+ * </p>
+ *
+ * @param <V> vertex type
+ * @param <E> edge type
+ */
+public final class CompactGraph<V extends Vertex, E extends Edge<V>>
+        implements Graph<V, E> {
+
+    private final Graph<V, E> graph;
+
+    private final Map<V, Integer> indexes;
+    private final V[] vertexes;
+
+    // Egress edges of vertex i occupy positions offsets[i] to offsets[i + 1]
+    private final int[] offsets;
+    private final E[] edges;
+    private final int[] targets;
+
+    @SuppressWarnings("unchecked")
+    private CompactGraph(Graph<V, E> graph) {
+        this.graph = graph;
+
+        Set<V> graphVertexes = graph.getVertexes();
+        this.indexes = Maps.newHashMapWithExpectedSize(graphVertexes.size());
+        this.vertexes = (V[]) new Vertex[graphVertexes.size()];
+        int index = 0;
+        for (V vertex : graphVertexes) {
+            indexes.put(vertex, index);
+            vertexes[index++] = vertex;
+        }
+
+        this.offsets = new int[vertexes.length + 1];
+        this.edges = (E[]) new Edge[graph.getEdges().size()];
+        this.targets = new int[edges.length];
+        int position = 0;
+        for (int i = 0; i < vertexes.length; i++) {
+            offsets[i] = position;
+            for (E edge : graph.getEdgesFrom(vertexes[i])) {
+                edges[position] = edge;
+                targets[position++] = indexes.get(edge.dst());
+            }
+        }
+        offsets[vertexes.length] = position;
+    }
+
+    /**
+     * Creates a compact copy of the specified immutable graph. The given
+     * graph is retained to serve the regular graph view.
+     *
+     * @param graph immutable graph
+     * @param <V>   vertex type
+     * @param <E>   edge type
+     * @return compact graph
+     */
+    public static <V extends Vertex, E extends Edge<V>> CompactGraph<V, E> copyOf(Graph<V, E> graph) {
+        checkNotNull(graph, "Graph cannot be null");
+        if (graph instanceof CompactGraph) {
+            return (CompactGraph<V, E>) graph;
+        }
+        return new CompactGraph<>(graph);
+    }
+
+    /**
+     * Returns the number of vertexes in the graph.
+     *
+     * @return number of vertexes
+     */
+    public int vertexCount() {
+        return vertexes.length;
+    }
+
+    /**
+     * Returns the number of edges in the graph.
+     *
+     * @return number of edges
+     */
+    public int edgeCount() {
+        return edges.length;
+    }
+
+    /**
+     * Returns the index of the specified vertex.
+     *
+     * @param vertex vertex
+     * @return vertex index; -1 if the vertex is not in the graph
+     */
+    public int index(V vertex) {
+        Integer index = indexes.get(vertex);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the vertex with the specified index.
+     *
+     * @param index vertex index
+     * @return vertex
+     */
+    public V vertex(int index) {
+        return vertexes[index];
+    }
+
+    /**
+     * Returns the index of the first egress edge of the specified vertex.
+     *
+     * @param vertex vertex index
+     * @return index of the first egress edge
+     */
+    public int firstEdge(int vertex) {
+        return offsets[vertex];
+    }
+
+    /**
+     * Returns the index following the last egress edge of the specified
+     * vertex.
+     *
+     * @param vertex vertex index
+     * @return index past the last egress edge
+     */
+    public int lastEdge(int vertex) {
+        return offsets[vertex + 1];
+    }
+
+    /**
+     * Returns the edge with the specified index.
+     *
+     * @param index edge index
+     * @return edge
+     */
+    public E edge(int index) {
+        return edges[index];
+    }
+
+    /**
+     * Returns the index of the destination vertex of the specified edge.
+     *
+     * @param index edge index
+     * @return destination vertex index
+     */
+    public int target(int index) {
+        return targets[index];
+    }
+
+    @Override
+    public Set<V> getVertexes() {
+        return graph.getVertexes();
+    }
+
+    @Override
+    public Set<E> getEdges() {
+        return graph.getEdges();
+    }
+
+    @Override
+    public Set<E> getEdgesFrom(V src) {
+        return graph.getEdgesFrom(src);
+    }
+
+    @Override
+    public Set<E> getEdgesTo(V dst) {
+        return graph.getEdgesTo(dst);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof CompactGraph) {
+            return Objects.equals(graph, ((CompactGraph) obj).graph);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return graph.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toStringHelper(this)
+                .add("vertexes", vertexes.length)
+                .add("edges", edges.length)
+                .toString();
+    }
+}
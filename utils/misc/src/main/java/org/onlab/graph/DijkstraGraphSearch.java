@@ -15,13 +15,20 @@
  */
 package org.onlab.graph;
 
+import com.google.common.math.DoubleMath;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Set;
 
 /**
  * Dijkstra shortest-path graph search algorithm capable of finding not just
  * one, but all shortest paths between the source and destinations.
+ * <p>
+ * Searches of a {@link CompactGraph} with {@link ScalarWeight} weights run
+ * on primitive arrays indexed by vertex and edge indexes instead.
+ * </p>
  */
 public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         extends AbstractGraphPathSearch<V, E> {
@@ -29,6 +36,13 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
     @Override
     protected Result<V, E> internalSearch(Graph<V, E> graph, V src, V dst,
                                EdgeWeigher<V, E> weigher, int maxPaths) {
+        if (graph instanceof CompactGraph) {
+            Result<V, E> result = compactSearch((CompactGraph<V, E>) graph, src, dst,
+                                                weigher, maxPaths);
+            if (result != null) {
+                return result;
+            }
+        }
 
         // Use the default result to remember cumulative costs and parent
         // edges to each each respective vertex.
@@ -102,4 +116,180 @@ public class DijkstraGraphSearch<V extends Vertex, E extends Edge<V>>
         return new Heap<>(new ArrayList<>(vertexes), comparator);
     }
 
+    // Searches the compact graph using primitive costs, mirroring the
+    // relaxation of the generic search; returns null if the weigher yields
+    // other than scalar weights, in which case the generic search is used.
+    private Result<V, E> compactSearch(CompactGraph<V, E> graph, V src, V dst,
+                                       EdgeWeigher<V, E> weigher, int maxPaths) {
+        Weight initialWeight = weigher.getInitialWeight();
+        if (!(initialWeight instanceof ScalarWeight)) {
+            return null;
+        }
+
+        int vertexCount = graph.vertexCount();
+        int srcIndex = graph.index(src);
+        int dstIndex = dst != null ? graph.index(dst) : -1;
+        double threshold = ScalarWeight.samenessThreshold();
+
+        double[] costs = new double[vertexCount];
+        Arrays.fill(costs, Double.NaN);
+        boolean[] settled = new boolean[vertexCount];
+
+        // Parent edges of each vertex, kept as linked lists over shared arrays
+        int[] parentHeads = new int[vertexCount];
+        int[] parentCounts = new int[vertexCount];
+        Arrays.fill(parentHeads, -1);
+        int[] parentEdges = new int[graph.edgeCount()];
+        int[] parentNext = new int[graph.edgeCount()];
+        int parentSize = 0;
+
+        costs[srcIndex] = ((ScalarWeight) initialWeight).value();
+        IndexedMinQueue minQueue = new IndexedMinQueue(vertexCount);
+        minQueue.insert(srcIndex, costs[srcIndex]);
+
+        while (!minQueue.isEmpty()) {
+            // Get the nearest vertex
+            int nearest = minQueue.extractMin();
+            settled[nearest] = true;
+            if (nearest == dstIndex) {
+                break;
+            }
+
+            // Relax all its egress edges.
+            double cost = costs[nearest];
+            for (int e = graph.firstEdge(nearest); e < graph.lastEdge(nearest); e++) {
+                Weight weight = weigher.weight(graph.edge(e));
+                if (!(weight instanceof ScalarWeight)) {
+                    return null;
+                }
+                double hopCost = ((ScalarWeight) weight).value();
+                if (!weight.isViable() || hopCost < 0) {
+                    continue;
+                }
+
+                int v = graph.target(e);
+                double newCost = cost + hopCost;
+                int compareResult = -1;
+                if (!Double.isNaN(costs[v])) {
+                    compareResult = DoubleMath.fuzzyEquals(newCost, costs[v], threshold) ?
+                            0 : Double.compare(newCost, costs[v]);
+                }
+                if (compareResult > 0) {
+                    continue;
+                }
+                if (compareResult < 0) {
+                    costs[v] = newCost;
+                    parentHeads[v] = -1;
+                    parentCounts[v] = 0;
+                    if (!settled[v]) {
+                        minQueue.insertOrDecrease(v, newCost);
+                    }
+                }
+                if (maxPaths == ALL_PATHS || parentCounts[v] < maxPaths) {
+                    parentEdges[parentSize] = e;
+                    parentNext[parentSize] = parentHeads[v];
+                    parentHeads[v] = parentSize++;
+                    parentCounts[v]++;
+                }
+            }
+        }
+
+        // Transfer the costs and parent edges of all reached vertexes.
+        DefaultResult result = new DefaultResult(src, dst, maxPaths);
+        for (int v = 0; v < vertexCount; v++) {
+            if (!Double.isNaN(costs[v])) {
+                V vertex = graph.vertex(v);
+                Weight cost = v == srcIndex ? initialWeight : new ScalarWeight(costs[v]);
+                result.updateVertex(vertex, null, cost, false);
+                for (int p = parentHeads[v]; p >= 0; p = parentNext[p]) {
+                    result.updateVertex(vertex, graph.edge(parentEdges[p]), cost, false);
+                }
+            }
+        }
+        result.buildPaths();
+        return result;
+    }
+
+    // Binary min heap of vertex indexes keyed by their costs, which tracks
+    // the position of each vertex to allow its cost to be decreased.
+    private static final class IndexedMinQueue {
+        private final int[] heap;
+        private final int[] positions;
+        private final double[] keys;
+        private int size;
+
+        private IndexedMinQueue(int capacity) {
+            heap = new int[capacity];
+            positions = new int[capacity];
+            keys = new double[capacity];
+            Arrays.fill(positions, -1);
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void insert(int vertex, double key) {
+            keys[vertex] = key;
+            heap[size] = vertex;
+            positions[vertex] = size;
+            siftUp(size++);
+        }
+
+        private void insertOrDecrease(int vertex, double key) {
+            if (positions[vertex] < 0) {
+                insert(vertex, key);
+            } else {
+                keys[vertex] = key;
+                siftUp(positions[vertex]);
+            }
+        }
+
+        private int extractMin() {
+            int min = heap[0];
+            positions[min] = -1;
+            size--;
+            if (size > 0) {
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                siftDown(0);
+            }
+            return min;
+        }
+
+        private void siftUp(int i) {
+            int vertex = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[heap[parent]] <= keys[vertex]) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                positions[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = vertex;
+            positions[vertex] = i;
+        }
+
+        private void siftDown(int i) {
+            int vertex = heap[i];
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                    child++;
+                }
+                if (keys[vertex] <= keys[heap[child]]) {
+                    break;
+                }
+                heap[i] = heap[child];
+                positions[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = vertex;
+            positions[vertex] = i;
+        }
+    }
+
 }
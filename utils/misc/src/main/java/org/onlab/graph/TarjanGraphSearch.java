@@ -15,8 +15,10 @@
  */
 package org.onlab.graph;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -43,11 +45,30 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
      */
     @Override
     public SccResult<V, E> search(Graph<V, E> graph, EdgeWeigher<V, E> weigher) {
+        return search(graph, weigher, null);
+    }
+
+    /**
+     * Searches the subgraph induced by the given vertexes and produces
+     * results describing its SCCs.
+     * <p>
+     * Only edges between the given vertexes are traversed. If no other edges
+     * of the graph join its SCCs with the given vertexes, the results are
+     * the SCCs of the whole graph containing the given vertexes, which
+     * allows SCCs to be recomputed only in regions affected by a change.
+     * </p>
+     *
+     * @param graph    graph to search
+     * @param weigher  optional edge weigher
+     * @param vertexes vertexes to search; null to search the whole graph
+     * @return SCC search results
+     */
+    public SccResult<V, E> search(Graph<V, E> graph, EdgeWeigher<V, E> weigher, Set<V> vertexes) {
         SccResult<V, E> result = new SccResult<>(graph);
-        for (V vertex : graph.getVertexes()) {
+        for (V vertex : vertexes != null ? vertexes : graph.getVertexes()) {
             VertexData data = result.data(vertex);
             if (data == null) {
-                connect(graph, vertex, weigher, result);
+                connect(graph, vertex, weigher, vertexes, result);
             }
         }
         return result.build();
@@ -59,11 +80,13 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
      * @param graph   graph to search
      * @param vertex  current vertex to scan and connect
      * @param weigher optional edge weigher
+     * @param vertexes vertexes to search, or null for all
      * @param result  graph search result
      * @return augmentation vertexData for the current vertex
      */
     private VertexData<V> connect(Graph<V, E> graph, V vertex,
                                   EdgeWeigher<V, E> weigher,
+                                  Set<V> vertexes,
                                   SccResult<V, E> result) {
         VertexData<V> data = result.addData(vertex);
 
@@ -71,6 +94,11 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
         for (E edge : graph.getEdgesFrom(vertex)) {
             V nextVertex = edge.dst();
 
+            // If edge leads outside of the searched vertexes, skip it.
+            if (vertexes != null && !vertexes.contains(nextVertex)) {
+                continue;
+            }
+
             // If edge is not viable, skip it.
             if (weigher != null && !weigher.weight(edge).isViable()) {
                 continue;
@@ -80,7 +108,7 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
             VertexData<V> nextData = result.data(nextVertex);
             if (nextData == null) {
                 // Next vertex has not been visited yet, so do this now.
-                nextData = connect(graph, nextVertex, weigher, result);
+                nextData = connect(graph, nextVertex, weigher, vertexes, result);
                 data.lowLink = Math.min(data.lowLink, nextData.lowLink);
 
             } else if (result.visited(nextData)) {
@@ -108,7 +136,7 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
 
         private int index = 0;
         private final Map<V, VertexData<V>> vertexData = new HashMap<>();
-        private final List<VertexData<V>> visited = new ArrayList<>();
+        private final Deque<VertexData<V>> visited = new ArrayDeque<>();
 
         private SccResult(Graph<V, E> graph) {
             this.graph = graph;
@@ -150,14 +178,16 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
         private VertexData<V> addData(V vertex) {
             VertexData<V> d = new VertexData<>(vertex, index);
             vertexData.put(vertex, d);
-            visited.add(0, d);
+            visited.push(d);
+            d.onStack = true;
             index++;
             return d;
         }
 
-        // Indicates whether the given vertex has been visited
+        // Indicates whether the given vertex has been visited and is not
+        // yet assigned to a cluster
         private boolean visited(VertexData data) {
-            return visited.contains(data);
+            return data.onStack;
         }
 
         // Adds a new cluster for the specified vertex
@@ -171,7 +201,8 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
             VertexData<V> nextVertexData;
             Set<V> vertexes = new HashSet<>();
             do {
-                nextVertexData = visited.remove(0);
+                nextVertexData = visited.pop();
+                nextVertexData.onStack = false;
                 vertexes.add(nextVertexData.vertex);
             } while (data != nextVertexData);
             return Collections.unmodifiableSet(vertexes);
@@ -201,6 +232,7 @@ public class TarjanGraphSearch<V extends Vertex, E extends Edge<V>>
         final V vertex;
         int index;
         int lowLink;
+        boolean onStack;
 
         private VertexData(V vertex, int index) {
             this.vertex = vertex;
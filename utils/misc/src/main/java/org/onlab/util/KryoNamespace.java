@@ -33,21 +33,28 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.objenesis.strategy.StdInstantiatorStrategy;
 import org.slf4j.Logger;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.lang.ref.SoftReference;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
  * Pool of Kryo instances, with classes pre-registered.
+ * <p>
+ * Each thread is given its own Kryo instance along with reusable input and
+ * output buffers, so that serializing and deserializing do not contend on
+ * the pool nor allocate fresh buffers for every call. Nested calls made on a
+ * thread whose instance is already in use, e.g. from within a serializer,
+ * fall back to a shared pool of instances.
+ * </p>
  */
 //@ThreadSafe
 public final class KryoNamespace implements KryoFactory, KryoPool {
@@ -60,6 +67,15 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     public static final int DEFAULT_BUFFER_SIZE = 4096;
     public static final int MAX_BUFFER_SIZE = 100 * 1000 * 1000;
 
+    /**
+     * Largest per-thread output buffer retained between calls; larger
+     * buffers are dropped after use so that an occasional big object does
+     * not pin its buffer to the thread.
+     */
+    static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
     /**
      * ID to use if this KryoNamespace does not define registration id.
      */
@@ -78,6 +94,10 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
                                         .softReferences()
                                         .build();
 
+    // Softly referenced like the pooled instances, so that idle threads'
+    // instances and buffers may be reclaimed under memory pressure
+    private final ThreadLocal<SoftReference<ThreadContext>> threadContext = new ThreadLocal<>();
+
     private final ImmutableList<RegistrationBlock> registeredBlocks;
 
     private final boolean compatible;
@@ -280,7 +300,7 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     public KryoNamespace populate(int instances) {
 
         for (int i = 0; i < instances; ++i) {
-            release(create());
+            pool.release(create());
         }
         return this;
     }
@@ -299,19 +319,49 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
 
     /**
      * Serializes given object to byte array using Kryo instance in pool.
+     * <p>
+     * Note: Serialized bytes must be smaller than {@link #MAX_BUFFER_SIZE}.
      *
      * @param obj Object to serialize
-     * @param bufferSize maximum size of serialized bytes
+     * @param bufferSize initial buffer size to use when the calling thread's
+     *                   reusable buffer is not available
      * @return serialized bytes
      */
     public byte[] serialize(final Object obj, final int bufferSize) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bufferSize);
-        Output out = new Output(outputStream);
-        return pool.run(kryo -> {
-            kryo.writeClassAndObject(out, obj);
-            out.flush();
-            return outputStream.toByteArray();
-        });
+        return write(obj, bufferSize, Output::toBytes);
+    }
+
+    /**
+     * Returns the number of bytes given object serializes to, without
+     * copying the serialized bytes out of the calling thread's buffer.
+     * <p>
+     * Useful to size a buffer before calling {@link #serialize(Object, ByteBuffer)}.
+     *
+     * @param obj Object to serialize
+     * @return serialized size in bytes
+     */
+    public int serializedSize(final Object obj) {
+        return write(obj, DEFAULT_BUFFER_SIZE, Output::position);
+    }
+
+    private <T> T write(Object obj, int bufferSize, Function<Output, T> function) {
+        ThreadContext context = threadContext();
+        if (context.inUse) {
+            Output out = new Output(bufferSize, MAX_BUFFER_SIZE);
+            return pool.run(kryo -> {
+                kryo.writeClassAndObject(out, obj);
+                return function.apply(out);
+            });
+        }
+        context.inUse = true;
+        try {
+            context.output.clear();
+            context.kryo.writeClassAndObject(context.output, obj);
+            return function.apply(context.output);
+        } finally {
+            context.resetBuffers();
+            context.inUse = false;
+        }
     }
 
     /**
@@ -367,14 +417,27 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final byte[] bytes) {
-        Input in = new Input(new ByteArrayInputStream(bytes));
-        Kryo kryo = borrow();
+        ThreadContext context = threadContext();
+        if (context.inUse) {
+            Input in = new Input(bytes);
+            Kryo kryo = pool.borrow();
+            try {
+                @SuppressWarnings("unchecked")
+                T obj = (T) kryo.readClassAndObject(in);
+                return obj;
+            } finally {
+                pool.release(kryo);
+            }
+        }
+        context.inUse = true;
         try {
+            context.input.setBuffer(bytes);
             @SuppressWarnings("unchecked")
-            T obj = (T) kryo.readClassAndObject(in);
+            T obj = (T) context.kryo.readClassAndObject(context.input);
             return obj;
         } finally {
-            release(kryo);
+            context.resetBuffers();
+            context.inUse = false;
         }
     }
 
@@ -532,9 +595,54 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
         pool.release(kryo);
     }
 
+    /**
+     * Runs the given callback with the calling thread's Kryo instance, or one
+     * from the shared pool if the thread's instance is already in use.
+     *
+     * @param callback callback to run
+     * @param <T> callback result type
+     * @return callback result
+     */
     @Override
     public <T> T run(KryoCallback<T> callback) {
-        return pool.run(callback);
+        ThreadContext context = threadContext();
+        if (context.inUse) {
+            return pool.run(callback);
+        }
+        context.inUse = true;
+        try {
+            return callback.execute(context.kryo);
+        } finally {
+            context.inUse = false;
+        }
+    }
+
+    private ThreadContext threadContext() {
+        SoftReference<ThreadContext> reference = threadContext.get();
+        ThreadContext context = reference != null ? reference.get() : null;
+        if (context == null) {
+            context = new ThreadContext();
+            threadContext.set(new SoftReference<>(context));
+        }
+        return context;
+    }
+
+    /**
+     * Kryo instance and buffers owned by a single thread, only ever used
+     * between a pair of calls made on that thread.
+     */
+    private final class ThreadContext {
+        private final Kryo kryo = create();
+        private final Output output = new Output(DEFAULT_BUFFER_SIZE, MAX_BUFFER_SIZE);
+        private final Input input = new Input(EMPTY_BYTES);
+        private boolean inUse;
+
+        private void resetBuffers() {
+            input.setBuffer(EMPTY_BYTES);
+            if (output.getBuffer().length > MAX_RETAINED_BUFFER_SIZE) {
+                output.setBuffer(new byte[DEFAULT_BUFFER_SIZE], MAX_BUFFER_SIZE);
+            }
+        }
     }
 
     @Override
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.onlab.graph.GraphPathSearch.ALL_PATHS;
+
+/**
+ * Tests of the compact graph and of the path searches over it.
+ */
+public class CompactGraphTest extends GraphTest {
+
+    private final EdgeWeigher<TestVertex, TestEdge> scalarWeigher =
+            new DefaultEdgeWeigher<TestVertex, TestEdge>() {
+                @Override
+                public Weight weight(TestEdge edge) {
+                    return edge.weight();
+                }
+            };
+
+    @Test
+    public void basics() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        CompactGraph<TestVertex, TestEdge> compact = CompactGraph.copyOf(graph);
+        assertSame("copy should be reused", compact, CompactGraph.copyOf(compact));
+        assertEquals("incorrect vertex count", 8, compact.vertexCount());
+        assertEquals("incorrect edge count", 12, compact.edgeCount());
+        assertEquals("incorrect vertexes", graph.getVertexes(), compact.getVertexes());
+
+        for (TestVertex vertex : graph.getVertexes()) {
+            int index = compact.index(vertex);
+            assertEquals("incorrect vertex", vertex, compact.vertex(index));
+            Set<TestEdge> edges = new HashSet<>();
+            for (int e = compact.firstEdge(index); e < compact.lastEdge(index); e++) {
+                edges.add(compact.edge(e));
+                assertEquals("incorrect target", compact.edge(e).dst(),
+                             compact.vertex(compact.target(e)));
+            }
+            assertEquals("incorrect egress edges", graph.getEdgesFrom(vertex), edges);
+        }
+        assertEquals("unknown vertex should have no index", -1, compact.index(Z));
+    }
+
+    @Test
+    public void fatTreeDijkstra() {
+        // Uniform weights yield many equal-cost paths between edge switches.
+        graph = fatTree(4, new Random(0), 1);
+        compareDijkstra(graph, ALL_PATHS);
+        compareDijkstra(graph, 1);
+    }
+
+    @Test
+    public void weightedDijkstra() {
+        graph = fatTree(6, new Random(42), 5);
+        compareDijkstra(graph, ALL_PATHS);
+    }
+
+    @Test
+    public void nonScalarWeights() {
+        // Weights other than scalar ones fall back to the generic search.
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        DijkstraGraphSearch<TestVertex, TestEdge> search = new DijkstraGraphSearch<>();
+        assertEquals("incorrect paths",
+                     search.search(graph, A, H, weigher, ALL_PATHS).paths(),
+                     search.search(CompactGraph.copyOf(graph), A, H, weigher, ALL_PATHS).paths());
+    }
+
+    @Test
+    public void breadthFirst() {
+        graph = fatTree(4, new Random(0), 1);
+        CompactGraph<TestVertex, TestEdge> compact = CompactGraph.copyOf(graph);
+        BreadthFirstSearch<TestVertex, TestEdge> search = new BreadthFirstSearch<>();
+        for (TestVertex src : graph.getVertexes()) {
+            assertEquals("incorrect costs",
+                         search.search(graph, src, null, null, 1).costs(),
+                         search.search(compact, src, null, null, 1).costs());
+        }
+    }
+
+    // Compares the results of searches between all vertexes of the regular
+    // and the compact graph.
+    private void compareDijkstra(Graph<TestVertex, TestEdge> graph, int maxPaths) {
+        CompactGraph<TestVertex, TestEdge> compact = CompactGraph.copyOf(graph);
+        DijkstraGraphSearch<TestVertex, TestEdge> search = new DijkstraGraphSearch<>();
+        for (TestVertex src : graph.getVertexes()) {
+            GraphPathSearch.Result<TestVertex, TestEdge> expected =
+                    search.search(graph, src, null, scalarWeigher, maxPaths);
+            GraphPathSearch.Result<TestVertex, TestEdge> actual =
+                    search.search(compact, src, null, scalarWeigher, maxPaths);
+            assertEquals("incorrect costs", expected.costs(), actual.costs());
+            if (maxPaths == ALL_PATHS) {
+                assertEquals("incorrect parents", expected.parents(), actual.parents());
+                assertEquals("incorrect paths", expected.paths(), actual.paths());
+            } else {
+                assertEquals("incorrect path count", expected.paths().size(), actual.paths().size());
+            }
+
+            for (TestVertex dst : graph.getVertexes()) {
+                assertEquals("incorrect paths",
+                             search.search(graph, src, dst, scalarWeigher, ALL_PATHS).paths(),
+                             search.search(compact, src, dst, scalarWeigher, ALL_PATHS).paths());
+            }
+        }
+    }
+
+    // Creates a k-ary fat-tree of switches with bidirectional links of random
+    // scalar weights between 1 and the given maximum.
+    private Graph<TestVertex, TestEdge> fatTree(int k, Random random, int maxWeight) {
+        ImmutableSet.Builder<TestVertex> vertexes = ImmutableSet.builder();
+        ImmutableSet.Builder<TestEdge> edges = ImmutableSet.builder();
+        TestVertex[] cores = new TestVertex[k * k / 4];
+        for (int c = 0; c < cores.length; c++) {
+            cores[c] = new TestVertex("core" + c);
+            vertexes.add(cores[c]);
+        }
+        for (int p = 0; p < k; p++) {
+            TestVertex[] aggs = new TestVertex[k / 2];
+            for (int a = 0; a < k / 2; a++) {
+                aggs[a] = new TestVertex("agg" + p + "-" + a);
+                vertexes.add(aggs[a]);
+                for (int c = a * k / 2; c < (a + 1) * k / 2; c++) {
+                    link(edges, aggs[a], cores[c], random, maxWeight);
+                }
+            }
+            for (int e = 0; e < k / 2; e++) {
+                TestVertex tor = new TestVertex("edge" + p + "-" + e);
+                vertexes.add(tor);
+                for (TestVertex agg : aggs) {
+                    link(edges, tor, agg, random, maxWeight);
+                }
+            }
+        }
+        return new AdjacencyListsGraph<>(vertexes.build(), edges.build());
+    }
+
+    private void link(ImmutableSet.Builder<TestEdge> edges, TestVertex v1, TestVertex v2,
+                      Random random, int maxWeight) {
+        edges.add(new TestEdge(v1, v2, new ScalarWeight(1 + random.nextInt(maxWeight))));
+        edges.add(new TestEdge(v2, v1, new ScalarWeight(1 + random.nextInt(maxWeight))));
+    }
+}
@@ -124,4 +124,20 @@ public class TarjanGraphSearchTest extends GraphTest {
         validate(result, 1, 4, 4);
     }
 
+    @Test
+    public void restrictedToRegion() {
+        graph = new AdjacencyListsGraph<>(vertexes(),
+                                          of(new TestEdge(A, B),
+                                             new TestEdge(B, C),
+                                             new TestEdge(C, A),
+                                             new TestEdge(C, D),
+                                             new TestEdge(D, C),
+                                             new TestEdge(E, F),
+                                             new TestEdge(F, E)));
+        TarjanGraphSearch<TestVertex, TestEdge> gs = new TarjanGraphSearch<>();
+        SccResult<TestVertex, TestEdge> result = gs.search(graph, null, of(A, B, C));
+        validate(result, 1);
+        validate(result, 0, 3, 3);
+    }
+
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018-present Open Networking Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Unit tests for KryoNamespace.
+ */
+public class KryoNamespaceTest {
+
+    private static final KryoNamespace NAMESPACE = KryoNamespace.newBuilder()
+            .register(String.class, ArrayList.class)
+            .register(new WrapperSerializer(), Wrapper.class)
+            .build("test");
+
+    /**
+     * Value serialized by a serializer that calls back into the namespace.
+     */
+    private static final class Wrapper {
+        private final String value;
+
+        private Wrapper(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Wrapper && Objects.equals(value, ((Wrapper) obj).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(value);
+        }
+    }
+
+    private static final class WrapperSerializer extends Serializer<Wrapper> {
+        @Override
+        public void write(Kryo kryo, Output output, Wrapper object) {
+            byte[] bytes = NAMESPACE.serialize(object.value);
+            output.writeInt(bytes.length);
+            output.writeBytes(bytes);
+        }
+
+        @Override
+        public Wrapper read(Kryo kryo, Input input, Class<Wrapper> type) {
+            byte[] bytes = input.readBytes(input.readInt());
+            return new Wrapper(NAMESPACE.deserialize(bytes));
+        }
+    }
+
+    /**
+     * Tests serialization of small and large objects with reused buffers.
+     */
+    @Test
+    public void testRoundTrip() {
+        assertThat(NAMESPACE.deserialize(NAMESPACE.serialize("foo")), is("foo"));
+
+        List<String> large = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            large.add(Strings.repeat("x", 100) + i);
+        }
+        byte[] bytes = NAMESPACE.serialize(large);
+        assertThat(bytes.length > KryoNamespace.MAX_RETAINED_BUFFER_SIZE, is(true));
+        assertThat(NAMESPACE.deserialize(bytes), is(large));
+
+        assertThat(NAMESPACE.deserialize(NAMESPACE.serialize("bar")), is("bar"));
+    }
+
+    /**
+     * Tests that serializers may call back into the namespace.
+     */
+    @Test
+    public void testNested() {
+        Wrapper wrapper = new Wrapper("foo");
+        assertThat(NAMESPACE.deserialize(NAMESPACE.serialize(wrapper)), is(wrapper));
+    }
+
+    /**
+     * Tests that the serialized size matches the serialized bytes.
+     */
+    @Test
+    public void testSerializedSize() {
+        Wrapper wrapper = new Wrapper(Strings.repeat("x", 5000));
+        int size = NAMESPACE.serializedSize(wrapper);
+        assertThat(size, is(NAMESPACE.serialize(wrapper).length));
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        NAMESPACE.serialize(wrapper, buffer);
+        assertThat(buffer.position(), is(size));
+        buffer.flip();
+        assertThat(NAMESPACE.deserialize(buffer), is(wrapper));
+    }
+
+    /**
+     * Tests that each thread reuses its own Kryo instance, while borrowed
+     * instances come from the pool.
+     */
+    @Test
+    public void testThreadAffinity() throws Exception {
+        Kryo kryo = NAMESPACE.run(k -> k);
+        assertThat(NAMESPACE.run(k -> k), sameInstance(kryo));
+        assertThat(NAMESPACE.run(k -> NAMESPACE.run(nested -> nested)), not(sameInstance(kryo)));
+
+        // borrowed instances may be released on another thread
+        Kryo borrowed = NAMESPACE.borrow();
+        assertThat(borrowed, not(sameInstance(kryo)));
+        Thread releaser = new Thread(() -> NAMESPACE.release(borrowed));
+        releaser.start();
+        releaser.join();
+        assertThat(NAMESPACE.run(k -> k), sameInstance(kryo));
+
+        Kryo[] other = new Kryo[1];
+        Thread thread = new Thread(() -> other[0] = NAMESPACE.run(k -> k));
+        thread.start();
+        thread.join();
+        assertThat(other[0], not(sameInstance(kryo)));
+    }
+}